@@ -0,0 +1,122 @@
+package ba.root.weather.service;
+
+import ba.root.weather.config.AnalysisProperties;
+import ba.root.weather.entity.AccuracyScore;
+import ba.root.weather.entity.DailyActualWeather;
+import ba.root.weather.entity.ForecastData;
+import ba.root.weather.entity.Weather;
+import ba.root.weather.repository.AccuracyScoreRepository;
+import ba.root.weather.repository.AccuracyScoringRepository;
+import ba.root.weather.repository.BulkInsertRepository;
+import ba.root.weather.repository.DailyActualWeatherRepository;
+import ba.root.weather.repository.ForecastCursorRepository;
+import ba.root.weather.repository.ForecastDataRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores one day of synthetic forecasts against synthetic daily observation aggregates with
+ * {@link AccuracyAnalysisService#analyzeAccuracyForDate}, which covers grouping the forecasts, checking
+ * completeness and scoring every forecast. The repositories are in-memory stand-ins
+ * that return pre-built lists, so only the Java side of the analysis is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AccuracyAnalysisBenchmark {
+
+    private static final String[] PROVIDERS = {"YR.NO", "OpenWeatherMap", "AccuWeather"};
+    private static final Weather[] WEATHERS = Weather.values();
+    private static final ZoneId SARAJEVO_ZONE = ZoneId.of("Europe/Sarajevo");
+
+    @Param({"10", "100"})
+    private int cities;
+
+    /**
+     * Forecasts fetched per provider and city for the target date: four cycles a day over a week
+     */
+    @Param({"28"})
+    private int fetchesPerCity;
+
+    private final LocalDate targetDate = LocalDate.of(2025, 8, 4);
+    private AccuracyAnalysisService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        Instant startOfDay = targetDate.atStartOfDay(SARAJEVO_ZONE).toInstant();
+
+        List<ForecastData> forecasts = new ArrayList<>();
+        List<DailyActualWeather> observations = new ArrayList<>();
+        long id = 1;
+        for (int c = 0; c < cities; c++) {
+            String city = "City" + c;
+            for (String provider : PROVIDERS) {
+                for (int f = 1; f <= fetchesPerCity; f++) {
+                    double min = random.nextDouble(5, 20);
+                    ForecastData forecast = new ForecastData(provider, city, startOfDay.minus(6L * f, ChronoUnit.HOURS),
+                            targetDate, min, min + random.nextDouble(2, 12), WEATHERS[random.nextInt(WEATHERS.length)]);
+                    forecast.setId(id++);
+                    forecasts.add(forecast);
+                }
+            }
+            double min = random.nextDouble(5, 15);
+            observations.add(new DailyActualWeather(city, targetDate, min, min + random.nextDouble(5, 15),
+                    random.nextInt(3) == 0, 24, WEATHERS[random.nextInt(WEATHERS.length)],
+                    startOfDay.plus(23, ChronoUnit.HOURS).plus(30, ChronoUnit.MINUTES), (1L << 24) - 1));
+        }
+
+        ForecastDataRepository forecastRepository = stub(ForecastDataRepository.class, "findByTargetDate", forecasts);
+        DailyActualWeatherRepository dailyRepository = stub(DailyActualWeatherRepository.class, "findByLocalDate",
+                observations);
+        AccuracyScoreRepository scoreRepository = stub(AccuracyScoreRepository.class, "", null);
+        BulkInsertRepository bulkInsertRepository = new BulkInsertRepository(new JdbcTemplate()) {
+            @Override
+            public int insertAccuracyScores(Collection<AccuracyScore> scores, int batchSize) {
+                return scores.size();
+            }
+        };
+        service = new AccuracyAnalysisService(forecastRepository, dailyRepository, scoreRepository, bulkInsertRepository,
+                new AccuracyScoringRepository(new JdbcTemplate()), new ForecastCursorRepository(new JdbcTemplate()),
+                new AnalysisProperties());
+    }
+
+    @Benchmark
+    public int analyzeAccuracyForDate() {
+        return service.analyzeAccuracyForDate(targetDate);
+    }
+
+    /**
+     * A repository that answers {@code methodName} with {@code result} and every other call with null
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> repository, String methodName, Object result) {
+        return (T) Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository},
+                (proxy, method, args) -> method.getName().equals(methodName) ? result : null);
+    }
+}
@@ -0,0 +1,113 @@
+package ba.root.weather.service.metar;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes METAR reports with {@link MetarDecoder} the way the collector does for every station in a batch.
+ * Each invocation decodes {@link #OBSERVATIONS} observations: the one in
+ * docs/samples/responses/metar_sample_response.json plus typical reports.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MetarBenchmark {
+
+    private static final int OBSERVATIONS = 16;
+
+    /**
+     * wxString and rawOb pairs; a null wxString means no significant weather was reported
+     */
+    private static final String[][] TYPICAL = {
+            {null, "LQMO 041130Z 17008KT CAVOK 31/14 Q1016 NOSIG"},
+            {"-RA", "LDZA 041130Z 22006KT 9999 -RA SCT025 BKN060 18/15 Q1014 NOSIG"},
+            {"TSRA", "LYBE 041130Z 29012G25KT 6000 TSRA FEW030CB BKN045 22/18 Q1011 BECMG NSW"},
+            {"+SHRA", "LJLJ 041130Z 25010KT 4000 +SHRA BKN020CB OVC060 16/14 Q1013"},
+            {"BR", "LQBK 040600Z 00000KT 3000 BR OVC005 12/12 Q1020"},
+            {"-SN", "LOWW 041130Z 32012KT 5000 -SN SCT010 BKN025 M01/M03 Q1021"},
+            {"FG", "LQTZ 040500Z VRB01KT 0300 FG VV001 09/09 Q1022"},
+            {null, "LDSP 041130Z 13009KT 9999 FEW040 28/17 Q1015 NOSIG"},
+            {"-DZ", "LWSK 041130Z 34005KT 8000 -DZ BKN012 OVC030 15/13 Q1017"},
+            {"HZ", "LGTS 041130Z 18004KT 5000 HZ NSC 33/16 Q1009"},
+            {null, "LYPG 041130Z 16015KT 9999 SCT030 BKN070 26/15 Q1012"},
+            {"VCSH", "LDDU 041130Z 14012KT 9999 VCSH FEW025CB SCT040 24/18 Q1014"},
+            {"+TSRAGR", "LHBP 041130Z 27020G35KT 1500 +TSRAGR BKN008CB OVC020 17/16 Q1008"},
+            {"RASN", "LZIB 041130Z 33014KT 3000 RASN OVC008 02/01 Q1019"},
+            {null, "LKPR 041130Z 24008KT 9999 OVC015 14/09 Q1018"},
+    };
+
+    private final List<String> wxStrings = new ArrayList<>(OBSERVATIONS);
+    private final List<String> rawObs = new ArrayList<>(OBSERVATIONS);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        JsonNode sample = new ObjectMapper().readTree(Path.of("docs/samples/responses/metar_sample_response.json").toFile());
+        for (JsonNode station : sample) {
+            wxStrings.add(station.hasNonNull("wxString") ? station.get("wxString").asText() : null);
+            rawObs.add(station.get("rawOb").asText());
+        }
+        for (String[] observation : TYPICAL) {
+            wxStrings.add(observation[0]);
+            rawObs.add(observation[1]);
+        }
+        if (wxStrings.size() != OBSERVATIONS) {
+            throw new IllegalStateException("Expected " + OBSERVATIONS + " observations, found " + wxStrings.size());
+        }
+    }
+
+    /**
+     * Decodes every observation the way the collector does: the raw report, the separately reported
+     * present weather, then the classification and precipitation estimate
+     */
+    @Benchmark
+    @OperationsPerInvocation(OBSERVATIONS)
+    public void decodeAndClassify(Blackhole blackhole) {
+        for (int i = 0; i < OBSERVATIONS; i++) {
+            MetarObservation observation = MetarDecoder.decode(rawObs.get(i));
+            String wxString = wxStrings.get(i);
+            if (wxString != null) {
+                observation = observation.withWeather(MetarDecoder.decodeWeather(wxString));
+            }
+            blackhole.consume(observation.weatherType());
+            blackhole.consume(observation.estimatedPrecipitation());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OBSERVATIONS)
+    public void decode(Blackhole blackhole) {
+        for (int i = 0; i < OBSERVATIONS; i++) {
+            blackhole.consume(MetarDecoder.decode(rawObs.get(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OBSERVATIONS)
+    public void decodeWeather(Blackhole blackhole) {
+        for (int i = 0; i < OBSERVATIONS; i++) {
+            blackhole.consume(MetarDecoder.decodeWeather(wxStrings.get(i)));
+        }
+    }
+}
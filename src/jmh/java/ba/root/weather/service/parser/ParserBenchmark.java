@@ -0,0 +1,73 @@
+package ba.root.weather.service.parser;
+
+import ba.root.weather.entity.ForecastData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the sample payloads in docs/samples/responses with each provider's parser,
+ * from a String and from a stream.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    private static final Map<String, String> SAMPLES = Map.of(
+            "YR.NO", "yr_no_sample_response.json",
+            "OpenWeatherMap", "openweathermap_sample_response.json",
+            "AccuWeather", "accuweather_sample_response.json");
+
+    @Param({"YR.NO", "OpenWeatherMap", "AccuWeather"})
+    private String provider;
+
+    private WeatherDataParser parser;
+    private String payload;
+    private byte[] payloadBytes;
+    private Instant fetchTimestamp;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        parser = new WeatherDataParserFactory(List.of(
+                new YrNoParser(objectMapper),
+                new OpenWeatherMapParser(objectMapper),
+                new AccuWeatherParser(objectMapper))).getParser(provider);
+        payloadBytes = Files.readAllBytes(Path.of("docs/samples/responses", SAMPLES.get(provider)));
+        payload = new String(payloadBytes, StandardCharsets.UTF_8);
+        fetchTimestamp = Instant.parse("2025-08-04T12:00:00Z");
+    }
+
+    @Benchmark
+    public List<ForecastData> parseString() {
+        return parser.parseForecastResponse("Sarajevo", payload, fetchTimestamp);
+    }
+
+    @Benchmark
+    public List<ForecastData> parseStream() {
+        return parser.parseForecastResponse("Sarajevo", new ByteArrayInputStream(payloadBytes), fetchTimestamp);
+    }
+}
@@ -0,0 +1,61 @@
+package ba.root.weather.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The METAR source from config.json. Its URL has a single {@code {}} placeholder for a comma separated list of station codes.
+ */
+public record ActualWeatherSourceConfig(String name, String url) {
+
+    public String url(Collection<String> icaoCodes) {
+        return url.replace("{}", String.join(",", icaoCodes));
+    }
+
+    /**
+     * Request URL for every report the stations issued in the last {@code hours} hours, not only the latest one
+     *
+     * @param hours Hours to look back, or 0 for only the latest report of each station
+     */
+    public String url(Collection<String> icaoCodes, int hours) {
+        String stationsUrl = url(icaoCodes);
+        if (hours <= 0) {
+            return stationsUrl;
+        }
+        return stationsUrl + (stationsUrl.contains("?") ? "&" : "?") + "hours=" + hours;
+    }
+
+    /**
+     * Characters {@link #url(Collection, int)} adds for the lookback parameter
+     */
+    public static int hoursParameterLength(int hours) {
+        return hours > 0 ? ("&hours=" + hours).length() : 0;
+    }
+
+    /**
+     * Splits station codes into groups that each fit in one request: at most {@code maxStations} codes
+     * and a URL of at most {@code maxUrlLength} characters
+     */
+    public List<List<String>> chunk(Collection<String> icaoCodes, int maxStations, int maxUrlLength) {
+        int baseLength = url.length() - "{}".length();
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> chunk = new ArrayList<>();
+        int length = baseLength;
+        for (String icaoCode : icaoCodes) {
+            int added = chunk.isEmpty() ? icaoCode.length() : icaoCode.length() + 1;
+            if (!chunk.isEmpty() && (chunk.size() >= maxStations || length + added > maxUrlLength)) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                length = baseLength;
+                added = icaoCode.length();
+            }
+            chunk.add(icaoCode);
+            length += added;
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,83 @@
+package ba.root.weather.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the forecast accuracy analysis, bound from {@code weather.analysis.*}
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "weather.analysis")
+public class AnalysisProperties {
+
+    /**
+     * Where accuracy scores are computed
+     */
+    private Engine engine = Engine.JAVA;
+
+    /**
+     * Whether scores written by the SQL engine are recomputed in Java and compared, logging any difference
+     */
+    private boolean verify = false;
+
+    private Backfill backfill = new Backfill();
+
+    private Completeness completeness = new Completeness();
+
+    private Streaming streaming = new Streaming();
+
+    public enum Engine {
+        /**
+         * Forecasts and observations are loaded as entities and scored in the application
+         */
+        JAVA,
+        /**
+         * Aggregation and scoring run inside PostgreSQL as one INSERT ... SELECT statement
+         */
+        SQL,
+        /**
+         * Forecasts are read through a database cursor in provider, city and fetch order and scored in a single
+         * pass, so memory does not grow with the number of providers, cities or fetches
+         */
+        STREAMING
+    }
+
+    @Data
+    public static class Backfill {
+        /**
+         * Number of days scored at the same time, each in its own transaction
+         */
+        private int parallelism = 4;
+    }
+
+    /**
+     * When a day has enough observations per city to be scored, judged on its hourly coverage
+     */
+    @Data
+    public static class Completeness {
+        /**
+         * Fraction of the hours of the local day that need at least one observation
+         */
+        private double minCoverage = 0.9;
+
+        /**
+         * Whether the last hour of the day needs an observation, so a day is not scored before it is over
+         */
+        private boolean requireLastHour = true;
+    }
+
+    @Data
+    public static class Streaming {
+        /**
+         * Forecast rows fetched from the cursor per round trip
+         */
+        private int fetchSize = 500;
+
+        /**
+         * Scores buffered before they are written in one JDBC batch
+         */
+        private int batchSize = 1000;
+    }
+}
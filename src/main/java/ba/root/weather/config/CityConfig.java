@@ -0,0 +1,16 @@
+package ba.root.weather.config;
+
+import java.util.Map;
+
+/**
+ * A city from config.json
+ *
+ * @param name City name, used as the key for all stored data
+ * @param latitude Latitude in degrees
+ * @param longitude Longitude in degrees
+ * @param icaoCode ICAO code of the METAR station reporting actual weather for this city, may be null
+ * @param parameters All scalar fields of the city entry as text, for URL placeholders
+ */
+public record CityConfig(String name, double latitude, double longitude, String icaoCode,
+                         Map<String, String> parameters) {
+}
@@ -0,0 +1,36 @@
+package ba.root.weather.config;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, typed snapshot of config.json with indexed lookups.
+ * A new snapshot is built on every reload, so a collection cycle that holds on to one always sees a consistent configuration.
+ */
+public record CollectorConfig(List<CityConfig> cities,
+                              List<ProviderConfig> providers,
+                              ActualWeatherSourceConfig actualWeatherSource,
+                              Map<String, CityConfig> citiesByName,
+                              Map<String, ProviderConfig> providersByName,
+                              Map<String, StationConfig> stationsByIcao) {
+
+    public CityConfig city(String name) {
+        return citiesByName.get(name);
+    }
+
+    /**
+     * @return The station with the given ICAO code, or null if no city is linked to it
+     */
+    public StationConfig station(String icaoCode) {
+        return stationsByIcao.get(icaoCode);
+    }
+
+    public Collection<StationConfig> stations() {
+        return stationsByIcao.values();
+    }
+
+    public ProviderConfig provider(String name) {
+        return providersByName.get(name);
+    }
+}
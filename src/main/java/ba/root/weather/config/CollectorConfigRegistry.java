@@ -0,0 +1,256 @@
+package ba.root.weather.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link CollectorConfig}, parsed once from {@code weather.collector.config-location}.
+ * When the configuration is a file on disk it is watched and swapped atomically on change;
+ * a configuration that fails to load is logged and the previous one is kept.
+ */
+@Component
+public class CollectorConfigRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(CollectorConfigRegistry.class);
+
+    // Environment variables that take precedence over the apiKey in config.json
+    private static final Map<String, String> API_KEY_ENVIRONMENT = Map.of(
+            "AccuWeather", "ACCUWEATHER_API_KEY",
+            "OpenWeatherMap", "OPENWEATHERMAP_API_KEY"
+    );
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final CollectorProperties properties;
+    private final AtomicReference<CollectorConfig> current = new AtomicReference<>();
+
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    public CollectorConfigRegistry(ResourceLoader resourceLoader, ObjectMapper objectMapper,
+                                   CollectorProperties properties) {
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            reload();
+        } catch (IOException e) {
+            logger.error("Error loading collector configuration from {}", properties.getConfigLocation(), e);
+        }
+        if (properties.isWatchConfig()) {
+            startWatcher();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+        }
+    }
+
+    /**
+     * Returns the current configuration, loading it first if that has not happened yet
+     *
+     * @throws IOException if there is no configuration and it cannot be loaded
+     */
+    public CollectorConfig current() throws IOException {
+        CollectorConfig config = current.get();
+        return config != null ? config : reload();
+    }
+
+    /**
+     * Re-reads and re-indexes the configuration and makes it current
+     */
+    public synchronized CollectorConfig reload() throws IOException {
+        Resource resource = resourceLoader.getResource(properties.getConfigLocation());
+        try (InputStream inputStream = resource.getInputStream()) {
+            CollectorConfig config = parse(objectMapper.readTree(inputStream));
+            current.set(config);
+            logger.info("Loaded collector configuration with {} cities, {} providers and {} stations",
+                    config.cities().size(), config.providers().size(), config.stationsByIcao().size());
+            return config;
+        }
+    }
+
+    private CollectorConfig parse(JsonNode root) throws IOException {
+        List<CityConfig> cities = new ArrayList<>();
+        Map<String, CityConfig> citiesByName = new HashMap<>();
+        Map<String, List<CityConfig>> citiesByIcao = new LinkedHashMap<>();
+        for (JsonNode cityNode : nodes(root, "cities")) {
+            CityConfig city = new CityConfig(
+                    requiredText(cityNode, "name"),
+                    cityNode.path("latitude").asDouble(),
+                    cityNode.path("longitude").asDouble(),
+                    cityNode.hasNonNull("icao_code") ? cityNode.get("icao_code").asText() : null,
+                    scalarFields(cityNode)
+            );
+            cities.add(city);
+            citiesByName.put(city.name(), city);
+            if (city.icaoCode() != null) {
+                citiesByIcao.computeIfAbsent(city.icaoCode(), code -> new ArrayList<>()).add(city);
+            }
+        }
+
+        Map<String, StationConfig> stationsByIcao = new LinkedHashMap<>();
+        citiesByIcao.forEach((icaoCode, stationCities) ->
+                stationsByIcao.put(icaoCode, new StationConfig(icaoCode, List.copyOf(stationCities))));
+
+        List<ProviderConfig> providers = new ArrayList<>();
+        Map<String, ProviderConfig> providersByName = new HashMap<>();
+        for (JsonNode providerNode : nodes(root, "providers")) {
+            ProviderConfig provider = parseProvider(providerNode);
+            providers.add(provider);
+            providersByName.put(provider.name(), provider);
+        }
+
+        ActualWeatherSourceConfig actualWeatherSource = null;
+        JsonNode sourceNode = root.get("actualWeatherSource");
+        if (sourceNode != null) {
+            actualWeatherSource = new ActualWeatherSourceConfig(
+                    sourceNode.path("name").asText(), requiredText(sourceNode, "url"));
+        }
+
+        return new CollectorConfig(
+                List.copyOf(cities),
+                List.copyOf(providers),
+                actualWeatherSource,
+                Map.copyOf(citiesByName),
+                Map.copyOf(providersByName),
+                Collections.unmodifiableMap(stationsByIcao)
+        );
+    }
+
+    private ProviderConfig parseProvider(JsonNode providerNode) throws IOException {
+        String name = requiredText(providerNode, "name");
+        Map<String, String> parameters = new HashMap<>(scalarFields(providerNode));
+        UrlTemplate forecastUrl = UrlTemplate.compile(requiredText(providerNode, "url"));
+        UrlTemplate locationUrl = providerNode.hasNonNull("locationUrl")
+                ? UrlTemplate.compile(providerNode.get("locationUrl").asText())
+                : null;
+
+        // Resolve the API key once and bake it into the templates
+        if (forecastUrl.hasParameter("apiKey") || (locationUrl != null && locationUrl.hasParameter("apiKey"))) {
+            String apiKey = API_KEY_ENVIRONMENT.containsKey(name) ? System.getenv(API_KEY_ENVIRONMENT.get(name)) : null;
+            if (apiKey == null || apiKey.isEmpty()) {
+                logger.warn("Environment variable for {} apiKey not set. Falling back to config.json.", name);
+                apiKey = parameters.get("apiKey");
+            }
+            if (apiKey != null) {
+                Map<String, String> bound = Map.of("apiKey", apiKey);
+                forecastUrl = forecastUrl.bind(bound);
+                locationUrl = locationUrl != null ? locationUrl.bind(bound) : null;
+            }
+        }
+        // Keep secrets out of the generic parameter map
+        parameters.remove("apiKey");
+
+        return new ProviderConfig(
+                name,
+                providerNode.path("enabled").asBoolean(true),
+                forecastUrl,
+                locationUrl,
+                Map.copyOf(parameters)
+        );
+    }
+
+    private void startWatcher() {
+        Path file;
+        try {
+            Resource resource = resourceLoader.getResource(properties.getConfigLocation());
+            if (!resource.isFile()) {
+                logger.info("Collector configuration {} is not a file, hot reload disabled", properties.getConfigLocation());
+                return;
+            }
+            file = resource.getFile().toPath().toAbsolutePath();
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        } catch (IOException e) {
+            logger.error("Could not watch collector configuration {}", properties.getConfigLocation(), e);
+            return;
+        }
+
+        watcherThread = Thread.ofPlatform().daemon().name("collector-config-watcher").start(() -> watch(file));
+        logger.info("Watching {} for changes", file);
+    }
+
+    private void watch(Path file) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (file.getFileName().equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (Exception e) {
+                        logger.error("Error reloading collector configuration, keeping the previous one", e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    private static Iterable<JsonNode> nodes(JsonNode root, String field) {
+        JsonNode node = root.get(field);
+        return node != null && node.isArray() ? node : List.of();
+    }
+
+    private static String requiredText(JsonNode node, String field) throws IOException {
+        if (!node.hasNonNull(field)) {
+            throw new IOException("Missing '" + field + "' in collector configuration entry: " + node);
+        }
+        return node.get(field).asText();
+    }
+
+    private static Map<String, String> scalarFields(JsonNode node) {
+        Map<String, String> fields = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> iterator = node.fields();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JsonNode> field = iterator.next();
+            if (field.getValue().isValueNode() && !field.getValue().isNull()) {
+                fields.put(field.getKey(), field.getValue().asText());
+            }
+        }
+        return Map.copyOf(fields);
+    }
+}
@@ -0,0 +1,340 @@
+package ba.root.weather.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the forecast and actual weather collectors, bound from {@code weather.collector.*}
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "weather.collector")
+public class CollectorProperties {
+
+    /**
+     * How a forecast collection cycle walks the provider × city matrix
+     */
+    private Mode mode = Mode.SEQUENTIAL;
+
+    /**
+     * Where config.json is read from; a file: location is watched and reloaded on change
+     */
+    private String configLocation = "classpath:static/config.json";
+
+    /**
+     * Whether to reload the configuration when the file changes
+     */
+    private boolean watchConfig = true;
+
+    /**
+     * Hard deadline for a whole collection cycle in the concurrent and reactive modes;
+     * requests still running after it are cancelled
+     */
+    private Duration cycleDeadline = Duration.ofMinutes(5);
+
+    /**
+     * When forecast collection cycles run
+     */
+    private String forecastCron = "0 0 */6 * * *";
+
+    private Concurrent concurrent = new Concurrent();
+
+    private Reactive reactive = new Reactive();
+
+    private Pipeline pipeline = new Pipeline();
+
+    private LocationKeys locationKeys = new LocationKeys();
+
+    private Conditional conditional = new Conditional();
+
+    private Archive archive = new Archive();
+
+    private Metar metar = new Metar();
+
+    private Resilience resilience = new Resilience();
+
+    private Quota quota = new Quota();
+
+    private Coalesce coalesce = new Coalesce();
+
+    public enum Mode {
+        /**
+         * One request after another on the scheduler thread
+         */
+        SEQUENTIAL,
+        /**
+         * Every provider × city request on its own virtual thread
+         */
+        CONCURRENT,
+        /**
+         * Non-blocking WebClient requests for forecasts and METAR, only parsing and persistence use worker threads
+         */
+        REACTIVE,
+        /**
+         * Separate fetch, parse and write stages connected by bounded queues
+         */
+        PIPELINE
+    }
+
+    @Data
+    public static class Concurrent {
+        /**
+         * Maximum number of in-flight requests per provider, unless overridden in {@link #providerLimits}
+         */
+        private int maxPerProvider = 4;
+
+        /**
+         * Per-provider overrides of {@link #maxPerProvider}, keyed by provider name from config.json
+         */
+        private Map<String, Integer> providerLimits = new HashMap<>();
+
+        public int limitFor(String providerName) {
+            return providerLimits.getOrDefault(providerName, maxPerProvider);
+        }
+    }
+
+    @Data
+    public static class Reactive {
+        /**
+         * Maximum number of in-flight requests per provider
+         */
+        private int maxInFlightPerProvider = 64;
+
+        /**
+         * Size of the shared HTTP connection pool
+         */
+        private int maxConnections = 500;
+
+        /**
+         * Time allowed for a provider to start answering a single request
+         */
+        private Duration responseTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Largest response body that is buffered for parsing
+         */
+        private DataSize maxResponseSize = DataSize.ofMegabytes(2);
+
+        /**
+         * How many times a failed request is retried (connection errors, timeouts, 429 and 5xx responses)
+         */
+        private int maxRetries = 2;
+
+        /**
+         * Initial backoff between retries, doubled on every attempt
+         */
+        private Duration retryBackoff = Duration.ofSeconds(1);
+
+        /**
+         * Random jitter applied to each backoff, as a fraction of the backoff (0 - 1)
+         */
+        private double retryJitter = 0.5;
+    }
+
+    @Data
+    public static class Pipeline {
+        /**
+         * Parser threads; 0 uses one per available processor. Fetch limits per provider come from {@link Concurrent}
+         */
+        private int parseThreads = 0;
+
+        /**
+         * Fetched response bodies that may wait for a parser
+         */
+        private int parseQueueCapacity = 64;
+
+        /**
+         * Parsed provider/city forecasts that may wait for the writer
+         */
+        private int writeQueueCapacity = 256;
+
+        /**
+         * Most provider/city forecasts stored in one transaction
+         */
+        private int writeBatchCities = 50;
+    }
+
+    @Data
+    public static class LocationKeys {
+        /**
+         * How long a resolved location key is used before it is looked up again
+         */
+        private Duration ttl = Duration.ofDays(30);
+
+        /**
+         * Keys expiring within this window are refreshed in the background
+         */
+        private Duration refreshAhead = Duration.ofDays(3);
+
+        /**
+         * Time between background refreshes of expiring keys
+         */
+        private Duration refreshInterval = Duration.ofHours(6);
+
+        /**
+         * Time after startup before the first background refresh
+         */
+        private Duration refreshInitialDelay = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Conditional {
+        /**
+         * Whether to honour Expires / Cache-Control and send If-None-Match / If-Modified-Since
+         */
+        private boolean enabled = true;
+
+        /**
+         * Upper bound on how long a response is considered fresh, whatever the provider says
+         */
+        private Duration maxFreshness = Duration.ofHours(12);
+    }
+
+    @Data
+    public static class Archive {
+        /**
+         * Whether raw provider responses are archived; forecast bodies are written while they are parsed
+         */
+        private boolean enabled = false;
+
+        /**
+         * Root directory of the compressed, content-addressed blob store. Set an absolute path when enabling
+         * the archive, a relative one resolves against the working directory of the process.
+         */
+        private String directory = "data/raw-responses";
+    }
+
+    @Data
+    public static class Metar {
+        /**
+         * Maximum number of stations in one METAR request
+         */
+        private int maxStationsPerRequest = 400;
+
+        /**
+         * Maximum length of a METAR request URL
+         */
+        private int maxUrlLength = 4000;
+
+        /**
+         * Maximum number of METAR requests in flight
+         */
+        private int maxConcurrentRequests = 8;
+
+        /**
+         * Rows per JDBC insert batch
+         */
+        private int batchSize = 1000;
+
+        /**
+         * Poll every {@link #pollInterval} for all recent reports, SPECI included, instead of the latest report once an hour
+         */
+        private boolean highFrequency = false;
+
+        /**
+         * Time between polls in high-frequency mode
+         */
+        private Duration pollInterval = Duration.ofMinutes(10);
+
+        /**
+         * How far back each high-frequency poll asks for reports, rounded up to whole hours
+         */
+        private Duration lookback = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Resilience {
+        /**
+         * Time allowed to open a connection to a provider (blocking client)
+         */
+        private Duration connectTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Time allowed between response bytes from a provider (blocking client)
+         */
+        private Duration readTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Sustained calls per second per provider, unless overridden in {@link #providerRates}
+         */
+        private double ratePerSecond = 2.0;
+
+        /**
+         * Per-provider overrides of {@link #ratePerSecond}, keyed by provider name from config.json
+         */
+        private Map<String, Double> providerRates = new HashMap<>();
+
+        /**
+         * Calls a provider may receive in a burst before the rate applies
+         */
+        private int burst = 5;
+
+        /**
+         * Longest a call waits for a rate limit token; calls that would wait longer are skipped
+         */
+        private Duration maxTokenWait = Duration.ofSeconds(30);
+
+        /**
+         * Consecutive failures that open a provider's circuit
+         */
+        private int failureThreshold = 5;
+
+        /**
+         * How long an open circuit rejects calls before a trial call is let through
+         */
+        private Duration openDuration = Duration.ofMinutes(2);
+
+        /**
+         * How many times a transient failure (connection error, timeout, 429, 5xx) is retried
+         */
+        private int maxRetries = 2;
+
+        /**
+         * Initial backoff between retries, doubled on every attempt
+         */
+        private Duration retryBackoff = Duration.ofSeconds(1);
+
+        public double rateFor(String providerName) {
+            return providerRates.getOrDefault(providerName, ratePerSecond);
+        }
+    }
+
+    @Data
+    public static class Quota {
+        /**
+         * Calls allowed per day, keyed by provider name from config.json; providers not listed are not limited
+         */
+        private Map<String, Integer> dailyLimits = new HashMap<>();
+
+        /**
+         * Time zone in which the providers' quota days start
+         */
+        private ZoneId zone = ZoneOffset.UTC;
+
+        /**
+         * Time between writes of the call counters of providers with a daily limit
+         */
+        private Duration flushInterval = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Coalesce {
+        /**
+         * Decimals a provider's forecast grid resolves coordinates to, keyed by provider name from config.json.
+         * Cities with the same truncated coordinates share one request; providers not listed are not coalesced.
+         */
+        private Map<String, Integer> coordinateDecimals = new HashMap<>();
+
+        public Integer decimalsFor(String providerName) {
+            return coordinateDecimals.get(providerName);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ba.root.weather.config;
+
+import java.util.Map;
+
+/**
+ * A forecast provider from config.json
+ *
+ * @param name Provider name, matching {@code WeatherDataParser.getProviderName()}
+ * @param enabled Whether forecasts are collected from this provider
+ * @param forecastUrl Forecast URL template with the API key already bound
+ * @param locationUrl Location lookup URL template (AccuWeather only), may be null
+ * @param parameters All scalar fields of the provider entry as text, for URL placeholders
+ */
+public record ProviderConfig(String name, boolean enabled, UrlTemplate forecastUrl, UrlTemplate locationUrl,
+                             Map<String, String> parameters) {
+
+    public String forecastUrl(CityConfig city) {
+        return forecastUrl(city, Map.of());
+    }
+
+    /**
+     * @param extraParameters Values only known at request time, e.g. the AccuWeather location key
+     */
+    public String forecastUrl(CityConfig city, Map<String, String> extraParameters) {
+        return forecastUrl.expand(name -> resolve(name, city, extraParameters));
+    }
+
+    public String locationUrl(CityConfig city) {
+        return locationUrl == null ? null : locationUrl.expand(name -> resolve(name, city, Map.of()));
+    }
+
+    // City values take precedence over request-time values, which take precedence over provider values
+    private String resolve(String name, CityConfig city, Map<String, String> extraParameters) {
+        String value = city.parameters().get(name);
+        if (value == null) {
+            value = extraParameters.get(name);
+        }
+        if (value == null) {
+            value = parameters.get(name);
+        }
+        return value;
+    }
+}
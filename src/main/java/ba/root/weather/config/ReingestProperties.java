@@ -0,0 +1,34 @@
+package ba.root.weather.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the offline re-ingestion of saved provider payloads, bound from {@code weather.reingest.*}
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "weather.reingest")
+public class ReingestProperties {
+
+    /**
+     * Directory tree of saved responses; when set, the payloads are re-parsed on startup
+     */
+    private String directory;
+
+    /**
+     * Number of files parsed in parallel
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Rows per JDBC insert batch
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Whether the application shuts down once re-ingestion has finished
+     */
+    private boolean exitWhenDone = true;
+}
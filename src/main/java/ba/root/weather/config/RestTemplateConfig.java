@@ -3,6 +3,7 @@ package ba.root.weather.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.ArrayList;
@@ -12,8 +13,12 @@ import java.util.List;
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
+    public RestTemplate restTemplate(CollectorProperties properties) {
+        // Without timeouts a hanging provider blocks a collector thread indefinitely
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getResilience().getConnectTimeout());
+        requestFactory.setReadTimeout(properties.getResilience().getReadTimeout());
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
 
         // Add interceptor for handling User-Agent headers
         List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>();
@@ -0,0 +1,9 @@
+package ba.root.weather.config;
+
+import java.util.List;
+
+/**
+ * A METAR station and the cities it reports actual weather for
+ */
+public record StationConfig(String icaoCode, List<CityConfig> cities) {
+}
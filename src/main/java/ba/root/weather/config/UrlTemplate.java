@@ -0,0 +1,112 @@
+package ba.root.weather.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A URL with {@code {name}} placeholders, split into literal and parameter segments once at load time
+ * so that expanding it for a city is a single pass over a pre-sized StringBuilder.
+ * An empty {@code {}} is not a placeholder and stays in the URL as is.
+ */
+public final class UrlTemplate {
+    private static final Logger logger = LoggerFactory.getLogger(UrlTemplate.class);
+
+    private final String template;
+    // literals.length == names.length + 1, the URL is literals[0] + names[0] + literals[1] + ...
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+
+    private UrlTemplate(String template, String[] literals, String[] names) {
+        this.template = template;
+        this.literals = literals;
+        this.names = names;
+        this.literalLength = Arrays.stream(literals).mapToInt(String::length).sum();
+    }
+
+    public static UrlTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            int close = c == '{' ? template.indexOf('}', i + 1) : -1;
+            if (close > i + 1) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                names.add(template.substring(i + 1, close));
+                i = close + 1;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(literal.toString());
+        return new UrlTemplate(template, literals.toArray(String[]::new), names.toArray(String[]::new));
+    }
+
+    /**
+     * Returns a template with the given parameters already filled in; parameters without a value stay open
+     */
+    public UrlTemplate bind(Map<String, String> values) {
+        List<String> boundLiterals = new ArrayList<>();
+        List<String> openNames = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(literals[0]);
+        for (int i = 0; i < names.length; i++) {
+            String value = values.get(names[i]);
+            if (value != null) {
+                literal.append(value);
+            } else {
+                boundLiterals.add(literal.toString());
+                literal.setLength(0);
+                openNames.add(names[i]);
+            }
+            literal.append(literals[i + 1]);
+        }
+        boundLiterals.add(literal.toString());
+        return new UrlTemplate(template, boundLiterals.toArray(String[]::new), openNames.toArray(String[]::new));
+    }
+
+    public boolean hasParameter(String name) {
+        return Arrays.asList(names).contains(name);
+    }
+
+    /**
+     * Names of the open parameters, in URL order
+     */
+    public List<String> parameterNames() {
+        return List.of(names);
+    }
+
+    /**
+     * Fills in all open parameters
+     *
+     * @param resolver Returns the value for a parameter name, or null if there is none
+     * @return The URL, or null if a parameter could not be resolved
+     */
+    public String expand(Function<String, String> resolver) {
+        StringBuilder result = new StringBuilder(literalLength + 16 * names.length);
+        result.append(literals[0]);
+        for (int i = 0; i < names.length; i++) {
+            String value = resolver.apply(names[i]);
+            if (value == null) {
+                logger.error("Parameter '{}' not found in config or environment for URL: {}", names[i], template);
+                return null;
+            }
+            result.append(value).append(literals[i + 1]);
+        }
+        return result.toString();
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+}
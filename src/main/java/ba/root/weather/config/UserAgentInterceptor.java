@@ -6,17 +6,25 @@ import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
 
 import java.io.IOException;
+import java.net.URI;
 
 public class UserAgentInterceptor implements ClientHttpRequestInterceptor {
 
-    private static final String USER_AGENT = "WeatherComparisonApp/0.1 vljubovic@gmail.com";
+    static final String USER_AGENT = "WeatherComparisonApp/0.1 vljubovic@gmail.com";
+
+    /**
+     * YR.NO rejects requests without an identifying User-Agent
+     */
+    static boolean requiresUserAgent(URI uri) {
+        return uri.getHost() != null && uri.getHost().contains("api.met.no");
+    }
 
     @Override
     public ClientHttpResponse intercept(HttpRequest request, byte[] body,
                                         ClientHttpRequestExecution execution) throws IOException {
 
         // Check if the request is for YR.NO API
-        if (request.getURI().getHost().contains("api.met.no")) {
+        if (requiresUserAgent(request.getURI())) {
             // Add User-Agent header for YR.NO
             request.getHeaders().set("User-Agent", USER_AGENT);
         }
@@ -0,0 +1,52 @@
+package ba.root.weather.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+public class WebClientConfig {
+
+    /**
+     * Non-blocking client used by the reactive collector engine.
+     * One shared connection pool serves all providers; per-provider concurrency is bounded by the engine itself.
+     */
+    @Bean
+    public WebClient collectorWebClient(WebClient.Builder builder, CollectorProperties properties) {
+        CollectorProperties.Reactive settings = properties.getReactive();
+
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("weather-collector")
+                .maxConnections(settings.getMaxConnections())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .responseTimeout(settings.getResponseTimeout())
+                .compress(true);
+
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs()
+                        .maxInMemorySize((int) settings.getMaxResponseSize().toBytes()))
+                .filter(userAgentFilter())
+                .build();
+    }
+
+    // Same rule as UserAgentInterceptor, for WebClient requests
+    private static ExchangeFilterFunction userAgentFilter() {
+        return ExchangeFilterFunction.ofRequestProcessor(request -> {
+            if (UserAgentInterceptor.requiresUserAgent(request.url())) {
+                return Mono.just(ClientRequest.from(request)
+                        .header(HttpHeaders.USER_AGENT, UserAgentInterceptor.USER_AGENT)
+                        .build());
+            }
+            return Mono.just(request);
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package ba.root.weather.controller;
+
+import ba.root.weather.dto.BackfillStatusDto;
+import ba.root.weather.service.ScoringScope;
+import ba.root.weather.service.backfill.AccuracyBackfillService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/v1/admin/backfill")
+@Tag(name = "Accuracy Backfill", description = "Endpoints for re-scoring the forecast accuracy of a date range")
+public class AccuracyBackfillController {
+
+    private final AccuracyBackfillService backfillService;
+
+    @Autowired
+    public AccuracyBackfillController(AccuracyBackfillService backfillService) {
+        this.backfillService = backfillService;
+    }
+
+    @Operation(summary = "Start Backfill Run",
+            description = "Re-scores every day of a date range in the background, several days in parallel. Providers and cities limit the scores replaced; without them all are re-scored.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "The run was started"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range")
+    })
+    @PostMapping
+    public ResponseEntity<BackfillStatusDto> start(
+            @Parameter(description = "First date to re-score (Sarajevo time).", required = true, example = "2025-08-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last date to re-score, inclusive.", required = true, example = "2025-08-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Optional providers to re-score.", example = "YR.NO")
+            @RequestParam(required = false) Set<String> providers,
+            @Parameter(description = "Optional cities to re-score.", example = "Sarajevo")
+            @RequestParam(required = false) Set<String> cities) {
+
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        BackfillStatusDto status = backfillService.start(from, to, new ScoringScope(providers, cities));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    @Operation(summary = "List Backfill Runs",
+            description = "Returns every backfill run, newest first, with its progress.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the runs")
+    })
+    @GetMapping
+    public ResponseEntity<List<BackfillStatusDto>> list() {
+        return ResponseEntity.ok(backfillService.list());
+    }
+
+    @Operation(summary = "Get Backfill Run Progress",
+            description = "Returns the days scored, skipped and failed so far and, while the run is active, its throughput and estimated time left.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the progress"),
+            @ApiResponse(responseCode = "404", description = "No backfill run with this id")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<BackfillStatusDto> get(
+            @Parameter(description = "The backfill run id.", required = true)
+            @PathVariable Long id) {
+        return ResponseEntity.of(backfillService.status(id));
+    }
+
+    @Operation(summary = "Resume Backfill Run",
+            description = "Continues a cancelled, failed or interrupted run with the days it has not scored yet, including days skipped because they had no scores.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "The run was resumed"),
+            @ApiResponse(responseCode = "404", description = "No backfill run with this id"),
+            @ApiResponse(responseCode = "409", description = "The run is still active")
+    })
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<BackfillStatusDto> resume(
+            @Parameter(description = "The backfill run id.", required = true)
+            @PathVariable Long id) {
+        try {
+            return backfillService.resume(id)
+                    .map(status -> ResponseEntity.status(HttpStatus.ACCEPTED).body(status))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @Operation(summary = "Cancel Backfill Run",
+            description = "Stops an active run once the days in progress are done. It can be resumed later.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The run is being cancelled"),
+            @ApiResponse(responseCode = "404", description = "No backfill run with this id")
+    })
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<BackfillStatusDto> cancel(
+            @Parameter(description = "The backfill run id.", required = true)
+            @PathVariable Long id) {
+        return ResponseEntity.of(backfillService.cancel(id));
+    }
+}
@@ -0,0 +1,52 @@
+package ba.root.weather.controller;
+
+import ba.root.weather.dto.ProviderGuardStatusDto;
+import ba.root.weather.dto.ProviderQuotaDto;
+import ba.root.weather.service.collector.ProviderGuards;
+import ba.root.weather.service.collector.QuotaPlanner;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/collector")
+@Tag(name = "Collector Status", description = "Endpoints for monitoring the forecast and actual weather collectors")
+public class CollectorStatusController {
+
+    private final ProviderGuards providerGuards;
+    private final QuotaPlanner quotaPlanner;
+
+    @Autowired
+    public CollectorStatusController(ProviderGuards providerGuards, QuotaPlanner quotaPlanner) {
+        this.providerGuards = providerGuards;
+        this.quotaPlanner = quotaPlanner;
+    }
+
+    @Operation(summary = "Get Provider Resilience Status",
+            description = "Returns the circuit breaker state, rate limit tokens and call counters of every provider called since startup.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the provider status")
+    })
+    @GetMapping("/providers")
+    public ResponseEntity<List<ProviderGuardStatusDto>> getProviderStatus() {
+        return ResponseEntity.ok(providerGuards.status());
+    }
+
+    @Operation(summary = "Get Provider Call Quotas",
+            description = "Returns the calls made today per provider and, for providers with a daily limit, the calls left.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the quota usage")
+    })
+    @GetMapping("/quota")
+    public ResponseEntity<List<ProviderQuotaDto>> getProviderQuota() {
+        return ResponseEntity.ok(quotaPlanner.status());
+    }
+}
@@ -0,0 +1,56 @@
+package ba.root.weather.controller;
+
+import ba.root.weather.dto.ObservationCoverageDto;
+import ba.root.weather.service.ObservationCoverageService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/coverage")
+@Tag(name = "Observation Coverage", description = "Endpoints for checking which hours have actual weather observations")
+public class ObservationCoverageController {
+
+    private static final int MAX_DAYS = 366;
+
+    private final ObservationCoverageService coverageService;
+
+    @Autowired
+    public ObservationCoverageController(ObservationCoverageService coverageService) {
+        this.coverageService = coverageService;
+    }
+
+    @Operation(summary = "Get Observation Coverage",
+            description = "Returns, per local day, the hours with at least one observation for a city, the hours missing and whether the day is complete enough to be scored.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the coverage"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range")
+    })
+    @GetMapping
+    public ResponseEntity<List<ObservationCoverageDto>> getCoverage(
+            @Parameter(description = "The city to query for.", required = true, example = "Sarajevo")
+            @RequestParam String city,
+            @Parameter(description = "First local date.", required = true, example = "2025-08-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last local date, inclusive.", required = true, example = "2025-08-07")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(coverageService.getCoverage(city, from, to));
+    }
+}
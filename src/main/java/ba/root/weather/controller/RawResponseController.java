@@ -0,0 +1,93 @@
+package ba.root.weather.controller;
+
+import ba.root.weather.dto.RawResponseDto;
+import ba.root.weather.entity.RawResponse;
+import ba.root.weather.service.archive.RawResponseArchive;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/raw-responses")
+@Tag(name = "Raw Responses", description = "Endpoints for retrieving archived provider responses")
+public class RawResponseController {
+
+    private final RawResponseArchive rawResponseArchive;
+
+    @Autowired
+    public RawResponseController(RawResponseArchive rawResponseArchive) {
+        this.rawResponseArchive = rawResponseArchive;
+    }
+
+    @Operation(summary = "List Archived Responses",
+            description = "Returns the archived responses of a provider for a city within a time range.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the list")
+    })
+    @GetMapping
+    public ResponseEntity<List<RawResponseDto>> list(
+            @Parameter(description = "The provider name.", required = true, example = "YR.NO")
+            @RequestParam String provider,
+            @Parameter(description = "The city name.", required = true, example = "Sarajevo")
+            @RequestParam String city,
+            @Parameter(description = "Start of the fetch time range.", required = true, example = "2025-08-01T00:00:00Z")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @Parameter(description = "End of the fetch time range.", required = true, example = "2025-08-02T00:00:00Z")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+
+        List<RawResponseDto> responses = rawResponseArchive.find(provider, city, from, to).stream()
+                .map(r -> new RawResponseDto(r.getId(), r.getProviderName(), r.getCity(), r.getFetchTimestamp(),
+                        r.getContentHash(), r.getRawSize()))
+                .toList();
+        return ResponseEntity.ok(responses);
+    }
+
+    @Operation(summary = "Get Archived Response",
+            description = "Streams an archived response body. Clients that accept gzip get the stored blob as is.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed the response"),
+            @ApiResponse(responseCode = "404", description = "No archived response with this id")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<StreamingResponseBody> get(
+            @Parameter(description = "The archived response id.", required = true)
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        RawResponse rawResponse = rawResponseArchive.find(id).orElse(null);
+        if (rawResponse == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body = out -> {
+            try (InputStream in = gzip
+                    ? rawResponseArchive.openCompressed(rawResponse)
+                    : rawResponseArchive.open(rawResponse)) {
+                in.transferTo(out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag("\"" + rawResponse.getContentHash() + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+}
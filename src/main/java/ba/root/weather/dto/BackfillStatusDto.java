@@ -0,0 +1,32 @@
+package ba.root.weather.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackfillStatusDto {
+    private Long id;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private List<String> providers;
+    private List<String> cities;
+    private String status;
+    private int totalDays;
+    private long completedDays;
+    private int failedDays;
+    // Days without scores yet, retried on resume
+    private int skippedDays;
+    private long scores;
+    private Instant startedAt;
+    private Instant finishedAt;
+    // Only known while the run is active
+    private Double daysPerSecond;
+    private Long etaSeconds;
+}
@@ -0,0 +1,22 @@
+package ba.root.weather.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ObservationCoverageDto {
+    private String city;
+    private LocalDate date;
+    private int hours;
+    private int coveredHours;
+    private double coverage;
+    // Hours after local midnight without an observation
+    private List<Integer> missingHours;
+    private boolean complete;
+}
@@ -0,0 +1,22 @@
+package ba.root.weather.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProviderGuardStatusDto {
+    private String providerName;
+    private String circuitState;
+    private int consecutiveFailures;
+    private Instant openUntil;
+    private double availableTokens;
+    private long calls;
+    private long failures;
+    private long retries;
+    private long rejected;
+}
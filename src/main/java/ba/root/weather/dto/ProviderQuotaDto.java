@@ -0,0 +1,18 @@
+package ba.root.weather.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProviderQuotaDto {
+    private String providerName;
+    private LocalDate usageDate;
+    private int callsUsed;
+    private Integer dailyLimit;
+    private Integer remaining;
+}
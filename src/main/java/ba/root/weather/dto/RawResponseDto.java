@@ -0,0 +1,19 @@
+package ba.root.weather.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RawResponseDto {
+    private Long id;
+    private String providerName;
+    private String city;
+    private Instant fetchTimestamp;
+    private String contentHash;
+    private Long rawSize;
+}
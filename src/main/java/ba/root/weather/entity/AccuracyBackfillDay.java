@@ -0,0 +1,72 @@
+package ba.root.weather.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * A day scored by an {@link AccuracyBackfillRun}, written in the same transaction as its scores
+ */
+@Setter
+@Getter
+@Entity
+@Table(name = "accuracy_backfill_day",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"run_id", "target_date"})
+        })
+public class AccuracyBackfillDay {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "target_date", nullable = false)
+    private LocalDate targetDate;
+
+    @Column(nullable = false)
+    private Integer scores;
+
+    @Column(name = "completed_at", nullable = false)
+    private Instant completedAt;
+
+    // Default constructor required by JPA
+    public AccuracyBackfillDay() {
+    }
+
+    public AccuracyBackfillDay(Long runId, LocalDate targetDate, Integer scores, Instant completedAt) {
+        this.runId = runId;
+        this.targetDate = targetDate;
+        this.scores = scores;
+        this.completedAt = completedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AccuracyBackfillDay that = (AccuracyBackfillDay) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "AccuracyBackfillDay{" +
+                "id=" + id +
+                ", runId=" + runId +
+                ", targetDate=" + targetDate +
+                ", scores=" + scores +
+                '}';
+    }
+}
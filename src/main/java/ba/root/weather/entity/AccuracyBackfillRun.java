@@ -0,0 +1,110 @@
+package ba.root.weather.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * A re-scoring run over a date range. Providers and cities are comma separated; null means all of them.
+ */
+@Setter
+@Getter
+@Entity
+@Table(name = "accuracy_backfill_run")
+public class AccuracyBackfillRun {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        /**
+         * Finished, but some days could not be scored; resuming retries them
+         */
+        FAILED,
+        CANCELLED,
+        /**
+         * Was running when the application stopped
+         */
+        INTERRUPTED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "from_date", nullable = false)
+    private LocalDate fromDate;
+
+    @Column(name = "to_date", nullable = false)
+    private LocalDate toDate;
+
+    @Column(columnDefinition = "TEXT")
+    private String providers;
+
+    @Column(columnDefinition = "TEXT")
+    private String cities;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "total_days", nullable = false)
+    private Integer totalDays;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * When the run was last started or resumed
+     */
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    // Default constructor required by JPA
+    public AccuracyBackfillRun() {
+    }
+
+    public AccuracyBackfillRun(LocalDate fromDate, LocalDate toDate, String providers, String cities,
+                               Integer totalDays, Instant createdAt) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.providers = providers;
+        this.cities = cities;
+        this.status = Status.RUNNING;
+        this.totalDays = totalDays;
+        this.createdAt = createdAt;
+        this.startedAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AccuracyBackfillRun that = (AccuracyBackfillRun) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "AccuracyBackfillRun{" +
+                "id=" + id +
+                ", fromDate=" + fromDate +
+                ", toDate=" + toDate +
+                ", providers='" + providers + '\'' +
+                ", cities='" + cities + '\'' +
+                ", status=" + status +
+                ", totalDays=" + totalDays +
+                '}';
+    }
+}
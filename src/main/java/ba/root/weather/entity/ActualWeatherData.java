@@ -10,7 +10,10 @@ import java.util.Objects;
 @Setter
 @Getter
 @Entity
-@Table(name = "actual_weather_data")
+@Table(name = "actual_weather_data",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"city", "measurement_timestamp"})
+        })
 public class ActualWeatherData {
 
     // Getters and Setters
@@ -0,0 +1,123 @@
+package ba.root.weather.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Objects;
+
+/**
+ * The observations of one city on one local day, reduced as they are inserted. An observation at local midnight
+ * counts for both days it separates. Written by {@link ba.root.weather.repository.BulkInsertRepository} only.
+ */
+@Setter
+@Getter
+@Entity
+@Table(name = "daily_actual_weather",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"city", "local_date"})
+        })
+public class DailyActualWeather {
+
+    /**
+     * Zone of the local days
+     */
+    public static final ZoneId ZONE = ZoneId.of("Europe/Sarajevo");
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String city;
+
+    @Column(name = "local_date", nullable = false)
+    private LocalDate localDate;
+
+    /**
+     * Lowest observed temperature, null if no observation had one
+     */
+    @Column(name = "min_temperature")
+    private Double minTemperature;
+
+    @Column(name = "max_temperature")
+    private Double maxTemperature;
+
+    /**
+     * Whether any observation had precipitation above zero
+     */
+    @Column(name = "had_precipitation", nullable = false)
+    private Boolean hadPrecipitation;
+
+    @Column(name = "observation_count", nullable = false)
+    private Integer observationCount;
+
+    /**
+     * Most severe weather observed, from clear sky up to thunderstorm
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "worst_weather")
+    private Weather worstWeather;
+
+    /**
+     * Time of the latest observation of the day
+     */
+    @Column(name = "last_observation", nullable = false)
+    private Instant lastObservation;
+
+    /**
+     * Hours of the day with an observation: bit n is set for the n-th hour after local midnight
+     */
+    @Column(nullable = false)
+    private Long coverage;
+
+    // Default constructor required by JPA
+    public DailyActualWeather() {
+    }
+
+    public DailyActualWeather(String city, LocalDate localDate, Double minTemperature, Double maxTemperature,
+                              Boolean hadPrecipitation, Integer observationCount, Weather worstWeather,
+                              Instant lastObservation, Long coverage) {
+        this.city = city;
+        this.localDate = localDate;
+        this.minTemperature = minTemperature;
+        this.maxTemperature = maxTemperature;
+        this.hadPrecipitation = hadPrecipitation;
+        this.observationCount = observationCount;
+        this.worstWeather = worstWeather;
+        this.lastObservation = lastObservation;
+        this.coverage = coverage;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DailyActualWeather that = (DailyActualWeather) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "DailyActualWeather{" +
+                "id=" + id +
+                ", city='" + city + '\'' +
+                ", localDate=" + localDate +
+                ", minTemperature=" + minTemperature +
+                ", maxTemperature=" + maxTemperature +
+                ", hadPrecipitation=" + hadPrecipitation +
+                ", observationCount=" + observationCount +
+                ", worstWeather=" + worstWeather +
+                ", lastObservation=" + lastObservation +
+                ", coverage=" + (coverage != null ? Long.toBinaryString(coverage) : null) +
+                '}';
+    }
+}
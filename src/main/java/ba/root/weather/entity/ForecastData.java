@@ -11,7 +11,10 @@ import java.util.Objects;
 @Setter
 @Getter
 @Entity
-@Table(name = "forecast_data")
+@Table(name = "forecast_data",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"provider_name", "city", "fetch_timestamp", "target_date"})
+        })
 public class ForecastData {
 
     // Getters and Setters
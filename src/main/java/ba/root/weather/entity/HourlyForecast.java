@@ -0,0 +1,23 @@
+package ba.root.weather.entity;
+
+import java.time.Instant;
+
+/**
+ * One point of a provider's hourly or 3-hourly forecast series. Stored in {@code hourly_forecast}
+ * through plain JDBC rather than JPA, since the table has no surrogate id.
+ *
+ * @param fetchTimestamp When the forecast was fetched
+ * @param validTime The time the point is forecast for
+ * @param temperature Air temperature at validTime
+ * @param precipitation Precipitation in mm as the provider reports it with the point: over the next hour
+ *                      for YR.NO, the 3-hour volume for OpenWeatherMap. Null if the provider gives no amount.
+ * @param weather Weather the provider reports with the point, or null if it gives none
+ */
+public record HourlyForecast(String providerName,
+                             String city,
+                             Instant fetchTimestamp,
+                             Instant validTime,
+                             Double temperature,
+                             Double precipitation,
+                             Weather weather) {
+}
@@ -0,0 +1,87 @@
+package ba.root.weather.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A provider location key resolved for a city's coordinates (e.g. AccuWeather's geoposition search result)
+ */
+@Setter
+@Getter
+@Entity
+@Table(name = "location_key",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"provider_name", "city", "latitude", "longitude"})
+        })
+public class LocationKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "provider_name", nullable = false)
+    private String providerName;
+
+    @Column(nullable = false)
+    private String city;
+
+    @Column(nullable = false)
+    private Double latitude;
+
+    @Column(nullable = false)
+    private Double longitude;
+
+    @Column(name = "location_key", nullable = false)
+    private String locationKey;
+
+    @Column(name = "resolved_at", nullable = false)
+    private Instant resolvedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // Default constructor required by JPA
+    public LocationKey() {
+    }
+
+    public LocationKey(String providerName, String city, Double latitude, Double longitude) {
+        this.providerName = providerName;
+        this.city = city;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LocationKey that = (LocationKey) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "LocationKey{" +
+                "id=" + id +
+                ", providerName='" + providerName + '\'' +
+                ", city='" + city + '\'' +
+                ", latitude=" + latitude +
+                ", longitude=" + longitude +
+                ", locationKey='" + locationKey + '\'' +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+package ba.root.weather.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Number of calls made to a provider on one day
+ */
+@Setter
+@Getter
+@Entity
+@Table(name = "provider_call_usage",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"provider_name", "usage_date"})
+        })
+public class ProviderCallUsage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "provider_name", nullable = false)
+    private String providerName;
+
+    @Column(name = "usage_date", nullable = false)
+    private LocalDate usageDate;
+
+    @Column(nullable = false)
+    private Integer calls;
+
+    // Default constructor required by JPA
+    public ProviderCallUsage() {
+    }
+
+    public ProviderCallUsage(String providerName, LocalDate usageDate, Integer calls) {
+        this.providerName = providerName;
+        this.usageDate = usageDate;
+        this.calls = calls;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProviderCallUsage that = (ProviderCallUsage) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ProviderCallUsage{" +
+                "id=" + id +
+                ", providerName='" + providerName + '\'' +
+                ", usageDate=" + usageDate +
+                ", calls=" + calls +
+                '}';
+    }
+}
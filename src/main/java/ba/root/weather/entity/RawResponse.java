@@ -0,0 +1,80 @@
+package ba.root.weather.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * One archived provider response. Identical payloads share a blob, identified by {@link #contentHash}.
+ */
+@Setter
+@Getter
+@Entity
+@Table(name = "raw_response")
+public class RawResponse {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "provider_name", nullable = false)
+    private String providerName;
+
+    @Column(nullable = false)
+    private String city;
+
+    @Column(name = "fetch_timestamp", nullable = false)
+    private Instant fetchTimestamp;
+
+    /**
+     * Hex SHA-256 of the uncompressed payload
+     */
+    @Column(name = "content_hash", nullable = false, length = 64, columnDefinition = "CHAR(64)")
+    private String contentHash;
+
+    /**
+     * Size of the uncompressed payload in bytes
+     */
+    @Column(name = "raw_size", nullable = false)
+    private Long rawSize;
+
+    // Default constructor required by JPA
+    public RawResponse() {
+    }
+
+    public RawResponse(String providerName, String city, Instant fetchTimestamp, String contentHash, Long rawSize) {
+        this.providerName = providerName;
+        this.city = city;
+        this.fetchTimestamp = fetchTimestamp;
+        this.contentHash = contentHash;
+        this.rawSize = rawSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RawResponse that = (RawResponse) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "RawResponse{" +
+                "id=" + id +
+                ", providerName='" + providerName + '\'' +
+                ", city='" + city + '\'' +
+                ", fetchTimestamp=" + fetchTimestamp +
+                ", contentHash='" + contentHash + '\'' +
+                ", rawSize=" + rawSize +
+                '}';
+    }
+}
@@ -0,0 +1,85 @@
+package ba.root.weather.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * HTTP caching metadata (validators and expiry) of the last forecast response from a provider for a city
+ */
+@Setter
+@Getter
+@Entity
+@Table(name = "http_response_metadata",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"provider_name", "city"})
+        })
+public class ResponseMetadata {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "provider_name", nullable = false)
+    private String providerName;
+
+    @Column(nullable = false)
+    private String city;
+
+    @Column(name = "etag")
+    private String etag;
+
+    @Column(name = "last_modified")
+    private String lastModified;
+
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
+    @Column(name = "fetched_at", nullable = false)
+    private Instant fetchedAt;
+
+    // Default constructor required by JPA
+    public ResponseMetadata() {
+    }
+
+    public ResponseMetadata(String providerName, String city) {
+        this.providerName = providerName;
+        this.city = city;
+    }
+
+    /**
+     * Whether the last response is still valid, i.e. fetching again would return the same data
+     */
+    public boolean isFresh(Instant now) {
+        return expiresAt != null && expiresAt.isAfter(now);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ResponseMetadata that = (ResponseMetadata) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseMetadata{" +
+                "id=" + id +
+                ", providerName='" + providerName + '\'' +
+                ", city='" + city + '\'' +
+                ", etag='" + etag + '\'' +
+                ", lastModified='" + lastModified + '\'' +
+                ", expiresAt=" + expiresAt +
+                ", fetchedAt=" + fetchedAt +
+                '}';
+    }
+}
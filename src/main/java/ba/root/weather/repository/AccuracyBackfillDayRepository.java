@@ -0,0 +1,21 @@
+package ba.root.weather.repository;
+
+import ba.root.weather.entity.AccuracyBackfillDay;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AccuracyBackfillDayRepository extends JpaRepository<AccuracyBackfillDay, Long> {
+
+    @Query("SELECT d.targetDate FROM AccuracyBackfillDay d WHERE d.runId = ?1")
+    List<LocalDate> findTargetDatesByRunId(Long runId);
+
+    long countByRunId(Long runId);
+
+    @Query("SELECT COALESCE(SUM(d.scores), 0) FROM AccuracyBackfillDay d WHERE d.runId = ?1")
+    long sumScoresByRunId(Long runId);
+}
@@ -0,0 +1,15 @@
+package ba.root.weather.repository;
+
+import ba.root.weather.entity.AccuracyBackfillRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AccuracyBackfillRunRepository extends JpaRepository<AccuracyBackfillRun, Long> {
+
+    List<AccuracyBackfillRun> findByStatus(AccuracyBackfillRun.Status status);
+
+    List<AccuracyBackfillRun> findAllByOrderByIdDesc();
+}
@@ -3,6 +3,7 @@ package ba.root.weather.repository;
 
 import ba.root.weather.entity.AccuracyScore;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -15,9 +16,13 @@ import java.util.List;
 @Repository
 public interface AccuracyScoreRepository extends JpaRepository<AccuracyScore, Long> {
     /**
-     * Delete all accuracy scores for a specific target date
+     * Delete all accuracy scores for a specific target date, in one statement rather than loading each entity
      */
-    void deleteByTargetDate(LocalDate targetDate);
+    @Modifying
+    @Query("DELETE FROM AccuracyScore a WHERE a.targetDate = ?1")
+    int deleteByTargetDate(LocalDate targetDate);
+
+    List<AccuracyScore> findByTargetDate(LocalDate targetDate);
 
     List<AccuracyScore> findByCityAndTargetDateAfter(String city, LocalDate date);
 
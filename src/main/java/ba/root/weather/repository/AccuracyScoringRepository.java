@@ -0,0 +1,209 @@
+package ba.root.weather.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based accuracy scoring inside PostgreSQL: the latest forecast per horizon, temperature deviations and the
+ * precipitation classification are computed by the database from {@code daily_actual_weather} and written with
+ * one statement, without loading any entity. Produces the same scores as {@code AccuracyAnalysisService}'s
+ * Java path.
+ * <p>
+ * Provider and city filters are arrays; an empty array means all providers or all cities.
+ * <p>
+ * Day boundaries are local midnights in the given zone, which must be the zone of
+ * {@link ba.root.weather.entity.DailyActualWeather#ZONE}. They are compared as TIMESTAMP values in the session
+ * time zone, which is how {@link BulkInsertRepository} and Hibernate store Instants.
+ */
+@Repository
+public class AccuracyScoringRepository {
+
+    /**
+     * Dates from a range whose forecast cities all have enough hourly observation coverage: at least the given
+     * number of covered hours per hour of the day and, if required, the last hour covered
+     */
+    private static final String SELECT_SCORABLE_DATES = """
+            WITH days AS (
+                SELECT d::date AS target_date,
+                       (EXTRACT(EPOCH FROM ((d::date + 1)::timestamp AT TIME ZONE ?)
+                                           - (d::date::timestamp AT TIME ZONE ?)) / 3600)::integer AS slots
+                FROM generate_series(?::date, ?::date, INTERVAL '1 day') AS d
+            ),
+            forecast_cities AS (
+                SELECT DISTINCT f.target_date, f.city
+                FROM forecast_data f
+                JOIN days ON days.target_date = f.target_date
+                WHERE (cardinality(?::text[]) = 0 OR f.provider_name = ANY (?::text[]))
+                  AND (cardinality(?::text[]) = 0 OR f.city = ANY (?::text[]))
+            )
+            SELECT days.target_date
+            FROM days
+            WHERE EXISTS (SELECT 1 FROM forecast_cities fc WHERE fc.target_date = days.target_date)
+              AND NOT EXISTS (
+                  SELECT 1
+                  FROM forecast_cities fc
+                  WHERE fc.target_date = days.target_date
+                    AND NOT EXISTS (
+                        SELECT 1
+                        FROM daily_actual_weather a
+                        WHERE a.city = fc.city
+                          AND a.local_date = days.target_date
+                          AND length(replace(a.coverage::bit(64)::text, '0', ''))
+                              >= CEIL(days.slots * ?::float8 - 1e-9)
+                          AND (NOT ?::boolean OR ((a.coverage >> (days.slots - 1)) & 1) = 1)))
+              AND EXISTS (SELECT 1 FROM daily_actual_weather a WHERE a.local_date = days.target_date)
+            ORDER BY days.target_date
+            """;
+
+    private static final String DELETE_SCORES = "DELETE FROM accuracy_score WHERE target_date = ANY (?) " +
+            "AND (cardinality(?::text[]) = 0 OR provider_name = ANY (?::text[])) " +
+            "AND (cardinality(?::text[]) = 0 OR city = ANY (?::text[]))";
+
+    /**
+     * Scores every forecast of the given dates made before the day started (horizon >= 0, in whole hours,
+     * truncated). Of several fetches with the same horizon the latest one wins.
+     */
+    private static final String INSERT_SCORES = """
+            WITH days AS (
+                SELECT d AS target_date,
+                       (d::timestamp AT TIME ZONE ?)::timestamp AS day_start
+                FROM unnest(?::date[]) AS d
+            ),
+            actual AS (
+                SELECT a.local_date AS target_date,
+                       a.city,
+                       a.min_temperature AS min_temp,
+                       a.max_temperature AS max_temp,
+                       a.had_precipitation
+                FROM daily_actual_weather a
+                JOIN days ON days.target_date = a.local_date
+            ),
+            latest AS (
+                SELECT DISTINCT ON (f.provider_name, f.city, f.target_date, h.forecast_horizon)
+                       f.provider_name,
+                       f.city,
+                       f.target_date,
+                       h.forecast_horizon,
+                       f.predicted_min_temp,
+                       f.predicted_max_temp,
+                       f.predicted_weather IN ('RAIN', 'SNOW', 'THUNDERSTORM') AS predicted_precipitation
+                FROM days
+                JOIN forecast_data f ON f.target_date = days.target_date
+                CROSS JOIN LATERAL (
+                    SELECT TRUNC(EXTRACT(EPOCH FROM days.day_start - f.fetch_timestamp) / 3600)::integer
+                           AS forecast_horizon) h
+                WHERE h.forecast_horizon >= 0
+                  AND (cardinality(?::text[]) = 0 OR f.provider_name = ANY (?::text[]))
+                  AND (cardinality(?::text[]) = 0 OR f.city = ANY (?::text[]))
+                ORDER BY f.provider_name, f.city, f.target_date, h.forecast_horizon, f.fetch_timestamp DESC
+            )
+            INSERT INTO accuracy_score
+                (provider_name, city, target_date, forecast_horizon, min_temp_score, max_temp_score, precipitation_score)
+            SELECT l.provider_name,
+                   l.city,
+                   l.target_date,
+                   l.forecast_horizon,
+                   CASE WHEN a.min_temp IS NULL OR l.predicted_min_temp IS NULL THEN 0.0
+                        ELSE l.predicted_min_temp - a.min_temp END,
+                   CASE WHEN a.max_temp IS NULL OR l.predicted_max_temp IS NULL THEN 0.0
+                        ELSE l.predicted_max_temp - a.max_temp END,
+                   CASE WHEN l.predicted_precipitation IS TRUE AND a.had_precipitation THEN 'TRUE_POSITIVE'
+                        WHEN l.predicted_precipitation IS TRUE THEN 'FALSE_POSITIVE'
+                        WHEN a.had_precipitation THEN 'FALSE_NEGATIVE'
+                        ELSE 'TRUE_NEGATIVE' END
+            FROM latest l
+            JOIN actual a ON a.target_date = l.target_date AND a.city = l.city
+            ON CONFLICT (provider_name, city, target_date, forecast_horizon) DO UPDATE SET
+                min_temp_score = EXCLUDED.min_temp_score,
+                max_temp_score = EXCLUDED.max_temp_score,
+                precipitation_score = EXCLUDED.precipitation_score
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccuracyScoringRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Dates in {@code [from, to]} that have forecasts and complete actual data: every city with a forecast for
+     * the date has an observation in at least {@code minCoverage} of the hours of the day and, if
+     * {@code requireLastHour} is set, in its last hour
+     *
+     * @param providers Providers to consider, or empty for all
+     * @param cities Cities to consider, or empty for all
+     */
+    public List<LocalDate> findScorableDates(LocalDate from, LocalDate to, ZoneId zone,
+                                             Collection<String> providers, Collection<String> cities,
+                                             double minCoverage, boolean requireLastHour) {
+        return jdbcTemplate.query(SELECT_SCORABLE_DATES, ps -> {
+            ps.setString(1, zone.getId());
+            ps.setString(2, zone.getId());
+            ps.setDate(3, Date.valueOf(from));
+            ps.setDate(4, Date.valueOf(to));
+            setFilters(ps, 5, providers, cities);
+            ps.setDouble(9, minCoverage);
+            ps.setBoolean(10, requireLastHour);
+        }, (rs, rowNum) -> rs.getObject(1, LocalDate.class));
+    }
+
+    /**
+     * Replaces the accuracy scores of the given dates with freshly computed ones
+     *
+     * @param providers Providers to score, or empty for all
+     * @param cities Cities to score, or empty for all
+     * @return Number of scores written
+     */
+    public int scoreDates(List<LocalDate> dates, ZoneId zone, Collection<String> providers, Collection<String> cities) {
+        if (dates.isEmpty()) {
+            return 0;
+        }
+        Date[] sqlDates = dates.stream().map(Date::valueOf).toArray(Date[]::new);
+        deleteScores(dates, providers, cities);
+        return jdbcTemplate.update(INSERT_SCORES, ps -> {
+            ps.setString(1, zone.getId());
+            ps.setArray(2, ps.getConnection().createArrayOf("date", sqlDates));
+            setFilters(ps, 3, providers, cities);
+        });
+    }
+
+    /**
+     * Deletes the accuracy scores of the given dates
+     *
+     * @param providers Providers whose scores to delete, or empty for all
+     * @param cities Cities whose scores to delete, or empty for all
+     * @return Number of scores deleted
+     */
+    public int deleteScores(List<LocalDate> dates, Collection<String> providers, Collection<String> cities) {
+        if (dates.isEmpty()) {
+            return 0;
+        }
+        Date[] sqlDates = dates.stream().map(Date::valueOf).toArray(Date[]::new);
+        return jdbcTemplate.update(DELETE_SCORES, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("date", sqlDates));
+            setFilters(ps, 2, providers, cities);
+        });
+    }
+
+    /**
+     * Binds the provider and city filter arrays, each one twice, starting at {@code index}
+     */
+    private static void setFilters(PreparedStatement ps, int index, Collection<String> providers,
+                                   Collection<String> cities) throws SQLException {
+        Array providerArray = ps.getConnection().createArrayOf("text", providers.toArray());
+        Array cityArray = ps.getConnection().createArrayOf("text", cities.toArray());
+        ps.setArray(index, providerArray);
+        ps.setArray(index + 1, providerArray);
+        ps.setArray(index + 2, cityArray);
+        ps.setArray(index + 3, cityArray);
+    }
+}
@@ -0,0 +1,286 @@
+package ba.root.weather.repository;
+
+import ba.root.weather.entity.AccuracyScore;
+import ba.root.weather.entity.ActualWeatherData;
+import ba.root.weather.entity.DailyActualWeather;
+import ba.root.weather.entity.ForecastData;
+import ba.root.weather.entity.HourlyForecast;
+import ba.root.weather.entity.Weather;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Plain JDBC batch inserts for high-volume writes. The entities use IDENTITY ids, which stops Hibernate
+ * from batching inserts, so bulk paths go through here instead of {@code saveAll}. With the PostgreSQL
+ * driver's {@code reWriteBatchedInserts} enabled, each batch is sent as multi-row INSERT statements.
+ * <p>
+ * Forecasts and observations are upserted on their natural keys, so writing the same data twice
+ * (a retried collection, an overlapping re-ingest) leaves a single row.
+ */
+@Repository
+public class BulkInsertRepository {
+
+    private static final String INSERT_FORECAST = "INSERT INTO forecast_data " +
+            "(provider_name, city, fetch_timestamp, target_date, predicted_min_temp, predicted_max_temp, predicted_weather) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (provider_name, city, fetch_timestamp, target_date) DO UPDATE SET " +
+            "predicted_min_temp = EXCLUDED.predicted_min_temp, " +
+            "predicted_max_temp = EXCLUDED.predicted_max_temp, " +
+            "predicted_weather = EXCLUDED.predicted_weather";
+
+    /**
+     * Weather from least to most severe, for {@code daily_actual_weather.worst_weather}
+     */
+    private static final List<Weather> WEATHER_SEVERITY = List.of(Weather.CLEAR, Weather.PARTIAL_CLOUDS,
+            Weather.CLOUDS, Weather.FOG_MIST, Weather.RAIN, Weather.SNOW, Weather.THUNDERSTORM);
+
+    private static final String WEATHER_SEVERITY_ARRAY = WEATHER_SEVERITY.stream()
+            .map(weather -> "'" + weather.name() + "'")
+            .collect(Collectors.joining(", ", "ARRAY[", "]"));
+
+    /**
+     * Inserts observations given as arrays and folds the ones that were not stored yet into the daily
+     * aggregates of their local day, or of both days for an observation at local midnight. The coverage
+     * bitmap gets the bit of the hour after local midnight each observation falls in; one at the next
+     * midnight sets the last hour.
+     */
+    private static final String INSERT_ACTUAL_WEATHER = """
+            WITH zone AS (
+                SELECT ?::text AS name
+            ),
+            input AS (
+                SELECT *
+                FROM unnest(?::text[], ?::text[]::timestamptz[], ?::float8[], ?::float8[], ?::text[])
+                    AS i(city, measured_at, temperature, precipitation, weather)
+            ),
+            inserted AS (
+                INSERT INTO actual_weather_data
+                    (city, measurement_timestamp, actual_temperature, actual_precipitation, weather)
+                SELECT city, measured_at::timestamp, temperature, precipitation, weather
+                FROM input
+                ON CONFLICT (city, measurement_timestamp) DO NOTHING
+                RETURNING city, measurement_timestamp, actual_temperature, actual_precipitation, weather
+            ),
+            days AS (
+                SELECT ins.*,
+                       d.local_date,
+                       d.local_date::timestamp AT TIME ZONE zone.name AS day_start,
+                       (d.local_date + 1)::timestamp AT TIME ZONE zone.name AS day_end
+                FROM inserted ins
+                CROSS JOIN zone
+                CROSS JOIN LATERAL (SELECT ins.measurement_timestamp::timestamptz AT TIME ZONE zone.name
+                                           AS local_time) l
+                CROSS JOIN LATERAL (VALUES (l.local_time::date),
+                                           (CASE WHEN l.local_time::time = TIME '00:00'
+                                                 THEN l.local_time::date - 1 END)) AS d(local_date)
+                WHERE d.local_date IS NOT NULL
+            )
+            INSERT INTO daily_actual_weather
+                (city, local_date, min_temperature, max_temperature, had_precipitation, observation_count,
+                 worst_weather, last_observation, coverage)
+            SELECT city,
+                   local_date,
+                   MIN(actual_temperature),
+                   MAX(actual_temperature),
+                   COALESCE(BOOL_OR(actual_precipitation > 0), FALSE),
+                   COUNT(*),
+                   (ARRAY_AGG(weather ORDER BY COALESCE(array_position(%1$s, weather::text), 0) DESC))[1],
+                   MAX(measurement_timestamp),
+                   BIT_OR(1::bigint << LEAST(
+                           FLOOR(EXTRACT(EPOCH FROM measurement_timestamp::timestamptz - day_start) / 3600)::integer,
+                           (EXTRACT(EPOCH FROM day_end - day_start) / 3600)::integer - 1))
+            FROM days
+            GROUP BY city, local_date
+            ON CONFLICT (city, local_date) DO UPDATE SET
+                min_temperature = LEAST(daily_actual_weather.min_temperature, EXCLUDED.min_temperature),
+                max_temperature = GREATEST(daily_actual_weather.max_temperature, EXCLUDED.max_temperature),
+                had_precipitation = daily_actual_weather.had_precipitation OR EXCLUDED.had_precipitation,
+                observation_count = daily_actual_weather.observation_count + EXCLUDED.observation_count,
+                worst_weather = CASE
+                    WHEN COALESCE(array_position(%1$s, EXCLUDED.worst_weather::text), 0)
+                         > COALESCE(array_position(%1$s, daily_actual_weather.worst_weather::text), 0)
+                    THEN EXCLUDED.worst_weather
+                    ELSE daily_actual_weather.worst_weather END,
+                last_observation = GREATEST(daily_actual_weather.last_observation, EXCLUDED.last_observation),
+                coverage = daily_actual_weather.coverage | EXCLUDED.coverage
+            """.formatted(WEATHER_SEVERITY_ARRAY);
+
+    private static final String INSERT_HOURLY_FORECAST = "INSERT INTO hourly_forecast " +
+            "(provider_name, city, valid_time, fetch_timestamp, temperature, precipitation, weather) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (provider_name, city, valid_time, fetch_timestamp) DO UPDATE SET " +
+            "temperature = EXCLUDED.temperature, " +
+            "precipitation = EXCLUDED.precipitation, " +
+            "weather = EXCLUDED.weather";
+
+    private static final String INSERT_ACCURACY_SCORE = "INSERT INTO accuracy_score " +
+            "(provider_name, city, target_date, forecast_horizon, min_temp_score, max_temp_score, precipitation_score) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Batch size for callers without a configured one
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BulkInsertRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public int insertForecasts(List<ForecastData> forecasts) {
+        return insertForecasts(forecasts, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Upserts forecasts in JDBC batches of {@code batchSize} rows. A forecast with the same provider, city,
+     * fetch timestamp and target date replaces the stored values. Generated ids are not read back.
+     *
+     * @return Number of rows written
+     */
+    public int insertForecasts(List<ForecastData> forecasts, int batchSize) {
+        if (forecasts.isEmpty()) {
+            return 0;
+        }
+        // PostgreSQL rejects a multi-row upsert that touches the same key twice, so the last one wins here
+        Map<ForecastKey, ForecastData> unique = new LinkedHashMap<>();
+        for (ForecastData forecast : forecasts) {
+            unique.put(new ForecastKey(forecast.getProviderName(), forecast.getCity(),
+                    forecast.getFetchTimestamp(), forecast.getTargetDate()), forecast);
+        }
+        jdbcTemplate.batchUpdate(INSERT_FORECAST, unique.values(), batchSize, (ps, forecast) -> {
+            ps.setString(1, forecast.getProviderName());
+            ps.setString(2, forecast.getCity());
+            setInstant(ps, 3, forecast.getFetchTimestamp());
+            ps.setDate(4, Date.valueOf(forecast.getTargetDate()));
+            setDouble(ps, 5, forecast.getPredictedMinTemp());
+            setDouble(ps, 6, forecast.getPredictedMaxTemp());
+            ps.setString(7, forecast.getPredictedWeather() != null ? forecast.getPredictedWeather().name() : null);
+        });
+        return unique.size();
+    }
+
+    /**
+     * Inserts actual weather observations in statements of {@code batchSize} rows, skipping any city and
+     * measurement timestamp that is already stored: it is the same report. Each statement also updates the
+     * {@code daily_actual_weather} rows of the observations it inserted, so a report is counted exactly once.
+     * Generated ids are not read back.
+     *
+     * @return Number of rows submitted, including skipped ones
+     */
+    public int insertActualWeather(List<ActualWeatherData> observations, int batchSize) {
+        if (observations.isEmpty()) {
+            return 0;
+        }
+        int size = Math.max(1, batchSize);
+        for (int from = 0; from < observations.size(); from += size) {
+            List<ActualWeatherData> chunk = observations.subList(from, Math.min(from + size, observations.size()));
+            jdbcTemplate.update(INSERT_ACTUAL_WEATHER, ps -> {
+                Connection connection = ps.getConnection();
+                ps.setString(1, DailyActualWeather.ZONE.getId());
+                ps.setArray(2, connection.createArrayOf("text",
+                        chunk.stream().map(ActualWeatherData::getCity).toArray()));
+                ps.setArray(3, connection.createArrayOf("text",
+                        chunk.stream().map(o -> o.getMeasurementTimestamp().toString()).toArray()));
+                ps.setArray(4, connection.createArrayOf("float8",
+                        chunk.stream().map(ActualWeatherData::getActualTemperature).toArray()));
+                ps.setArray(5, connection.createArrayOf("float8",
+                        chunk.stream().map(ActualWeatherData::getActualPrecipitation).toArray()));
+                ps.setArray(6, connection.createArrayOf("text",
+                        chunk.stream().map(o -> o.getWeather() != null ? o.getWeather().name() : null).toArray()));
+            });
+        }
+        return observations.size();
+    }
+
+    public int insertHourlyForecasts(List<HourlyForecast> forecasts) {
+        return insertHourlyForecasts(forecasts, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Upserts hourly forecast points in JDBC batches of {@code batchSize} rows. A point with the same provider,
+     * city, valid time and fetch timestamp replaces the stored values.
+     *
+     * @return Number of rows written
+     */
+    public int insertHourlyForecasts(List<HourlyForecast> forecasts, int batchSize) {
+        if (forecasts.isEmpty()) {
+            return 0;
+        }
+        Map<HourlyForecastKey, HourlyForecast> unique = new LinkedHashMap<>();
+        for (HourlyForecast forecast : forecasts) {
+            unique.put(new HourlyForecastKey(forecast.providerName(), forecast.city(),
+                    forecast.validTime(), forecast.fetchTimestamp()), forecast);
+        }
+        jdbcTemplate.batchUpdate(INSERT_HOURLY_FORECAST, unique.values(), batchSize, (ps, forecast) -> {
+            ps.setString(1, forecast.providerName());
+            ps.setString(2, forecast.city());
+            setInstant(ps, 3, forecast.validTime());
+            setInstant(ps, 4, forecast.fetchTimestamp());
+            setDouble(ps, 5, forecast.temperature());
+            setDouble(ps, 6, forecast.precipitation());
+            ps.setString(7, forecast.weather() != null ? forecast.weather().name() : null);
+        });
+        return unique.size();
+    }
+
+    public int insertAccuracyScores(Collection<AccuracyScore> scores) {
+        return insertAccuracyScores(scores, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Inserts accuracy scores in JDBC batches of {@code batchSize} rows. Generated ids are not read back.
+     *
+     * @return Number of rows inserted
+     */
+    public int insertAccuracyScores(Collection<AccuracyScore> scores, int batchSize) {
+        if (scores.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_ACCURACY_SCORE, scores, batchSize, (ps, score) -> {
+            ps.setString(1, score.getProviderName());
+            ps.setString(2, score.getCity());
+            ps.setDate(3, Date.valueOf(score.getTargetDate()));
+            ps.setInt(4, score.getForecastHorizon());
+            setDouble(ps, 5, score.getMinTempScore());
+            setDouble(ps, 6, score.getMaxTempScore());
+            ps.setString(7, score.getPrecipitationScore() != null ? score.getPrecipitationScore().name() : null);
+        });
+        return scores.size();
+    }
+
+    private record ForecastKey(String providerName, String city, Instant fetchTimestamp, LocalDate targetDate) {
+    }
+
+    private record HourlyForecastKey(String providerName, String city, Instant validTime, Instant fetchTimestamp) {
+    }
+
+    /**
+     * Binds an Instant the way Hibernate does for the entities, as a UTC timestamp
+     */
+    private static void setInstant(PreparedStatement ps, int index, Instant value) throws SQLException {
+        ps.setObject(index, value.atOffset(ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value != null) {
+            ps.setDouble(index, value);
+        } else {
+            ps.setNull(index, Types.DOUBLE);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ba.root.weather.repository;
+
+import ba.root.weather.entity.DailyActualWeather;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DailyActualWeatherRepository extends JpaRepository<DailyActualWeather, Long> {
+
+    // All cities observed on a local day
+    List<DailyActualWeather> findByLocalDate(LocalDate localDate);
+
+    // One city's days within a range, for intraday and trend queries
+    List<DailyActualWeather> findByCityAndLocalDateBetweenOrderByLocalDate(String city, LocalDate from, LocalDate to);
+
+    Optional<DailyActualWeather> findByCityAndLocalDate(String city, LocalDate localDate);
+}
@@ -0,0 +1,117 @@
+package ba.root.weather.repository;
+
+import ba.root.weather.entity.Weather;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams the forecasts of a target date through a forward-only, read-only cursor instead of loading them as
+ * entities. The PostgreSQL driver only fetches in chunks of the fetch size inside a transaction; with
+ * auto-commit on it reads the whole result set into memory.
+ * <p>
+ * Provider and city filters are arrays; an empty array means all providers or all cities.
+ */
+@Repository
+public class ForecastCursorRepository {
+
+    private static final String SELECT_FORECASTS = """
+            SELECT provider_name, city, fetch_timestamp, predicted_min_temp, predicted_max_temp, predicted_weather
+            FROM forecast_data
+            WHERE target_date = ?
+              AND (cardinality(?::text[]) = 0 OR provider_name = ANY (?::text[]))
+              AND (cardinality(?::text[]) = 0 OR city = ANY (?::text[]))
+            ORDER BY provider_name, city, fetch_timestamp
+            """;
+
+    private static final String SELECT_CITIES = """
+            SELECT DISTINCT city
+            FROM forecast_data
+            WHERE target_date = ?
+              AND (cardinality(?::text[]) = 0 OR provider_name = ANY (?::text[]))
+              AND (cardinality(?::text[]) = 0 OR city = ANY (?::text[]))
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ForecastCursorRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * One forecast_data row, without the id and target date
+     */
+    public record ForecastRow(String providerName, String city, Instant fetchTimestamp,
+                              Double predictedMinTemp, Double predictedMaxTemp, Weather predictedWeather) {
+    }
+
+    /**
+     * Cities with a forecast for the target date
+     *
+     * @param providers Providers to consider, or empty for all
+     * @param cities Cities to consider, or empty for all
+     */
+    public List<String> findCities(LocalDate targetDate, Collection<String> providers, Collection<String> cities) {
+        return jdbcTemplate.query(SELECT_CITIES, ps -> {
+            ps.setDate(1, Date.valueOf(targetDate));
+            setFilters(ps, 2, providers, cities);
+        }, (rs, rowNum) -> rs.getString(1));
+    }
+
+    /**
+     * Hands every forecast for the target date to {@code consumer}, ordered by provider, city and fetch
+     * timestamp, fetching {@code fetchSize} rows at a time. Call it inside a transaction.
+     *
+     * @param providers Providers to read, or empty for all
+     * @param cities Cities to read, or empty for all
+     */
+    public void streamByTargetDate(LocalDate targetDate, Collection<String> providers, Collection<String> cities,
+                                   int fetchSize, Consumer<ForecastRow> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_FORECASTS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setDate(1, Date.valueOf(targetDate));
+            setFilters(ps, 2, providers, cities);
+            return ps;
+        }, rs -> {
+            String weather = rs.getString("predicted_weather");
+            consumer.accept(new ForecastRow(
+                    rs.getString("provider_name"),
+                    rs.getString("city"),
+                    rs.getObject("fetch_timestamp", OffsetDateTime.class).toInstant(),
+                    getDouble(rs, "predicted_min_temp"),
+                    getDouble(rs, "predicted_max_temp"),
+                    weather != null ? Weather.valueOf(weather) : null));
+        });
+    }
+
+    private static Double getDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    /**
+     * Binds the provider and city filter arrays, each one twice, starting at {@code index}
+     */
+    private static void setFilters(PreparedStatement ps, int index, Collection<String> providers,
+                                   Collection<String> cities) throws SQLException {
+        Array providerArray = ps.getConnection().createArrayOf("text", providers.toArray());
+        Array cityArray = ps.getConnection().createArrayOf("text", cities.toArray());
+        ps.setArray(index, providerArray);
+        ps.setArray(index + 1, providerArray);
+        ps.setArray(index + 2, cityArray);
+        ps.setArray(index + 3, cityArray);
+    }
+}
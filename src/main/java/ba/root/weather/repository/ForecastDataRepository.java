@@ -2,6 +2,7 @@ package ba.root.weather.repository;
 
 import ba.root.weather.entity.ForecastData;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -11,4 +12,8 @@ import java.util.List;
 public interface ForecastDataRepository extends JpaRepository<ForecastData, Long> {
     // Find forecasts for a specific target date
     List<ForecastData> findByTargetDate(LocalDate targetDate);
+
+    // Latest fetch time per city for a provider, as [city, fetchTimestamp] pairs
+    @Query("SELECT f.city, MAX(f.fetchTimestamp) FROM ForecastData f WHERE f.providerName = ?1 GROUP BY f.city")
+    List<Object[]> findLastFetchTimestampByCity(String providerName);
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package ba.root.weather.repository;
+
+import ba.root.weather.entity.HourlyForecast;
+import ba.root.weather.entity.Weather;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Reads of the {@code hourly_forecast} table. Writes go through {@link BulkInsertRepository#insertHourlyForecasts}.
+ */
+@Repository
+public class HourlyForecastRepository {
+
+    private static final String SELECT_BY_VALID_TIME = "SELECT provider_name, city, valid_time, fetch_timestamp, " +
+            "temperature, precipitation, weather FROM hourly_forecast " +
+            "WHERE provider_name = ? AND city = ? AND valid_time >= ? AND valid_time < ? " +
+            "ORDER BY valid_time, fetch_timestamp";
+
+    private static final RowMapper<HourlyForecast> ROW_MAPPER = HourlyForecastRepository::mapRow;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public HourlyForecastRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Every stored point of a provider and city valid in {@code [from, to)}, across all fetches,
+     * ordered by valid time and then fetch timestamp. Unlike a SQL BETWEEN, {@code to} itself is excluded.
+     */
+    public List<HourlyForecast> findByValidTimeRange(String providerName, String city, Instant from, Instant to) {
+        return jdbcTemplate.query(SELECT_BY_VALID_TIME, ROW_MAPPER, providerName, city,
+                from.atOffset(ZoneOffset.UTC), to.atOffset(ZoneOffset.UTC));
+    }
+
+    private static HourlyForecast mapRow(ResultSet rs, int rowNum) throws SQLException {
+        String weather = rs.getString("weather");
+        return new HourlyForecast(
+                rs.getString("provider_name"),
+                rs.getString("city"),
+                getInstant(rs, "fetch_timestamp"),
+                getInstant(rs, "valid_time"),
+                getDouble(rs, "temperature"),
+                getDouble(rs, "precipitation"),
+                weather != null ? Weather.valueOf(weather) : null);
+    }
+
+    /**
+     * Reads a TIMESTAMP column as UTC, the way {@link BulkInsertRepository} binds it
+     */
+    private static Instant getInstant(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, OffsetDateTime.class).toInstant();
+    }
+
+    /**
+     * Reads a REAL column, widened through its decimal form so 18.3 comes back as 18.3 and not 18.299999237
+     */
+    private static Double getDouble(ResultSet rs, String column) throws SQLException {
+        float value = rs.getFloat(column);
+        return rs.wasNull() ? null : Double.valueOf(Float.toString(value));
+    }
+}
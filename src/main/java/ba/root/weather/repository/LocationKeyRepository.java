@@ -0,0 +1,19 @@
+package ba.root.weather.repository;
+
+import ba.root.weather.entity.LocationKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LocationKeyRepository extends JpaRepository<LocationKey, Long> {
+
+    // All keys of a provider that are still valid, for warming the in-memory cache
+    List<LocationKey> findByProviderNameAndExpiresAtAfter(String providerName, Instant now);
+
+    Optional<LocationKey> findByProviderNameAndCityAndLatitudeAndLongitude(
+            String providerName, String city, Double latitude, Double longitude);
+}
@@ -0,0 +1,17 @@
+package ba.root.weather.repository;
+
+import ba.root.weather.entity.ProviderCallUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProviderCallUsageRepository extends JpaRepository<ProviderCallUsage, Long> {
+
+    List<ProviderCallUsage> findByUsageDate(LocalDate usageDate);
+
+    Optional<ProviderCallUsage> findByProviderNameAndUsageDate(String providerName, LocalDate usageDate);
+}
@@ -0,0 +1,15 @@
+package ba.root.weather.repository;
+
+import ba.root.weather.entity.RawResponse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RawResponseRepository extends JpaRepository<RawResponse, Long> {
+
+    List<RawResponse> findByProviderNameAndCityAndFetchTimestampBetweenOrderByFetchTimestamp(
+            String providerName, String city, Instant from, Instant to);
+}
@@ -0,0 +1,13 @@
+package ba.root.weather.repository;
+
+import ba.root.weather.entity.ResponseMetadata;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ResponseMetadataRepository extends JpaRepository<ResponseMetadata, Long> {
+
+    Optional<ResponseMetadata> findByProviderNameAndCity(String providerName, String city);
+}
@@ -1,8 +1,13 @@
 package ba.root.weather.service;
 
+import ba.root.weather.config.AnalysisProperties;
 import ba.root.weather.entity.*;
 import ba.root.weather.repository.AccuracyScoreRepository;
-import ba.root.weather.repository.ActualWeatherDataRepository;
+import ba.root.weather.repository.AccuracyScoringRepository;
+import ba.root.weather.repository.BulkInsertRepository;
+import ba.root.weather.repository.DailyActualWeatherRepository;
+import ba.root.weather.repository.ForecastCursorRepository;
+import ba.root.weather.repository.ForecastCursorRepository.ForecastRow;
 import ba.root.weather.repository.ForecastDataRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,7 +17,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.*;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Service responsible for analyzing the accuracy of weather forecasts
@@ -22,21 +26,33 @@ import java.util.stream.Collectors;
 public class AccuracyAnalysisService {
     private static final Logger logger = LoggerFactory.getLogger(AccuracyAnalysisService.class);
     
-    // Define Sarajevo timezone for consistent handling
-    private static final ZoneId SARAJEVO_ZONE = ZoneId.of("Europe/Sarajevo");
+    // Define Sarajevo timezone for consistent handling; daily actual weather uses the same local days
+    private static final ZoneId SARAJEVO_ZONE = DailyActualWeather.ZONE;
 
     private final ForecastDataRepository forecastRepository;
-    private final ActualWeatherDataRepository actualDataRepository;
+    private final DailyActualWeatherRepository dailyActualRepository;
     private final AccuracyScoreRepository accuracyRepository;
+    private final BulkInsertRepository bulkInsertRepository;
+    private final AccuracyScoringRepository scoringRepository;
+    private final ForecastCursorRepository forecastCursorRepository;
+    private final AnalysisProperties properties;
     
     @Autowired
     public AccuracyAnalysisService(
             ForecastDataRepository forecastRepository,
-            ActualWeatherDataRepository actualDataRepository,
-            AccuracyScoreRepository accuracyRepository) {
+            DailyActualWeatherRepository dailyActualRepository,
+            AccuracyScoreRepository accuracyRepository,
+            BulkInsertRepository bulkInsertRepository,
+            AccuracyScoringRepository scoringRepository,
+            ForecastCursorRepository forecastCursorRepository,
+            AnalysisProperties properties) {
         this.forecastRepository = forecastRepository;
-        this.actualDataRepository = actualDataRepository;
+        this.dailyActualRepository = dailyActualRepository;
         this.accuracyRepository = accuracyRepository;
+        this.bulkInsertRepository = bulkInsertRepository;
+        this.scoringRepository = scoringRepository;
+        this.forecastCursorRepository = forecastCursorRepository;
+        this.properties = properties;
     }
 
     /**
@@ -48,16 +64,170 @@ public class AccuracyAnalysisService {
      */
     @Transactional
     public int analyzeAccuracyForDate(LocalDate date) {
+        return analyzeAccuracyForDates(date, date, ScoringScope.ALL);
+    }
+
+    /**
+     * Analyzes forecast accuracy for a given date, for the providers and cities of a scope only.
+     * Scores outside the scope are left untouched.
+     *
+     * @param date The date to analyze forecasts for (in Sarajevo local time)
+     * @param scope Providers and cities to score
+     * @return The number of accuracy scores generated
+     */
+    @Transactional
+    public int analyzeAccuracyForDate(LocalDate date, ScoringScope scope) {
+        return analyzeAccuracyForDates(date, date, scope);
+    }
+
+    /**
+     * Analyzes forecast accuracy for every date in a range that has complete actual data,
+     * with the engine selected by {@code weather.analysis.engine}
+     *
+     * @param from First date to analyze (in Sarajevo local time)
+     * @param to Last date to analyze, inclusive
+     * @return The number of accuracy scores generated
+     */
+    @Transactional
+    public int analyzeAccuracyForDates(LocalDate from, LocalDate to) {
+        return analyzeAccuracyForDates(from, to, ScoringScope.ALL);
+    }
+
+    /**
+     * Analyzes forecast accuracy for every date in a range that has complete actual data,
+     * for the providers and cities of a scope only
+     *
+     * @param from First date to analyze (in Sarajevo local time)
+     * @param to Last date to analyze, inclusive
+     * @param scope Providers and cities to score
+     * @return The number of accuracy scores generated
+     */
+    @Transactional
+    public int analyzeAccuracyForDates(LocalDate from, LocalDate to, ScoringScope scope) {
+        if (properties.getEngine() == AnalysisProperties.Engine.SQL) {
+            return analyzeInDatabase(from, to, scope);
+        }
+        boolean streaming = properties.getEngine() == AnalysisProperties.Engine.STREAMING;
+        int scores = 0;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            scores += streaming ? analyzeStreaming(date, scope) : analyzeInJava(date, scope);
+        }
+        return scores;
+    }
+
+    /**
+     * Scores all dates of the range with one statement inside PostgreSQL
+     */
+    private int analyzeInDatabase(LocalDate from, LocalDate to, ScoringScope scope) {
+        logger.info("Starting accuracy analysis in the database for {} to {} (Sarajevo time)", from, to);
+        
+        AnalysisProperties.Completeness completeness = properties.getCompleteness();
+        List<LocalDate> dates = scoringRepository.findScorableDates(from, to, SARAJEVO_ZONE, 
+                scope.providers(), scope.cities(), completeness.getMinCoverage(), completeness.isRequireLastHour());
+        if (dates.isEmpty()) {
+            logger.warn("No date from {} to {} has forecasts and complete actual weather data. Skipping analysis.",
+                    from, to);
+            return 0;
+        }
+        
+        int scores = scoringRepository.scoreDates(dates, SARAJEVO_ZONE, scope.providers(), scope.cities());
+        logger.info("Generated and saved {} accuracy scores for {} dates from {} to {}", 
+                scores, dates.size(), from, to);
+        
+        if (properties.isVerify()) {
+            verifyAgainstJava(dates, scope);
+        }
+        return scores;
+    }
+
+    /**
+     * Recomputes the scores of the given dates in Java and logs every score the database computed differently
+     */
+    private void verifyAgainstJava(List<LocalDate> dates, ScoringScope scope) {
+        for (LocalDate date : dates) {
+            Map<String, AccuracyScore> expected = computeScores(date, scope);
+            if (expected == null) {
+                expected = Map.of();
+            }
+            Map<String, AccuracyScore> stored = new HashMap<>();
+            for (AccuracyScore score : accuracyRepository.findByTargetDate(date)) {
+                if (scope.includes(score.getProviderName(), score.getCity())) {
+                    stored.put(scoreKey(score), score);
+                }
+            }
+            
+            int mismatches = 0;
+            Set<String> keys = new TreeSet<>(expected.keySet());
+            keys.addAll(stored.keySet());
+            for (String key : keys) {
+                AccuracyScore javaScore = expected.get(key);
+                AccuracyScore sqlScore = stored.get(key);
+                if (!sameScore(javaScore, sqlScore)) {
+                    logger.warn("Accuracy score {} differs: Java {} but database {}", key, javaScore, sqlScore);
+                    mismatches++;
+                }
+            }
+            if (mismatches == 0) {
+                logger.info("Verified {} database accuracy scores for {} against the Java computation", 
+                        stored.size(), date);
+            } else {
+                logger.warn("{} of {} accuracy scores for {} differ between the database and the Java computation", 
+                        mismatches, keys.size(), date);
+            }
+        }
+    }
+
+    private static boolean sameScore(AccuracyScore a, AccuracyScore b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return Math.abs(a.getMinTempScore() - b.getMinTempScore()) < 1e-9
+                && Math.abs(a.getMaxTempScore() - b.getMaxTempScore()) < 1e-9
+                && a.getPrecipitationScore() == b.getPrecipitationScore();
+    }
+
+    private static String scoreKey(AccuracyScore score) {
+        return score.getProviderName() + ":" + score.getCity() + ":" + score.getTargetDate() + ":" 
+                + score.getForecastHorizon();
+    }
+
+    /**
+     * Loads the forecasts and observations of one date as entities and scores them in the application
+     */
+    private int analyzeInJava(LocalDate date, ScoringScope scope) {
         logger.info("Starting accuracy analysis for date: {} (Sarajevo time)", date);
         
-        // First check if we have complete actual data for this date
-        if (!isActualDataCompleteForDate(date)) {
-            logger.warn("Actual weather data is not complete for date: {}. Skipping analysis.", date);
+        Map<String, AccuracyScore> accuracyScores = computeScores(date, scope);
+        if (accuracyScores == null) {
             return 0;
         }
         
-        // Get actual min/max temperatures and precipitation status for the date
+        // Delete any existing accuracy scores for this date to avoid duplicates
+        deleteScores(date, scope);
+        
+        // Save all generated scores in JDBC batches
+        bulkInsertRepository.insertAccuracyScores(accuracyScores.values());
+        logger.info("Generated and saved {} accuracy scores for date: {}", 
+                accuracyScores.size(), date);
+        
+        return accuracyScores.size();
+    }
+
+    /**
+     * Reads the forecasts of one date through a database cursor in provider, city and fetch order and scores
+     * them in a single pass, keeping only the current provider and city's pending forecast in memory
+     */
+    private int analyzeStreaming(LocalDate date, ScoringScope scope) {
+        logger.info("Starting streaming accuracy analysis for date: {} (Sarajevo time)", date);
+        
+        // One row per city, independent of the number of forecasts
         Map<String, DailyActualWeather> actualWeatherByCity = getActualWeatherForDate(date);
+        List<String> cities = forecastCursorRepository.findCities(date, scope.providers(), scope.cities());
+        
+        if (!isActualDataCompleteForDate(date, cities, actualWeatherByCity)) {
+            logger.warn("Actual weather data is not complete for date: {}. Skipping analysis.", date);
+            return 0;
+        }
         
         if (actualWeatherByCity.isEmpty()) {
             logger.warn("No actual weather data found for date: {}. Skipping analysis.", date);
@@ -65,12 +235,133 @@ public class AccuracyAnalysisService {
         }
         
         // Delete any existing accuracy scores for this date to avoid duplicates
-        accuracyRepository.deleteByTargetDate(date);
+        deleteScores(date, scope);
+        
+        AnalysisProperties.Streaming settings = properties.getStreaming();
+        StreamingScorer scorer = new StreamingScorer(date, actualWeatherByCity, Math.max(1, settings.getBatchSize()));
+        forecastCursorRepository.streamByTargetDate(date, scope.providers(), scope.cities(),
+                Math.max(1, settings.getFetchSize()), scorer::accept);
+        scorer.finish();
+        logger.info("Streamed {} forecasts and saved {} accuracy scores for date: {}", 
+                scorer.rows, scorer.written, date);
+        
+        return scorer.written;
+    }
+
+    /**
+     * Single-pass scoring of forecasts arriving in provider, city and fetch timestamp order. The horizon only
+     * shrinks as the fetch time grows, so fetches with the same horizon arrive one after another and the last
+     * of them is the one to keep. Scores are written in batches as they are produced.
+     */
+    private final class StreamingScorer {
+        private final LocalDate date;
+        private final Map<String, DailyActualWeather> actualWeatherByCity;
+        private final int batchSize;
+        private final List<AccuracyScore> batch;
+        
+        private ForecastRow pending;
+        private int pendingHorizon;
+        private String skippedCity;
+        private int rows;
+        private int written;
+        
+        StreamingScorer(LocalDate date, Map<String, DailyActualWeather> actualWeatherByCity, int batchSize) {
+            this.date = date;
+            this.actualWeatherByCity = actualWeatherByCity;
+            this.batchSize = batchSize;
+            this.batch = new ArrayList<>(batchSize);
+        }
         
-        // Get all forecasts for this target date
-        List<ForecastData> forecasts = forecastRepository.findByTargetDate(date);
+        void accept(ForecastRow row) {
+            rows++;
+            int forecastHorizon = calculateForecastHorizon(row.fetchTimestamp(), date);
+            // We don't care about forecasts in the past
+            if (forecastHorizon < 0) {
+                return;
+            }
+            if (pending != null && (pendingHorizon != forecastHorizon
+                    || !pending.city().equals(row.city()) || !pending.providerName().equals(row.providerName()))) {
+                score(pending, pendingHorizon);
+            }
+            pending = row;
+            pendingHorizon = forecastHorizon;
+        }
+        
+        void finish() {
+            if (pending != null) {
+                score(pending, pendingHorizon);
+                pending = null;
+            }
+            flush();
+        }
+        
+        private void score(ForecastRow forecast, int forecastHorizon) {
+            DailyActualWeather actualWeather = actualWeatherByCity.get(forecast.city());
+            if (actualWeather == null) {
+                // Skip if we don't have actual data for this city, warning once per city
+                if (!forecast.city().equals(skippedCity)) {
+                    logger.warn("No actual weather data for city: {}. Skipping accuracy analysis.", forecast.city());
+                    skippedCity = forecast.city();
+                }
+                return;
+            }
+            batch.add(generateAccuracyScore(forecast.providerName(), forecast.city(), date,
+                    forecast.predictedMinTemp(), forecast.predictedMaxTemp(), forecast.predictedWeather(),
+                    actualWeather, forecastHorizon));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+        
+        private void flush() {
+            if (!batch.isEmpty()) {
+                written += bulkInsertRepository.insertAccuracyScores(batch, batchSize);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Deletes the existing accuracy scores of a date within a scope
+     */
+    private void deleteScores(LocalDate date, ScoringScope scope) {
+        if (scope.isAll()) {
+            accuracyRepository.deleteByTargetDate(date);
+        } else {
+            scoringRepository.deleteScores(List.of(date), scope.providers(), scope.cities());
+        }
+    }
+
+    /**
+     * Computes the accuracy scores of one date without storing them
+     *
+     * @return The scores by {@link #scoreKey}, or null if the date cannot be analyzed yet
+     */
+    private Map<String, AccuracyScore> computeScores(LocalDate date, ScoringScope scope) {
+        // Get all forecasts in scope for this target date
+        List<ForecastData> forecasts = forecastRepository.findByTargetDate(date).stream()
+                .filter(f -> scope.includes(f.getProviderName(), f.getCity()))
+                .toList();
         logger.info("Found {} forecasts for date: {}", forecasts.size(), date);
         
+        // Get actual min/max temperatures and precipitation status for the date
+        Map<String, DailyActualWeather> actualWeatherByCity = getActualWeatherForDate(date);
+        
+        // First check if we have complete actual data for every city with a forecast for this date
+        List<String> cities = forecasts.stream()
+                .map(ForecastData::getCity)
+                .distinct()
+                .toList();
+        if (!isActualDataCompleteForDate(date, cities, actualWeatherByCity)) {
+            logger.warn("Actual weather data is not complete for date: {}. Skipping analysis.", date);
+            return null;
+        }
+        
+        if (actualWeatherByCity.isEmpty()) {
+            logger.warn("No actual weather data found for date: {}. Skipping analysis.", date);
+            return null;
+        }
+        
         // Group forecasts by provider, city, and fetch timestamp
         Map<String, Map<String, Map<Instant, ForecastData>>> groupedForecasts = 
                 groupForecasts(forecasts);
@@ -104,62 +395,44 @@ public class AccuracyAnalysisService {
                     // We don't care about forecasts in the past
                     if (forecastHorizon < 0) continue;
                     
-                    // Generate accuracy score
+                    // Generate accuracy score; fetches are in time order, so of several with the
+                    // same horizon the latest one wins
                     AccuracyScore score = generateAccuracyScore(
                             forecast, actualWeather, forecastHorizon);
-                    String mapKey = providerName + ":" + city + ":" + date + ":" + forecastHorizon;
-                    
-                    accuracyScores.put(mapKey, score);
+                    accuracyScores.put(scoreKey(score), score);
                 }
             }
         }
         
-        // Save all generated scores
-        accuracyRepository.saveAll(accuracyScores.values());
-        logger.info("Generated and saved {} accuracy scores for date: {}", 
-                accuracyScores.size(), date);
-        
-        return accuracyScores.size();
+        return accuracyScores;
     }
     
     /**
-     * Check if we have complete actual weather data for the entire date
+     * Check if we have complete actual weather data for the entire date, judged on the hourly observation
+     * coverage of every city against {@code weather.analysis.completeness}
      * Uses Sarajevo timezone for day boundaries
+     *
+     * @param cities All cities with a forecast for the date, which need actual data
+     * @param actualWeatherByCity The daily actual weather of the date
      */
-    private boolean isActualDataCompleteForDate(LocalDate date) {
-        // Calculate the start and end of the day in Sarajevo time, then convert to UTC for database queries
-        ZonedDateTime startOfDayLocal = date.atStartOfDay(SARAJEVO_ZONE);
-        ZonedDateTime endOfDayLocal = date.plusDays(1).atStartOfDay(SARAJEVO_ZONE);
-        
-        // Convert to UTC Instants for database queries
-        Instant startOfDayUtc = startOfDayLocal.toInstant();
-        Instant endOfDayUtc = endOfDayLocal.toInstant();
-        
-        logger.debug("Checking data completeness between {} and {} UTC", 
-                startOfDayUtc, endOfDayUtc);
-        
-        // Get all cities we have forecast data for
-        List<String> cities = forecastRepository.findByTargetDate(date).stream()
-                .map(ForecastData::getCity)
-                .distinct()
-                .toList();
+    private boolean isActualDataCompleteForDate(LocalDate date, List<String> cities,
+                                                Map<String, DailyActualWeather> actualWeatherByCity) {
+        AnalysisProperties.Completeness completeness = properties.getCompleteness();
         
         if (cities.isEmpty()) {
             logger.info("No forecast data found for any city on date: {}", date);
             return false;
         }
         
-        // For each city, check if we have data for the last hour of the day
+        // For each city, check that enough hours of the day have an observation
         boolean isComplete = true;
         for (String city : cities) {
-            // Check for data in the last hour of the day in Sarajevo time
-            Instant lastHourStart = endOfDayUtc.minus(Duration.ofHours(1));
-            List<ActualWeatherData> lastHourData = actualDataRepository
-                    .findByCityAndMeasurementTimestampBetween(city, lastHourStart, endOfDayUtc);
-            
-            if (lastHourData.isEmpty()) {
-                logger.info("Missing actual weather data for city {} on date {} in the last hour", 
-                        city, date);
+            DailyActualWeather daily = actualWeatherByCity.get(city);
+            long coverage = daily != null ? daily.getCoverage() : 0L;
+            if (!ObservationCoverage.isComplete(date, coverage, completeness)) {
+                logger.info("Missing actual weather data for city {} on date {}: {} of {} hours covered, " +
+                                "missing hours {}", city, date, ObservationCoverage.coveredSlots(coverage),
+                        ObservationCoverage.slotsInDay(date), ObservationCoverage.missingSlots(date, coverage));
                 isComplete = false;
             }
         }
@@ -168,68 +441,19 @@ public class AccuracyAnalysisService {
     }
     
     /**
-     * Retrieve actual weather data (min/max temperatures and precipitation) for the given date
-     * Uses Sarajevo timezone for day boundaries
+     * Retrieve the daily actual weather (min/max temperatures and precipitation) of every city for the given
+     * date, maintained per Sarajevo day as observations are stored
      */
     private Map<String, DailyActualWeather> getActualWeatherForDate(LocalDate date) {
-        // Calculate the start and end of the day in Sarajevo time, then convert to UTC
-        ZonedDateTime startOfDayLocal = date.atStartOfDay(SARAJEVO_ZONE);
-        ZonedDateTime endOfDayLocal = date.plusDays(1).atStartOfDay(SARAJEVO_ZONE);
-        
-        // Convert to UTC Instants for database queries
-        Instant startOfDayUtc = startOfDayLocal.toInstant();
-        Instant endOfDayUtc = endOfDayLocal.toInstant();
-        
-        logger.debug("Getting actual weather between {} and {} UTC", 
-                startOfDayUtc, endOfDayUtc);
-        
-        // Get all actual weather data for the date
-        List<ActualWeatherData> actualDataList = actualDataRepository
-                .findByMeasurementTimestampBetween(startOfDayUtc, endOfDayUtc);
-        
-        // Group by city and calculate min/max temperatures and precipitation status
         Map<String, DailyActualWeather> result = new HashMap<>();
-        
-        // Group by city
-        Map<String, List<ActualWeatherData>> dataByCity = actualDataList.stream()
-                .collect(Collectors.groupingBy(ActualWeatherData::getCity));
-        
-        for (Map.Entry<String, List<ActualWeatherData>> entry : dataByCity.entrySet()) {
-            String city = entry.getKey();
-            List<ActualWeatherData> cityData = entry.getValue();
-            
-            if (cityData.isEmpty()) {
-                continue;
-            }
-            
-            // Calculate min/max temperatures
-            double minTemp = cityData.stream()
-                    .filter(d -> d.getActualTemperature() != null)
-                    .mapToDouble(ActualWeatherData::getActualTemperature)
-                    .min()
-                    .orElse(Double.NaN);
-            
-            double maxTemp = cityData.stream()
-                    .filter(d -> d.getActualTemperature() != null)
-                    .mapToDouble(ActualWeatherData::getActualTemperature)
-                    .max()
-                    .orElse(Double.NaN);
-            
-            // Determine if there was any precipitation
-            boolean hadPrecipitation = cityData.stream()
-                    .anyMatch(d -> d.getActualPrecipitation() != null && 
-                            d.getActualPrecipitation() > 0.0);
-            
-            // Create a daily actual weather object
-            DailyActualWeather dailyWeather = new DailyActualWeather(minTemp, maxTemp, hadPrecipitation);
-            result.put(city, dailyWeather);
+        for (DailyActualWeather daily : dailyActualRepository.findByLocalDate(date)) {
+            result.put(daily.getCity(), daily);
         }
-        
         return result;
     }
     
     /**
-     * Group forecasts by provider, city, and fetch timestamp
+     * Group forecasts by provider, city, and fetch timestamp, in fetch timestamp order
      * If multiple forecasts exist for the same provider/city/timestamp, keep only the latest one by ID
      */
     private Map<String, Map<String, Map<Instant, ForecastData>>> groupForecasts(List<ForecastData> forecasts) {
@@ -241,17 +465,10 @@ public class AccuracyAnalysisService {
             
             // Add city if not present for this provider
             Map<String, Map<Instant, ForecastData>> citiesMap = result.get(forecast.getProviderName());
-            citiesMap.putIfAbsent(forecast.getCity(), new HashMap<>());
-            
-            // Add or replace forecast for this timestamp
-            Map<Instant, ForecastData> timestampsMap = citiesMap.get(forecast.getCity());
+            citiesMap.putIfAbsent(forecast.getCity(), new TreeMap<>());
             
-            // If there is already a forecast for this timestamp, keep the one with higher ID
-            // (which is likely the more recent entry in the database)
-            ForecastData existingForecast = timestampsMap.get(forecast.getFetchTimestamp());
-            if (existingForecast == null || existingForecast.getId() < forecast.getId()) {
-                timestampsMap.put(forecast.getFetchTimestamp(), forecast);
-            }
+            // Forecasts are unique per provider, city, fetch timestamp and target date
+            citiesMap.get(forecast.getCity()).put(forecast.getFetchTimestamp(), forecast);
         }
         
         return result;
@@ -284,23 +501,37 @@ public class AccuracyAnalysisService {
             ForecastData forecast, 
             DailyActualWeather actualWeather, 
             int forecastHorizon) {
+        return generateAccuracyScore(forecast.getProviderName(), forecast.getCity(), forecast.getTargetDate(),
+                forecast.getPredictedMinTemp(), forecast.getPredictedMaxTemp(), forecast.getPredictedWeather(),
+                actualWeather, forecastHorizon);
+    }
+    
+    private AccuracyScore generateAccuracyScore(
+            String providerName,
+            String city,
+            LocalDate targetDate,
+            Double predictedMinTemp,
+            Double predictedMaxTemp,
+            Weather predictedWeather,
+            DailyActualWeather actualWeather, 
+            int forecastHorizon) {
         
         // Calculate temperature deviations (absolute differences)
-        double minTempScore = Double.isNaN(actualWeather.minTemp) || forecast.getPredictedMinTemp() == null
-                ? 0.0 : (forecast.getPredictedMinTemp() - actualWeather.minTemp);
+        double minTempScore = actualWeather.getMinTemperature() == null || predictedMinTemp == null
+                ? 0.0 : (predictedMinTemp - actualWeather.getMinTemperature());
         
-        double maxTempScore = Double.isNaN(actualWeather.maxTemp) || forecast.getPredictedMaxTemp() == null
-                ? 0.0 : (forecast.getPredictedMaxTemp() - actualWeather.maxTemp);
+        double maxTempScore = actualWeather.getMaxTemperature() == null || predictedMaxTemp == null
+                ? 0.0 : (predictedMaxTemp - actualWeather.getMaxTemperature());
         
         // Determine precipitation score
         PrecipitationScoreType precipScore = calculatePrecipitationScore(
-                forecast.getPredictedWeather(), actualWeather.hadPrecipitation);
+                predictedWeather, Boolean.TRUE.equals(actualWeather.getHadPrecipitation()));
         
         // Create and return the accuracy score
         return new AccuracyScore(
-                forecast.getProviderName(),
-                forecast.getCity(),
-                forecast.getTargetDate(),
+                providerName,
+                city,
+                targetDate,
                 forecastHorizon,
                 minTempScore,
                 maxTempScore,
@@ -332,19 +563,4 @@ public class AccuracyAnalysisService {
             return PrecipitationScoreType.TRUE_NEGATIVE;
         }
     }
-    
-    /**
-     * Helper class to store daily actual weather data
-     */
-    private static class DailyActualWeather {
-        private final double minTemp;
-        private final double maxTemp;
-        private final boolean hadPrecipitation;
-        
-        public DailyActualWeather(double minTemp, double maxTemp, boolean hadPrecipitation) {
-            this.minTemp = minTemp;
-            this.maxTemp = maxTemp;
-            this.hadPrecipitation = hadPrecipitation;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -1,10 +1,30 @@
 package ba.root.weather.service;
 
+import ba.root.weather.config.ActualWeatherSourceConfig;
+import ba.root.weather.config.CityConfig;
+import ba.root.weather.config.CollectorConfig;
+import ba.root.weather.config.CollectorConfigRegistry;
+import ba.root.weather.config.CollectorProperties;
+import ba.root.weather.config.ProviderConfig;
+import ba.root.weather.config.StationConfig;
 import ba.root.weather.entity.ActualWeatherData;
-import ba.root.weather.entity.ForecastData;
 import ba.root.weather.entity.Weather;
-import ba.root.weather.repository.ActualWeatherDataRepository;
-import ba.root.weather.repository.ForecastDataRepository;
+import ba.root.weather.repository.BulkInsertRepository;
+import ba.root.weather.service.archive.RawResponseArchive;
+import ba.root.weather.service.collector.CollectionCycleReport;
+import ba.root.weather.service.collector.ForecastPipeline;
+import ba.root.weather.service.collector.ForecastRequest;
+import ba.root.weather.service.collector.ForecastResponseHandler;
+import ba.root.weather.service.collector.LocationKeyService;
+import ba.root.weather.service.collector.ProviderGuards;
+import ba.root.weather.service.collector.ProviderUnavailableException;
+import ba.root.weather.service.collector.QuotaPlanner;
+import ba.root.weather.service.collector.ReactiveForecastCollector;
+import ba.root.weather.service.collector.RequestCoalescer;
+import ba.root.weather.service.collector.ResponseMetadataStore;
+import ba.root.weather.service.metar.MetarDecoder;
+import ba.root.weather.service.metar.MetarObservation;
+import ba.root.weather.service.metar.RecentObservationIndex;
 import ba.root.weather.service.parser.WeatherDataParser;
 import ba.root.weather.service.parser.WeatherDataParserFactory;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -12,25 +32,31 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.HttpMethod;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class DataCollectorService {
@@ -39,135 +65,329 @@ public class DataCollectorService {
     
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
-    private final ResourceLoader resourceLoader;
-    private final ForecastDataRepository forecastDataRepository;
+    private final CollectorConfigRegistry configRegistry;
     private final WeatherDataParserFactory parserFactory;
-    private final ActualWeatherDataRepository actualWeatherDataRepository;
-
-    private final Map<String, String> locationKeyCache = new ConcurrentHashMap<>();
+    private final CollectorProperties properties;
+    private final ReactiveForecastCollector reactiveForecastCollector;
+    private final LocationKeyService locationKeyService;
+    private final ResponseMetadataStore responseMetadataStore;
+    private final RawResponseArchive rawResponseArchive;
+    private final BulkInsertRepository bulkInsertRepository;
+    private final ProviderGuards providerGuards;
+    private final QuotaPlanner quotaPlanner;
+    private final ForecastPipeline forecastPipeline;
+    private final RequestCoalescer requestCoalescer;
+    private final ForecastResponseHandler forecastResponseHandler;
+    private final RecentObservationIndex recentObservations = new RecentObservationIndex();
 
     @Autowired
     public DataCollectorService(RestTemplate restTemplate, 
                                ObjectMapper objectMapper,
-                               ResourceLoader resourceLoader,
-                               ActualWeatherDataRepository actualWeatherDataRepository,
-                               ForecastDataRepository forecastDataRepository,
-                               WeatherDataParserFactory parserFactory) {
+                               CollectorConfigRegistry configRegistry,
+                               WeatherDataParserFactory parserFactory,
+                               CollectorProperties properties,
+                               ReactiveForecastCollector reactiveForecastCollector,
+                               LocationKeyService locationKeyService,
+                               ResponseMetadataStore responseMetadataStore,
+                               RawResponseArchive rawResponseArchive,
+                               BulkInsertRepository bulkInsertRepository,
+                               ProviderGuards providerGuards,
+                               QuotaPlanner quotaPlanner,
+                               ForecastPipeline forecastPipeline,
+                               RequestCoalescer requestCoalescer,
+                               ForecastResponseHandler forecastResponseHandler) {
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
-        this.resourceLoader = resourceLoader;
-        this.actualWeatherDataRepository = actualWeatherDataRepository;
-        this.forecastDataRepository = forecastDataRepository;
+        this.configRegistry = configRegistry;
         this.parserFactory = parserFactory;
+        this.properties = properties;
+        this.reactiveForecastCollector = reactiveForecastCollector;
+        this.locationKeyService = locationKeyService;
+        this.responseMetadataStore = responseMetadataStore;
+        this.rawResponseArchive = rawResponseArchive;
+        this.bulkInsertRepository = bulkInsertRepository;
+        this.providerGuards = providerGuards;
+        this.quotaPlanner = quotaPlanner;
+        this.forecastPipeline = forecastPipeline;
+        this.requestCoalescer = requestCoalescer;
+        this.forecastResponseHandler = forecastResponseHandler;
     }
     
     @Scheduled(cron = "0 0 * * * *") // Run every hour
     public void fetchActualWeather() {
+        if (properties.getMetar().isHighFrequency()) {
+            // Covered by pollActualWeather
+            return;
+        }
+        collectActualWeather(0);
+    }
+
+    /**
+     * High-frequency mode: polls every {@code metar.poll-interval} for all reports issued within the lookback
+     * window, so half-hourly METARs and SPECI reports between them are stored too
+     */
+    @Scheduled(fixedDelayString = "${weather.collector.metar.poll-interval:PT10M}",
+            initialDelayString = "${weather.collector.metar.poll-interval:PT10M}")
+    public void pollActualWeather() {
+        CollectorProperties.Metar settings = properties.getMetar();
+        if (!settings.isHighFrequency()) {
+            return;
+        }
+        // The source takes the lookback in whole hours
+        collectActualWeather((int) Math.max(1, (settings.getLookback().toMinutes() + 59) / 60));
+    }
+
+    /**
+     * Fetches the reports of every configured station and stores the ones not stored yet
+     *
+     * @param hours How many hours of reports to request per station, or 0 for only the latest one
+     */
+    private void collectActualWeather(int hours) {
         logger.info("Fetching actual weather...");
         try {
-            // 1. Load and parse the config.json file
-            JsonNode config = loadConfig();
-            
-            // 2. Get the URL template from config
-            String urlTemplate = config.get("actualWeatherSource").get("url").asText();
+            long start = System.nanoTime();
             
-            // 3. Get the list of cities with their ICAO codes
-            List<String> icaoCodes = new ArrayList<>();
-            JsonNode citiesNode = config.get("cities");
-            for (JsonNode city : citiesNode) {
-                icaoCodes.add(city.get("icao_code").asText());
-            }
+            // 1. Get the current configuration
+            CollectorConfig config = configRegistry.current();
             
-            // 4. Create the actual URL by replacing the placeholder
-            String actualUrl = urlTemplate.replace("{}", String.join(",", icaoCodes));
+            // 2. Split the configured stations into requests that stay within the URL and batch limits
+            CollectorProperties.Metar settings = properties.getMetar();
+            int maxUrlLength = settings.getMaxUrlLength() - ActualWeatherSourceConfig.hoursParameterLength(hours);
+            List<List<String>> chunks = config.actualWeatherSource().chunk(
+                    config.stationsByIcao().keySet(), settings.getMaxStationsPerRequest(), maxUrlLength);
             
-            // 5. Call the API and get the response
-            String response = restTemplate.getForObject(actualUrl, String.class);
+            // 3. Fetch and parse the chunks concurrently, dropping reports that are already stored
+            MetarReports reports = fetchMetarChunks(config, chunks, hours);
             
-            // 6. Parse the response JSON
-            JsonNode weatherData = objectMapper.readTree(response);
-            
-            // 7. Process each city's weather data
-            for (JsonNode data : weatherData) {
-                String icaoId = data.get("icaoId").asText();
-                String cityName = getCityNameByIcaoCode(config, icaoId);
-                if (cityName == null) {
-                    logger.warn("City not found for ICAO code: {}", icaoId);
+            // 4. Save everything in JDBC batches, then remember what was stored
+            int saved = bulkInsertRepository.insertActualWeather(reports.observations(), settings.getBatchSize());
+            recentObservations.markSeen(reports.keys());
+            recentObservations.evictBefore(Instant.now().minus(settings.getLookback()).minus(Duration.ofHours(1)));
+            logger.info("Saved {} actual weather entries from {} new reports ({} SPECI, {} already stored) " +
+                            "for {} stations in {} requests ({} ms)",
+                    saved, reports.keys().size(), reports.specials(), reports.alreadyStored(),
+                    config.stationsByIcao().size(), chunks.size(), (System.nanoTime() - start) / 1_000_000);
+
+        } catch (Exception e) {
+            logger.error("Error fetching actual weather data", e);
+        }
+    }
+
+    /**
+     * Parsed reports of one or more METAR requests
+     *
+     * @param observations One entry per report and city served by its station
+     * @param keys Station and observation time of every report
+     * @param specials How many of the reports are SPECI (unscheduled) reports
+     * @param alreadyStored Reports skipped because the recent-key index has them
+     */
+    private record MetarReports(List<ActualWeatherData> observations, List<RecentObservationIndex.Key> keys,
+                                int specials, int alreadyStored) {
+        static MetarReports empty() {
+            return new MetarReports(List.of(), List.of(), 0, 0);
+        }
+
+        MetarReports plus(MetarReports other) {
+            List<ActualWeatherData> allObservations = new ArrayList<>(observations);
+            allObservations.addAll(other.observations);
+            List<RecentObservationIndex.Key> allKeys = new ArrayList<>(keys);
+            allKeys.addAll(other.keys);
+            return new MetarReports(allObservations, allKeys,
+                    specials + other.specials, alreadyStored + other.alreadyStored);
+        }
+    }
+
+    /**
+     * Fetches the METAR chunks at most {@code maxConcurrentRequests} at a time, through the reactive engine in
+     * reactive mode and on virtual threads otherwise.
+     * A failed or timed out chunk is logged and skipped, the other chunks are still saved.
+     */
+    private MetarReports fetchMetarChunks(CollectorConfig config, List<List<String>> chunks, int hours)
+            throws InterruptedException {
+        if (properties.getMode() == CollectorProperties.Mode.REACTIVE) {
+            String sourceName = config.actualWeatherSource().name();
+            List<String> urls = chunks.stream().map(chunk -> config.actualWeatherSource().url(chunk, hours)).toList();
+            return reactiveForecastCollector.fetchAll(sourceName, urls, properties.getMetar().getMaxConcurrentRequests(),
+                            body -> {
+                                rawResponseArchive.archive(sourceName, RawResponseArchive.ALL_CITIES, Instant.now(), body);
+                                try {
+                                    return readMetarReports(config, objectMapper.readTree(body));
+                                } catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            })
+                    .stream()
+                    .reduce(MetarReports.empty(), MetarReports::plus);
+        }
+        if (chunks.size() == 1) {
+            return fetchMetarChunk(config, chunks.getFirst(), hours);
+        }
+
+        Semaphore permits = new Semaphore(Math.max(1, properties.getMetar().getMaxConcurrentRequests()));
+        List<Callable<MetarReports>> tasks = new ArrayList<>(chunks.size());
+        for (List<String> chunk : chunks) {
+            tasks.add(() -> {
+                permits.acquire();
+                try {
+                    return fetchMetarChunk(config, chunk, hours);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        MetarReports reports = MetarReports.empty();
+        Duration deadline = properties.getCycleDeadline();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<MetarReports>> futures = executor.invokeAll(
+                    tasks, deadline.toMillis(), TimeUnit.MILLISECONDS);
+            for (int i = 0; i < futures.size(); i++) {
+                Future<MetarReports> future = futures.get(i);
+                if (future.isCancelled()) {
+                    logger.warn("METAR request for {} stations did not finish within {}", chunks.get(i).size(), deadline);
                     continue;
                 }
-                
-                // Parse receipt time
+                try {
+                    reports = reports.plus(future.get());
+                } catch (ExecutionException e) {
+                    logger.error("Unexpected error fetching METAR for {} stations", chunks.get(i).size(), e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return reports;
+    }
+
+    /**
+     * Fetches and parses one METAR request with the blocking client
+     */
+    private MetarReports fetchMetarChunk(CollectorConfig config, List<String> icaoCodes, int hours) {
+        try {
+            // Call the API and get the response
+            String actualUrl = config.actualWeatherSource().url(icaoCodes, hours);
+            String sourceName = config.actualWeatherSource().name();
+            String response = providerGuards.execute(sourceName, () -> {
+                quotaPlanner.recordCall(sourceName);
+                return restTemplate.getForObject(actualUrl, String.class);
+            });
+            rawResponseArchive.archive(sourceName, RawResponseArchive.ALL_CITIES,
+                    Instant.now(), response);
+            
+            // Parse the response JSON
+            return readMetarReports(config, objectMapper.readTree(response));
+        } catch (Exception e) {
+            logger.error("Error fetching actual weather data for {} stations", icaoCodes.size(), e);
+            return MetarReports.empty();
+        }
+    }
+
+    /**
+     * Turns a METAR response into an entry for every city linked to each reporting station.
+     * Reports are timestamped with their observation time, or with the receipt time if the source leaves it out.
+     */
+    private MetarReports readMetarReports(CollectorConfig config, JsonNode weatherData) {
+        List<ActualWeatherData> observations = new ArrayList<>();
+        List<RecentObservationIndex.Key> keys = new ArrayList<>();
+        int specials = 0, alreadyStored = 0;
+        // Process each station's weather data
+        for (JsonNode data : weatherData) {
+            String icaoId = data.get("icaoId").asText();
+            StationConfig station = config.station(icaoId);
+            if (station == null) {
+                logger.warn("City not found for ICAO code: {}", icaoId);
+                continue;
+            }
+            
+            // Observation time, from the receipt time if it is missing
+            Instant measurementTimestamp;
+            if (data.hasNonNull("obsTime")) {
+                measurementTimestamp = Instant.ofEpochSecond(data.get("obsTime").asLong());
+            } else {
                 String receiptTimeStr = data.get("receiptTime").asText();
                 LocalDateTime receiptDateTime = LocalDateTime.parse(receiptTimeStr, DATE_TIME_FORMATTER);
-                Instant measurementTimestamp = receiptDateTime.toInstant(ZoneOffset.UTC);
-                
-                // Get temperature
-                Double temperature = data.has("temp") ? data.get("temp").asDouble() : null;
-                
-                // Parse weather string to determine precipitation and weather type
-                String wxString = data.has("wxString") ? data.get("wxString").asText() : "";
-                Weather weatherType;
+                measurementTimestamp = receiptDateTime.toInstant(ZoneOffset.UTC);
+            }
 
-                if (wxString == null || wxString.isEmpty() || wxString.equals("null")) {
-                    weatherType = Weather.CLEAR;
-                } else {
-                    // wxString is present, parse it as usual
-                    weatherType = parseWeatherType(wxString);
-                }
+            // Polling with a lookback returns the same report again until it drops out of the window
+            if (recentObservations.contains(icaoId, measurementTimestamp)) {
+                alreadyStored++;
+                continue;
+            }
+            keys.add(new RecentObservationIndex.Key(icaoId, measurementTimestamp));
+            if ("SPECI".equals(data.path("metarType").asText())) {
+                specials++;
+            }
+            
+            // Decode the raw report; the source also reports present weather decoded on its own, which wins
+            MetarObservation observation = MetarDecoder.decode(
+                    data.hasNonNull("rawOb") ? data.get("rawOb").asText() : null);
+            if (data.hasNonNull("wxString")) {
+                observation = observation.withWeather(MetarDecoder.decodeWeather(data.get("wxString").asText()));
+            }
 
-                // Check cloud cover
-                if (weatherType == Weather.CLEAR) {
-                    String rawOb = data.has("rawOb") ? data.get("rawOb").asText() : "";
-                    weatherType = parseCloudCover(rawOb);
-                }
+            // Get temperature, from the report itself if the source left it out
+            Double temperature = data.hasNonNull("temp") ? data.get("temp").asDouble() : observation.temperature();
 
-                Double precipitation = estimatePrecipitation(wxString);
-                
-                // Create and save the ActualWeatherData entity
-                ActualWeatherData weatherDataEntity = new ActualWeatherData(
-                        cityName,
+            // Weather type from present weather, or from cloud cover if there is none
+            Weather weatherType = observation.weatherType();
+            Double precipitation = observation.estimatedPrecipitation();
+            
+            // The same observation applies to every city served by this station
+            for (CityConfig city : station.cities()) {
+                observations.add(new ActualWeatherData(
+                        city.name(),
                         measurementTimestamp,
                         temperature,
                         precipitation,
                         weatherType
-                );
-                
-                actualWeatherDataRepository.save(weatherDataEntity);
-                logger.info("Saved actual weather data for {}: {}°C, {}", cityName, temperature, weatherType);
+                ));
             }
-
-        } catch (Exception e) {
-            logger.error("Error fetching actual weather data", e);
+            logger.debug("Parsed actual weather data for {}: {}°C, {}", icaoId, temperature, weatherType);
         }
+        return new MetarReports(observations, keys, specials, alreadyStored);
     }
 
-    @Scheduled(cron = "0 0 */6 * * *") // Run every 6 hours
+    @Scheduled(cron = "${weather.collector.forecast-cron:0 0 */6 * * *}") // Every 6 hours by default
     public void fetchForecasts() {
-        logger.info("Fetching weather forecasts...");
+        CollectionCycleReport report = collectForecasts();
+        logger.info("Forecast fetching completed: {}", report);
+    }
+
+    /**
+     * Runs one forecast collection cycle over every provider × city pair: one after another,
+     * concurrently on virtual threads, through the reactive engine or through the staged pipeline,
+     * depending on {@code weather.collector.mode}.
+     *
+     * @return Report of what was collected in this cycle
+     */
+    public CollectionCycleReport collectForecasts() {
+        logger.info("Fetching weather forecasts ({} mode)...", properties.getMode());
+        CollectionCycleReport report = new CollectionCycleReport();
         try {
-            // Load the configuration
-            JsonNode config = loadConfig();
+            // Get the current configuration
+            CollectorConfig config = configRegistry.current();
             
-            // Get the list of cities
-            JsonNode citiesNode = config.get("cities");
-            if (citiesNode == null || !citiesNode.isArray()) {
+            if (config.cities().isEmpty()) {
                 logger.error("Invalid or missing 'cities' configuration");
-                return;
+                return report.finish();
             }
             
-            // Get the list of providers
-            JsonNode providersNode = config.get("providers");
-            if (providersNode == null || !providersNode.isArray()) {
+            if (config.providers().isEmpty()) {
                 logger.error("Invalid or missing 'providers' configuration");
-                return;
+                return report.finish();
             }
             
-            // Process each provider
-            for (JsonNode provider : providersNode) {
-                String providerName = provider.get("name").asText();
-                String urlTemplate = provider.get("url").asText();
+            // Build the provider × city work list
+            List<ForecastJob> jobs = new ArrayList<>();
+            for (ProviderConfig provider : config.providers()) {
+                String providerName = provider.name();
                 
-                logger.info("Processing provider: {}", providerName);
+                if (!provider.enabled()) {
+                    logger.info("Provider {} is disabled", providerName);
+                    continue;
+                }
                 
                 // Check if we have a parser for this provider
                 if (!parserFactory.hasParser(providerName)) {
@@ -178,286 +398,233 @@ public class DataCollectorService {
                 // Get the parser for this provider
                 WeatherDataParser parser = parserFactory.getParser(providerName);
                 
-                // Process each city for this provider
-                for (JsonNode city : citiesNode) {
-                    String cityName = city.get("name").asText();
-                    
-                    try {
-                        String actualUrl;
-                        // Special handling for AccuWeather's two-step API process
-                        if ("AccuWeather".equals(providerName)) {
-                            String locationKey = getLocationKey(city, provider);
-                            if (locationKey == null) {
-                                logger.error("Could not retrieve location key for {} from AccuWeather. Skipping.", cityName);
-                                continue;
-                            }
-                            logger.info("Location key for {} is {}", cityName, locationKey);
-                            // Create a temporary node with the location key to build the forecast URL
-                            JsonNode providerWithLocation = ((com.fasterxml.jackson.databind.node.ObjectNode) provider)
-                                    .put("locationKey", locationKey);
-                            actualUrl = createUrlWithParameters(provider.get("url").asText(), city, providerWithLocation);
-                        } else {
-                            // Create the actual URL by replacing placeholders
-                            actualUrl = createUrlWithParameters(provider.get("url").asText(), city, provider);
-                        }
-
-                        // Skip if URL couldn't be created
-                        if (actualUrl == null) {
-                            continue;
-                        }
-                        
-                        logger.info("Fetching forecast for {} from {}", cityName, providerName);
-                        
-                        // Call the API and get the response
-                        String response = restTemplate.getForObject(actualUrl, String.class);
-                        
-                        // Parse the response using the appropriate parser
-                        Instant fetchTimestamp = Instant.now();
-                        List<ForecastData> forecasts = parser.parseForecastResponse(cityName, response, fetchTimestamp);
-                        
-                        // Save forecasts to the database
-                        if (forecasts != null && !forecasts.isEmpty()) {
-                            forecastDataRepository.saveAll(forecasts);
-                            logger.info("Saved {} forecast entries for {} from {}", 
-                                    forecasts.size(), cityName, providerName);
-                        } else {
-                            logger.warn("No forecast data parsed for {} from {}", cityName, providerName);
-                        }
-                        
-                    } catch (RestClientException e) {
-                        logger.error("Error fetching forecast for {} from {}: {}", 
-                                cityName, providerName, e.getMessage());
-                    } catch (Exception e) {
-                        logger.error("Unexpected error processing forecast for {} from {}", 
-                                cityName, providerName, e);
-                    }
+                // Cities in the same grid cell of the provider share one request
+                List<ForecastJob> providerJobs = new ArrayList<>();
+                for (List<CityConfig> cell : requestCoalescer.group(provider, config.cities(), city -> city)) {
+                    List<String> sharedWith = cell.subList(1, cell.size()).stream().map(CityConfig::name).toList();
+                    providerJobs.add(new ForecastJob(provider, cell.getFirst(), parser, sharedWith));
                 }
+                if (providerJobs.size() < config.cities().size()) {
+                    logger.info("Coalesced {} cities into {} requests for {}",
+                            config.cities().size(), providerJobs.size(), providerName);
+                }
+                
+                // Providers with a daily call limit only get this cycle's share of it
+                List<ForecastJob> planned = quotaPlanner.plan(providerName, providerJobs,
+                        ForecastJob::cityName, this::estimateCalls);
+                for (int i = planned.size(); i < providerJobs.size(); i++) {
+                    report.record(providerName, CollectionCycleReport.Outcome.skipped());
+                }
+                jobs.addAll(planned);
             }
             
-            logger.info("Forecast fetching completed");
+            switch (properties.getMode()) {
+                case CONCURRENT -> collectConcurrently(jobs, report);
+                case REACTIVE -> collectReactively(jobs, report);
+                case PIPELINE -> forecastPipeline.collect(resolveRequests(jobs, report), report);
+                default -> {
+                    for (ForecastJob job : jobs) {
+                        report.record(job.providerName(), collectForecast(job));
+                    }
+                }
+            }
             
         } catch (IOException e) {
             logger.error("Error loading configuration", e);
         } catch (Exception e) {
             logger.error("Unexpected error in forecast fetching", e);
         }
+        return report.finish();
     }
 
-    // Helper method for AccuWeather
-    private String getLocationKey(JsonNode city, JsonNode provider) {
-        String cityName = city.get("name").asText();
-        if (locationKeyCache.containsKey(cityName)) {
-            logger.info("Found AccuWeather location key for {} in cache.", cityName);
-            return locationKeyCache.get(cityName);
+    /**
+     * Runs all jobs on virtual threads, with at most {@code maxPerProvider} requests in flight per provider.
+     * Jobs still running (or waiting for a permit) when the cycle deadline passes are cancelled
+     * and reported as timed out, so one slow provider cannot hold up the others.
+     */
+    private void collectConcurrently(List<ForecastJob> jobs, CollectionCycleReport report) throws InterruptedException {
+        CollectorProperties.Concurrent settings = properties.getConcurrent();
+        Duration deadline = properties.getCycleDeadline();
+        Map<String, Semaphore> providerPermits = new HashMap<>();
+        List<Callable<CollectionCycleReport.Outcome>> tasks = new ArrayList<>(jobs.size());
+        for (ForecastJob job : jobs) {
+            Semaphore permits = providerPermits.computeIfAbsent(job.providerName(),
+                    name -> new Semaphore(Math.max(1, settings.limitFor(name))));
+            tasks.add(() -> {
+                permits.acquire();
+                try {
+                    return collectForecast(job);
+                } finally {
+                    permits.release();
+                }
+            });
         }
 
-        String locationUrlTemplate = provider.get("locationUrl").asText();
-        String locationUrl = createUrlWithParameters(locationUrlTemplate, city, provider);
-        if (locationUrl == null) return null;
-
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
         try {
-            String response = restTemplate.getForObject(locationUrl, String.class);
-            JsonNode locationResponse = objectMapper.readTree(response);
-
-            // The response is an array, get the first result's "Key"
-            if (locationResponse.isArray() && !locationResponse.isEmpty()) {
-                String key = locationResponse.get(0).get("Key").asText();
-                locationKeyCache.put(cityName, key);
-                return key;
-            } else if (locationResponse.has("Key")) { // Sometimes it's not an array
-                String key = locationResponse.get("Key").asText();
-                locationKeyCache.put(cityName, key);
-                return key;
+            List<Future<CollectionCycleReport.Outcome>> futures = executor.invokeAll(
+                    tasks, deadline.toMillis(), TimeUnit.MILLISECONDS);
+            for (int i = 0; i < futures.size(); i++) {
+                ForecastJob job = jobs.get(i);
+                Future<CollectionCycleReport.Outcome> future = futures.get(i);
+                if (future.isCancelled()) {
+                    logger.warn("Forecast for {} from {} did not finish within the cycle deadline of {}",
+                            job.cityName(), job.providerName(), deadline);
+                    report.record(job.providerName(), CollectionCycleReport.Outcome.timedOut());
+                    continue;
+                }
+                try {
+                    report.record(job.providerName(), future.get());
+                } catch (ExecutionException e) {
+                    logger.error("Unexpected error processing forecast for {} from {}",
+                            job.cityName(), job.providerName(), e.getCause());
+                    report.record(job.providerName(), CollectionCycleReport.Outcome.failed());
+                }
             }
-            logger.error("AccuWeather location response did not contain a 'Key' field.");
-            return null;
-        } catch (Exception e) {
-            logger.error("Failed to fetch or parse AccuWeather location key", e);
-            return null;
+        } finally {
+            // Do not wait for cancelled requests to unwind, the deadline has already passed
+            executor.shutdownNow();
         }
     }
 
-    // Helper method to create URL with parameters from city and provider
-    private String createUrlWithParameters(String urlTemplate, JsonNode city, JsonNode provider) {
-        // Find all placeholders in the URL template
-        Pattern pattern = Pattern.compile("\\{([^}]+)\\}");
-        Matcher matcher = pattern.matcher(urlTemplate);
+    /**
+     * Fetches, parses and stores the forecast of a single provider for a single city
+     */
+    private CollectionCycleReport.Outcome collectForecast(ForecastJob job) {
+        String providerName = job.providerName();
+        String cityName = job.cityName();
         
-        StringBuilder result = new StringBuilder();
+        // The previous response is still valid, fetching again would return the same data
+        if (responseMetadataStore.isFresh(providerName, cityName)) {
+            logger.info("Forecast for {} from {} has not expired yet, skipping fetch", cityName, providerName);
+            return CollectionCycleReport.Outcome.notModified();
+        }
         
-        while (matcher.find()) {
-            String paramName = matcher.group(1);
-            String paramValue = null;
-
-            // Prioritize reading 'apiKey' from an environment variable for security
-            if ("apiKey".equals(paramName)) {
-                String providerName = provider.get("name").asText();
-                if ("AccuWeather".equals(providerName)) {
-                    paramValue = System.getenv("ACCUWEATHER_API_KEY");
-                } else if ("OpenWeatherMap".equals(providerName)) {
-                    paramValue = System.getenv("OPENWEATHERMAP_API_KEY");
-                }
+        try {
+            String actualUrl = resolveForecastUrl(job);
 
-                if (paramValue == null || paramValue.isEmpty()) {
-                    logger.warn("Environment variable for {} apiKey not set. Falling back to config.json.", providerName);
-                    if (provider.has(paramName)) {
-                        paramValue = provider.get(paramName).asText();
-                    }
-                }
-            } else {
-                // Other parameters (latitude, longitude, etc.)
-                if (city.has(paramName)) {
-                    paramValue = city.get(paramName).asText();
-                } else if (provider.has(paramName)) {
-                    paramValue = provider.get(paramName).asText();
-                }
+            // Skip if URL couldn't be created
+            if (actualUrl == null) {
+                return CollectionCycleReport.Outcome.skipped();
             }
             
-            if (paramValue != null) {
-                // Replace the placeholder with the actual value
-                matcher.appendReplacement(result, paramValue);
-            } else {
-                logger.error("Parameter '{}' not found in config or environment for URL: {}", paramName, urlTemplate);
-                return null;
-            }
+            logger.info("Fetching forecast for {} from {}", cityName, providerName);
+            
+            // Call the API, as a conditional request if we have validators from the previous response.
+            // The body is parsed straight from the connection instead of being read into a String first,
+            // so a connection dropped mid-body is retried. Only the exchange and the read run through the
+            // provider guard; the forecasts are stored once it has released the call.
+            ForecastRequest request = new ForecastRequest(providerName, cityName, actualUrl, job.parser(),
+                    responseMetadataStore.conditionalHeaders(providerName, cityName), job.sharedWith());
+            ForecastResponseHandler.ReadResponse read = providerGuards.execute(providerName, () -> {
+                quotaPlanner.recordCall(providerName);
+                return restTemplate.execute(actualUrl, HttpMethod.GET,
+                        httpRequest -> httpRequest.getHeaders().addAll(request.headers()),
+                        response -> forecastResponseHandler.read(request, response.getStatusCode(),
+                                response.getHeaders(), response.getBody(), Instant.now()));
+            });
+            return forecastResponseHandler.store(read);
+            
+        } catch (ProviderUnavailableException e) {
+            logger.warn("Skipping forecast for {} from {}: {}", cityName, providerName, e.getMessage());
+            return CollectionCycleReport.Outcome.skipped();
+        } catch (RestClientException e) {
+            logger.error("Error fetching forecast for {} from {}: {}", 
+                    cityName, providerName, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Unexpected error processing forecast for {} from {}", 
+                    cityName, providerName, e);
         }
-        
-        matcher.appendTail(result);
-        return result.toString();
+        return CollectionCycleReport.Outcome.failed();
     }
 
-    // Keep existing methods...
-    private String getCityNameByIcaoCode(JsonNode config, String icaoCode) {
-        JsonNode citiesNode = config.get("cities");
-        for (JsonNode city : citiesNode) {
-            if (city.get("icao_code").asText().equals(icaoCode)) {
-                return city.get("name").asText();
-            }
-        }
-        return null;
+    /**
+     * Resolves all requests up front and hands them to the reactive engine
+     */
+    private void collectReactively(List<ForecastJob> jobs, CollectionCycleReport report) {
+        reactiveForecastCollector.collect(resolveRequests(jobs, report),
+                (request, response) -> {
+                    try {
+                        return forecastResponseHandler.handle(request, response.getStatusCode(), response.getHeaders(),
+                                response.getBody() != null ? new ByteArrayInputStream(response.getBody()) : null);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                },
+                report);
     }
-    
-    private Weather parseWeatherType(String wxString) {
-        if (wxString == null || wxString.isEmpty()) {
-            return Weather.CLEAR;  // Default to clear if no weather string is provided
-        }
-        
-        wxString = wxString.toUpperCase();
-        
-        // Check for precipitation types
-        if (wxString.contains("TS")) {
-            return Weather.THUNDERSTORM;
-        }
-
-        if (wxString.contains("SN") || wxString.contains("SG") || wxString.contains("IC") ||
-                wxString.contains("PL") || wxString.contains("GS")) {
-            return Weather.SNOW;
-        }
 
-        if (wxString.contains("RA") || wxString.contains("DZ") || wxString.contains("GR") ||
-        wxString.contains("SH") || wxString.contains("UP")) {
-            return Weather.RAIN;
-        }
-        
-        // Check for fog, mist, and similar conditions
-        if (wxString.contains("FG") || wxString.contains("BR") || wxString.contains("HZ") || 
-        wxString.contains("DU") || wxString.contains("SA") || wxString.contains("FU") || 
-        wxString.contains("VA") || wxString.contains("PO") || wxString.contains("SQ") || 
-        wxString.contains("FC") || wxString.contains("SS") || wxString.contains("DS")) {
-            return Weather.FOG_MIST;
+    /**
+     * Resolves the requests of all jobs whose last response has expired. An AccuWeather location key that is
+     * not cached yet is looked up with the blocking client. Jobs that are skipped are recorded in the report.
+     */
+    private List<ForecastRequest> resolveRequests(List<ForecastJob> jobs, CollectionCycleReport report) {
+        List<ForecastRequest> requests = new ArrayList<>(jobs.size());
+        for (ForecastJob job : jobs) {
+            if (responseMetadataStore.isFresh(job.providerName(), job.cityName())) {
+                logger.info("Forecast for {} from {} has not expired yet, skipping fetch", job.cityName(), job.providerName());
+                report.record(job.providerName(), CollectionCycleReport.Outcome.notModified());
+                continue;
+            }
+            String actualUrl = resolveForecastUrl(job);
+            if (actualUrl == null) {
+                report.record(job.providerName(), CollectionCycleReport.Outcome.skipped());
+                continue;
+            }
+            requests.add(new ForecastRequest(job.providerName(), job.cityName(), actualUrl, job.parser(),
+                    responseMetadataStore.conditionalHeaders(job.providerName(), job.cityName()), job.sharedWith()));
         }
-
-        // If no specific condition is detected, default to clear
-        return Weather.CLEAR;
+        return requests;
     }
-    
+
     /**
-     * Estimates precipitation amount based on METAR weather string.
-     * Returns an estimated value in millimeters (mm).
+     * Calls a job is expected to make: none while the last response is fresh, plus a location lookup
+     * if the provider needs a location key that is not cached
      */
-    private Double estimatePrecipitation(String wxString) {
-        if (wxString == null || wxString.isEmpty()) {
-            return 0.0;  // No precipitation if no weather string is provided
-        }
-        
-        wxString = wxString.toUpperCase();
-        
-        // Check intensity indicators
-        boolean isLight = wxString.contains("-");
-        boolean isHeavy = wxString.contains("+");
-        
-        // Estimate based on precipitation type and intensity
-        if (wxString.contains("TS")) {
-            // Thunderstorm
-            if (isLight) return 5.0;  // Light thunderstorm: ~5mm
-            if (isHeavy) return 15.0; // Heavy thunderstorm: ~15mm
-            return 10.0; // Moderate thunderstorm: ~10mm
+    private int estimateCalls(ForecastJob job) {
+        if (responseMetadataStore.isFresh(job.providerName(), job.cityName())) {
+            return 0;
         }
+        boolean needsLocationKey = job.provider().locationUrl() != null && !locationKeyService.hasValidKey(job.city());
+        return needsLocationKey ? 2 : 1;
+    }
 
-        if (wxString.contains("SH")) {
-            // Showers
-            if (isLight) return 1.0;  // Light showers: ~1mm
-            if (isHeavy) return 8.0;  // Heavy showers: ~8mm
-            return 3.0;  // Moderate showers: ~3mm
-        }
+    /**
+     * Builds the forecast URL for a provider × city pair
+     *
+     * @return The URL, or null if it cannot be built and the pair should be skipped
+     */
+    private String resolveForecastUrl(ForecastJob job) {
+        ProviderConfig provider = job.provider();
+        CityConfig city = job.city();
 
-        if (wxString.contains("RA") || wxString.contains("DZ")) {
-            // Rain or drizzle
-            if (isLight) return 0.5;  // Light rain: ~0.5mm
-            if (isHeavy) return 4.0;  // Heavy rain: ~4mm
-            return 2.0;  // Moderate rain: ~2mm
-        }
-        
-        if (wxString.contains("SN") || wxString.contains("SG") || wxString.contains("IC") ||
-            wxString.contains("PL") || wxString.contains("GS")) {
-            // Snow or similar - convert to water equivalent
-            if (isLight) return 0.2;  // Light snow: ~0.2mm water equivalent
-            if (isHeavy) return 2.0;  // Heavy snow: ~2mm water equivalent
-            return 0.8;  // Moderate snow: ~0.8mm water equivalent
-        }
-        
-        if (wxString.contains("GR")) {
-            // Hail
-            if (isLight) return 1.0;  // Light hail: ~1mm
-            if (isHeavy) return 10.0; // Heavy hail: ~10mm
-            return 4.0;  // Moderate hail: ~4mm
-        }
-        
-        // No precipitation for fog, mist, and similar conditions
-        if (wxString.contains("FG") || wxString.contains("BR") || wxString.contains("HZ") || 
-            wxString.contains("DU") || wxString.contains("SA") || wxString.contains("FU") || 
-            wxString.contains("VA") || wxString.contains("PO") || wxString.contains("SQ") || 
-            wxString.contains("FC") || wxString.contains("SS") || wxString.contains("DS")) {
-            return 0.0;
+        // Special handling for AccuWeather's two-step API process
+        if ("AccuWeather".equals(job.providerName())) {
+            String locationKey = locationKeyService.getLocationKey(city, provider);
+            if (locationKey == null) {
+                logger.error("Could not retrieve location key for {} from AccuWeather. Skipping.", job.cityName());
+                return null;
+            }
+            logger.info("Location key for {} is {}", job.cityName(), locationKey);
+            return provider.forecastUrl(city, Map.of("locationKey", locationKey));
         }
-        
-        // Default case: no recognized precipitation
-        return 0.0;
+        // Create the actual URL by replacing placeholders
+        return provider.forecastUrl(city);
     }
 
-    private Weather parseCloudCover(String rawOb) {
-        Weather weatherType = Weather.CLEAR;
-        for (String part : rawOb.split(" ") ) {
-            if (part.contains("OVC") || part.contains("BKN")) {
-                if (part.matches("BKN\\d+")) {
-                    int altitude = Integer.parseInt(part.substring(3));
-                    if (altitude < 80) return Weather.CLOUDS;
-                    weatherType = Weather.PARTIAL_CLOUDS;
-                } else
-                    return Weather.CLOUDS;
-            }
-            if (part.contains("FEW") || part.contains("SCT")) {
-                weatherType = Weather.PARTIAL_CLOUDS;
-            }
+    /**
+     * One provider × city pair of a collection cycle
+     *
+     * @param sharedWith Other cities in the same provider grid cell, which get a copy of this city's forecasts
+     */
+    private record ForecastJob(ProviderConfig provider, CityConfig city, WeatherDataParser parser,
+                               List<String> sharedWith) {
+        String providerName() {
+            return provider.name();
         }
-        return weatherType;
-    }
-    
-    // Keep your original methods for config loading, URL creation, etc.
-    private JsonNode loadConfig() throws IOException {
-        // Implementation remains the same
-        try (InputStream inputStream = resourceLoader.getResource("classpath:static/config.json").getInputStream()) {
-            return objectMapper.readTree(inputStream);
+
+        String cityName() {
+            return city.name();
         }
     }
-}
\ No newline at end of file
+}
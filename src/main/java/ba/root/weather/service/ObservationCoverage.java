@@ -0,0 +1,70 @@
+package ba.root.weather.service;
+
+import ba.root.weather.config.AnalysisProperties;
+import ba.root.weather.entity.DailyActualWeather;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the hourly observation coverage bitmap of {@link DailyActualWeather}: bit n is set when an observation
+ * arrived in the n-th hour after local midnight. A day has 23, 24 or 25 hours, depending on daylight saving time;
+ * an observation exactly at the next midnight counts for the last hour. The bits are set by the database when
+ * observations are aggregated ({@code BulkInsertRepository}), this class only reads them.
+ */
+public final class ObservationCoverage {
+
+    private ObservationCoverage() {
+    }
+
+    /**
+     * Number of hourly slots of a local day
+     */
+    public static int slotsInDay(LocalDate date) {
+        Instant start = date.atStartOfDay(DailyActualWeather.ZONE).toInstant();
+        Instant end = date.plusDays(1).atStartOfDay(DailyActualWeather.ZONE).toInstant();
+        return (int) Duration.between(start, end).toHours();
+    }
+
+    public static int coveredSlots(long coverage) {
+        return Long.bitCount(coverage);
+    }
+
+    public static boolean isCovered(long coverage, int slot) {
+        return (coverage >>> slot & 1L) == 1L;
+    }
+
+    /**
+     * Slots of the day without any observation, in hours after local midnight
+     */
+    public static List<Integer> missingSlots(LocalDate date, long coverage) {
+        List<Integer> missing = new ArrayList<>();
+        for (int slot = 0; slot < slotsInDay(date); slot++) {
+            if (!isCovered(coverage, slot)) {
+                missing.add(slot);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Whether a day has enough observations to be scored under the completeness policy
+     */
+    public static boolean isComplete(LocalDate date, long coverage, AnalysisProperties.Completeness policy) {
+        int slots = slotsInDay(date);
+        if (policy.isRequireLastHour() && !isCovered(coverage, slots - 1)) {
+            return false;
+        }
+        return coveredSlots(coverage) >= requiredSlots(slots, policy);
+    }
+
+    /**
+     * Fewest covered slots a day of {@code slots} hours needs under the policy
+     */
+    public static int requiredSlots(int slots, AnalysisProperties.Completeness policy) {
+        return (int) Math.ceil(slots * policy.getMinCoverage() - 1e-9);
+    }
+}
@@ -0,0 +1,52 @@
+package ba.root.weather.service;
+
+import ba.root.weather.config.AnalysisProperties;
+import ba.root.weather.dto.ObservationCoverageDto;
+import ba.root.weather.entity.DailyActualWeather;
+import ba.root.weather.repository.DailyActualWeatherRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ObservationCoverageService {
+
+    private final DailyActualWeatherRepository dailyActualRepository;
+    private final AnalysisProperties properties;
+
+    @Autowired
+    public ObservationCoverageService(DailyActualWeatherRepository dailyActualRepository,
+                                      AnalysisProperties properties) {
+        this.dailyActualRepository = dailyActualRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Hourly observation coverage of a city for every day of {@code [from, to]}, including days without any
+     * observation
+     */
+    public List<ObservationCoverageDto> getCoverage(String city, LocalDate from, LocalDate to) {
+        Map<LocalDate, DailyActualWeather> byDate = new HashMap<>();
+        for (DailyActualWeather daily : dailyActualRepository.findByCityAndLocalDateBetweenOrderByLocalDate(
+                city, from, to)) {
+            byDate.put(daily.getLocalDate(), daily);
+        }
+
+        List<ObservationCoverageDto> result = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            DailyActualWeather daily = byDate.get(date);
+            long coverage = daily != null ? daily.getCoverage() : 0L;
+            int hours = ObservationCoverage.slotsInDay(date);
+            int coveredHours = ObservationCoverage.coveredSlots(coverage);
+            result.add(new ObservationCoverageDto(city, date, hours, coveredHours, (double) coveredHours / hours,
+                    ObservationCoverage.missingSlots(date, coverage),
+                    ObservationCoverage.isComplete(date, coverage, properties.getCompleteness())));
+        }
+        return result;
+    }
+}
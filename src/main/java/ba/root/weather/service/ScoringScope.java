@@ -0,0 +1,25 @@
+package ba.root.weather.service;
+
+import java.util.Set;
+
+/**
+ * The providers and cities an accuracy analysis covers. An empty set means all of them.
+ */
+public record ScoringScope(Set<String> providers, Set<String> cities) {
+
+    public static final ScoringScope ALL = new ScoringScope(Set.of(), Set.of());
+
+    public ScoringScope {
+        providers = providers == null ? Set.of() : Set.copyOf(providers);
+        cities = cities == null ? Set.of() : Set.copyOf(cities);
+    }
+
+    public boolean isAll() {
+        return providers.isEmpty() && cities.isEmpty();
+    }
+
+    public boolean includes(String providerName, String city) {
+        return (providers.isEmpty() || providers.contains(providerName))
+                && (cities.isEmpty() || cities.contains(city));
+    }
+}
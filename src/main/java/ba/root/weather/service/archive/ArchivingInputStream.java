@@ -0,0 +1,161 @@
+package ba.root.weather.service.archive;
+
+import ba.root.weather.entity.RawResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body that is hashed and gzip-written to a temporary file while it is read, so it can be archived
+ * without buffering it in memory. Once the reader is done, {@link #finish()} moves the file into place as the
+ * payload's blob. Archiving failures are logged and never disturb the reader.
+ * <p>
+ * {@link #close()} does not close the body, since parsers close their input as soon as they have read a value;
+ * the caller that opened the body closes it. Call {@link #discard()} if the body is abandoned.
+ */
+public class ArchivingInputStream extends FilterInputStream {
+    private static final Logger logger = LoggerFactory.getLogger(ArchivingInputStream.class);
+
+    private final RawResponseArchive archive;
+    private final String providerName;
+    private final String city;
+    private final Instant fetchTimestamp;
+    private final MessageDigest digest = RawResponseArchive.sha256();
+    private Path tmp;
+    private OutputStream blob;
+    private long size;
+
+    ArchivingInputStream(RawResponseArchive archive, String providerName, String city, Instant fetchTimestamp,
+                         InputStream body) {
+        super(body);
+        this.archive = archive;
+        this.providerName = providerName;
+        this.city = city;
+        this.fetchTimestamp = fetchTimestamp;
+        try {
+            tmp = archive.createTempBlob();
+            blob = new GZIPOutputStream(Files.newOutputStream(tmp));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            digest.update((byte) b);
+            size++;
+            if (blob != null) {
+                try {
+                    blob.write(b);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            digest.update(b, off, n);
+            size += n;
+            if (blob != null) {
+                try {
+                    blob.write(b, off, n);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Skipped bytes are read, so they are archived too
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        // The body is closed by whoever opened it, see the class comment
+    }
+
+    /**
+     * Reads whatever the reader left of the body and stores the blob
+     *
+     * @return The index row for the payload, not saved yet, or null if archiving failed
+     * @throws IOException If reading the rest of the body fails
+     */
+    public RawResponse finish() throws IOException {
+        transferTo(OutputStream.nullOutputStream());
+        if (blob == null) {
+            return null;
+        }
+        try {
+            blob.close();
+            blob = null;
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+            archive.moveIntoPlace(tmp, contentHash);
+            return new RawResponse(providerName, city, fetchTimestamp, contentHash, size);
+        } catch (IOException e) {
+            fail(e);
+            return null;
+        } finally {
+            discard();
+        }
+    }
+
+    /**
+     * Deletes the temporary file, if it is still there
+     */
+    public void discard() {
+        try {
+            if (blob != null) {
+                blob.close();
+                blob = null;
+            }
+            if (tmp != null) {
+                Files.deleteIfExists(tmp);
+                tmp = null;
+            }
+        } catch (IOException e) {
+            logger.warn("Could not delete temporary archive file {}", tmp, e);
+        }
+    }
+
+    private void fail(IOException e) {
+        logger.error("Error archiving response for {} from {}", city, providerName, e);
+        discard();
+    }
+}
@@ -0,0 +1,189 @@
+package ba.root.weather.service.archive;
+
+import ba.root.weather.config.CollectorProperties;
+import ba.root.weather.entity.RawResponse;
+import ba.root.weather.repository.RawResponseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archive of raw provider responses. Payloads are gzip-compressed and stored once per SHA-256 under
+ * {@code <directory>/blobs/<first two hex digits>/<hash>.json.gz}; every fetch gets a row in raw_response
+ * pointing at its blob, so an unchanged response only costs an index row.
+ */
+@Service
+public class RawResponseArchive {
+    private static final Logger logger = LoggerFactory.getLogger(RawResponseArchive.class);
+
+    /**
+     * City recorded for payloads that cover several cities at once, such as a METAR batch
+     */
+    public static final String ALL_CITIES = "*";
+
+    private final RawResponseRepository rawResponseRepository;
+    private final CollectorProperties properties;
+
+    public RawResponseArchive(RawResponseRepository rawResponseRepository, CollectorProperties properties) {
+        this.rawResponseRepository = rawResponseRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Archives a payload. Failures are logged and never break collection.
+     *
+     * @return The index row, or null if archiving is disabled or failed
+     */
+    public RawResponse archive(String providerName, String city, Instant fetchTimestamp, String payload) {
+        if (!isEnabled() || payload == null) {
+            return null;
+        }
+        return archive(providerName, city, fetchTimestamp, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Archives a payload as received, UTF-8 encoded. Failures are logged and never break collection.
+     *
+     * @return The index row, or null if archiving is disabled or failed
+     */
+    public RawResponse archive(String providerName, String city, Instant fetchTimestamp, byte[] bytes) {
+        if (!isEnabled() || bytes == null) {
+            return null;
+        }
+        try {
+            String contentHash = HexFormat.of().formatHex(sha256().digest(bytes));
+            writeBlob(contentHash, bytes);
+            return rawResponseRepository.save(
+                    new RawResponse(providerName, city, fetchTimestamp, contentHash, (long) bytes.length));
+        } catch (Exception e) {
+            logger.error("Error archiving response for {} from {}", city, providerName, e);
+            return null;
+        }
+    }
+
+    /**
+     * Wraps a response body so it is archived while it is read, without buffering it
+     *
+     * @return The body to read instead, or null if archiving is disabled
+     */
+    public ArchivingInputStream archiving(String providerName, String city, Instant fetchTimestamp, InputStream body) {
+        if (!isEnabled() || body == null) {
+            return null;
+        }
+        return new ArchivingInputStream(this, providerName, city, fetchTimestamp, body);
+    }
+
+    /**
+     * Saves the index row of a blob written by an {@link ArchivingInputStream}. Failures are logged.
+     *
+     * @return The saved row, or null if saving failed
+     */
+    public RawResponse save(RawResponse rawResponse) {
+        try {
+            return rawResponseRepository.save(rawResponse);
+        } catch (Exception e) {
+            logger.error("Error archiving response for {} from {}",
+                    rawResponse.getCity(), rawResponse.getProviderName(), e);
+            return null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.getArchive().isEnabled();
+    }
+
+    public Optional<RawResponse> find(Long id) {
+        return rawResponseRepository.findById(id);
+    }
+
+    public List<RawResponse> find(String providerName, String city, Instant from, Instant to) {
+        return rawResponseRepository.findByProviderNameAndCityAndFetchTimestampBetweenOrderByFetchTimestamp(
+                providerName, city, from, to);
+    }
+
+    /**
+     * Streams the decompressed payload; the caller closes the stream
+     */
+    public InputStream open(RawResponse rawResponse) throws IOException {
+        return new GZIPInputStream(openCompressed(rawResponse));
+    }
+
+    /**
+     * Streams the payload as stored, gzip-compressed, e.g. to pass it on to an HTTP client that accepts gzip
+     */
+    public InputStream openCompressed(RawResponse rawResponse) throws IOException {
+        return Files.newInputStream(blobPath(rawResponse.getContentHash()));
+    }
+
+    private void writeBlob(String contentHash, byte[] bytes) throws IOException {
+        if (Files.exists(blobPath(contentHash))) {
+            return;
+        }
+        // Write to a temporary file first so readers never see a partial blob
+        Path tmp = createTempBlob();
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+                out.write(bytes);
+            }
+            moveIntoPlace(tmp, contentHash);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * A new temporary file on the same file system as the blobs, so it can be moved into place atomically
+     */
+    Path createTempBlob() throws IOException {
+        Path blobs = Paths.get(properties.getArchive().getDirectory(), "blobs");
+        Files.createDirectories(blobs);
+        return Files.createTempFile(blobs, "response", ".tmp");
+    }
+
+    /**
+     * Moves a fully written temporary file to the blob path of its hash, unless that blob already exists
+     */
+    void moveIntoPlace(Path tmp, String contentHash) throws IOException {
+        Path blob = blobPath(contentHash);
+        if (Files.exists(blob)) {
+            return;
+        }
+        Files.createDirectories(blob.getParent());
+        try {
+            Files.move(tmp, blob, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // The same payload was archived concurrently
+        }
+    }
+
+    private Path blobPath(String contentHash) {
+        return Paths.get(properties.getArchive().getDirectory(), "blobs", contentHash.substring(0, 2),
+                contentHash + ".json.gz");
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package ba.root.weather.service.backfill;
+
+import ba.root.weather.config.AnalysisProperties;
+import ba.root.weather.dto.BackfillStatusDto;
+import ba.root.weather.entity.AccuracyBackfillDay;
+import ba.root.weather.entity.AccuracyBackfillRun;
+import ba.root.weather.repository.AccuracyBackfillDayRepository;
+import ba.root.weather.repository.AccuracyBackfillRunRepository;
+import ba.root.weather.service.AccuracyAnalysisService;
+import ba.root.weather.service.ScoringScope;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-scores a date range, e.g. after a scoring change.
+ * <p>
+ * The range is split into one task per day. Tasks run on a fixed pool of
+ * {@code weather.analysis.backfill.parallelism} threads shared by all runs, and each day is scored and recorded
+ * as done in its own transaction. A day that produced no scores, because its observations are not complete yet
+ * or it has no forecasts, is skipped and not recorded. A run that was cancelled, failed or skipped some days,
+ * or was cut short by a restart, can be resumed and only scores the days it has not recorded yet.
+ */
+@Service
+public class AccuracyBackfillService {
+    private static final Logger logger = LoggerFactory.getLogger(AccuracyBackfillService.class);
+
+    private final AccuracyAnalysisService analysisService;
+    private final AccuracyBackfillRunRepository runRepository;
+    private final AccuracyBackfillDayRepository dayRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+
+    /**
+     * Runs started or resumed since startup that still have days queued or in progress
+     */
+    private final Map<Long, Progress> active = new ConcurrentHashMap<>();
+
+    public AccuracyBackfillService(AccuracyAnalysisService analysisService,
+                                   AccuracyBackfillRunRepository runRepository,
+                                   AccuracyBackfillDayRepository dayRepository,
+                                   AnalysisProperties properties,
+                                   PlatformTransactionManager transactionManager) {
+        this.analysisService = analysisService;
+        this.runRepository = runRepository;
+        this.dayRepository = dayRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, properties.getBackfill().getParallelism()),
+                Thread.ofPlatform().name("accuracy-backfill-", 1).factory());
+    }
+
+    /**
+     * Counters of one execution of a run; a resumed run starts with fresh counters
+     */
+    private static final class Progress {
+        private final long startNanos = System.nanoTime();
+        private final int pending;
+        private final AtomicInteger remaining;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private volatile boolean cancelled;
+
+        private Progress(int pending) {
+            this.pending = pending;
+            this.remaining = new AtomicInteger(pending);
+        }
+    }
+
+    /**
+     * Runs left RUNNING by a previous instance of the application can no longer finish on their own
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void markInterruptedRuns() {
+        for (AccuracyBackfillRun run : runRepository.findByStatus(AccuracyBackfillRun.Status.RUNNING)) {
+            if (!active.containsKey(run.getId())) {
+                run.setStatus(AccuracyBackfillRun.Status.INTERRUPTED);
+                runRepository.save(run);
+                logger.info("Backfill run {} was interrupted by a restart and can be resumed", run.getId());
+            }
+        }
+    }
+
+    /**
+     * Starts re-scoring every day of {@code [from, to]} in the background
+     *
+     * @throws IllegalArgumentException if {@code from} is after {@code to}
+     */
+    public BackfillStatusDto start(LocalDate from, LocalDate to, ScoringScope scope) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Backfill start date " + from + " is after end date " + to);
+        }
+        int totalDays = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        AccuracyBackfillRun run = runRepository.save(new AccuracyBackfillRun(from, to, join(scope.providers()),
+                join(scope.cities()), totalDays, Instant.now()));
+        logger.info("Starting backfill run {} for {} days from {} to {}", run.getId(), totalDays, from, to);
+        launch(run);
+        return toDto(run);
+    }
+
+    /**
+     * Continues a run that is not active, scoring only the days it has not recorded yet
+     *
+     * @return The run's status, or empty if there is no such run
+     * @throws IllegalStateException if the run is still active
+     */
+    public synchronized Optional<BackfillStatusDto> resume(Long id) {
+        Optional<AccuracyBackfillRun> found = runRepository.findById(id);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        if (active.containsKey(id)) {
+            throw new IllegalStateException("Backfill run " + id + " is still running");
+        }
+        AccuracyBackfillRun run = found.get();
+        run.setStatus(AccuracyBackfillRun.Status.RUNNING);
+        run.setStartedAt(Instant.now());
+        run.setFinishedAt(null);
+        run = runRepository.save(run);
+        logger.info("Resuming backfill run {}", id);
+        launch(run);
+        return Optional.of(toDto(run));
+    }
+
+    /**
+     * Stops an active run once its days in progress are done. Queued days are skipped.
+     *
+     * @return The run's status, or empty if there is no such run
+     */
+    public Optional<BackfillStatusDto> cancel(Long id) {
+        Progress progress = active.get(id);
+        if (progress != null) {
+            progress.cancelled = true;
+            logger.info("Cancelling backfill run {}", id);
+        }
+        return status(id);
+    }
+
+    public Optional<BackfillStatusDto> status(Long id) {
+        return runRepository.findById(id).map(this::toDto);
+    }
+
+    public List<BackfillStatusDto> list() {
+        return runRepository.findAllByOrderByIdDesc().stream().map(this::toDto).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        active.values().forEach(progress -> progress.cancelled = true);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues one task per day of the run that has not been scored yet
+     */
+    private synchronized void launch(AccuracyBackfillRun run) {
+        Long runId = run.getId();
+        ScoringScope scope = new ScoringScope(split(run.getProviders()), split(run.getCities()));
+        Set<LocalDate> done = new HashSet<>(dayRepository.findTargetDatesByRunId(runId));
+        List<LocalDate> pending = new ArrayList<>();
+        for (LocalDate date = run.getFromDate(); !date.isAfter(run.getToDate()); date = date.plusDays(1)) {
+            if (!done.contains(date)) {
+                pending.add(date);
+            }
+        }
+
+        Progress progress = new Progress(pending.size());
+        active.put(runId, progress);
+        if (pending.isEmpty()) {
+            finish(runId, progress);
+            return;
+        }
+        for (LocalDate date : pending) {
+            executor.execute(() -> scoreDay(runId, date, scope, progress));
+        }
+    }
+
+    private void scoreDay(Long runId, LocalDate date, ScoringScope scope, Progress progress) {
+        try {
+            if (progress.cancelled) {
+                return;
+            }
+            Integer scores = transactionTemplate.execute(status -> {
+                int scored = analysisService.analyzeAccuracyForDate(date, scope);
+                // Only days that were actually scored are done, a resume retries the others
+                if (scored > 0) {
+                    dayRepository.save(new AccuracyBackfillDay(runId, date, scored, Instant.now()));
+                }
+                return scored;
+            });
+            if (scores != null && scores > 0) {
+                progress.completed.incrementAndGet();
+            } else {
+                logger.info("Backfill run {} skipped {}: observations not complete yet or no forecasts", runId, date);
+                progress.skipped.incrementAndGet();
+            }
+        } catch (Exception e) {
+            logger.error("Backfill run {} failed to score {}", runId, date, e);
+            progress.failed.incrementAndGet();
+        } finally {
+            if (progress.remaining.decrementAndGet() == 0) {
+                finish(runId, progress);
+            }
+        }
+    }
+
+    private void finish(Long runId, Progress progress) {
+        AccuracyBackfillRun.Status status;
+        if (progress.cancelled) {
+            status = AccuracyBackfillRun.Status.CANCELLED;
+        } else if (progress.failed.get() > 0) {
+            status = AccuracyBackfillRun.Status.FAILED;
+        } else {
+            status = AccuracyBackfillRun.Status.COMPLETED;
+        }
+        try {
+            runRepository.findById(runId).ifPresent(run -> {
+                run.setStatus(status);
+                run.setFinishedAt(Instant.now());
+                runRepository.save(run);
+            });
+        } finally {
+            active.remove(runId);
+        }
+        logger.info("Backfill run {} {}: {} days scored, {} skipped, {} failed in {} ms", runId,
+                status.name().toLowerCase(), progress.completed.get(), progress.skipped.get(), progress.failed.get(),
+                (System.nanoTime() - progress.startNanos) / 1_000_000);
+    }
+
+    private BackfillStatusDto toDto(AccuracyBackfillRun run) {
+        long completedDays = dayRepository.countByRunId(run.getId());
+        long scores = dayRepository.sumScoresByRunId(run.getId());
+        Progress progress = active.get(run.getId());
+        int failedDays = 0;
+        int skippedDays = 0;
+        Double daysPerSecond = null;
+        Long etaSeconds = null;
+        if (progress != null) {
+            failedDays = progress.failed.get();
+            skippedDays = progress.skipped.get();
+            double elapsedSeconds = (System.nanoTime() - progress.startNanos) / 1e9;
+            int completed = progress.completed.get();
+            if (completed > 0 && elapsedSeconds > 0) {
+                daysPerSecond = completed / elapsedSeconds;
+                int left = progress.pending - completed - failedDays - skippedDays;
+                etaSeconds = Math.round(left / daysPerSecond);
+            }
+        }
+        return new BackfillStatusDto(run.getId(), run.getFromDate(), run.getToDate(),
+                List.copyOf(split(run.getProviders())), List.copyOf(split(run.getCities())), run.getStatus().name(),
+                run.getTotalDays(), completedDays, failedDays, skippedDays, scores, run.getStartedAt(), run.getFinishedAt(),
+                daysPerSecond, etaSeconds);
+    }
+
+    private static String join(Set<String> values) {
+        return values.isEmpty() ? null : String.join(",", new TreeSet<>(values));
+    }
+
+    private static Set<String> split(String values) {
+        if (values == null || values.isBlank()) {
+            return Set.of();
+        }
+        Set<String> result = new TreeSet<>();
+        for (String value : values.split(",")) {
+            if (!value.isBlank()) {
+                result.add(value.trim());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,173 @@
+package ba.root.weather.service.collector;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Summary of a single forecast collection cycle: what succeeded, what failed
+ * and how long the whole provider × city matrix took.
+ * Safe to update from several collector threads at once.
+ */
+public class CollectionCycleReport {
+
+    public enum Status {
+        SAVED,
+        NOT_MODIFIED,
+        NO_DATA,
+        SKIPPED,
+        FAILED,
+        TIMED_OUT
+    }
+
+    /**
+     * Result of collecting one provider × city pair
+     */
+    public record Outcome(Status status, int entries) {
+        public static Outcome saved(int entries) {
+            return new Outcome(Status.SAVED, entries);
+        }
+
+        /**
+         * The provider answered 304, or the previous response has not expired yet
+         */
+        public static Outcome notModified() {
+            return new Outcome(Status.NOT_MODIFIED, 0);
+        }
+
+        public static Outcome noData() {
+            return new Outcome(Status.NO_DATA, 0);
+        }
+
+        public static Outcome skipped() {
+            return new Outcome(Status.SKIPPED, 0);
+        }
+
+        public static Outcome failed() {
+            return new Outcome(Status.FAILED, 0);
+        }
+
+        public static Outcome timedOut() {
+            return new Outcome(Status.TIMED_OUT, 0);
+        }
+    }
+
+    /**
+     * Per-provider counters
+     */
+    public static class ProviderResult {
+        private final AtomicInteger saved = new AtomicInteger();
+        private final AtomicInteger notModified = new AtomicInteger();
+        private final AtomicInteger noData = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger timedOut = new AtomicInteger();
+        private final AtomicInteger entries = new AtomicInteger();
+
+        private void add(Outcome outcome) {
+            switch (outcome.status()) {
+                case SAVED -> saved.incrementAndGet();
+                case NOT_MODIFIED -> notModified.incrementAndGet();
+                case NO_DATA -> noData.incrementAndGet();
+                case SKIPPED -> skipped.incrementAndGet();
+                case FAILED -> failed.incrementAndGet();
+                case TIMED_OUT -> timedOut.incrementAndGet();
+            }
+            entries.addAndGet(outcome.entries());
+        }
+
+        public int getSaved() {
+            return saved.get();
+        }
+
+        public int getNotModified() {
+            return notModified.get();
+        }
+
+        public int getNoData() {
+            return noData.get();
+        }
+
+        public int getSkipped() {
+            return skipped.get();
+        }
+
+        public int getFailed() {
+            return failed.get();
+        }
+
+        public int getTimedOut() {
+            return timedOut.get();
+        }
+
+        public int getEntries() {
+            return entries.get();
+        }
+
+        @Override
+        public String toString() {
+            return "saved=" + saved + ", notModified=" + notModified + ", noData=" + noData + ", skipped=" + skipped +
+                    ", failed=" + failed + ", timedOut=" + timedOut + ", entries=" + entries;
+        }
+    }
+
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, ProviderResult> providers = new ConcurrentHashMap<>();
+    private volatile Duration elapsed;
+
+    public void record(String providerName, Outcome outcome) {
+        providers.computeIfAbsent(providerName, name -> new ProviderResult()).add(outcome);
+    }
+
+    /**
+     * Stops the clock for this cycle
+     */
+    public CollectionCycleReport finish() {
+        elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+        return this;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Time the cycle took, or the time elapsed so far if it is still running
+     */
+    public Duration getElapsed() {
+        return elapsed != null ? elapsed : Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
+    public Map<String, ProviderResult> getProviders() {
+        return Collections.unmodifiableMap(new TreeMap<>(providers));
+    }
+
+    public int getSuccesses() {
+        return providers.values().stream().mapToInt(ProviderResult::getSaved).sum();
+    }
+
+    public int getFailures() {
+        return providers.values().stream().mapToInt(p -> p.getFailed() + p.getTimedOut()).sum();
+    }
+
+    public int getEntries() {
+        return providers.values().stream().mapToInt(ProviderResult::getEntries).sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CollectionCycleReport{" +
+                "startedAt=" + startedAt +
+                ", elapsed=" + getElapsed().toMillis() + "ms" +
+                ", successes=" + getSuccesses() +
+                ", failures=" + getFailures() +
+                ", entries=" + getEntries() +
+                ", providers=" + getProviders() +
+                '}';
+    }
+}
@@ -0,0 +1,375 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.config.CollectorProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collector engine that runs fetching, parsing and persisting as separate stages, so network waits,
+ * parsing and database writes of different cities overlap instead of taking turns:
+ * <ol>
+ *     <li>fetch: one virtual thread per request, at most {@code concurrent.maxPerProvider} in flight per provider;
+ *     the body is read into memory</li>
+ *     <li>parse: a pool of platform threads sized to the CPUs, which archive and parse the bodies</li>
+ *     <li>write: a single thread that stores the forecasts of every city waiting in its queue in one transaction</li>
+ * </ol>
+ * The stages are connected by bounded queues. A full queue blocks the stage feeding it, so a slow database
+ * holds back parsing and parsing holds back fetching instead of buffering responses without limit.
+ * Each stage uses the step of {@link ForecastResponseHandler} the other collector engines run in one go.
+ */
+@Component
+public class ForecastPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(ForecastPipeline.class);
+
+    /**
+     * A response body waiting to be parsed
+     */
+    private record Fetched(ForecastRequest request, Instant fetchTimestamp, HttpStatusCode status,
+                           HttpHeaders headers, byte[] body) {
+    }
+
+    private static final Fetched END_OF_FETCHES = new Fetched(null, null, null, null, null);
+    private static final ForecastResponseHandler.ReadResponse END_OF_PARSES =
+            new ForecastResponseHandler.ReadResponse(null, null, false, null, null, null);
+
+    /**
+     * Items a stage has processed, how long it was busy and how deep its input queue got
+     */
+    public static class StageStats {
+        private final String name;
+        private final BlockingQueue<?> input;
+        private final int capacity;
+        private final AtomicInteger items = new AtomicInteger();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+        StageStats(String name, BlockingQueue<?> input) {
+            this.name = name;
+            this.input = input;
+            this.capacity = input != null ? input.remainingCapacity() : 0;
+        }
+
+        void record(int count, long startNanos) {
+            items.addAndGet(count);
+            busyNanos.addAndGet(System.nanoTime() - startNanos);
+            if (input != null) {
+                maxQueueDepth.accumulateAndGet(input.size(), Math::max);
+            }
+        }
+
+        public int getItems() {
+            return items.get();
+        }
+
+        public int getQueueDepth() {
+            return input != null ? input.size() : 0;
+        }
+
+        public int getMaxQueueDepth() {
+            return maxQueueDepth.get();
+        }
+
+        /**
+         * Items per second over the given wall-clock time
+         */
+        public double throughput(Duration elapsed) {
+            return elapsed.isZero() ? items.get() : items.get() * 1_000_000_000.0 / elapsed.toNanos();
+        }
+
+        String summary(Duration elapsed) {
+            String queue = input != null
+                    ? String.format(", queue max %d/%d", maxQueueDepth.get(), capacity)
+                    : "";
+            return String.format("%s: %d items, %.1f/s, busy %dms%s",
+                    name, items.get(), throughput(elapsed), busyNanos.get() / 1_000_000, queue);
+        }
+    }
+
+    private final RestTemplate restTemplate;
+    private final CollectorProperties properties;
+    private final ProviderGuards providerGuards;
+    private final QuotaPlanner quotaPlanner;
+    private final ForecastResponseHandler responseHandler;
+    private final TransactionTemplate transactionTemplate;
+
+    public ForecastPipeline(RestTemplate restTemplate,
+                            CollectorProperties properties,
+                            ProviderGuards providerGuards,
+                            QuotaPlanner quotaPlanner,
+                            ForecastResponseHandler responseHandler,
+                            PlatformTransactionManager transactionManager) {
+        this.restTemplate = restTemplate;
+        this.properties = properties;
+        this.providerGuards = providerGuards;
+        this.quotaPlanner = quotaPlanner;
+        this.responseHandler = responseHandler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Executes all requests and records their outcomes in the report.
+     * Blocks the calling thread until every fetched response has been parsed and written. Requests still
+     * being fetched when the cycle deadline passes are cancelled and reported as timed out; responses
+     * that were already fetched are still stored.
+     *
+     * @return Statistics of the fetch, parse and write stages, in that order
+     */
+    public List<StageStats> collect(List<ForecastRequest> requests, CollectionCycleReport report)
+            throws InterruptedException {
+        CollectorProperties.Pipeline settings = properties.getPipeline();
+        int parseThreads = settings.getParseThreads() > 0
+                ? settings.getParseThreads() : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<Fetched> parseQueue = new ArrayBlockingQueue<>(Math.max(1, settings.getParseQueueCapacity()));
+        BlockingQueue<ForecastResponseHandler.ReadResponse> writeQueue = new ArrayBlockingQueue<>(Math.max(1, settings.getWriteQueueCapacity()));
+        StageStats fetchStats = new StageStats("fetch", null);
+        StageStats parseStats = new StageStats("parse", parseQueue);
+        StageStats writeStats = new StageStats("write", writeQueue);
+        long start = System.nanoTime();
+
+        ExecutorService parsers = Executors.newFixedThreadPool(parseThreads,
+                Thread.ofPlatform().name("forecast-parse-", 1).factory());
+        ExecutorService writer = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("forecast-write").factory());
+        try {
+            List<Future<?>> parseWorkers = new ArrayList<>(parseThreads);
+            for (int i = 0; i < parseThreads; i++) {
+                parseWorkers.add(parsers.submit(() -> parseLoop(parseQueue, writeQueue, parseStats, report)));
+            }
+            Future<?> writeWorker = writer.submit(() -> writeLoop(writeQueue, writeStats, report));
+
+            fetchAll(requests, parseQueue, fetchStats, report);
+
+            // Drain the stages in order: every parser stops at its own end marker, then the writer
+            for (int i = 0; i < parseThreads; i++) {
+                parseQueue.put(END_OF_FETCHES);
+            }
+            awaitWorkers(parseWorkers);
+            writeQueue.put(END_OF_PARSES);
+            awaitWorkers(List.of(writeWorker));
+        } finally {
+            parsers.shutdownNow();
+            writer.shutdownNow();
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        logger.info("Forecast pipeline finished in {} ms: {}; {}; {}", elapsed.toMillis(),
+                fetchStats.summary(elapsed), parseStats.summary(elapsed), writeStats.summary(elapsed));
+        return List.of(fetchStats, parseStats, writeStats);
+    }
+
+    /**
+     * Fetch stage. A request whose outcome is already known after fetching (not modified, failed, skipped)
+     * is recorded here; every other response is handed to the parsers.
+     */
+    private void fetchAll(List<ForecastRequest> requests, BlockingQueue<Fetched> parseQueue,
+                          StageStats stats, CollectionCycleReport report) throws InterruptedException {
+        CollectorProperties.Concurrent limits = properties.getConcurrent();
+        Duration deadline = properties.getCycleDeadline();
+        Map<String, Semaphore> providerPermits = new HashMap<>();
+        List<Callable<CollectionCycleReport.Outcome>> tasks = new ArrayList<>(requests.size());
+        for (ForecastRequest request : requests) {
+            Semaphore permits = providerPermits.computeIfAbsent(request.providerName(),
+                    name -> new Semaphore(Math.max(1, limits.limitFor(name))));
+            tasks.add(() -> {
+                permits.acquire();
+                try {
+                    long startNanos = System.nanoTime();
+                    CollectionCycleReport.Outcome outcome = fetch(request, parseQueue);
+                    stats.record(1, startNanos);
+                    return outcome;
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<CollectionCycleReport.Outcome>> futures = executor.invokeAll(
+                    tasks, deadline.toMillis(), TimeUnit.MILLISECONDS);
+            for (int i = 0; i < futures.size(); i++) {
+                ForecastRequest request = requests.get(i);
+                Future<CollectionCycleReport.Outcome> future = futures.get(i);
+                if (future.isCancelled()) {
+                    logger.warn("Forecast for {} from {} did not finish within the cycle deadline of {}",
+                            request.cityName(), request.providerName(), deadline);
+                    report.record(request.providerName(), CollectionCycleReport.Outcome.timedOut());
+                    continue;
+                }
+                try {
+                    CollectionCycleReport.Outcome outcome = future.get();
+                    if (outcome != null) {
+                        report.record(request.providerName(), outcome);
+                    }
+                } catch (ExecutionException e) {
+                    logger.error("Unexpected error fetching forecast for {} from {}",
+                            request.cityName(), request.providerName(), e.getCause());
+                    report.record(request.providerName(), CollectionCycleReport.Outcome.failed());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Fetches one response and queues it for parsing. The provider permit is held until the response is queued,
+     * so a full parse queue also stops new requests to that provider.
+     *
+     * @return The outcome if the request ends here, or null if the response was queued
+     */
+    private CollectionCycleReport.Outcome fetch(ForecastRequest request, BlockingQueue<Fetched> parseQueue)
+            throws InterruptedException, IOException {
+        String providerName = request.providerName();
+        String cityName = request.cityName();
+        logger.info("Fetching forecast for {} from {}", cityName, providerName);
+
+        Fetched fetched;
+        try {
+            fetched = providerGuards.execute(providerName, () -> {
+                quotaPlanner.recordCall(providerName);
+                return restTemplate.execute(request.url(), HttpMethod.GET,
+                        httpRequest -> httpRequest.getHeaders().addAll(request.headers()),
+                        response -> {
+                            HttpHeaders headers = new HttpHeaders();
+                            headers.addAll(response.getHeaders());
+                            HttpStatusCode status = response.getStatusCode();
+                            byte[] body = status.value() == HttpStatus.NOT_MODIFIED.value()
+                                    ? null : response.getBody().readAllBytes();
+                            return new Fetched(request, Instant.now(), status, headers, body);
+                        });
+            });
+        } catch (ProviderUnavailableException e) {
+            logger.warn("Skipping forecast for {} from {}: {}", cityName, providerName, e.getMessage());
+            return CollectionCycleReport.Outcome.skipped();
+        } catch (RestClientException e) {
+            logger.error("Error fetching forecast for {} from {}: {}", cityName, providerName, e.getMessage());
+            return CollectionCycleReport.Outcome.failed();
+        }
+
+        if (fetched.body() == null) {
+            // A 304, there is nothing to parse
+            return responseHandler.handle(request, fetched.status(), fetched.headers(), null);
+        }
+        parseQueue.put(fetched);
+        return null;
+    }
+
+    /**
+     * Parse stage, run by each parser thread until it takes an end marker
+     */
+    private void parseLoop(BlockingQueue<Fetched> parseQueue,
+                           BlockingQueue<ForecastResponseHandler.ReadResponse> writeQueue,
+                           StageStats stats, CollectionCycleReport report) {
+        try {
+            Fetched fetched;
+            while ((fetched = parseQueue.take()) != END_OF_FETCHES) {
+                long startNanos = System.nanoTime();
+                ForecastRequest request = fetched.request();
+                ForecastResponseHandler.ReadResponse read;
+                try {
+                    read = responseHandler.read(request, fetched.status(), fetched.headers(),
+                            new ByteArrayInputStream(fetched.body()), fetched.fetchTimestamp());
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Error parsing forecast for {} from {}",
+                            request.cityName(), request.providerName(), e);
+                    report.record(request.providerName(), CollectionCycleReport.Outcome.failed());
+                    stats.record(1, startNanos);
+                    continue;
+                }
+                stats.record(1, startNanos);
+                writeQueue.put(read);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write stage: takes whatever has queued up, up to {@code pipeline.writeBatchCities} cities,
+     * and stores it in one transaction. Caching headers are only remembered once the transaction has committed,
+     * and only for responses that produced forecasts.
+     */
+    private void writeLoop(BlockingQueue<ForecastResponseHandler.ReadResponse> writeQueue, StageStats stats,
+                           CollectionCycleReport report) {
+        int maxCities = Math.max(1, properties.getPipeline().getWriteBatchCities());
+        List<ForecastResponseHandler.ReadResponse> batch = new ArrayList<>(maxCities);
+        try {
+            boolean done = false;
+            while (!done) {
+                batch.add(writeQueue.take());
+                writeQueue.drainTo(batch, maxCities - 1);
+                if (batch.getLast() == END_OF_PARSES) {
+                    batch.removeLast();
+                    done = true;
+                }
+                if (!batch.isEmpty()) {
+                    long startNanos = System.nanoTime();
+                    write(batch, report);
+                    stats.record(batch.size(), startNanos);
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<ForecastResponseHandler.ReadResponse> batch, CollectionCycleReport report) {
+        // Kept even if the forecasts cannot be stored, the archive is there to look into such responses
+        responseHandler.archive(batch);
+        try {
+            transactionTemplate.executeWithoutResult(status -> responseHandler.insert(batch));
+        } catch (RuntimeException e) {
+            logger.error("Error saving forecasts for {} cities", batch.size(), e);
+            for (ForecastResponseHandler.ReadResponse read : batch) {
+                report.record(read.request().providerName(), CollectionCycleReport.Outcome.failed());
+            }
+            return;
+        }
+        logger.info("Saved the forecasts of {} provider/city pairs in one transaction", batch.size());
+
+        for (ForecastResponseHandler.ReadResponse read : batch) {
+            report.record(read.request().providerName(), responseHandler.stored(read));
+        }
+    }
+
+    private static void awaitWorkers(List<Future<?>> workers) throws InterruptedException {
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                logger.error("Forecast pipeline stage failed", e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.service.parser.WeatherDataParser;
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+
+/**
+ * A fully resolved forecast request for one provider and one city
+ *
+ * @param providerName Provider name from config.json
+ * @param cityName City the forecast is for
+ * @param url Request URL with all placeholders filled in
+ * @param parser Parser for the provider response
+ * @param headers Extra request headers, e.g. conditional request validators
+ * @param sharedWith Other cities in the same provider grid cell, which get a copy of the parsed forecasts
+ */
+public record ForecastRequest(String providerName, String cityName, String url, WeatherDataParser parser,
+                              HttpHeaders headers, List<String> sharedWith) {
+
+    public ForecastRequest(String providerName, String cityName, String url, WeatherDataParser parser,
+                           HttpHeaders headers) {
+        this(providerName, cityName, url, parser, headers, List.of());
+    }
+}
@@ -0,0 +1,196 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.entity.ForecastData;
+import ba.root.weather.entity.HourlyForecast;
+import ba.root.weather.entity.RawResponse;
+import ba.root.weather.repository.BulkInsertRepository;
+import ba.root.weather.service.archive.ArchivingInputStream;
+import ba.root.weather.service.archive.RawResponseArchive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns a provider's forecast response into stored forecasts, the same way for every collector engine.
+ * Handling is split in two steps so the engines can run them on different threads:
+ * <ol>
+ *     <li>{@link #read}: parses the body, writing its archive blob as it goes, and copies the result to the cities
+ *     sharing the request</li>
+ *     <li>{@link #store}: saves the archive index row, inserts the rows and remembers the response's caching
+ *     headers</li>
+ * </ol>
+ * Caching headers are only remembered for a 304 or once forecasts are safely stored, so a failed save or a
+ * response nothing could be parsed from is fetched again in full.
+ */
+@Component
+public class ForecastResponseHandler {
+    private static final Logger logger = LoggerFactory.getLogger(ForecastResponseHandler.class);
+
+    private final ResponseMetadataStore responseMetadataStore;
+    private final RawResponseArchive rawResponseArchive;
+    private final BulkInsertRepository bulkInsertRepository;
+
+    /**
+     * A response that has been read
+     *
+     * @param notModified Whether the provider answered 304, in which case there are no forecasts
+     * @param forecasts Daily forecasts of the request's city and every city sharing its response
+     * @param hourlyForecasts Hourly forecast points, for the same cities
+     * @param archived Index row of the archived body, not saved yet; null if the body was not archived
+     */
+    public record ReadResponse(ForecastRequest request, HttpHeaders headers, boolean notModified,
+                               List<ForecastData> forecasts, List<HourlyForecast> hourlyForecasts,
+                               RawResponse archived) {
+    }
+
+    public ForecastResponseHandler(ResponseMetadataStore responseMetadataStore,
+                                   RawResponseArchive rawResponseArchive,
+                                   BulkInsertRepository bulkInsertRepository) {
+        this.responseMetadataStore = responseMetadataStore;
+        this.rawResponseArchive = rawResponseArchive;
+        this.bulkInsertRepository = bulkInsertRepository;
+    }
+
+    /**
+     * Reads and stores a response
+     *
+     * @param body Response body, or null if there is none
+     */
+    public CollectionCycleReport.Outcome handle(ForecastRequest request, HttpStatusCode status, HttpHeaders headers,
+                                                InputStream body) throws IOException {
+        return store(read(request, status, headers, body, Instant.now()));
+    }
+
+    /**
+     * Parses a response, archiving the body while it is read. A response without a body, or with an empty one,
+     * gives no forecasts. Touches no database.
+     *
+     * @param body Response body, or null if there is none
+     * @throws IOException If reading the body fails, so the request can be retried
+     */
+    public ReadResponse read(ForecastRequest request, HttpStatusCode status, HttpHeaders headers, InputStream body,
+                             Instant fetchTimestamp) throws IOException {
+        if (status.value() == HttpStatus.NOT_MODIFIED.value()) {
+            return new ReadResponse(request, headers, true, List.of(), List.of(), null);
+        }
+        InputStream content = nonEmpty(body);
+        if (content == null) {
+            return new ReadResponse(request, headers, false, List.of(), List.of(), null);
+        }
+
+        ArchivingInputStream archiving = rawResponseArchive.archiving(request.providerName(), request.cityName(),
+                fetchTimestamp, content);
+        List<HourlyForecast> hourlyForecasts = new ArrayList<>();
+        List<ForecastData> forecasts;
+        RawResponse archived = null;
+        try {
+            forecasts = request.parser().parseForecastResponse(request.cityName(),
+                    archiving != null ? archiving : content, fetchTimestamp, hourlyForecasts);
+            if (archiving != null) {
+                archived = archiving.finish();
+            }
+        } catch (UncheckedIOException e) {
+            // Surfaces as a ResourceAccessException when read inside RestTemplate, so the request is retried
+            throw e.getCause();
+        } finally {
+            if (archiving != null) {
+                archiving.discard();
+            }
+        }
+        if (forecasts == null || forecasts.isEmpty()) {
+            return new ReadResponse(request, headers, false, List.of(), List.of(), archived);
+        }
+        return new ReadResponse(request, headers, false,
+                RequestCoalescer.fanOut(forecasts, request.sharedWith()),
+                RequestCoalescer.fanOutHourly(hourlyForecasts, request.sharedWith()), archived);
+    }
+
+    /**
+     * Stores one response's forecasts in one JDBC batch per table and records the outcome
+     */
+    public CollectionCycleReport.Outcome store(ReadResponse response) {
+        archive(List.of(response));
+        if (!response.forecasts().isEmpty()) {
+            insert(List.of(response));
+        }
+        return stored(response);
+    }
+
+    /**
+     * Saves the archive index rows of responses whose bodies were archived. Failures are logged.
+     */
+    public void archive(List<ReadResponse> responses) {
+        for (ReadResponse response : responses) {
+            if (response.archived() != null) {
+                rawResponseArchive.save(response.archived());
+            }
+        }
+    }
+
+    /**
+     * Inserts the forecasts of several responses; the caller decides whether this runs in one transaction
+     */
+    public void insert(List<ReadResponse> responses) {
+        List<ForecastData> rows = new ArrayList<>();
+        List<HourlyForecast> hourlyRows = new ArrayList<>();
+        for (ReadResponse response : responses) {
+            rows.addAll(response.forecasts());
+            hourlyRows.addAll(response.hourlyForecasts());
+        }
+        if (!rows.isEmpty()) {
+            bulkInsertRepository.insertForecasts(rows);
+            bulkInsertRepository.insertHourlyForecasts(hourlyRows);
+        }
+    }
+
+    /**
+     * Outcome of a response whose forecasts have been inserted; remembers its caching headers if it was saved
+     * or not modified
+     */
+    public CollectionCycleReport.Outcome stored(ReadResponse response) {
+        ForecastRequest request = response.request();
+        String providerName = request.providerName();
+        String cityName = request.cityName();
+        if (response.notModified()) {
+            logger.info("Forecast for {} from {} not modified since the last fetch", cityName, providerName);
+            responseMetadataStore.update(providerName, cityName, response.headers());
+            return CollectionCycleReport.Outcome.notModified();
+        }
+        if (response.forecasts().isEmpty()) {
+            logger.warn("No forecast data parsed for {} from {}", cityName, providerName);
+            return CollectionCycleReport.Outcome.noData();
+        }
+        responseMetadataStore.update(providerName, cityName, response.headers());
+        List<String> sharedWith = request.sharedWith();
+        logger.info("Saved {} forecast entries for {} from {}", response.forecasts().size(),
+                sharedWith.isEmpty() ? cityName : cityName + " and " + sharedWith, providerName);
+        return CollectionCycleReport.Outcome.saved(response.forecasts().size());
+    }
+
+    /**
+     * @return The body, or null if it has no bytes at all
+     */
+    private static InputStream nonEmpty(InputStream body) throws IOException {
+        if (body == null) {
+            return null;
+        }
+        PushbackInputStream in = new PushbackInputStream(body);
+        int first = in.read();
+        if (first == -1) {
+            return null;
+        }
+        in.unread(first);
+        return in;
+    }
+}
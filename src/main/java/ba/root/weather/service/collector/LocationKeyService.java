@@ -0,0 +1,228 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.config.CityConfig;
+import ba.root.weather.config.CollectorConfig;
+import ba.root.weather.config.CollectorConfigRegistry;
+import ba.root.weather.config.CollectorProperties;
+import ba.root.weather.config.ProviderConfig;
+import ba.root.weather.entity.LocationKey;
+import ba.root.weather.repository.LocationKeyRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AccuWeather location keys, cached in memory and persisted in the location_key table.
+ * The cache is warmed from the database at startup and keys are re-resolved in the background
+ * before they expire, so the forecast cycle only performs a geoposition lookup for cities it has never seen.
+ */
+@Service
+public class LocationKeyService {
+    private static final Logger logger = LoggerFactory.getLogger(LocationKeyService.class);
+    private static final String PROVIDER_NAME = "AccuWeather";
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final LocationKeyRepository locationKeyRepository;
+    private final CollectorConfigRegistry configRegistry;
+    private final CollectorProperties properties;
+    private final ProviderGuards providerGuards;
+    private final QuotaPlanner quotaPlanner;
+
+    private final Map<CacheKey, LocationKey> cache = new ConcurrentHashMap<>();
+    // Serializes lookups of the same city between the refresh job and the forecast cycle
+    private final Map<CacheKey, ReentrantLock> resolveLocks = new ConcurrentHashMap<>();
+
+    private record CacheKey(String city, double latitude, double longitude) {
+        static CacheKey of(CityConfig city) {
+            return new CacheKey(city.name(), city.latitude(), city.longitude());
+        }
+
+        static CacheKey of(LocationKey locationKey) {
+            return new CacheKey(locationKey.getCity(), locationKey.getLatitude(), locationKey.getLongitude());
+        }
+    }
+
+    public LocationKeyService(RestTemplate restTemplate,
+                              ObjectMapper objectMapper,
+                              LocationKeyRepository locationKeyRepository,
+                              CollectorConfigRegistry configRegistry,
+                              CollectorProperties properties,
+                              ProviderGuards providerGuards,
+                              QuotaPlanner quotaPlanner) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.locationKeyRepository = locationKeyRepository;
+        this.configRegistry = configRegistry;
+        this.properties = properties;
+        this.providerGuards = providerGuards;
+        this.quotaPlanner = quotaPlanner;
+    }
+
+    /**
+     * Bulk-loads all unexpired keys from the database
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            List<LocationKey> keys = locationKeyRepository.findByProviderNameAndExpiresAtAfter(PROVIDER_NAME, Instant.now());
+            keys.forEach(key -> cache.put(CacheKey.of(key), key));
+            logger.info("Loaded {} AccuWeather location keys into the cache", keys.size());
+        } catch (Exception e) {
+            logger.error("Error loading AccuWeather location keys", e);
+        }
+    }
+
+    /**
+     * Returns the location key for a city, resolving it only if it is not cached or has expired.
+     * If an expired key cannot be re-resolved, the expired one is returned since keys rarely change.
+     *
+     * @return The location key, or null if none could be found
+     */
+    public String getLocationKey(CityConfig city, ProviderConfig provider) {
+        LocationKey cached = cache.get(CacheKey.of(city));
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            logger.debug("Found AccuWeather location key for {} in cache.", city.name());
+            return cached.getLocationKey();
+        }
+
+        LocationKey resolved = resolve(city, provider, Instant.now());
+        if (resolved != null) {
+            return resolved.getLocationKey();
+        }
+        return cached != null ? cached.getLocationKey() : null;
+    }
+
+    /**
+     * Whether an unexpired key for the city is cached, i.e. a forecast for it needs no location lookup
+     */
+    public boolean hasValidKey(CityConfig city) {
+        LocationKey cached = cache.get(CacheKey.of(city));
+        return cached != null && !cached.isExpired(Instant.now());
+    }
+
+    /**
+     * Resolves keys that are missing or about to expire, off the forecast hot path.
+     * Only calls the daily quota can spare after the remaining forecast cycles are used.
+     */
+    @Scheduled(fixedDelayString = "${weather.collector.location-keys.refresh-interval:PT6H}",
+            initialDelayString = "${weather.collector.location-keys.refresh-initial-delay:PT1M}")
+    public void refreshExpiringKeys() {
+        CollectorConfig config;
+        try {
+            config = configRegistry.current();
+        } catch (IOException e) {
+            logger.error("Error loading configuration", e);
+            return;
+        }
+
+        ProviderConfig provider = config.provider(PROVIDER_NAME);
+        if (provider == null || !provider.enabled() || provider.locationUrl() == null) {
+            return;
+        }
+
+        Instant refreshBefore = Instant.now().plus(properties.getLocationKeys().getRefreshAhead());
+        int spareCalls = quotaPlanner.spareCallsToday(PROVIDER_NAME, config.cities().size());
+        int refreshed = 0;
+        int deferred = 0;
+        for (CityConfig city : config.cities()) {
+            LocationKey cached = cache.get(CacheKey.of(city));
+            if (cached != null && !cached.getExpiresAt().isBefore(refreshBefore)) {
+                continue;
+            }
+            if (spareCalls-- <= 0) {
+                deferred++;
+            } else if (resolve(city, provider, refreshBefore) != null) {
+                refreshed++;
+            }
+        }
+        if (refreshed > 0 || deferred > 0) {
+            logger.info("Refreshed {} AccuWeather location keys, {} deferred to save quota", refreshed, deferred);
+        }
+    }
+
+    /**
+     * Looks up the city's key unless another thread already resolved one valid beyond {@code validUntil}.
+     * Cached entities are never modified, a resolved key is published as a new entity.
+     */
+    private LocationKey resolve(CityConfig city, ProviderConfig provider, Instant validUntil) {
+        String locationUrl = provider.locationUrl(city);
+        if (locationUrl == null) return null;
+
+        CacheKey cacheKey = CacheKey.of(city);
+        ReentrantLock lock = resolveLocks.computeIfAbsent(cacheKey, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            LocationKey cached = cache.get(cacheKey);
+            if (cached != null && cached.getExpiresAt().isAfter(validUntil)) {
+                return cached;
+            }
+
+            String key = fetchLocationKey(locationUrl);
+            if (key == null) return null;
+
+            Instant now = Instant.now();
+            LocationKey locationKey = new LocationKey(PROVIDER_NAME, city.name(), city.latitude(), city.longitude());
+            locationKey.setLocationKey(key);
+            locationKey.setResolvedAt(now);
+            locationKey.setExpiresAt(now.plus(properties.getLocationKeys().getTtl()));
+
+            try {
+                if (cached != null) {
+                    locationKey.setId(cached.getId());
+                }
+                if (locationKey.getId() == null) {
+                    // The key may have been stored by another instance since the cache was warmed
+                    locationKeyRepository.findByProviderNameAndCityAndLatitudeAndLongitude(
+                                    PROVIDER_NAME, city.name(), city.latitude(), city.longitude())
+                            .ifPresent(stored -> locationKey.setId(stored.getId()));
+                }
+                LocationKey saved = locationKeyRepository.save(locationKey);
+                cache.put(cacheKey, saved);
+                return saved;
+            } catch (Exception e) {
+                // Still usable from memory until the next restart
+                logger.error("Error saving AccuWeather location key for {}", city.name(), e);
+                cache.put(cacheKey, locationKey);
+                return locationKey;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String fetchLocationKey(String locationUrl) {
+        try {
+            String response = providerGuards.execute(PROVIDER_NAME, () -> {
+                quotaPlanner.recordCall(PROVIDER_NAME);
+                return restTemplate.getForObject(locationUrl, String.class);
+            });
+            JsonNode locationResponse = objectMapper.readTree(response);
+
+            // The response is an array, get the first result's "Key"
+            if (locationResponse.isArray() && !locationResponse.isEmpty()) {
+                return locationResponse.get(0).get("Key").asText();
+            } else if (locationResponse.has("Key")) { // Sometimes it's not an array
+                return locationResponse.get("Key").asText();
+            }
+            logger.error("AccuWeather location response did not contain a 'Key' field.");
+            return null;
+        } catch (Exception e) {
+            logger.error("Failed to fetch or parse AccuWeather location key", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.dto.ProviderGuardStatusDto;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limiter and circuit breaker of one provider, plus call counters for the status endpoint
+ */
+public class ProviderGuard {
+
+    private final String providerName;
+    private final TokenBucket tokenBucket;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration maxTokenWait;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ProviderGuard(String providerName, TokenBucket tokenBucket, CircuitBreaker circuitBreaker,
+                         Duration maxTokenWait) {
+        this.providerName = providerName;
+        this.tokenBucket = tokenBucket;
+        this.circuitBreaker = circuitBreaker;
+        this.maxTokenWait = maxTokenWait;
+    }
+
+    /**
+     * Admits one call: checks the circuit and reserves a rate limit token.
+     *
+     * @return Nanoseconds to wait before making the call
+     * @throws ProviderUnavailableException If the circuit is open or the token would take longer than the maximum wait
+     */
+    public long acquire() {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            rejected.incrementAndGet();
+            throw new ProviderUnavailableException("Circuit for " + providerName + " is open until "
+                    + circuitBreaker.getOpenUntil());
+        }
+        long waitNanos = tokenBucket.tryReserve(maxTokenWait.toNanos());
+        if (waitNanos < 0) {
+            rejected.incrementAndGet();
+            // Give the half-open trial back, no call was made
+            circuitBreaker.releasePermission();
+            throw new ProviderUnavailableException("Rate limit for " + providerName + " would delay the call more than "
+                    + maxTokenWait);
+        }
+        calls.incrementAndGet();
+        return waitNanos;
+    }
+
+    /**
+     * The provider answered, even if with a client error
+     */
+    public void onSuccess() {
+        circuitBreaker.onSuccess();
+    }
+
+    /**
+     * The call failed in a way that says the provider is struggling: connection error, timeout, 429 or 5xx
+     */
+    public void onFailure() {
+        failures.incrementAndGet();
+        circuitBreaker.onFailure();
+    }
+
+    public void onRetry() {
+        retries.incrementAndGet();
+    }
+
+    public String getProviderName() {
+        return providerName;
+    }
+
+    public ProviderGuardStatusDto status() {
+        return new ProviderGuardStatusDto(providerName, circuitBreaker.getState().name(),
+                circuitBreaker.getConsecutiveFailures(), circuitBreaker.getOpenUntil(), tokenBucket.availableTokens(),
+                calls.get(), failures.get(), retries.get(), rejected.get());
+    }
+}
@@ -0,0 +1,117 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.config.CollectorProperties;
+import ba.root.weather.dto.ProviderGuardStatusDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Resilience layer for outbound provider calls: one {@link ProviderGuard} (token bucket and circuit breaker)
+ * per provider name, and bounded retries with exponential backoff for transient failures.
+ * Settings are read from {@code weather.collector.resilience.*} when a provider is first called.
+ */
+@Component
+public class ProviderGuards {
+    private static final Logger logger = LoggerFactory.getLogger(ProviderGuards.class);
+
+    private final CollectorProperties properties;
+    private final Map<String, ProviderGuard> guards = new ConcurrentHashMap<>();
+
+    public ProviderGuards(CollectorProperties properties) {
+        this.properties = properties;
+    }
+
+    public ProviderGuard guard(String providerName) {
+        return guards.computeIfAbsent(providerName, name -> {
+            CollectorProperties.Resilience settings = properties.getResilience();
+            return new ProviderGuard(name,
+                    new TokenBucket(settings.rateFor(name), settings.getBurst()),
+                    new CircuitBreaker(settings.getFailureThreshold(), settings.getOpenDuration()),
+                    settings.getMaxTokenWait());
+        });
+    }
+
+    /**
+     * Makes a blocking call through the provider's guard, retrying transient failures with backoff
+     * as long as the circuit stays closed.
+     *
+     * @throws ProviderUnavailableException If the call was not made (or not retried) because of the circuit or rate limit
+     */
+    public <T> T execute(String providerName, Supplier<T> call) {
+        ProviderGuard guard = guard(providerName);
+        CollectorProperties.Resilience settings = properties.getResilience();
+        int attempt = 0;
+        while (true) {
+            sleep(guard.acquire());
+            try {
+                T result = call.get();
+                guard.onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    guard.onSuccess();
+                    throw e;
+                }
+                guard.onFailure();
+                if (attempt >= settings.getMaxRetries()) {
+                    throw e;
+                }
+                attempt++;
+                guard.onRetry();
+                Duration backoff = backoff(settings, attempt);
+                logger.warn("Call to {} failed ({}), retry {} of {} in {} ms",
+                        providerName, e.getMessage(), attempt, settings.getMaxRetries(), backoff.toMillis());
+                sleep(backoff.toNanos());
+            }
+        }
+    }
+
+    public List<ProviderGuardStatusDto> status() {
+        return guards.values().stream()
+                .sorted(Comparator.comparing(ProviderGuard::getProviderName))
+                .map(ProviderGuard::status)
+                .toList();
+    }
+
+    /**
+     * Failures that say the provider is struggling rather than that the request was wrong
+     */
+    static boolean isTransient(RuntimeException e) {
+        return e instanceof ResourceAccessException
+                || e instanceof HttpServerErrorException
+                || e instanceof HttpClientErrorException.TooManyRequests;
+    }
+
+    /**
+     * Exponential backoff with up to 50% random jitter
+     */
+    private static Duration backoff(CollectorProperties.Resilience settings, int attempt) {
+        long base = settings.getRetryBackoff().toMillis() << (attempt - 1);
+        return Duration.ofMillis(base + ThreadLocalRandom.current().nextLong(base / 2 + 1));
+    }
+
+    private static void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProviderUnavailableException("Interrupted while waiting to call the provider");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ba.root.weather.service.collector;
+
+/**
+ * A call to a provider was not made because its circuit is open or its rate limit would delay it too long
+ */
+public class ProviderUnavailableException extends RuntimeException {
+
+    public ProviderUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,253 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.config.CollectorProperties;
+import ba.root.weather.dto.ProviderQuotaDto;
+import ba.root.weather.entity.ProviderCallUsage;
+import ba.root.weather.repository.ForecastDataRepository;
+import ba.root.weather.repository.ProviderCallUsageRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Tracks calls made per provider per day and plans forecast cycles of providers with a daily call limit
+ * ({@code weather.collector.quota.daily-limits}). The calls left for the day are spread evenly over the
+ * forecast cycles still to run today; within a cycle the cities whose last forecast is oldest go first and
+ * the rest are deferred to a later cycle instead of failing on an exhausted quota.
+ * <p>
+ * Calls are counted in memory on the request path; the counters of limited providers are written to the
+ * provider_call_usage table every {@code quota.flush-interval} and on shutdown.
+ */
+@Service
+public class QuotaPlanner {
+    private static final Logger logger = LoggerFactory.getLogger(QuotaPlanner.class);
+
+    private final ProviderCallUsageRepository usageRepository;
+    private final ForecastDataRepository forecastDataRepository;
+    private final CollectorProperties properties;
+
+    private final Map<String, Usage> usage = new ConcurrentHashMap<>();
+
+    /**
+     * Calls made to one provider on one day; the counter is the source of truth, the row is written by {@link #flush()}
+     */
+    private static final class Usage {
+        private final LocalDate date;
+        private final AtomicInteger calls;
+        private ProviderCallUsage row;
+        // Whether the calls stored before a restart have been added to the counter
+        private boolean loaded;
+        private int flushedCalls;
+
+        private Usage(LocalDate date, int calls, ProviderCallUsage row) {
+            this.date = date;
+            this.calls = new AtomicInteger(calls);
+            this.row = row;
+            this.loaded = row != null;
+            this.flushedCalls = calls;
+        }
+    }
+
+    public QuotaPlanner(ProviderCallUsageRepository usageRepository,
+                        ForecastDataRepository forecastDataRepository,
+                        CollectorProperties properties) {
+        this.usageRepository = usageRepository;
+        this.forecastDataRepository = forecastDataRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Loads today's usage, so a restart does not reset the count
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            LocalDate today = today();
+            for (ProviderCallUsage row : usageRepository.findByUsageDate(today)) {
+                usage.put(row.getProviderName(), new Usage(today, row.getCalls(), row));
+            }
+        } catch (Exception e) {
+            logger.error("Error loading provider call usage", e);
+        }
+    }
+
+    /**
+     * Counts one outbound call to a provider, retries included
+     */
+    public void recordCall(String providerName) {
+        current(providerName).calls.incrementAndGet();
+    }
+
+    /**
+     * Writes the counters of providers with a daily limit that changed since the last flush
+     */
+    @Scheduled(fixedDelayString = "${weather.collector.quota.flush-interval:PT10S}",
+            initialDelayString = "${weather.collector.quota.flush-interval:PT10S}")
+    public synchronized void flush() {
+        Map<String, Integer> limits = properties.getQuota().getDailyLimits();
+        for (Map.Entry<String, Usage> entry : usage.entrySet()) {
+            String providerName = entry.getKey();
+            Usage current = entry.getValue();
+            if (!limits.containsKey(providerName) || (current.loaded && current.calls.get() == current.flushedCalls)) {
+                continue;
+            }
+            try {
+                ProviderCallUsage row = current.row;
+                if (row == null) {
+                    row = usageRepository.findByProviderNameAndUsageDate(providerName, current.date)
+                            .orElseGet(() -> new ProviderCallUsage(providerName, current.date, 0));
+                    if (!current.loaded) {
+                        // Calls made today before a restart that the cache was not warmed with; added once,
+                        // even if the save below fails
+                        current.loaded = true;
+                        current.calls.addAndGet(row.getCalls());
+                    }
+                }
+                int calls = current.calls.get();
+                row.setCalls(calls);
+                current.row = usageRepository.save(row);
+                current.flushedCalls = calls;
+            } catch (Exception e) {
+                logger.error("Error saving call usage for {}", providerName, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public int callsToday(String providerName) {
+        return current(providerName).calls.get();
+    }
+
+    /**
+     * @return Calls left today, or null if the provider has no daily limit
+     */
+    public Integer remainingToday(String providerName) {
+        Integer limit = properties.getQuota().getDailyLimits().get(providerName);
+        return limit != null ? Math.max(0, limit - callsToday(providerName)) : null;
+    }
+
+    /**
+     * Selects the jobs of one provider to run in this forecast cycle.
+     *
+     * @param jobs The provider's jobs for this cycle
+     * @param cityName City of a job
+     * @param cost Calls a job will make, e.g. 2 when a location key has to be looked up first
+     * @return The jobs to run now, oldest forecast first; the others are deferred
+     */
+    public <T> List<T> plan(String providerName, List<T> jobs, Function<T, String> cityName, ToIntFunction<T> cost) {
+        Integer remaining = remainingToday(providerName);
+        if (remaining == null || jobs.isEmpty()) {
+            return jobs;
+        }
+
+        int cycles = remainingCyclesToday();
+        int allowance = remaining / cycles;
+
+        Map<String, Instant> lastFetched = lastFetchedByCity(providerName);
+        List<T> ordered = new ArrayList<>(jobs);
+        ordered.sort(Comparator.comparing((T job) -> lastFetched.getOrDefault(cityName.apply(job), Instant.MIN)));
+
+        List<T> planned = new ArrayList<>();
+        for (T job : ordered) {
+            int jobCost = cost.applyAsInt(job);
+            if (jobCost <= allowance) {
+                planned.add(job);
+                allowance -= jobCost;
+            }
+        }
+        logger.info("Quota plan for {}: {} calls left today over {} cycles, running {} of {} cities",
+                providerName, remaining, cycles, planned.size(), jobs.size());
+        return planned;
+    }
+
+    /**
+     * Calls that can be spent outside forecast cycles (e.g. refreshing location keys ahead of expiry)
+     * while still leaving {@code callsPerCycle} for every cycle left today
+     *
+     * @return Spare calls, or {@link Integer#MAX_VALUE} if the provider has no daily limit
+     */
+    public int spareCallsToday(String providerName, int callsPerCycle) {
+        Integer remaining = remainingToday(providerName);
+        if (remaining == null) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(0, remaining - remainingCyclesToday() * callsPerCycle);
+    }
+
+    public List<ProviderQuotaDto> status() {
+        Map<String, Integer> limits = properties.getQuota().getDailyLimits();
+        Map<String, Integer> calls = new HashMap<>();
+        limits.keySet().forEach(providerName -> calls.put(providerName, callsToday(providerName)));
+        usage.keySet().forEach(providerName -> calls.put(providerName, callsToday(providerName)));
+        LocalDate today = today();
+        return calls.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> new ProviderQuotaDto(entry.getKey(), today, entry.getValue(),
+                        limits.get(entry.getKey()), remainingToday(entry.getKey())))
+                .toList();
+    }
+
+    /**
+     * Forecast cycles left in the current quota day, counting the one starting now
+     */
+    int remainingCyclesToday() {
+        ZoneId zone = properties.getQuota().getZone();
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        ZonedDateTime endOfDay = now.toLocalDate().plusDays(1).atStartOfDay(zone);
+        CronExpression cron = CronExpression.parse(properties.getForecastCron());
+
+        int cycles = 1;
+        // The scheduler evaluates the cron in the system zone
+        ZonedDateTime next = cron.next(now.withZoneSameInstant(ZoneId.systemDefault()));
+        while (next != null && next.isBefore(endOfDay)) {
+            cycles++;
+            next = cron.next(next);
+        }
+        return cycles;
+    }
+
+    private Map<String, Instant> lastFetchedByCity(String providerName) {
+        Map<String, Instant> lastFetched = new HashMap<>();
+        try {
+            for (Object[] row : forecastDataRepository.findLastFetchTimestampByCity(providerName)) {
+                lastFetched.put((String) row[0], (Instant) row[1]);
+            }
+        } catch (Exception e) {
+            logger.error("Error loading last forecast times for {}", providerName, e);
+        }
+        return lastFetched;
+    }
+
+    private Usage current(String providerName) {
+        LocalDate today = today();
+        return usage.compute(providerName, (name, existing) ->
+                existing != null && existing.date.equals(today) ? existing : new Usage(today, 0, null));
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(properties.getQuota().getZone());
+    }
+}
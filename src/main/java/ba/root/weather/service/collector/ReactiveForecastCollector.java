@@ -0,0 +1,195 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.config.CollectorProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Collector engine built on WebClient and Reactor.
+ * Requests are issued without blocking a thread each; only parsing and persistence of a finished
+ * response run on the bounded elastic scheduler. The number of in-flight requests per provider is
+ * bounded, so slow providers apply backpressure to their own requests only.
+ * <p>
+ * Bodies are buffered (up to {@code reactive.max-response-size}) before they are handed on, so a connection
+ * that drops mid-body is retried like any other transient failure and the connection is back in the pool
+ * before the blocking parse and insert start.
+ */
+@Component
+public class ReactiveForecastCollector {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveForecastCollector.class);
+
+    private final WebClient webClient;
+    private final CollectorProperties properties;
+    private final ProviderGuards providerGuards;
+    private final QuotaPlanner quotaPlanner;
+
+    /**
+     * Parses and stores a response, called on a worker thread. The response may be a 304 without a body.
+     * The body is handed over as received, without decoding it into a String.
+     */
+    @FunctionalInterface
+    public interface ResponseHandler {
+        CollectionCycleReport.Outcome handle(ForecastRequest request, ResponseEntity<byte[]> response);
+    }
+
+    /**
+     * The cycle deadline passed before the response arrived
+     */
+    private static final class DeadlineExceededException extends RuntimeException {
+        private DeadlineExceededException(Duration cycleDeadline) {
+            super("Did not finish within the cycle deadline of " + cycleDeadline, null, false, false);
+        }
+    }
+
+    public ReactiveForecastCollector(@Qualifier("collectorWebClient") WebClient webClient,
+                                     CollectorProperties properties,
+                                     ProviderGuards providerGuards,
+                                     QuotaPlanner quotaPlanner) {
+        this.webClient = webClient;
+        this.properties = properties;
+        this.providerGuards = providerGuards;
+        this.quotaPlanner = quotaPlanner;
+    }
+
+    /**
+     * Executes all requests and records their outcomes in the report.
+     * Blocks the calling thread until every request has finished. Requests whose response has not arrived
+     * by the cycle deadline are cancelled and reported as timed out; a response that did arrive is always
+     * parsed and stored, even if that ends after the deadline.
+     */
+    public void collect(List<ForecastRequest> requests, ResponseHandler handler, CollectionCycleReport report) {
+        int maxInFlight = Math.max(1, properties.getReactive().getMaxInFlightPerProvider());
+        Instant deadline = Instant.now().plus(properties.getCycleDeadline());
+
+        Flux.fromIterable(requests)
+                .groupBy(ForecastRequest::providerName)
+                .flatMap(providerRequests -> providerRequests.flatMap(request ->
+                        fetchAndHandle(request, handler, deadline)
+                                .doOnNext(outcome -> report.record(request.providerName(), outcome)),
+                        maxInFlight))
+                .blockLast();
+    }
+
+    /**
+     * Fetches every URL of a source that serves many stations per request, such as the METAR chunks,
+     * with the same guards, retries and cycle deadline as forecasts and at most {@code maxInFlight} at a time.
+     * Each body is passed to {@code handler} on a worker thread. Requests that fail, miss the deadline or
+     * have no body are logged and left out.
+     *
+     * @return The handler results, in completion order
+     */
+    public <T> List<T> fetchAll(String sourceName, List<String> urls, int maxInFlight, Function<byte[], T> handler) {
+        Instant deadline = Instant.now().plus(properties.getCycleDeadline());
+
+        return Flux.fromIterable(urls)
+                .flatMap(url -> fetch(sourceName, url, HttpHeaders.EMPTY, deadline)
+                        .publishOn(Schedulers.boundedElastic())
+                        .mapNotNull(response -> response.getBody() != null ? handler.apply(response.getBody()) : null)
+                        .onErrorResume(e -> {
+                            logger.error("Error fetching {} from {}: {}", url, sourceName, e.getMessage());
+                            return Mono.empty();
+                        }), Math.max(1, maxInFlight))
+                .collectList()
+                .block();
+    }
+
+    private Mono<CollectionCycleReport.Outcome> fetchAndHandle(ForecastRequest request, ResponseHandler handler,
+                                                               Instant deadline) {
+        logger.info("Fetching forecast for {} from {}", request.cityName(), request.providerName());
+
+        return fetch(request.providerName(), request.url(), request.headers(), deadline)
+                .publishOn(Schedulers.boundedElastic())
+                .map(response -> handler.handle(request, response))
+                .onErrorResume(DeadlineExceededException.class, e -> {
+                    logger.warn("Forecast for {} from {} did not finish within the cycle deadline of {}",
+                            request.cityName(), request.providerName(), properties.getCycleDeadline());
+                    return Mono.just(CollectionCycleReport.Outcome.timedOut());
+                })
+                .onErrorResume(ProviderUnavailableException.class, e -> {
+                    logger.warn("Skipping forecast for {} from {}: {}",
+                            request.cityName(), request.providerName(), e.getMessage());
+                    return Mono.just(CollectionCycleReport.Outcome.skipped());
+                })
+                .onErrorResume(e -> {
+                    logger.error("Error fetching forecast for {} from {}: {}",
+                            request.cityName(), request.providerName(), e.getMessage());
+                    return Mono.just(CollectionCycleReport.Outcome.failed());
+                });
+    }
+
+    /**
+     * Fetches one URL with retries, failing with {@link DeadlineExceededException} if the response has not
+     * arrived by the deadline. Requests that only get their turn after the deadline are not sent at all.
+     */
+    private Mono<ResponseEntity<byte[]>> fetch(String providerName, String url, HttpHeaders requestHeaders,
+                                               Instant deadline) {
+        CollectorProperties.Reactive settings = properties.getReactive();
+        ProviderGuard guard = providerGuards.guard(providerName);
+
+        // Every attempt, retries included, passes the provider's circuit breaker and rate limiter
+        // and is counted against its daily quota
+        Mono<ResponseEntity<byte[]>> attempts = Mono.defer(() -> {
+                    long waitNanos = guard.acquire();
+                    quotaPlanner.recordCall(providerName);
+                    return Mono.delay(Duration.ofNanos(waitNanos));
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(webClient.get()
+                        .uri(URI.create(url))
+                        .headers(headers -> headers.addAll(requestHeaders))
+                        .retrieve()
+                        .toEntity(byte[].class)
+                        .timeout(settings.getResponseTimeout()))
+                .doOnNext(response -> guard.onSuccess())
+                .doOnError(e -> {
+                    if (isRetryable(e)) {
+                        guard.onFailure();
+                    } else if (!(e instanceof ProviderUnavailableException)) {
+                        guard.onSuccess();
+                    }
+                })
+                .retryWhen(Retry.backoff(settings.getMaxRetries(), settings.getRetryBackoff())
+                        .jitter(settings.getRetryJitter())
+                        .filter(ReactiveForecastCollector::isRetryable)
+                        .doBeforeRetry(signal -> guard.onRetry()));
+
+        return Mono.defer(() -> {
+            Duration remaining = Duration.between(Instant.now(), deadline);
+            Mono<ResponseEntity<byte[]>> pastDeadline = Mono.error(
+                    new DeadlineExceededException(properties.getCycleDeadline()));
+            if (remaining.isNegative() || remaining.isZero()) {
+                return pastDeadline;
+            }
+            return attempts.timeout(remaining, pastDeadline);
+        });
+    }
+
+    /**
+     * Only transient failures are worth retrying: connection problems, timeouts, throttling and server errors
+     */
+    private static boolean isRetryable(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError()
+                    || responseException.getStatusCode().value() == 429;
+        }
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+}
@@ -0,0 +1,120 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.config.CityConfig;
+import ba.root.weather.config.CollectorProperties;
+import ba.root.weather.config.ProviderConfig;
+import ba.root.weather.entity.ForecastData;
+import ba.root.weather.entity.HourlyForecast;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Groups the cities of a provider that fall into the same forecast grid cell, so each cell is fetched and
+ * parsed once and the result is copied to every city in it. A provider's cell is its coordinates truncated
+ * to {@code weather.collector.coalesce.coordinate-decimals[provider]} decimals, the way met.no truncates
+ * them; providers without a setting are not coalesced.
+ * <p>
+ * Cities are only grouped when every other city value the forecast URL uses is equal too, e.g. the
+ * altitude met.no corrects temperatures for, so the shared response is the one each city would have got.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final CollectorProperties properties;
+
+    public RequestCoalescer(CollectorProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Groups items by the grid cell of their city, in order of first appearance. The first item of a group
+     * is the one to request; the group's other cities share its response.
+     */
+    public <T> List<List<T>> group(ProviderConfig provider, List<T> items, Function<T, CityConfig> city) {
+        Integer decimals = properties.getCoalesce().decimalsFor(provider.name());
+        if (decimals == null) {
+            return items.stream().map(List::of).toList();
+        }
+        List<String> urlParameters = provider.forecastUrl().parameterNames();
+        Map<String, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(cellKey(city.apply(item), decimals, urlParameters), key -> new ArrayList<>())
+                    .add(item);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    /**
+     * The city's coordinates truncated towards zero to the given number of decimals, followed by the city's
+     * values of the other URL parameters
+     */
+    static String cellKey(CityConfig city, int decimals, List<String> urlParameters) {
+        StringBuilder key = new StringBuilder()
+                .append(truncate(city.latitude(), decimals)).append(',')
+                .append(truncate(city.longitude(), decimals));
+        for (String name : urlParameters) {
+            if (name.equals("latitude") || name.equals("longitude")) {
+                continue;
+            }
+            // Provider and request-time values are the same for every city
+            String value = city.parameters().get(name);
+            if (value != null) {
+                key.append('&').append(name).append('=').append(value);
+            }
+        }
+        return key.toString();
+    }
+
+    // Through the decimal form, so 43.8563 is not truncated to 43.8562 because of its binary representation
+    private static String truncate(double coordinate, int decimals) {
+        return new BigDecimal(Double.toString(coordinate)).setScale(decimals, RoundingMode.DOWN).toPlainString();
+    }
+
+    /**
+     * Copies forecasts parsed for the requested city to the cities sharing its response
+     *
+     * @return The forecasts followed by a copy of them for each of {@code sharedWith}
+     */
+    public static List<ForecastData> fanOut(List<ForecastData> forecasts, List<String> sharedWith) {
+        if (sharedWith.isEmpty() || forecasts.isEmpty()) {
+            return forecasts;
+        }
+        List<ForecastData> result = new ArrayList<>(forecasts.size() * (sharedWith.size() + 1));
+        result.addAll(forecasts);
+        for (String city : sharedWith) {
+            for (ForecastData forecast : forecasts) {
+                result.add(new ForecastData(forecast.getProviderName(), city, forecast.getFetchTimestamp(),
+                        forecast.getTargetDate(), forecast.getPredictedMinTemp(), forecast.getPredictedMaxTemp(),
+                        forecast.getPredictedWeather()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copies hourly forecast points parsed for the requested city to the cities sharing its response
+     *
+     * @return The points followed by a copy of them for each of {@code sharedWith}
+     */
+    public static List<HourlyForecast> fanOutHourly(List<HourlyForecast> forecasts, List<String> sharedWith) {
+        if (sharedWith.isEmpty() || forecasts.isEmpty()) {
+            return forecasts;
+        }
+        List<HourlyForecast> result = new ArrayList<>(forecasts.size() * (sharedWith.size() + 1));
+        result.addAll(forecasts);
+        for (String city : sharedWith) {
+            for (HourlyForecast forecast : forecasts) {
+                result.add(new HourlyForecast(forecast.providerName(), city, forecast.fetchTimestamp(),
+                        forecast.validTime(), forecast.temperature(), forecast.precipitation(), forecast.weather()));
+            }
+        }
+        return result;
+    }
+}
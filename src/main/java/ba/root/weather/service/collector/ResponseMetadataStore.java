@@ -0,0 +1,146 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.config.CollectorProperties;
+import ba.root.weather.entity.ResponseMetadata;
+import ba.root.weather.repository.ResponseMetadataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Remembers the caching headers of the last forecast response per provider and city (in memory, written
+ * through to http_response_metadata), so the collector can skip unexpired responses and send conditional requests.
+ * Providers that send no caching headers are never skipped.
+ */
+@Service
+public class ResponseMetadataStore {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseMetadataStore.class);
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+    private final ResponseMetadataRepository responseMetadataRepository;
+    private final CollectorProperties properties;
+
+    private final Map<Key, ResponseMetadata> cache = new ConcurrentHashMap<>();
+
+    private record Key(String providerName, String city) {
+    }
+
+    public ResponseMetadataStore(ResponseMetadataRepository responseMetadataRepository,
+                                 CollectorProperties properties) {
+        this.responseMetadataRepository = responseMetadataRepository;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            List<ResponseMetadata> all = responseMetadataRepository.findAll();
+            all.forEach(metadata -> cache.put(new Key(metadata.getProviderName(), metadata.getCity()), metadata));
+            logger.info("Loaded HTTP response metadata for {} provider/city pairs", all.size());
+        } catch (Exception e) {
+            logger.error("Error loading HTTP response metadata", e);
+        }
+    }
+
+    /**
+     * Whether the last response for this provider and city has not expired yet, so fetching can be skipped
+     */
+    public boolean isFresh(String providerName, String city) {
+        if (!properties.getConditional().isEnabled()) {
+            return false;
+        }
+        ResponseMetadata metadata = cache.get(new Key(providerName, city));
+        return metadata != null && metadata.isFresh(Instant.now());
+    }
+
+    /**
+     * Request headers that turn the next fetch into a conditional request
+     */
+    public HttpHeaders conditionalHeaders(String providerName, String city) {
+        HttpHeaders headers = new HttpHeaders();
+        ResponseMetadata metadata = cache.get(new Key(providerName, city));
+        if (metadata == null || !properties.getConditional().isEnabled()) {
+            return headers;
+        }
+        if (metadata.getEtag() != null) {
+            headers.setIfNoneMatch(metadata.getEtag());
+        }
+        if (metadata.getLastModified() != null) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, metadata.getLastModified());
+        }
+        return headers;
+    }
+
+    /**
+     * Records the caching headers of a successful (200 or 304) response.
+     * On a 304 the validators may be missing, in which case the previous ones are kept.
+     */
+    public void update(String providerName, String city, HttpHeaders responseHeaders) {
+        Instant now = Instant.now();
+        String etag = responseHeaders.getETag();
+        String lastModified = responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED);
+        Instant expiresAt = expiresAt(responseHeaders, now);
+        if (etag == null && lastModified == null && expiresAt == null) {
+            return;
+        }
+
+        Key key = new Key(providerName, city);
+        ResponseMetadata metadata = cache.get(key);
+        if (metadata == null) {
+            metadata = new ResponseMetadata(providerName, city);
+        }
+        if (etag != null) {
+            metadata.setEtag(etag);
+        }
+        if (lastModified != null) {
+            metadata.setLastModified(lastModified);
+        }
+        metadata.setExpiresAt(expiresAt);
+        metadata.setFetchedAt(now);
+
+        try {
+            if (metadata.getId() == null) {
+                // Another instance may have stored metadata for this pair since the cache was warmed
+                ResponseMetadata stored = responseMetadataRepository.findByProviderNameAndCity(providerName, city).orElse(null);
+                if (stored != null) {
+                    metadata.setId(stored.getId());
+                }
+            }
+            metadata = responseMetadataRepository.save(metadata);
+        } catch (Exception e) {
+            logger.error("Error saving HTTP response metadata for {} from {}", city, providerName, e);
+        }
+        cache.put(key, metadata);
+    }
+
+    /**
+     * Expiry from Cache-Control max-age, falling back to the Expires header, capped at the configured maximum
+     */
+    private Instant expiresAt(HttpHeaders headers, Instant now) {
+        Instant expiresAt = null;
+        String cacheControl = headers.getCacheControl();
+        Matcher matcher = cacheControl != null ? MAX_AGE.matcher(cacheControl) : null;
+        if (matcher != null && matcher.find()) {
+            expiresAt = now.plusSeconds(Long.parseLong(matcher.group(1)));
+        } else if (headers.getExpires() > 0) {
+            expiresAt = Instant.ofEpochMilli(headers.getExpires());
+        }
+        if (expiresAt == null) {
+            return null;
+        }
+        Duration maxFreshness = properties.getConditional().getMaxFreshness();
+        Instant latest = now.plus(maxFreshness);
+        return expiresAt.isAfter(latest) ? latest : expiresAt;
+    }
+}
@@ -0,0 +1,58 @@
+package ba.root.weather.service.collector;
+
+/**
+ * Token bucket rate limiter. Callers reserve a token and are told how long to wait for it,
+ * so the same bucket serves blocking callers (sleep) and reactive ones (delay).
+ */
+public class TokenBucket {
+
+    private final double ratePerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param ratePerSecond Sustained rate
+     * @param burst Tokens available at once, also the initial fill
+     */
+    public TokenBucket(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        this.ratePerNano = ratePerSecond / 1_000_000_000d;
+        this.capacity = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Reserves a token if it becomes available within {@code maxWaitNanos}.
+     *
+     * @return Nanoseconds the caller must wait before using the token, or -1 if none was reserved
+     */
+    public synchronized long tryReserve(long maxWaitNanos) {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        long waitNanos = (long) Math.ceil((1 - tokens) / ratePerNano);
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+        // Tokens go negative, later callers queue up behind this reservation
+        tokens -= 1;
+        return waitNanos;
+    }
+
+    public synchronized double availableTokens() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,484 @@
+package ba.root.weather.service.metar;
+
+import ba.root.weather.service.metar.MetarObservation.CloudCover;
+import ba.root.weather.service.metar.MetarObservation.CloudLayer;
+import ba.root.weather.service.metar.MetarObservation.Descriptor;
+import ba.root.weather.service.metar.MetarObservation.Intensity;
+import ba.root.weather.service.metar.MetarObservation.Phenomenon;
+import ba.root.weather.service.metar.MetarObservation.WeatherGroup;
+import ba.root.weather.service.metar.MetarObservation.Wind;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Decodes raw METAR reports in a single pass over the text.
+ * <p>
+ * The report is read token by token through a state machine that follows the order of the groups in a
+ * METAR (station, time, wind, visibility, present weather, clouds, temperature, pressure). Each token is
+ * only tried against the groups that may still follow, tokens that match none are skipped, and decoding
+ * stops at the trend forecast or the remarks. Tokens are examined in place, without splitting the report
+ * or using regular expressions.
+ */
+public final class MetarDecoder {
+
+    private static final double KNOTS_PER_METER_PER_SECOND = 1.943844;
+    private static final double KNOTS_PER_KILOMETER_PER_HOUR = 0.539957;
+    private static final double METERS_PER_STATUTE_MILE = 1609.344;
+    private static final double HECTOPASCALS_PER_INCH_OF_MERCURY = 33.8639;
+
+    private static final Descriptor[] DESCRIPTORS = Descriptor.values();
+
+    private enum State {HEADER, WIND, VISIBILITY, WEATHER, CLOUDS, TEMPERATURE, PRESSURE, DONE}
+
+    private MetarDecoder() {
+    }
+
+    /**
+     * Decodes a raw report such as {@code LQSA 041130Z 27005KT 9999 -SHRA FEW020 BKN050 19/14 Q1019 NOSIG}
+     *
+     * @param rawOb The raw report, may be null or empty
+     * @return The observation; groups that are missing or cannot be read are left empty
+     */
+    public static MetarObservation decode(String rawOb) {
+        Builder observation = new Builder();
+        if (rawOb == null) {
+            return observation.build();
+        }
+
+        State state = State.HEADER;
+        int length = rawOb.length();
+        int start = 0;
+        while (state != State.DONE) {
+            while (start < length && rawOb.charAt(start) == ' ') {
+                start++;
+            }
+            if (start >= length) {
+                break;
+            }
+            int end = rawOb.indexOf(' ', start);
+            if (end < 0) {
+                end = length;
+            }
+            state = accept(rawOb, start, end, state, observation);
+            start = end;
+        }
+        return observation.build();
+    }
+
+    /**
+     * Decodes a present weather string such as {@code -SHRA BR}, as reported next to the raw report by
+     * data sources that decode it. Tokens that are not weather groups are ignored.
+     */
+    public static List<WeatherGroup> decodeWeather(String wxString) {
+        List<WeatherGroup> groups = new ArrayList<>(2);
+        if (wxString == null) {
+            return groups;
+        }
+        int length = wxString.length();
+        int start = 0;
+        while (start < length) {
+            int end = wxString.indexOf(' ', start);
+            if (end < 0) {
+                end = length;
+            }
+            WeatherGroup group = weatherGroup(wxString, start, end);
+            if (group != null) {
+                groups.add(group);
+            }
+            start = end + 1;
+        }
+        return groups;
+    }
+
+    /**
+     * Reads one token, trying only the groups that can still follow in the current state
+     *
+     * @return The state after the token
+     */
+    private static State accept(String s, int from, int to, State state, Builder observation) {
+        if (is(s, from, to, "NOSIG") || is(s, from, to, "BECMG") || is(s, from, to, "TEMPO")
+                || is(s, from, to, "RMK")) {
+            return State.DONE;
+        }
+        if (isAll(s, from, to, '/')) {
+            // A group an automatic station could not measure
+            return state;
+        }
+        if (state == State.HEADER) {
+            if (is(s, from, to, "METAR") || is(s, from, to, "SPECI") || is(s, from, to, "COR")
+                    || is(s, from, to, "AUTO") || isTime(s, from, to)) {
+                return state;
+            }
+            if (observation.station == null) {
+                observation.station = s.substring(from, to);
+                return state;
+            }
+        }
+        if (state.compareTo(State.WIND) <= 0 && wind(s, from, to, observation)) {
+            return State.WIND;
+        }
+        if (state.compareTo(State.VISIBILITY) <= 0 && visibility(s, from, to, observation)) {
+            return State.VISIBILITY;
+        }
+        if (state.compareTo(State.WEATHER) <= 0) {
+            if (isRunwayVisualRange(s, from, to) || is(s, from, to, "NSW")) {
+                return State.WEATHER;
+            }
+            WeatherGroup group = weatherGroup(s, from, to);
+            if (group != null) {
+                observation.weather.add(group);
+                return State.WEATHER;
+            }
+        }
+        if (state.compareTo(State.CLOUDS) <= 0 && clouds(s, from, to, observation)) {
+            return State.CLOUDS;
+        }
+        if (state.compareTo(State.TEMPERATURE) <= 0 && temperature(s, from, to, observation)) {
+            return State.TEMPERATURE;
+        }
+        if (state.compareTo(State.PRESSURE) <= 0 && pressure(s, from, to, observation)) {
+            // Recent weather, wind shear and runway state groups may follow but are not decoded
+            return State.DONE;
+        }
+        return state;
+    }
+
+    /**
+     * Wind like 27005KT, VRB02KT, 27015G25KT or 09008MPS. A variation group like 190V320 is consumed as well.
+     */
+    private static boolean wind(String s, int from, int to, Builder observation) {
+        int length = to - from;
+        if (observation.wind != null) {
+            // Direction variation following the wind group
+            return length == 7 && s.charAt(from + 3) == 'V' && isDigits(s, from, from + 3) && isDigits(s, from + 4, to);
+        }
+
+        double toKnots;
+        int unitLength;
+        if (endsWith(s, to, "KT")) {
+            toKnots = 1;
+            unitLength = 2;
+        } else if (endsWith(s, to, "MPS")) {
+            toKnots = KNOTS_PER_METER_PER_SECOND;
+            unitLength = 3;
+        } else if (endsWith(s, to, "KMH")) {
+            toKnots = KNOTS_PER_KILOMETER_PER_HOUR;
+            unitLength = 3;
+        } else {
+            return false;
+        }
+        int valuesEnd = to - unitLength;
+        if (valuesEnd - from < 5) {
+            return false;
+        }
+
+        Integer direction;
+        if (is(s, from, from + 3, "VRB")) {
+            direction = null;
+        } else if (isDigits(s, from, from + 3)) {
+            direction = parseInt(s, from, from + 3);
+        } else {
+            return false;
+        }
+
+        int gustIndex = s.indexOf('G', from + 3);
+        int speedEnd = gustIndex >= 0 && gustIndex < valuesEnd ? gustIndex : valuesEnd;
+        if (speedEnd - (from + 3) < 2 || !isDigits(s, from + 3, speedEnd)) {
+            return false;
+        }
+        Integer gust = null;
+        if (speedEnd < valuesEnd) {
+            if (valuesEnd - (speedEnd + 1) < 2 || !isDigits(s, speedEnd + 1, valuesEnd)) {
+                return false;
+            }
+            gust = (int) Math.round(parseInt(s, speedEnd + 1, valuesEnd) * toKnots);
+        }
+        int speed = (int) Math.round(parseInt(s, from + 3, speedEnd) * toKnots);
+        observation.wind = new Wind(direction, speed, gust);
+        return true;
+    }
+
+    /**
+     * Visibility like 9999, 0800, 4000NE, CAVOK, or in statute miles like 10SM, 1/2SM, P6SM
+     */
+    private static boolean visibility(String s, int from, int to, Builder observation) {
+        if (is(s, from, to, "CAVOK")) {
+            observation.visibilityMeters = 10000;
+            return true;
+        }
+        if (to - from >= 4 && isDigits(s, from, from + 4) && (to - from == 4 || isLetters(s, from + 4, to))) {
+            if (observation.visibilityMeters != null) {
+                // Minimum visibility in a direction, after the prevailing one
+                return true;
+            }
+            int meters = parseInt(s, from, from + 4);
+            observation.visibilityMeters = meters == 9999 ? 10000 : meters;
+            return true;
+        }
+        if (endsWith(s, to, "SM") && to - from > 2) {
+            int valueFrom = s.charAt(from) == 'P' || s.charAt(from) == 'M' ? from + 1 : from;
+            int valueTo = to - 2;
+            int slash = s.indexOf('/', valueFrom);
+            double miles;
+            if (slash > valueFrom && slash < valueTo - 1 && isDigits(s, valueFrom, slash) && isDigits(s, slash + 1, valueTo)) {
+                miles = (double) parseInt(s, valueFrom, slash) / parseInt(s, slash + 1, valueTo);
+            } else if (valueTo > valueFrom && isDigits(s, valueFrom, valueTo)) {
+                miles = parseInt(s, valueFrom, valueTo);
+            } else {
+                return false;
+            }
+            observation.visibilityMeters = (int) Math.min(10000, Math.round(miles * METERS_PER_STATUTE_MILE));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Present weather like -RA, +TSRAGR, VCSH, BCFG or FZDZ
+     *
+     * @return The group, or null if the token is not a weather group
+     */
+    private static WeatherGroup weatherGroup(String s, int from, int to) {
+        int i = from;
+        Intensity intensity = Intensity.MODERATE;
+        if (i < to && s.charAt(i) == '-') {
+            intensity = Intensity.LIGHT;
+            i++;
+        } else if (i < to && s.charAt(i) == '+') {
+            intensity = Intensity.HEAVY;
+            i++;
+        }
+        boolean vicinity = false;
+        if (to - i >= 2 && s.charAt(i) == 'V' && s.charAt(i + 1) == 'C') {
+            vicinity = true;
+            i += 2;
+        }
+        Descriptor descriptor = null;
+        if (to - i >= 2) {
+            descriptor = descriptor(s.charAt(i), s.charAt(i + 1));
+            if (descriptor != null) {
+                i += 2;
+            }
+        }
+        if ((to - i) % 2 != 0 || (descriptor == null && i == to)) {
+            return null;
+        }
+        EnumSet<Phenomenon> phenomena = EnumSet.noneOf(Phenomenon.class);
+        for (; i < to; i += 2) {
+            Phenomenon phenomenon = Phenomenon.of(s.charAt(i), s.charAt(i + 1));
+            if (phenomenon == null) {
+                return null;
+            }
+            phenomena.add(phenomenon);
+        }
+        return new WeatherGroup(intensity, vicinity, descriptor, phenomena);
+    }
+
+    /**
+     * Looks up a two-letter descriptor code without creating a String
+     */
+    private static Descriptor descriptor(char first, char second) {
+        for (Descriptor descriptor : DESCRIPTORS) {
+            String name = descriptor.name();
+            if (name.charAt(0) == first && name.charAt(1) == second) {
+                return descriptor;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cloud layers like FEW020, BKN050CB, OVC///, VV001, or NSC, SKC, CLR, NCD for none
+     */
+    private static boolean clouds(String s, int from, int to, Builder observation) {
+        if (is(s, from, to, "NSC") || is(s, from, to, "SKC") || is(s, from, to, "CLR") || is(s, from, to, "NCD")) {
+            return true;
+        }
+        CloudCover cover;
+        int baseFrom;
+        if (to - from >= 5 && s.charAt(from) == 'V' && s.charAt(from + 1) == 'V') {
+            cover = CloudCover.VV;
+            baseFrom = from + 2;
+        } else if (to - from >= 6) {
+            cover = cloudCover(s, from);
+            baseFrom = from + 3;
+            if (cover == null) {
+                return false;
+            }
+        } else {
+            return false;
+        }
+        if (to - baseFrom < 3) {
+            return false;
+        }
+        Integer baseFeet;
+        if (isDigits(s, baseFrom, baseFrom + 3)) {
+            baseFeet = parseInt(s, baseFrom, baseFrom + 3) * 100;
+        } else if (is(s, baseFrom, baseFrom + 3, "///")) {
+            baseFeet = null;
+        } else {
+            return false;
+        }
+        String cloudType = null;
+        if (is(s, baseFrom + 3, to, "CB") || is(s, baseFrom + 3, to, "TCU")) {
+            cloudType = s.substring(baseFrom + 3, to);
+        } else if (baseFrom + 3 != to && !is(s, baseFrom + 3, to, "///")) {
+            return false;
+        }
+        observation.clouds.add(new CloudLayer(cover, baseFeet, cloudType));
+        return true;
+    }
+
+    private static CloudCover cloudCover(String s, int from) {
+        if (s.startsWith("FEW", from)) {
+            return CloudCover.FEW;
+        }
+        if (s.startsWith("SCT", from)) {
+            return CloudCover.SCT;
+        }
+        if (s.startsWith("BKN", from)) {
+            return CloudCover.BKN;
+        }
+        if (s.startsWith("OVC", from)) {
+            return CloudCover.OVC;
+        }
+        return null;
+    }
+
+    /**
+     * Temperature and dewpoint like 19/14, M01/M03, 24/ or 24///
+     */
+    private static boolean temperature(String s, int from, int to, Builder observation) {
+        int slash = s.indexOf('/', from);
+        if (slash <= from || slash >= to) {
+            return false;
+        }
+        Double temperature = signedTemperature(s, from, slash);
+        if (temperature == null) {
+            return false;
+        }
+        Double dewpoint = null;
+        if (slash + 1 < to && !isAll(s, slash + 1, to, '/')) {
+            dewpoint = signedTemperature(s, slash + 1, to);
+            if (dewpoint == null) {
+                return false;
+            }
+        }
+        observation.temperature = temperature;
+        observation.dewpoint = dewpoint;
+        return true;
+    }
+
+    private static Double signedTemperature(String s, int from, int to) {
+        boolean negative = from < to && s.charAt(from) == 'M';
+        int digitsFrom = negative ? from + 1 : from;
+        if (to - digitsFrom != 2 || !isDigits(s, digitsFrom, to)) {
+            return null;
+        }
+        int value = parseInt(s, digitsFrom, to);
+        return (double) (negative ? -value : value);
+    }
+
+    /**
+     * Pressure like Q1019 (hPa) or A2992 (inches of mercury)
+     */
+    private static boolean pressure(String s, int from, int to, Builder observation) {
+        if (to - from != 5 || !isDigits(s, from + 1, to)) {
+            return false;
+        }
+        int value = parseInt(s, from + 1, to);
+        if (s.charAt(from) == 'Q') {
+            observation.pressureHpa = (double) value;
+            return true;
+        }
+        if (s.charAt(from) == 'A') {
+            observation.pressureHpa = Math.round(value / 100.0 * HECTOPASCALS_PER_INCH_OF_MERCURY * 10) / 10.0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Observation time like 041130Z
+     */
+    private static boolean isTime(String s, int from, int to) {
+        return to - from == 7 && s.charAt(to - 1) == 'Z' && isDigits(s, from, to - 1);
+    }
+
+    /**
+     * Runway visual range like R27/P1500 or R09L/0800U
+     */
+    private static boolean isRunwayVisualRange(String s, int from, int to) {
+        return to - from >= 6 && s.charAt(from) == 'R' && Character.isDigit(s.charAt(from + 1))
+                && s.indexOf('/', from) > from && s.indexOf('/', from) < to;
+    }
+
+    private static boolean is(String s, int from, int to, String expected) {
+        return to - from == expected.length() && s.startsWith(expected, from);
+    }
+
+    private static boolean endsWith(String s, int to, String suffix) {
+        return to >= suffix.length() && s.startsWith(suffix, to - suffix.length());
+    }
+
+    private static boolean isDigits(String s, int from, int to) {
+        if (from >= to) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLetters(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAll(String s, int from, int to, char expected) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parseInt(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (s.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Decoded groups while the report is being read
+     */
+    private static final class Builder {
+        private String station;
+        private Wind wind;
+        private Integer visibilityMeters;
+        private final List<WeatherGroup> weather = new ArrayList<>(2);
+        private final List<CloudLayer> clouds = new ArrayList<>(3);
+        private Double temperature;
+        private Double dewpoint;
+        private Double pressureHpa;
+
+        private MetarObservation build() {
+            return new MetarObservation(station, wind, visibilityMeters, weather, clouds, temperature, dewpoint,
+                    pressureHpa);
+        }
+    }
+}
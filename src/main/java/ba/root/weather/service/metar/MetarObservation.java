@@ -0,0 +1,232 @@
+package ba.root.weather.service.metar;
+
+import ba.root.weather.entity.Weather;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * A METAR report decoded by {@link MetarDecoder}. Groups missing from the report are null,
+ * or empty lists for weather and clouds. Trend forecasts and remarks are not part of the observation.
+ *
+ * @param station ICAO code of the reporting station
+ * @param visibilityMeters Prevailing visibility; 10000 stands for 10 km or more
+ * @param weather Present weather groups, in report order
+ * @param clouds Cloud layers, lowest first
+ * @param pressureHpa Altimeter setting (QNH) in hectopascals
+ */
+public record MetarObservation(String station,
+                               Wind wind,
+                               Integer visibilityMeters,
+                               List<WeatherGroup> weather,
+                               List<CloudLayer> clouds,
+                               Double temperature,
+                               Double dewpoint,
+                               Double pressureHpa) {
+
+    public enum Intensity {LIGHT, MODERATE, HEAVY}
+
+    public enum Descriptor {MI, PR, BC, DR, BL, SH, TS, FZ}
+
+    public enum Phenomenon {
+        // Precipitation
+        DZ, RA, SN, SG, IC, PL, GR, GS, UP,
+        // Obscuration
+        BR, FG, FU, VA, DU, SA, HZ, PY,
+        // Other
+        PO, SQ, FC, SS, DS;
+
+        private static final Phenomenon[] VALUES = values();
+
+        /**
+         * Looks up a two-letter code without creating a String
+         *
+         * @return The phenomenon, or null if the letters are not a phenomenon code
+         */
+        static Phenomenon of(char first, char second) {
+            for (Phenomenon phenomenon : VALUES) {
+                String name = phenomenon.name();
+                if (name.charAt(0) == first && name.charAt(1) == second) {
+                    return phenomenon;
+                }
+            }
+            return null;
+        }
+
+        boolean isSnow() {
+            return this == SN || this == SG || this == IC || this == PL || this == GS;
+        }
+
+        boolean isRain() {
+            return this == RA || this == DZ || this == GR || this == UP;
+        }
+
+        boolean isObscurationOrOther() {
+            return ordinal() >= BR.ordinal();
+        }
+    }
+
+    public enum CloudCover {
+        FEW, SCT, BKN, OVC,
+        /**
+         * Sky obscured, with vertical visibility as the base
+         */
+        VV
+    }
+
+    /**
+     * @param directionDegrees Direction the wind blows from, null if variable
+     */
+    public record Wind(Integer directionDegrees, int speedKnots, Integer gustKnots) {
+    }
+
+    /**
+     * A present weather group such as {@code -SHRA} or {@code VCTS}
+     *
+     * @param vicinity Observed near, not at, the station
+     * @param descriptor Descriptor, or null if there is none
+     */
+    public record WeatherGroup(Intensity intensity, boolean vicinity, Descriptor descriptor, Set<Phenomenon> phenomena) {
+        boolean isThunderstorm() {
+            return descriptor == Descriptor.TS;
+        }
+
+        boolean isShower() {
+            return descriptor == Descriptor.SH;
+        }
+
+        boolean hasSnow() {
+            for (Phenomenon phenomenon : phenomena) {
+                if (phenomenon.isSnow()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean has(Phenomenon phenomenon) {
+            return phenomena.contains(phenomenon);
+        }
+    }
+
+    /**
+     * @param baseFeet Height of the base above ground, null if not reported
+     * @param cloudType CB or TCU for convective clouds, otherwise null
+     */
+    public record CloudLayer(CloudCover cover, Integer baseFeet, String cloudType) {
+    }
+
+    /**
+     * Broken clouds below this height count as cloudy, above it as partial clouds
+     */
+    private static final int LOW_BROKEN_CEILING_FEET = 8000;
+
+    /**
+     * Returns a copy with other present weather, e.g. the decoded wxString the data source reports separately
+     */
+    public MetarObservation withWeather(List<WeatherGroup> weather) {
+        return new MetarObservation(station, wind, visibilityMeters, weather, clouds, temperature, dewpoint, pressureHpa);
+    }
+
+    /**
+     * Classifies the observation: by present weather at the station, or by cloud cover if there is none.
+     * Weather in the vicinity of the station is not counted.
+     */
+    public Weather weatherType() {
+        Weather present = presentWeather();
+        return present != Weather.CLEAR ? present : cloudCover();
+    }
+
+    /**
+     * Classifies the present weather at the station; CLEAR if none is reported
+     */
+    public Weather presentWeather() {
+        boolean snow = false, rain = false, obscured = false;
+        for (WeatherGroup group : weather) {
+            if (group.vicinity()) {
+                continue;
+            }
+            if (group.isThunderstorm()) {
+                return Weather.THUNDERSTORM;
+            }
+            for (Phenomenon phenomenon : group.phenomena()) {
+                snow |= phenomenon.isSnow();
+                rain |= phenomenon.isRain();
+                obscured |= phenomenon.isObscurationOrOther();
+            }
+            rain |= group.isShower();
+        }
+        if (snow) {
+            return Weather.SNOW;
+        }
+        if (rain) {
+            return Weather.RAIN;
+        }
+        return obscured ? Weather.FOG_MIST : Weather.CLEAR;
+    }
+
+    /**
+     * Classifies the sky: overcast, obscured or low broken clouds are CLOUDS, any other layer PARTIAL_CLOUDS
+     */
+    public Weather cloudCover() {
+        Weather weatherType = Weather.CLEAR;
+        for (CloudLayer layer : clouds) {
+            switch (layer.cover()) {
+                case OVC, VV -> {
+                    return Weather.CLOUDS;
+                }
+                case BKN -> {
+                    if (layer.baseFeet() == null || layer.baseFeet() < LOW_BROKEN_CEILING_FEET) {
+                        return Weather.CLOUDS;
+                    }
+                    weatherType = Weather.PARTIAL_CLOUDS;
+                }
+                case FEW, SCT -> weatherType = Weather.PARTIAL_CLOUDS;
+            }
+        }
+        return weatherType;
+    }
+
+    /**
+     * Estimates the precipitation amount in millimeters from the most significant present weather
+     * (thunderstorm, showers, rain or drizzle, snow, hail) and its intensity
+     */
+    public double estimatedPrecipitation() {
+        WeatherGroup group;
+        if ((group = find(WeatherGroup::isThunderstorm)) != null) {
+            return byIntensity(group, 5.0, 10.0, 15.0);
+        }
+        if ((group = find(WeatherGroup::isShower)) != null) {
+            return byIntensity(group, 1.0, 3.0, 8.0);
+        }
+        if ((group = find(g -> g.has(Phenomenon.RA) || g.has(Phenomenon.DZ))) != null) {
+            return byIntensity(group, 0.5, 2.0, 4.0);
+        }
+        if ((group = find(WeatherGroup::hasSnow)) != null) {
+            // Water equivalent
+            return byIntensity(group, 0.2, 0.8, 2.0);
+        }
+        if ((group = find(g -> g.has(Phenomenon.GR))) != null) {
+            return byIntensity(group, 1.0, 4.0, 10.0);
+        }
+        return 0.0;
+    }
+
+    private WeatherGroup find(Predicate<WeatherGroup> condition) {
+        for (WeatherGroup group : weather) {
+            if (!group.vicinity() && condition.test(group)) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    private static double byIntensity(WeatherGroup group, double light, double moderate, double heavy) {
+        return switch (group.intensity()) {
+            case LIGHT -> light;
+            case MODERATE -> moderate;
+            case HEAVY -> heavy;
+        };
+    }
+}
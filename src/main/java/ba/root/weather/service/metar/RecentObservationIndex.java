@@ -0,0 +1,44 @@
+package ba.root.weather.service.metar;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reports that were stored recently, keyed by station and observation time. Polling with a lookback window
+ * returns most reports several times; the index drops those before they reach the database.
+ * Entries older than the lookback window are evicted, so the index only ever holds a few reports per station.
+ * It is not persisted: after a restart the first poll is written again and the database skips the duplicates.
+ */
+public class RecentObservationIndex {
+
+    public record Key(String station, Instant observationTime) {
+    }
+
+    private final Map<Key, Boolean> seen = new ConcurrentHashMap<>();
+
+    public boolean contains(String station, Instant observationTime) {
+        return seen.containsKey(new Key(station, observationTime));
+    }
+
+    /**
+     * Remembers reports once they have been stored
+     */
+    public void markSeen(Collection<Key> keys) {
+        for (Key key : keys) {
+            seen.put(key, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Forgets reports observed before {@code cutoff}, which the lookback window no longer returns
+     */
+    public void evictBefore(Instant cutoff) {
+        seen.keySet().removeIf(key -> key.observationTime().isBefore(cutoff));
+    }
+
+    public int size() {
+        return seen.size();
+    }
+}
@@ -2,12 +2,16 @@ package ba.root.weather.service.parser;
 
 import ba.root.weather.entity.ForecastData;
 import ba.root.weather.entity.Weather;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
@@ -31,51 +35,50 @@ public class AccuWeatherParser implements WeatherDataParser {
 
     @Override
     public List<ForecastData> parseForecastResponse(String cityName, String jsonResponse, Instant fetchTimestamp) {
-        logger.info("Parsing AccuWeather forecast for {}", cityName);
-        List<ForecastData> forecasts = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(jsonResponse)) {
+            return parse(cityName, parser, fetchTimestamp);
+        } catch (Exception e) {
+            logger.error("Error parsing AccuWeather JSON response for {}", cityName, e);
+            return Collections.emptyList();
+        }
+    }
 
-        try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
+    @Override
+    public List<ForecastData> parseForecastResponse(String cityName, InputStream jsonResponse, Instant fetchTimestamp) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(jsonResponse)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return parse(cityName, parser, fetchTimestamp);
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.error("Error parsing AccuWeather JSON response for {}", cityName, e);
+            return Collections.emptyList();
+        } catch (IOException e) {
+            // Reading the body failed, the request may succeed when retried
+            throw new UncheckedIOException(e);
+        }
+    }
 
-            // The forecast data is in the "DailyForecasts" array
-            if (!root.has("DailyForecasts") || !root.get("DailyForecasts").isArray()) {
-                logger.error("Invalid AccuWeather response format: missing 'DailyForecasts' array");
-                return Collections.emptyList();
+    private List<ForecastData> parse(String cityName, JsonParser parser, Instant fetchTimestamp) throws IOException {
+        logger.info("Parsing AccuWeather forecast for {}", cityName);
+        List<ForecastData> forecasts = new ArrayList<>();
+        boolean[] hasDailyForecasts = {false};
+
+        // The forecast data is in the "DailyForecasts" array
+        parser.nextToken();
+        JsonStreams.forEachField(parser, field -> {
+            if (field.equals("DailyForecasts")) {
+                hasDailyForecasts[0] |= JsonStreams.forEachElement(parser, index -> {
+                    ForecastData forecast = readDailyForecast(cityName, parser, fetchTimestamp);
+                    if (forecast != null) {
+                        forecasts.add(forecast);
+                    }
+                });
+            } else {
+                parser.skipChildren();
             }
+        });
 
-            for (JsonNode dailyForecast : root.get("DailyForecasts")) {
-                try {
-                    // Extract date from epoch time
-                    long epochDate = dailyForecast.get("EpochDate").asLong();
-                    LocalDate targetDate = Instant.ofEpochSecond(epochDate).atZone(ZoneOffset.UTC).toLocalDate();
-
-                    // Extract min and max temperatures
-                    JsonNode tempNode = dailyForecast.get("Temperature");
-                    Double minTemp = tempNode.get("Minimum").get("Value").asDouble();
-                    Double maxTemp = tempNode.get("Maximum").get("Value").asDouble();
-
-                    // Extract weather phrase from the "Day" object
-                    String iconPhrase = dailyForecast.get("Day").get("IconPhrase").asText();
-                    Weather predictedWeather = mapToWeatherEnum(iconPhrase);
-
-                    // Create and add the forecast data object
-                    ForecastData forecast = new ForecastData(
-                            getProviderName(),
-                            cityName,
-                            fetchTimestamp,
-                            targetDate,
-                            minTemp,
-                            maxTemp,
-                            predictedWeather
-                    );
-                    forecasts.add(forecast);
-
-                } catch (Exception e) {
-                    logger.warn("Error parsing a daily forecast entry for AccuWeather: {}", e.getMessage());
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Error parsing AccuWeather JSON response for {}", cityName, e);
+        if (!hasDailyForecasts[0]) {
+            logger.error("Invalid AccuWeather response format: missing 'DailyForecasts' array");
             return Collections.emptyList();
         }
 
@@ -83,6 +86,82 @@ public class AccuWeatherParser implements WeatherDataParser {
         return forecasts;
     }
 
+    /**
+     * Fields of one daily forecast, collected while streaming over it
+     */
+    private static class DailyForecastEntry {
+        private Long epochDate;
+        private Double minTemp;
+        private Double maxTemp;
+        private String iconPhrase;
+    }
+
+    /**
+     * Reads one daily forecast
+     *
+     * @return The forecast, or null if a required field is missing
+     */
+    private ForecastData readDailyForecast(String cityName, JsonParser parser, Instant fetchTimestamp) throws IOException {
+        DailyForecastEntry entry = new DailyForecastEntry();
+        JsonStreams.forEachField(parser, field -> {
+            switch (field) {
+                case "EpochDate" -> entry.epochDate = JsonStreams.integer(parser);
+                case "Temperature" -> JsonStreams.forEachField(parser, temperatureField -> {
+                    switch (temperatureField) {
+                        case "Minimum" -> entry.minTemp = readValue(parser);
+                        case "Maximum" -> entry.maxTemp = readValue(parser);
+                        default -> parser.skipChildren();
+                    }
+                });
+                // Weather phrase comes from the "Day" object
+                case "Day" -> JsonStreams.forEachField(parser, dayField -> {
+                    if (dayField.equals("IconPhrase")) {
+                        entry.iconPhrase = JsonStreams.text(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                });
+                default -> parser.skipChildren();
+            }
+        });
+
+        if (entry.epochDate == null || entry.minTemp == null || entry.maxTemp == null || entry.iconPhrase == null) {
+            logger.warn("Error parsing a daily forecast entry for AccuWeather: missing date, temperature or phrase");
+            return null;
+        }
+
+        // Extract date from epoch time
+        LocalDate targetDate = Instant.ofEpochSecond(entry.epochDate).atZone(ZoneOffset.UTC).toLocalDate();
+        Weather predictedWeather = mapToWeatherEnum(entry.iconPhrase);
+
+        return new ForecastData(
+                getProviderName(),
+                cityName,
+                fetchTimestamp,
+                targetDate,
+                entry.minTemp,
+                entry.maxTemp,
+                predictedWeather
+        );
+    }
+
+    /**
+     * Reads the "Value" of a temperature object like {"Value": 14.2, "Unit": "C"}
+     *
+     * @return The value, or null if there is none
+     */
+    private static Double readValue(JsonParser parser) throws IOException {
+        Double[] value = {null};
+        JsonStreams.forEachField(parser, field -> {
+            if (field.equals("Value")) {
+                value[0] = JsonStreams.number(parser);
+            } else {
+                parser.skipChildren();
+            }
+        });
+        return value[0];
+    }
+
     /**
      * Maps AccuWeather's IconPhrase to our internal Weather enum.
      * This is a simplified mapping and can be expanded.
@@ -0,0 +1,98 @@
+package ba.root.weather.service.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Helpers for walking provider responses token by token with Jackson's {@link JsonParser}, so a response
+ * is read once, front to back, without building a tree or a String of the whole body.
+ * <p>
+ * Handlers are called with the parser on the first token of a value and must leave it on the last token
+ * of that value: scalars need nothing, objects and arrays are either walked or skipped with
+ * {@link JsonParser#skipChildren()}.
+ */
+final class JsonStreams {
+
+    @FunctionalInterface
+    interface FieldHandler {
+        void field(String name) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface ElementHandler {
+        void element(int index) throws IOException;
+    }
+
+    private JsonStreams() {
+    }
+
+    /**
+     * Calls the handler for each field of the object the parser is on. Any other value is skipped.
+     *
+     * @return Whether the value was an object
+     */
+    static boolean forEachField(JsonParser parser, FieldHandler handler) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            handler.field(name);
+        }
+        return true;
+    }
+
+    /**
+     * Calls the handler for each element of the array the parser is on. Any other value is skipped.
+     *
+     * @return Whether the value was an array
+     */
+    static boolean forEachElement(JsonParser parser, ElementHandler handler) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return false;
+        }
+        int index = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            handler.element(index++);
+        }
+        return true;
+    }
+
+    /**
+     * Reads the current value as text, like {@code JsonNode.asText()}: "" for objects and arrays
+     */
+    static String text(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.getText();
+    }
+
+    /**
+     * Reads the current value as a double, like {@code JsonNode.asDouble()}: 0 when it is not a number
+     */
+    static double number(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return 0;
+        }
+        return parser.getValueAsDouble();
+    }
+
+    /**
+     * Reads the current value as a long, like {@code JsonNode.asLong()}: 0 when it is not a number
+     */
+    static long integer(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return 0;
+        }
+        return parser.getValueAsLong();
+    }
+}
@@ -1,14 +1,18 @@
 package ba.root.weather.service.parser;
 
 import ba.root.weather.entity.ForecastData;
+import ba.root.weather.entity.HourlyForecast;
 import ba.root.weather.entity.Weather;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
@@ -25,71 +29,177 @@ public class OpenWeatherMapParser implements WeatherDataParser {
 
     @Override
     public List<ForecastData> parseForecastResponse(String cityName, String jsonResponse, Instant fetchTimestamp) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(jsonResponse)) {
+            return parse(cityName, parser, fetchTimestamp, null);
+        } catch (Exception e) {
+            logger.error("Error parsing OpenWeatherMap response", e);
+            return Collections.emptyList();
+        }
+    }
+
+    @Override
+    public List<ForecastData> parseForecastResponse(String cityName, InputStream jsonResponse, Instant fetchTimestamp) {
+        return parseForecastResponse(cityName, jsonResponse, fetchTimestamp, null);
+    }
+
+    @Override
+    public List<ForecastData> parseForecastResponse(String cityName, InputStream jsonResponse, Instant fetchTimestamp,
+                                                    List<HourlyForecast> hourlyForecasts) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(jsonResponse)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return parse(cityName, parser, fetchTimestamp, hourlyForecasts);
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.error("Error parsing OpenWeatherMap response", e);
+            return Collections.emptyList();
+        } catch (IOException e) {
+            // Reading the body failed, the request may succeed when retried
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param hourlyForecasts List each 3-hour forecast is added to as a forecast point, or null to skip them
+     */
+    private List<ForecastData> parse(String cityName, JsonParser parser, Instant fetchTimestamp,
+                                     List<HourlyForecast> hourlyForecasts) throws IOException {
         logger.info("Parsing OpenWeatherMap forecast for {}", cityName);
-        
+
         // Map to store daily aggregated forecast data
         Map<LocalDate, DailyForecastAggregator> dailyForecasts = new HashMap<>();
+        boolean[] hasList = {false};
 
-        try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
-
-            // Check if the response contains valid data
-            if (!root.has("list") || !root.get("list").isArray()) {
-                logger.error("Invalid OpenWeatherMap response format: missing 'list' array");
-                return Collections.emptyList();
+        parser.nextToken();
+        JsonStreams.forEachField(parser, field -> {
+            if (field.equals("list")) {
+                // Process each 3-hour forecast
+                hasList[0] |= JsonStreams.forEachElement(parser, index -> readForecastEntry(parser, dailyForecasts,
+                        cityName, fetchTimestamp, hourlyForecasts));
+            } else {
+                parser.skipChildren();
             }
+        });
 
-            // Process each 3-hour forecast
-            for (JsonNode forecastEntry : root.get("list")) {
-                try {
-                    // Extract date (dt is in seconds since Unix epoch)
-                    long epochSeconds = forecastEntry.get("dt").asLong();
-                    LocalDate targetDate = Instant.ofEpochSecond(epochSeconds)
-                            .atZone(ZoneOffset.UTC)
-                            .toLocalDate();
-
-                    // Get or create the daily aggregator for this date
-                    DailyForecastAggregator dailyAggregator = dailyForecasts.computeIfAbsent(
-                            targetDate, date -> new DailyForecastAggregator());
-
-                    // Extract temperature data from the 'main' node
-                    JsonNode mainNode = forecastEntry.get("main");
-                    if (mainNode != null) {
-                        if (mainNode.has("temp_min")) {
-                            double tempMin = mainNode.get("temp_min").asDouble();
-                            dailyAggregator.addMinTemp(tempMin);
-                        }
-                        
-                        if (mainNode.has("temp_max")) {
-                            double tempMax = mainNode.get("temp_max").asDouble();
-                            dailyAggregator.addMaxTemp(tempMax);
-                        }
-                    }
+        // Check if the response contained valid data
+        if (!hasList[0]) {
+            logger.error("Invalid OpenWeatherMap response format: missing 'list' array");
+            return Collections.emptyList();
+        }
 
-                    // Extract weather data
-                    if (forecastEntry.has("weather") && forecastEntry.get("weather").isArray() &&
-                            !forecastEntry.get("weather").isEmpty()) {
+        // Convert the aggregated data to ForecastData objects
+        return createForecastDataList(cityName, fetchTimestamp, dailyForecasts);
+    }
 
-                        JsonNode weatherNode = forecastEntry.get("weather").get(0);
-                        String mainWeather = weatherNode.has("main") ? weatherNode.get("main").asText() : "";
-                        int weatherId = weatherNode.has("id") ? weatherNode.get("id").asInt() : 800;
+    /**
+     * Fields of one 3-hour forecast, collected while streaming over it
+     */
+    private static class ForecastEntry {
+        private Long epochSeconds;
+        private boolean hasTemp;
+        private double temp;
+        private double precipitation;
+        private boolean hasTempMin;
+        private double tempMin;
+        private boolean hasTempMax;
+        private double tempMax;
+        private boolean hasWeather;
+        private String mainWeather = "";
+        private int weatherId = 800;
+    }
 
-                        Weather weather = mapToWeatherEnum(mainWeather, weatherId);
-                        dailyAggregator.addWeather(weather);
+    /**
+     * Reads one 3-hour forecast and adds it to its day, and to the forecast points if they are collected,
+     * once the whole entry has been read
+     */
+    private void readForecastEntry(JsonParser parser, Map<LocalDate, DailyForecastAggregator> dailyForecasts,
+                                   String cityName, Instant fetchTimestamp, List<HourlyForecast> hourlyForecasts)
+            throws IOException {
+        ForecastEntry entry = new ForecastEntry();
+        JsonStreams.forEachField(parser, field -> {
+            switch (field) {
+                case "dt" -> entry.epochSeconds = JsonStreams.integer(parser);
+                case "main" -> JsonStreams.forEachField(parser, mainField -> {
+                    switch (mainField) {
+                        case "temp" -> {
+                            entry.temp = JsonStreams.number(parser);
+                            entry.hasTemp = true;
+                        }
+                        case "temp_min" -> {
+                            entry.tempMin = JsonStreams.number(parser);
+                            entry.hasTempMin = true;
+                        }
+                        case "temp_max" -> {
+                            entry.tempMax = JsonStreams.number(parser);
+                            entry.hasTempMax = true;
+                        }
+                        default -> parser.skipChildren();
                     }
+                });
+                // 3-hour rain and snow volumes; both are left out when nothing falls
+                case "rain", "snow" -> JsonStreams.forEachField(parser, volumeField -> {
+                    if (volumeField.equals("3h")) {
+                        entry.precipitation += JsonStreams.number(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                });
+                // Only the first (primary) weather condition counts
+                case "weather" -> JsonStreams.forEachElement(parser, index -> {
+                    if (index > 0) {
+                        parser.skipChildren();
+                        return;
+                    }
+                    entry.hasWeather = true;
+                    JsonStreams.forEachField(parser, weatherField -> {
+                        switch (weatherField) {
+                            case "main" -> entry.mainWeather = JsonStreams.text(parser);
+                            case "id" -> entry.weatherId = (int) JsonStreams.integer(parser);
+                            default -> parser.skipChildren();
+                        }
+                    });
+                });
+                default -> parser.skipChildren();
+            }
+        });
 
-                } catch (Exception e) {
-                    logger.warn("Error parsing forecast entry: {}", e.getMessage());
-                    // Continue with next forecast entry
-                }
+        try {
+            if (entry.epochSeconds == null) {
+                throw new IllegalArgumentException("missing 'dt'");
             }
+            // Extract date (dt is in seconds since Unix epoch)
+            Instant validTime = Instant.ofEpochSecond(entry.epochSeconds);
+            LocalDate targetDate = validTime
+                    .atZone(ZoneOffset.UTC)
+                    .toLocalDate();
 
-            // Convert the aggregated data to ForecastData objects
-            return createForecastDataList(cityName, fetchTimestamp, dailyForecasts);
+            // Get or create the daily aggregator for this date
+            DailyForecastAggregator dailyAggregator = dailyForecasts.computeIfAbsent(
+                    targetDate, date -> new DailyForecastAggregator());
+
+            if (entry.hasTempMin) {
+                dailyAggregator.addMinTemp(entry.tempMin);
+            }
+            if (entry.hasTempMax) {
+                dailyAggregator.addMaxTemp(entry.tempMax);
+            }
+            Weather weather = entry.hasWeather ? mapToWeatherEnum(entry.mainWeather, entry.weatherId) : null;
+            if (weather != null) {
+                dailyAggregator.addWeather(weather);
+            }
 
+            if (hourlyForecasts != null) {
+                hourlyForecasts.add(new HourlyForecast(
+                        getProviderName(),
+                        cityName,
+                        fetchTimestamp,
+                        validTime,
+                        entry.hasTemp ? entry.temp : null,
+                        entry.precipitation,
+                        weather
+                ));
+            }
         } catch (Exception e) {
-            logger.error("Error parsing OpenWeatherMap response", e);
-            return Collections.emptyList();
+            logger.warn("Error parsing forecast entry: {}", e.getMessage());
+            // Continue with next forecast entry
         }
     }
 
@@ -166,37 +276,54 @@ public class OpenWeatherMapParser implements WeatherDataParser {
      * Helper class to aggregate 3-hour forecast data into daily forecasts
      */
     private static class DailyForecastAggregator {
-        @Getter
-        private Double minTemp = null;
-        @Getter
-        private Double maxTemp = null;
-        private final Map<Weather, Integer> weatherFrequency = new HashMap<>();
-        
+        private static final Weather[] WEATHERS = Weather.values();
+
+        private boolean hasMinTemp;
+        private double minTemp;
+        private boolean hasMaxTemp;
+        private double maxTemp;
+        private final int[] weatherFrequency = new int[WEATHERS.length];
+
         public void addMinTemp(double temp) {
-            if (minTemp == null || temp < minTemp) {
+            if (!hasMinTemp || temp < minTemp) {
                 minTemp = temp;
+                hasMinTemp = true;
             }
         }
-        
+
         public void addMaxTemp(double temp) {
-            if (maxTemp == null || temp > maxTemp) {
+            if (!hasMaxTemp || temp > maxTemp) {
                 maxTemp = temp;
+                hasMaxTemp = true;
             }
         }
-        
+
+        public Double getMinTemp() {
+            return hasMinTemp ? minTemp : null;
+        }
+
+        public Double getMaxTemp() {
+            return hasMaxTemp ? maxTemp : null;
+        }
+
         public void addWeather(Weather weather) {
-            weatherFrequency.put(weather, weatherFrequency.getOrDefault(weather, 0) + 1);
+            weatherFrequency[weather.ordinal()]++;
         }
 
+        /**
+         * @return The most frequent weather, the first in enum order on a tie
+         */
         public Weather getMostFrequentWeather() {
-            if (weatherFrequency.isEmpty()) {
+            int mostFrequent = -1;
+            for (int i = 0; i < weatherFrequency.length; i++) {
+                if (weatherFrequency[i] > 0 && (mostFrequent < 0 || weatherFrequency[i] > weatherFrequency[mostFrequent])) {
+                    mostFrequent = i;
+                }
+            }
+            if (mostFrequent < 0) {
                 return Weather.CLEAR; // Default
             }
-            
-            return Collections.max(
-                    weatherFrequency.entrySet(),
-                    Map.Entry.comparingByValue()
-            ).getKey();
+            return WEATHERS[mostFrequent];
         }
     }
-}
\ No newline at end of file
+}
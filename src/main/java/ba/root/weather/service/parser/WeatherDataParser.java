@@ -1,7 +1,12 @@
 package ba.root.weather.service.parser;
 
 import ba.root.weather.entity.ForecastData;
+import ba.root.weather.entity.HourlyForecast;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 
@@ -16,6 +21,42 @@ public interface WeatherDataParser {
      */
     List<ForecastData> parseForecastResponse(String cityName, String jsonResponse, Instant fetchTimestamp);
 
+    /**
+     * Parse the provider response straight from the response body, without reading it into a String first.
+     * The stream is read to the end of the JSON document but not closed.
+     * A malformed or unexpected document gives an empty list, like the String variant.
+     *
+     * @param cityName Name of the city for which forecast was requested
+     * @param jsonResponse UTF-8 JSON response body
+     * @param fetchTimestamp Timestamp when the forecast was fetched
+     * @return List of ForecastData objects
+     * @throws UncheckedIOException if reading the body fails
+     */
+    default List<ForecastData> parseForecastResponse(String cityName, InputStream jsonResponse, Instant fetchTimestamp) {
+        try {
+            return parseForecastResponse(cityName,
+                    new String(jsonResponse.readAllBytes(), StandardCharsets.UTF_8), fetchTimestamp);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parse the provider response from the response body, also collecting the hourly or 3-hourly points
+     * the daily forecasts are rolled up from. Providers that only send daily forecasts add nothing.
+     *
+     * @param cityName Name of the city for which forecast was requested
+     * @param jsonResponse UTF-8 JSON response body
+     * @param fetchTimestamp Timestamp when the forecast was fetched
+     * @param hourlyForecasts List the hourly forecast points are added to
+     * @return List of ForecastData objects
+     * @throws UncheckedIOException if reading the body fails
+     */
+    default List<ForecastData> parseForecastResponse(String cityName, InputStream jsonResponse, Instant fetchTimestamp,
+                                                     List<HourlyForecast> hourlyForecasts) {
+        return parseForecastResponse(cityName, jsonResponse, fetchTimestamp);
+    }
+
     /**
      * Get the name of the provider this parser is for
      *
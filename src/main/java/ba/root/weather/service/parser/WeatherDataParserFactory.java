@@ -2,9 +2,11 @@ package ba.root.weather.service.parser;
 
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Component
 public class WeatherDataParserFactory {
@@ -27,6 +29,15 @@ public class WeatherDataParserFactory {
         return parsers.get(providerName);
     }
 
+    /**
+     * Names of all providers with a registered parser
+     *
+     * @return Provider names
+     */
+    public Set<String> getProviderNames() {
+        return Collections.unmodifiableSet(parsers.keySet());
+    }
+
     /**
      * Check if a parser exists for the given provider
      *
@@ -1,8 +1,10 @@
 package ba.root.weather.service.parser;
 
 import ba.root.weather.entity.ForecastData;
+import ba.root.weather.entity.HourlyForecast;
 import ba.root.weather.entity.Weather;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Getter;
 import lombok.Setter;
@@ -10,6 +12,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
@@ -27,97 +32,246 @@ public class YrNoParser implements WeatherDataParser {
 
     @Override
     public List<ForecastData> parseForecastResponse(String cityName, String jsonResponse, Instant fetchTimestamp) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(jsonResponse)) {
+            return parse(cityName, parser, fetchTimestamp, null);
+        } catch (Exception e) {
+            logger.error("Error parsing YR.NO response", e);
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public List<ForecastData> parseForecastResponse(String cityName, InputStream jsonResponse, Instant fetchTimestamp) {
+        return parseForecastResponse(cityName, jsonResponse, fetchTimestamp, null);
+    }
+
+    @Override
+    public List<ForecastData> parseForecastResponse(String cityName, InputStream jsonResponse, Instant fetchTimestamp,
+                                                    List<HourlyForecast> hourlyForecasts) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(jsonResponse)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return parse(cityName, parser, fetchTimestamp, hourlyForecasts);
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.error("Error parsing YR.NO response", e);
+            return new ArrayList<>();
+        } catch (IOException e) {
+            // Reading the body failed, the request may succeed when retried
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param hourlyForecasts List each timeseries entry is added to as an hourly forecast point, or null to skip them
+     */
+    private List<ForecastData> parse(String cityName, JsonParser parser, Instant fetchTimestamp,
+                                     List<HourlyForecast> hourlyForecasts) throws IOException {
         logger.info("Parsing YR.NO forecast for {}", cityName);
         List<ForecastData> forecasts = new ArrayList<>();
 
-        try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
+        // Group forecast data by day
+        Map<LocalDate, DailyForecastData> dailyForecasts = new HashMap<>();
+        boolean[] hasTimeseries = {false};
 
-            // Check if the response contains valid data
-            if (!root.has("properties") || !root.get("properties").has("timeseries") ||
-                    !root.get("properties").get("timeseries").isArray()) {
-                logger.error("Invalid YR.NO response format: missing 'properties.timeseries' array");
-                return forecasts;
+        parser.nextToken();
+        JsonStreams.forEachField(parser, field -> {
+            if (!field.equals("properties")) {
+                parser.skipChildren();
+                return;
             }
+            JsonStreams.forEachField(parser, property -> {
+                if (property.equals("timeseries")) {
+                    hasTimeseries[0] |= JsonStreams.forEachElement(parser,
+                            index -> readTimeseriesEntry(parser, dailyForecasts,
+                                    cityName, fetchTimestamp, hourlyForecasts));
+                } else {
+                    parser.skipChildren();
+                }
+            });
+        });
 
-            // Group forecast data by day
-            Map<LocalDate, DailyForecastData> dailyForecasts = new HashMap<>();
-            JsonNode timeseriesNode = root.get("properties").get("timeseries");
-
-            for (JsonNode timeseriesEntry : timeseriesNode) {
-                try {
-                    // Extract time and convert to date
-                    String timeStr = timeseriesEntry.get("time").asText();
-                    ZonedDateTime dateTime = ZonedDateTime.parse(timeStr, DateTimeFormatter.ISO_DATE_TIME);
-                    LocalDate date = dateTime.toLocalDate();
-
-                    // Create or get the daily forecast entry
-                    DailyForecastData dailyData = dailyForecasts.computeIfAbsent(date,
-                            DailyForecastData::new);
-
-                    // Extract temperature
-                    JsonNode instantDetails = timeseriesEntry.get("data").get("instant").get("details");
-                    if (instantDetails.has("air_temperature")) {
-                        double temperature = instantDetails.get("air_temperature").asDouble();
-                        dailyData.addTemperature(temperature);
-                    }
+        // Check if the response contained valid data
+        if (!hasTimeseries[0]) {
+            logger.error("Invalid YR.NO response format: missing 'properties.timeseries' array");
+            return forecasts;
+        }
 
-                    // Check if we have next_12_hours data
-                    if (timeseriesEntry.get("data").has("next_12_hours") &&
-                            timeseriesEntry.get("data").get("next_12_hours").has("summary") &&
-                            timeseriesEntry.get("data").get("next_12_hours").get("summary").has("symbol_code")) {
+        // Convert the daily forecast data to ForecastData objects
+        for (DailyForecastData dailyData : dailyForecasts.values()) {
+            // Skip days with no temperature data
+            if (!dailyData.hasTemperatureData()) {
+                continue;
+            }
 
-                        String symbolCode = timeseriesEntry.get("data")
-                                .get("next_12_hours").get("summary").get("symbol_code").asText();
+            // Create forecast data object
+            ForecastData forecast = new ForecastData(
+                    getProviderName(),
+                    cityName,
+                    fetchTimestamp,
+                    dailyData.getDate(),
+                    dailyData.getMinTemperature(),
+                    dailyData.getMaxTemperature(),
+                    mapToWeatherEnum(dailyData.getWorseWeather())
+            );
+
+            forecasts.add(forecast);
+            logger.debug("Parsed forecast for {}: {} - Min: {}°C, Max: {}°C, Weather: {}",
+                    cityName, dailyData.getDate(), dailyData.getMinTemperature(),
+                    dailyData.getMaxTemperature(), forecast.getPredictedWeather());
+        }
 
-                        // Get the hour of day to identify midnight and noon forecasts
-                        int hour = dateTime.getHour();
+        return forecasts;
+    }
 
-                        // Capture weather at midnight or noon
-                        if (hour == 0 || hour == 12) {
-                            String normalizedSymbolCode = normalizeSymbolCode(symbolCode);
-                            if (hour == 0) {
-                                dailyData.setMidnightWeather(normalizedSymbolCode);
-                            } else { // hour == 12
-                                dailyData.setNoonWeather(normalizedSymbolCode);
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    logger.warn("Error processing timeseries entry: {}", e.getMessage());
-                    // Continue with next entry
-                }
+    /**
+     * Fields of one timeseries entry, collected while streaming over it
+     */
+    private static class TimeseriesEntry {
+        private String time;
+        private boolean hasDetails;
+        private boolean hasTemperature;
+        private double temperature;
+        private String symbolCode;
+        private String nextHourSymbolCode;
+        private boolean hasNextHourPrecipitation;
+        private double nextHourPrecipitation;
+        private String nextSixHoursSymbolCode;
+    }
+
+    /**
+     * Reads one timeseries entry and adds it to its day, and to the hourly points if they are collected,
+     * once the whole entry has been read
+     */
+    private void readTimeseriesEntry(JsonParser parser, Map<LocalDate, DailyForecastData> dailyForecasts,
+                                     String cityName, Instant fetchTimestamp, List<HourlyForecast> hourlyForecasts)
+            throws IOException {
+        TimeseriesEntry entry = new TimeseriesEntry();
+        JsonStreams.forEachField(parser, field -> {
+            switch (field) {
+                case "time" -> entry.time = JsonStreams.text(parser);
+                case "data" -> readData(parser, entry);
+                default -> parser.skipChildren();
+            }
+        });
+
+        try {
+            if (entry.time == null) {
+                throw new IllegalArgumentException("missing 'time'");
+            }
+            // Extract time and convert to date
+            ZonedDateTime dateTime = ZonedDateTime.parse(entry.time, DateTimeFormatter.ISO_DATE_TIME);
+            LocalDate date = dateTime.toLocalDate();
+
+            // Create or get the daily forecast entry
+            DailyForecastData dailyData = dailyForecasts.computeIfAbsent(date, DailyForecastData::new);
+
+            if (!entry.hasDetails) {
+                throw new IllegalArgumentException("missing 'data.instant.details'");
+            }
+            if (entry.hasTemperature) {
+                dailyData.addTemperature(entry.temperature);
             }
 
-            // Convert the daily forecast data to ForecastData objects
-            for (DailyForecastData dailyData : dailyForecasts.values()) {
-                // Skip days with no temperature data
-                if (!dailyData.hasTemperatureData()) {
-                    continue;
+            // Capture weather at midnight or noon
+            int hour = dateTime.getHour();
+            if (entry.symbolCode != null && (hour == 0 || hour == 12)) {
+                Symbol symbol = toSymbol(entry.symbolCode);
+                if (hour == 0) {
+                    dailyData.setMidnightWeather(symbol);
+                } else { // hour == 12
+                    dailyData.setNoonWeather(symbol);
                 }
+            }
 
-                // Create forecast data object
-                ForecastData forecast = new ForecastData(
+            if (hourlyForecasts != null) {
+                // Hourly steps carry next_1_hours; further out the steps are 6-hourly and only carry next_6_hours
+                String stepSymbolCode = entry.nextHourSymbolCode != null
+                        ? entry.nextHourSymbolCode : entry.nextSixHoursSymbolCode;
+                hourlyForecasts.add(new HourlyForecast(
                         getProviderName(),
                         cityName,
                         fetchTimestamp,
-                        dailyData.getDate(),
-                        dailyData.getMinTemperature(),
-                        dailyData.getMaxTemperature(),
-                        mapToWeatherEnum(dailyData.getWorseWeather())
-                );
-
-                forecasts.add(forecast);
-                logger.debug("Parsed forecast for {}: {} - Min: {}°C, Max: {}°C, Weather: {}",
-                        cityName, dailyData.getDate(), dailyData.getMinTemperature(),
-                        dailyData.getMaxTemperature(), forecast.getPredictedWeather());
+                        dateTime.toInstant(),
+                        entry.hasTemperature ? entry.temperature : null,
+                        entry.hasNextHourPrecipitation ? entry.nextHourPrecipitation : null,
+                        stepSymbolCode != null ? mapToWeatherEnum(toSymbol(stepSymbolCode)) : null
+                ));
             }
-
         } catch (Exception e) {
-            logger.error("Error parsing YR.NO response", e);
+            logger.warn("Error processing timeseries entry: {}", e.getMessage());
+            // Continue with next entry
         }
+    }
 
-        return forecasts;
+    /**
+     * Reads data.instant.details.air_temperature, the symbol_code of the next_1_hours, next_6_hours and
+     * next_12_hours summaries, and data.next_1_hours.details.precipitation_amount
+     */
+    private static void readData(JsonParser parser, TimeseriesEntry entry) throws IOException {
+        JsonStreams.forEachField(parser, field -> {
+            switch (field) {
+                case "instant" -> JsonStreams.forEachField(parser, instantField -> {
+                    if (!instantField.equals("details")) {
+                        parser.skipChildren();
+                        return;
+                    }
+                    entry.hasDetails = true;
+                    JsonStreams.forEachField(parser, detail -> {
+                        if (detail.equals("air_temperature")) {
+                            entry.temperature = JsonStreams.number(parser);
+                            entry.hasTemperature = true;
+                        } else {
+                            parser.skipChildren();
+                        }
+                    });
+                });
+                case "next_12_hours" -> JsonStreams.forEachField(parser, next12Field -> {
+                    if (next12Field.equals("summary")) {
+                        entry.symbolCode = readSymbolCode(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                });
+                case "next_1_hours" -> JsonStreams.forEachField(parser, next1Field -> {
+                    switch (next1Field) {
+                        case "summary" -> entry.nextHourSymbolCode = readSymbolCode(parser);
+                        case "details" -> JsonStreams.forEachField(parser, detail -> {
+                            if (detail.equals("precipitation_amount")) {
+                                entry.nextHourPrecipitation = JsonStreams.number(parser);
+                                entry.hasNextHourPrecipitation = true;
+                            } else {
+                                parser.skipChildren();
+                            }
+                        });
+                        default -> parser.skipChildren();
+                    }
+                });
+                case "next_6_hours" -> JsonStreams.forEachField(parser, next6Field -> {
+                    if (next6Field.equals("summary")) {
+                        entry.nextSixHoursSymbolCode = readSymbolCode(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                });
+                default -> parser.skipChildren();
+            }
+        });
+    }
+
+    /**
+     * Reads the symbol_code of a summary object
+     *
+     * @return The symbol code, or null if the summary has none
+     */
+    private static String readSymbolCode(JsonParser parser) throws IOException {
+        String[] symbolCode = {null};
+        JsonStreams.forEachField(parser, summaryField -> {
+            if (summaryField.equals("symbol_code")) {
+                symbolCode[0] = JsonStreams.text(parser);
+            } else {
+                parser.skipChildren();
+            }
+        });
+        return symbolCode[0];
     }
 
     @Override
@@ -131,133 +285,182 @@ public class YrNoParser implements WeatherDataParser {
     private static class DailyForecastData {
         @Getter
         private final LocalDate date;
-        private final List<Double> temperatures = new ArrayList<>();
+        private boolean hasTemperature;
+        private double minTemperature;
+        private double maxTemperature;
         @Setter
-        private String midnightWeather;
+        private Symbol midnightWeather;
         @Setter
-        private String noonWeather;
+        private Symbol noonWeather;
 
         public DailyForecastData(LocalDate date) {
             this.date = date;
         }
 
         public void addTemperature(double temp) {
-            temperatures.add(temp);
+            if (!hasTemperature) {
+                minTemperature = temp;
+                maxTemperature = temp;
+                hasTemperature = true;
+                return;
+            }
+            if (Double.compare(temp, minTemperature) < 0) {
+                minTemperature = temp;
+            }
+            if (Double.compare(temp, maxTemperature) > 0) {
+                maxTemperature = temp;
+            }
         }
 
         public boolean hasTemperatureData() {
-            return !temperatures.isEmpty();
+            return hasTemperature;
         }
 
         public Double getMinTemperature() {
-            return temperatures.stream()
-                    .min(Double::compare)
-                    .orElse(null);
+            return hasTemperature ? minTemperature : null;
         }
 
         public Double getMaxTemperature() {
-            return temperatures.stream()
-                    .max(Double::compare)
-                    .orElse(null);
+            return hasTemperature ? maxTemperature : null;
         }
 
         /**
          * Get the "worse" weather between midnight and noon.
          * If one is null, return the other. If both are null, return null.
          */
-        public String getWorseWeather() {
-            if (midnightWeather == null && noonWeather == null) {
-                return null;
-            } else if (midnightWeather == null) {
+        public Symbol getWorseWeather() {
+            if (midnightWeather == null) {
                 return noonWeather;
             } else if (noonWeather == null) {
                 return midnightWeather;
             } else {
-                return getWorseWeatherSymbol(midnightWeather, noonWeather);
+                // The higher severity wins, midnight on a tie
+                return midnightWeather.severity() >= noonWeather.severity() ? midnightWeather : noonWeather;
+            }
+        }
+    }
+
+    /**
+     * A normalized symbol code with its severity and, for known symbols, its Weather
+     */
+    private record Symbol(String code, int severity, Weather weather) {
+    }
+
+    /**
+     * Weather severity ranking (from best to worst)
+     */
+    private static final String[] SEVERITY_RANKING = {
+            "clearsky",
+            "fair",
+            "partlycloudy",
+            "cloudy",
+            "fog",
+            "lightrain",
+            "rain",
+            "heavyrain",
+            "lightsnow",
+            "snow",
+            "heavysnow",
+            "sleet",
+            "heavysleet",
+            "lightsleetshowers",
+            "sleetshowers",
+            "heavysleetshowers",
+            "lightrainshowers",
+            "rainshowers",
+            "heavyrainshowers",
+            "lightsnowshowers",
+            "snowshowers",
+            "heavysnowshowers",
+            "lightrainshowersandthunder",
+            "rainshowersandthunder",
+            "heavyrainshowersandthunder",
+            "lightsleetshowersandthunder",
+            "sleetshowersandthunder",
+            "heavysleetshowersandthunder",
+            "lightsnowshowersandthunder",
+            "snowshowersandthunder",
+            "heavysnowshowersandthunder",
+            "lightrainandthunder",
+            "rainandthunder",
+            "heavyrainandthunder",
+            "lightsleetandthunder",
+            "sleetandthunder",
+            "heavysleetandthunder",
+            "lightsnowandthunder",
+            "snowandthunder",
+            "heavysnowandthunder"
+    };
+
+    /**
+     * Symbols not in the ranking get a middle severity
+     */
+    private static final int UNKNOWN_SEVERITY = SEVERITY_RANKING.length / 2;
+
+    private static final String[] SYMBOL_SUFFIXES = {"", "_day", "_night", "_polartwilight"};
+
+    /**
+     * Every ranked symbol code as the API sends it, with and without its time-of-day suffix
+     */
+    private static final Map<String, Symbol> SYMBOLS = new HashMap<>();
+
+    static {
+        for (int severity = 0; severity < SEVERITY_RANKING.length; severity++) {
+            String code = SEVERITY_RANKING[severity];
+            Symbol symbol = new Symbol(code, severity, classify(code));
+            for (String suffix : SYMBOL_SUFFIXES) {
+                SYMBOLS.put(code + suffix, symbol);
             }
         }
     }
 
+    /**
+     * Looks up a symbol code as sent by the API, normalizing it only if it is not a known code
+     */
+    private static Symbol toSymbol(String symbolCode) {
+        Symbol symbol = SYMBOLS.get(symbolCode);
+        if (symbol != null) {
+            return symbol;
+        }
+        String normalizedCode = normalizeSymbolCode(symbolCode);
+        symbol = SYMBOLS.get(normalizedCode);
+        return symbol != null ? symbol : new Symbol(normalizedCode, UNKNOWN_SEVERITY, null);
+    }
+
     /**
      * Remove _day and _night suffixes from symbol codes
      */
-    private String normalizeSymbolCode(String symbolCode) {
+    private static String normalizeSymbolCode(String symbolCode) {
         return symbolCode
                 .replace("_day", "")
                 .replace("_night", "")
                 .replace("_polartwilight", "");
     }
 
-    /**
-     * Compare two weather symbols and return the "worse" one based on severity
-     */
-    private static String getWorseWeatherSymbol(String symbol1, String symbol2) {
-        // Weather severity ranking (from best to worst)
-        List<String> severityRanking = Arrays.asList(
-                "clearsky",
-                "fair",
-                "partlycloudy",
-                "cloudy",
-                "fog",
-                "lightrain",
-                "rain",
-                "heavyrain",
-                "lightsnow",
-                "snow",
-                "heavysnow",
-                "sleet",
-                "heavysleet",
-                "lightsleetshowers",
-                "sleetshowers",
-                "heavysleetshowers",
-                "lightrainshowers",
-                "rainshowers",
-                "heavyrainshowers",
-                "lightsnowshowers",
-                "snowshowers",
-                "heavysnowshowers",
-                "lightrainshowersandthunder",
-                "rainshowersandthunder",
-                "heavyrainshowersandthunder",
-                "lightsleetshowersandthunder",
-                "sleetshowersandthunder",
-                "heavysleetshowersandthunder",
-                "lightsnowshowersandthunder",
-                "snowshowersandthunder",
-                "heavysnowshowersandthunder",
-                "lightrainandthunder",
-                "rainandthunder",
-                "heavyrainandthunder",
-                "lightsleetandthunder",
-                "sleetandthunder",
-                "heavysleetandthunder",
-                "lightsnowandthunder",
-                "snowandthunder",
-                "heavysnowandthunder"
-        );
-
-        // Get the indices of the symbols in the severity ranking
-        int index1 = severityRanking.indexOf(symbol1);
-        int index2 = severityRanking.indexOf(symbol2);
-
-        // If a symbol is not found in the ranking, give it a middle severity
-        if (index1 == -1) index1 = severityRanking.size() / 2;
-        if (index2 == -1) index2 = severityRanking.size() / 2;
-
-        // Return the symbol with higher severity (higher index)
-        return (index1 >= index2) ? symbol1 : symbol2;
-    }
-
     /**
      * Maps YR.NO weather symbols to our Weather enum
      */
-    private Weather mapToWeatherEnum(String symbolCode) {
-        if (symbolCode == null) {
+    private static Weather mapToWeatherEnum(Symbol symbol) {
+        if (symbol == null) {
             return Weather.CLEAR; // Default
         }
+        if (symbol.weather() != null) {
+            return symbol.weather();
+        }
+        Weather weather = classify(normalizeSymbolCode(symbol.code().toLowerCase()));
+        if (weather == null) {
+            logger.warn("Unknown weather symbol code: {}", symbol.code());
+            return Weather.CLEAR; // Default for unknown symbols
+        }
+        return weather;
+    }
 
-        String normalizedCode = normalizeSymbolCode(symbolCode.toLowerCase());
-
+    /**
+     * Classifies a normalized, lower case symbol code by its keywords
+     *
+     * @return The Weather, or null if no keyword matches
+     */
+    private static Weather classify(String normalizedCode) {
         if (normalizedCode.contains("thunder")) {
             return Weather.THUNDERSTORM;
         } else if (normalizedCode.contains("sleet") || normalizedCode.contains("snow")) {
@@ -272,9 +475,7 @@ public class YrNoParser implements WeatherDataParser {
             return Weather.PARTIAL_CLOUDS;
         } else if (normalizedCode.contains("clearsky")) {
             return Weather.CLEAR;
-        } else {
-            logger.warn("Unknown weather symbol code: {}", symbolCode);
-            return Weather.CLEAR; // Default for unknown symbols
         }
+        return null;
     }
-}
\ No newline at end of file
+}
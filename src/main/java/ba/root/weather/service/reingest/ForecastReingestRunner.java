@@ -0,0 +1,40 @@
+package ba.root.weather.service.reingest;
+
+import ba.root.weather.config.ReingestProperties;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Runs a re-ingestion on startup when {@code weather.reingest.directory} is set, e.g.
+ * {@code java -jar weather.jar --weather.reingest.directory=/var/lib/weather/responses}
+ */
+@Component
+@ConditionalOnProperty(prefix = "weather.reingest", name = "directory")
+public class ForecastReingestRunner implements ApplicationRunner {
+
+    private final ForecastReingestService reingestService;
+    private final ReingestProperties properties;
+    private final ConfigurableApplicationContext context;
+
+    public ForecastReingestRunner(ForecastReingestService reingestService,
+                                  ReingestProperties properties,
+                                  ConfigurableApplicationContext context) {
+        this.reingestService = reingestService;
+        this.properties = properties;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        ForecastReingestService.Report report = reingestService.reingest(Path.of(properties.getDirectory()));
+        if (properties.isExitWhenDone()) {
+            System.exit(SpringApplication.exit(context, () -> report.failed() == 0 ? 0 : 1));
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package ba.root.weather.service.reingest;
+
+import ba.root.weather.config.ReingestProperties;
+import ba.root.weather.entity.ForecastData;
+import ba.root.weather.entity.HourlyForecast;
+import ba.root.weather.repository.BulkInsertRepository;
+import ba.root.weather.service.parser.WeatherDataParser;
+import ba.root.weather.service.parser.WeatherDataParserFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Re-parses saved provider payloads into forecast_data and hourly_forecast, e.g. after a parser fix.
+ * <p>
+ * Files are named like the samples in docs/samples/responses:
+ * {@code <provider>_<city>[_<timestamp>]_response.json[.gz]}, where provider is the provider name in lower case
+ * with every other character replaced by '_' (yr_no, openweathermap, accuweather) and timestamp is
+ * {@code yyyyMMdd'T'HHmmss'Z'} or epoch milliseconds. Without a timestamp the file modification time is used
+ * as fetch time.
+ * <p>
+ * Files are parsed on a fork/join pool; parsed rows are written from the calling thread in JDBC batches.
+ */
+@Service
+public class ForecastReingestService {
+    private static final Logger logger = LoggerFactory.getLogger(ForecastReingestService.class);
+    private static final String SUFFIX = "_response.json";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final WeatherDataParserFactory parserFactory;
+    private final BulkInsertRepository bulkInsertRepository;
+    private final ReingestProperties properties;
+
+    public ForecastReingestService(WeatherDataParserFactory parserFactory,
+                                   BulkInsertRepository bulkInsertRepository,
+                                   ReingestProperties properties) {
+        this.parserFactory = parserFactory;
+        this.bulkInsertRepository = bulkInsertRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * A saved payload file and what its name says about it
+     */
+    record PayloadFile(Path path, String providerName, String city, Instant fetchTimestamp) {
+    }
+
+    /**
+     * Daily forecasts and hourly forecast points parsed from one payload file
+     */
+    private record Parsed(List<ForecastData> forecasts, List<HourlyForecast> hourlyForecasts) {
+    }
+
+    /**
+     * Totals of a re-ingestion run
+     */
+    public record Report(int files, int parsed, int skipped, int failed, int rows, int hourlyRows,
+                         long elapsedMillis) {
+        public double filesPerSecond() {
+            return elapsedMillis > 0 ? files * 1000.0 / elapsedMillis : files;
+        }
+
+        public double rowsPerSecond() {
+            return elapsedMillis > 0 ? rows * 1000.0 / elapsedMillis : rows;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "files=%d, parsed=%d, skipped=%d, failed=%d, rows=%d, hourlyRows=%d, elapsed=%dms, " +
+                            "%.1f files/s, %.1f rows/s",
+                    files, parsed, skipped, failed, rows, hourlyRows, elapsedMillis, filesPerSecond(), rowsPerSecond());
+        }
+    }
+
+    public Report reingest(Path root) throws IOException {
+        long start = System.nanoTime();
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(root)) {
+            paths = walk.filter(Files::isRegularFile)
+                    .filter(path -> isPayloadFile(path.getFileName().toString()))
+                    .sorted()
+                    .toList();
+        }
+        logger.info("Re-ingesting {} payload files from {}", paths.size(), root);
+
+        Map<String, String> providersBySlug = providersBySlug();
+        int parallelism = Math.max(1, properties.getParallelism());
+        // Bounds the parsed rows waiting for the writer
+        int maxInFlight = parallelism * 4;
+        int batchSize = Math.max(1, properties.getBatchSize());
+
+        int parsed = 0, skipped = 0, failed = 0, rows = 0, hourlyRows = 0;
+        List<ForecastData> batch = new ArrayList<>(batchSize);
+        List<HourlyForecast> hourlyBatch = new ArrayList<>(batchSize);
+        ExecutorService executor = Executors.newWorkStealingPool(parallelism);
+        try {
+            CompletionService<Parsed> completion = new ExecutorCompletionService<>(executor);
+            Iterator<Path> remaining = paths.iterator();
+            int inFlight = 0;
+            while (remaining.hasNext() || inFlight > 0) {
+                while (remaining.hasNext() && inFlight < maxInFlight) {
+                    Path path = remaining.next();
+                    PayloadFile file = describe(path, providersBySlug);
+                    if (file == null) {
+                        logger.warn("Skipping {}: no parser for this file name", path);
+                        skipped++;
+                        continue;
+                    }
+                    completion.submit(() -> parse(file));
+                    inFlight++;
+                }
+                if (inFlight == 0) {
+                    break;
+                }
+
+                Parsed file;
+                try {
+                    file = completion.take().get();
+                } catch (ExecutionException e) {
+                    logger.error("Error re-parsing payload file", e.getCause());
+                    failed++;
+                    continue;
+                } finally {
+                    inFlight--;
+                }
+                parsed++;
+                batch.addAll(file.forecasts());
+                if (batch.size() >= batchSize) {
+                    rows += bulkInsertRepository.insertForecasts(batch, batchSize);
+                    batch.clear();
+                }
+                hourlyBatch.addAll(file.hourlyForecasts());
+                if (hourlyBatch.size() >= batchSize) {
+                    hourlyRows += bulkInsertRepository.insertHourlyForecasts(hourlyBatch, batchSize);
+                    hourlyBatch.clear();
+                }
+            }
+            rows += bulkInsertRepository.insertForecasts(batch, batchSize);
+            hourlyRows += bulkInsertRepository.insertHourlyForecasts(hourlyBatch, batchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Re-ingestion interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Report report = new Report(paths.size(), parsed, skipped, failed, rows, hourlyRows,
+                (System.nanoTime() - start) / 1_000_000);
+        logger.info("Re-ingestion finished: {}", report);
+        return report;
+    }
+
+    private Parsed parse(PayloadFile file) throws IOException {
+        WeatherDataParser parser = parserFactory.getParser(file.providerName());
+        List<ForecastData> forecasts;
+        List<HourlyForecast> hourlyForecasts = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(file.path());
+             InputStream body = file.path().toString().endsWith(".gz") ? new GZIPInputStream(in) : in) {
+            forecasts = parser.parseForecastResponse(file.city(), body, file.fetchTimestamp(), hourlyForecasts);
+        }
+        return new Parsed(forecasts != null ? forecasts : List.of(), hourlyForecasts);
+    }
+
+    private static boolean isPayloadFile(String fileName) {
+        return fileName.endsWith(SUFFIX) || fileName.endsWith(SUFFIX + ".gz");
+    }
+
+    /**
+     * Provider names keyed by file name slug, longest slug first so "yr_no" wins over a provider called "yr"
+     */
+    private Map<String, String> providersBySlug() {
+        Map<String, String> providers = new TreeMap<>(Comparator.comparingInt(String::length).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        for (String providerName : parserFactory.getProviderNames()) {
+            providers.put(slug(providerName), providerName);
+        }
+        return providers;
+    }
+
+    static String slug(String providerName) {
+        return providerName.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "_");
+    }
+
+    /**
+     * Reads provider, city and fetch time from a file name
+     *
+     * @return The payload file, or null if the name does not match a known provider
+     */
+    static PayloadFile describe(Path path, Map<String, String> providersBySlug) throws IOException {
+        String name = path.getFileName().toString();
+        String stem = name.substring(0, name.lastIndexOf(SUFFIX));
+        for (Map.Entry<String, String> provider : providersBySlug.entrySet()) {
+            String prefix = provider.getKey() + "_";
+            if (!stem.startsWith(prefix) || stem.length() == prefix.length()) {
+                continue;
+            }
+            String rest = stem.substring(prefix.length());
+            int lastUnderscore = rest.lastIndexOf('_');
+            Instant fetchTimestamp = lastUnderscore > 0 ? parseTimestamp(rest.substring(lastUnderscore + 1)) : null;
+            String city = fetchTimestamp != null ? rest.substring(0, lastUnderscore) : rest;
+            if (fetchTimestamp == null) {
+                fetchTimestamp = Files.getLastModifiedTime(path).toInstant();
+            }
+            return new PayloadFile(path, provider.getValue(), city, fetchTimestamp);
+        }
+        return null;
+    }
+
+    private static Instant parseTimestamp(String value) {
+        try {
+            return LocalDateTime.parse(value, FILE_TIMESTAMP).toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            // Not the ISO basic form, try epoch milliseconds
+        }
+        if (!value.isEmpty() && value.length() >= 12 && value.length() <= 15
+                && value.chars().allMatch(Character::isDigit)) {
+            return Instant.ofEpochMilli(Long.parseLong(value));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+-- Re-scoring runs over a date range, optionally limited to some providers or cities
+CREATE TABLE IF NOT EXISTS accuracy_backfill_run (
+    id BIGSERIAL PRIMARY KEY,
+    from_date DATE NOT NULL,
+    to_date DATE NOT NULL,
+    providers TEXT,
+    cities TEXT,
+    status VARCHAR(20) NOT NULL,
+    total_days INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP
+);
+
+-- Days a run has scored; a resumed run skips them
+CREATE TABLE IF NOT EXISTS accuracy_backfill_day (
+    id BIGSERIAL PRIMARY KEY,
+    run_id BIGINT NOT NULL REFERENCES accuracy_backfill_run (id) ON DELETE CASCADE,
+    target_date DATE NOT NULL,
+    scores INTEGER NOT NULL,
+    completed_at TIMESTAMP NOT NULL,
+
+    CONSTRAINT unique_accuracy_backfill_day UNIQUE (run_id, target_date)
+);
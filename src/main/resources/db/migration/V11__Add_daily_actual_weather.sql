@@ -0,0 +1,39 @@
+-- Observations reduced per city and local (Europe/Sarajevo) day, maintained as observations are inserted.
+-- An observation at local midnight belongs to both days it separates, like the inclusive day bounds of the analysis.
+CREATE TABLE IF NOT EXISTS daily_actual_weather (
+    id BIGSERIAL PRIMARY KEY,
+    city VARCHAR(255) NOT NULL,
+    local_date DATE NOT NULL,
+    min_temperature DOUBLE PRECISION,
+    max_temperature DOUBLE PRECISION,
+    had_precipitation BOOLEAN NOT NULL,
+    observation_count INTEGER NOT NULL,
+    worst_weather VARCHAR(50),
+    last_observation TIMESTAMP NOT NULL,
+
+    CONSTRAINT unique_daily_actual_weather UNIQUE (city, local_date)
+);
+
+CREATE INDEX IF NOT EXISTS idx_daily_actual_weather_date ON daily_actual_weather(local_date);
+
+-- Aggregate the observations stored so far
+INSERT INTO daily_actual_weather
+    (city, local_date, min_temperature, max_temperature, had_precipitation, observation_count, worst_weather,
+     last_observation)
+SELECT a.city,
+       d.local_date,
+       MIN(a.actual_temperature),
+       MAX(a.actual_temperature),
+       COALESCE(BOOL_OR(a.actual_precipitation > 0), FALSE),
+       COUNT(*),
+       (ARRAY_AGG(a.weather ORDER BY COALESCE(array_position(
+               ARRAY['CLEAR', 'PARTIAL_CLOUDS', 'CLOUDS', 'FOG_MIST', 'RAIN', 'SNOW', 'THUNDERSTORM'],
+               a.weather::text), 0) DESC))[1],
+       MAX(a.measurement_timestamp)
+FROM actual_weather_data a
+CROSS JOIN LATERAL (SELECT a.measurement_timestamp::timestamptz AT TIME ZONE 'Europe/Sarajevo' AS local_time) l
+CROSS JOIN LATERAL (VALUES (l.local_time::date),
+                           (CASE WHEN l.local_time::time = TIME '00:00' THEN l.local_time::date - 1 END))
+    AS d(local_date)
+WHERE d.local_date IS NOT NULL
+GROUP BY a.city, d.local_date;
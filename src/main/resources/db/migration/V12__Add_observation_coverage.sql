@@ -0,0 +1,25 @@
+-- Hours of the local day with at least one observation: bit n is set when an observation arrived in
+-- [midnight + n hours, midnight + n + 1 hours). An observation at the next midnight counts for the last hour.
+ALTER TABLE daily_actual_weather
+    ADD COLUMN IF NOT EXISTS coverage BIGINT NOT NULL DEFAULT 0;
+
+-- Rebuild the coverage of the days aggregated so far
+UPDATE daily_actual_weather daily
+SET coverage = c.coverage
+FROM (
+    SELECT dw.id,
+           BIT_OR(1::bigint << LEAST(
+                   FLOOR(EXTRACT(EPOCH FROM a.measurement_timestamp::timestamptz - b.day_start) / 3600)::integer,
+                   b.slots - 1)) AS coverage
+    FROM daily_actual_weather dw
+    CROSS JOIN LATERAL (
+        SELECT dw.local_date::timestamp AT TIME ZONE 'Europe/Sarajevo' AS day_start,
+               (dw.local_date + 1)::timestamp AT TIME ZONE 'Europe/Sarajevo' AS day_end) bounds
+    CROSS JOIN LATERAL (
+        SELECT bounds.day_start,
+               (EXTRACT(EPOCH FROM bounds.day_end - bounds.day_start) / 3600)::integer AS slots) b
+    JOIN actual_weather_data a ON a.city = dw.city
+        AND a.measurement_timestamp::timestamptz BETWEEN bounds.day_start AND bounds.day_end
+    GROUP BY dw.id
+) c
+WHERE daily.id = c.id;
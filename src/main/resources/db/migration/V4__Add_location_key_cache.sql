@@ -0,0 +1,19 @@
+-- Persistent cache of provider location keys (AccuWeather geoposition lookups)
+CREATE TABLE IF NOT EXISTS location_key (
+    id BIGSERIAL PRIMARY KEY,
+    provider_name VARCHAR(255) NOT NULL,
+    city VARCHAR(255) NOT NULL,
+    latitude DOUBLE PRECISION NOT NULL,
+    longitude DOUBLE PRECISION NOT NULL,
+    location_key VARCHAR(64) NOT NULL,
+    resolved_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+
+    CONSTRAINT unique_location_key UNIQUE (provider_name, city, latitude, longitude)
+);
+
+CREATE INDEX IF NOT EXISTS idx_location_key_expires_at ON location_key(expires_at);
+
+COMMENT ON TABLE location_key IS 'Location keys resolved from provider geoposition lookups, reused across restarts until they expire';
+COMMENT ON COLUMN location_key.location_key IS 'Provider specific location identifier used in forecast URLs';
+COMMENT ON COLUMN location_key.expires_at IS 'After this time the key is resolved again';
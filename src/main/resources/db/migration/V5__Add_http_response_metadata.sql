@@ -0,0 +1,17 @@
+-- Cache validators and expiry of the last provider response per provider and city,
+-- used for conditional requests (If-None-Match / If-Modified-Since) and for skipping fetches of unexpired data
+CREATE TABLE IF NOT EXISTS http_response_metadata (
+    id BIGSERIAL PRIMARY KEY,
+    provider_name VARCHAR(255) NOT NULL,
+    city VARCHAR(255) NOT NULL,
+    etag VARCHAR(255),
+    last_modified VARCHAR(64),
+    expires_at TIMESTAMP,
+    fetched_at TIMESTAMP NOT NULL,
+
+    CONSTRAINT unique_http_response_metadata UNIQUE (provider_name, city)
+);
+
+COMMENT ON TABLE http_response_metadata IS 'HTTP caching metadata of the last forecast response per provider and city';
+COMMENT ON COLUMN http_response_metadata.last_modified IS 'Last-Modified header exactly as received, echoed back in If-Modified-Since';
+COMMENT ON COLUMN http_response_metadata.expires_at IS 'The provider asks not to fetch again before this time';
@@ -0,0 +1,13 @@
+-- Index of archived raw provider responses; the payloads themselves are gzip blobs on disk,
+-- stored once per content hash
+CREATE TABLE IF NOT EXISTS raw_response (
+    id BIGSERIAL PRIMARY KEY,
+    provider_name VARCHAR(255) NOT NULL,
+    city VARCHAR(255) NOT NULL,
+    fetch_timestamp TIMESTAMP NOT NULL,
+    content_hash CHAR(64) NOT NULL,
+    raw_size BIGINT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_raw_response_provider_city_fetch ON raw_response(provider_name, city, fetch_timestamp);
+CREATE INDEX IF NOT EXISTS idx_raw_response_content_hash ON raw_response(content_hash);
@@ -0,0 +1,9 @@
+-- Outbound calls made per provider per day, for quota-limited providers such as AccuWeather
+CREATE TABLE IF NOT EXISTS provider_call_usage (
+    id BIGSERIAL PRIMARY KEY,
+    provider_name VARCHAR(255) NOT NULL,
+    usage_date DATE NOT NULL,
+    calls INTEGER NOT NULL,
+
+    CONSTRAINT unique_provider_call_usage UNIQUE (provider_name, usage_date)
+);
@@ -0,0 +1,25 @@
+-- Natural keys for forecasts and observations, so ingestion can upsert and retried runs do not add rows
+
+-- Keep the most recent row (highest id) of every duplicate group
+DELETE FROM forecast_data f
+USING forecast_data newer
+WHERE f.provider_name = newer.provider_name
+  AND f.city = newer.city
+  AND f.fetch_timestamp = newer.fetch_timestamp
+  AND f.target_date = newer.target_date
+  AND f.id < newer.id;
+
+DELETE FROM actual_weather_data a
+USING actual_weather_data newer
+WHERE a.city = newer.city
+  AND a.measurement_timestamp = newer.measurement_timestamp
+  AND a.id < newer.id;
+
+ALTER TABLE forecast_data
+    ADD CONSTRAINT unique_forecast_data UNIQUE (provider_name, city, fetch_timestamp, target_date);
+
+ALTER TABLE actual_weather_data
+    ADD CONSTRAINT unique_actual_weather_data UNIQUE (city, measurement_timestamp);
+
+-- Covered by the unique constraint's index
+DROP INDEX IF EXISTS idx_actual_weather_city_timestamp;
@@ -0,0 +1,13 @@
+-- Hourly (or 3-hourly) forecast points as the providers send them, next to the daily rollup in forecast_data.
+-- Kept narrow because every fetch adds dozens of rows per city: no surrogate id, REAL instead of
+-- DOUBLE PRECISION, and the primary key doubles as the index for range reads by valid time.
+CREATE TABLE IF NOT EXISTS hourly_forecast (
+    provider_name VARCHAR(255) NOT NULL,
+    city VARCHAR(255) NOT NULL,
+    valid_time TIMESTAMP NOT NULL,
+    fetch_timestamp TIMESTAMP NOT NULL,
+    temperature REAL,
+    precipitation REAL,
+    weather VARCHAR(50),
+    CONSTRAINT pk_hourly_forecast PRIMARY KEY (provider_name, city, valid_time, fetch_timestamp)
+);
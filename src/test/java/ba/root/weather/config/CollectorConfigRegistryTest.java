@@ -0,0 +1,131 @@
+package ba.root.weather.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollectorConfigRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path configFile;
+    private CollectorConfigRegistry registry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        configFile = tempDir.resolve("config.json");
+        Files.writeString(configFile, """
+                {
+                  "cities": [
+                    { "name": "Sarajevo", "latitude": 43.8563, "longitude": 18.4131, "altitude": 520, "icao_code": "LQSA" },
+                    { "name": "Ilidža", "latitude": 43.8297, "longitude": 18.3103, "altitude": 499, "icao_code": "LQSA" }
+                  ],
+                  "providers": [
+                    {
+                      "name": "YR.NO",
+                      "url": "https://api.met.no/weatherapi/locationforecast/2.0/complete?lat={latitude}&lon={longitude}&altitude={altitude}"
+                    },
+                    {
+                      "name": "TestProvider",
+                      "enabled": false,
+                      "locationUrl": "https://example.com/locations?apikey={apiKey}&q={latitude},{longitude}",
+                      "url": "https://example.com/forecast/{locationKey}?apikey={apiKey}",
+                      "apiKey": "secret"
+                    }
+                  ],
+                  "actualWeatherSource": {
+                    "name": "Aviation Weather (METAR)",
+                    "url": "https://aviationweather.gov/api/data/metar?ids={}&format=json"
+                  }
+                }""");
+
+        CollectorProperties properties = new CollectorProperties();
+        properties.setConfigLocation(configFile.toUri().toString());
+        registry = new CollectorConfigRegistry(new DefaultResourceLoader(), new ObjectMapper(), properties);
+    }
+
+    @Test
+    void indexesCitiesAndStations() throws IOException {
+        CollectorConfig config = registry.current();
+
+        assertEquals(2, config.cities().size());
+        assertEquals(18.4131, config.city("Sarajevo").longitude());
+
+        StationConfig station = config.station("LQSA");
+        assertNotNull(station);
+        assertEquals(2, station.cities().size());
+        assertNull(config.station("LDZA"));
+
+        assertEquals("https://aviationweather.gov/api/data/metar?ids=LQSA&format=json",
+                config.actualWeatherSource().url(config.stationsByIcao().keySet()));
+    }
+
+    @Test
+    void expandsUrlTemplates() throws IOException {
+        CollectorConfig config = registry.current();
+        CityConfig sarajevo = config.city("Sarajevo");
+
+        assertEquals("https://api.met.no/weatherapi/locationforecast/2.0/complete?lat=43.8563&lon=18.4131&altitude=520",
+                config.provider("YR.NO").forecastUrl(sarajevo));
+
+        ProviderConfig provider = config.provider("TestProvider");
+        assertFalse(provider.enabled());
+        assertEquals("https://example.com/locations?apikey=secret&q=43.8563,18.4131", provider.locationUrl(sarajevo));
+        assertEquals("https://example.com/forecast/12345?apikey=secret",
+                provider.forecastUrl(sarajevo, Map.of("locationKey", "12345")));
+        // The location key is only known at request time
+        assertNull(provider.forecastUrl(sarajevo));
+    }
+
+    @Test
+    void reloadReplacesConfiguration() throws IOException {
+        CollectorConfig before = registry.current();
+
+        Files.writeString(configFile, """
+                {
+                  "cities": [ { "name": "Mostar", "latitude": 43.3438, "longitude": 17.8078, "icao_code": "LQMO" } ]
+                }""");
+        registry.reload();
+
+        CollectorConfig after = registry.current();
+        assertNotSame(before, after);
+        assertNull(after.city("Sarajevo"));
+        assertEquals("Mostar", after.station("LQMO").cities().getFirst().name());
+        assertTrue(after.providers().isEmpty());
+    }
+
+    @Test
+    void failedReloadKeepsPreviousConfiguration() throws IOException {
+        CollectorConfig before = registry.current();
+
+        Files.writeString(configFile, "{ not json");
+        assertThrows(IOException.class, () -> registry.reload());
+
+        assertSame(before, registry.current());
+    }
+
+    @Test
+    void chunksMetarStationsByCountAndUrlLength() {
+        ActualWeatherSourceConfig source = new ActualWeatherSourceConfig("METAR", "https://example.com/metar?ids={}");
+        List<String> codes = List.of("LQSA", "LQMO", "LQBK", "LDZA", "LDSP");
+
+        assertEquals(List.of(List.of("LQSA", "LQMO"), List.of("LQBK", "LDZA"), List.of("LDSP")),
+                source.chunk(codes, 2, 1000));
+
+        // Base URL is 31 characters, each further code adds 5
+        assertEquals(List.of(List.of("LQSA", "LQMO", "LQBK"), List.of("LDZA", "LDSP")),
+                source.chunk(codes, 100, 31 + 4 + 5 + 5));
+        source.chunk(codes, 100, 10).forEach(chunk -> assertEquals(1, chunk.size()));
+    }
+}
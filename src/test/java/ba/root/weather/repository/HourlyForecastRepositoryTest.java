@@ -0,0 +1,61 @@
+package ba.root.weather.repository;
+
+import ba.root.weather.entity.HourlyForecast;
+import ba.root.weather.entity.Weather;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class HourlyForecastRepositoryTest {
+
+    private static final Instant FROM = Instant.parse("2025-08-01T22:00:00Z");
+    private static final Instant TO = Instant.parse("2025-08-02T22:00:00Z");
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findsPointsInAHalfOpenRange() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        OffsetDateTime from = FROM.atOffset(ZoneOffset.UTC);
+        OffsetDateTime to = TO.atOffset(ZoneOffset.UTC);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString("provider_name")).thenReturn("YR.NO");
+        when(row.getString("city")).thenReturn("Sarajevo");
+        when(row.getString("weather")).thenReturn("CLOUDS");
+        when(row.getObject("fetch_timestamp", OffsetDateTime.class))
+                .thenReturn(OffsetDateTime.parse("2025-08-01T06:00:00Z"));
+        when(row.getObject("valid_time", OffsetDateTime.class)).thenReturn(from);
+        when(row.getFloat("temperature")).thenReturn(18.3f);
+        when(row.getFloat("precipitation")).thenReturn(0f);
+        // Temperature is set, precipitation is NULL
+        when(row.wasNull()).thenReturn(false, true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("YR.NO"), eq("Sarajevo"), eq(from), eq(to)))
+                .thenAnswer(invocation -> {
+                    RowMapper<HourlyForecast> mapper = invocation.getArgument(1);
+                    return List.of(mapper.mapRow(row, 0));
+                });
+
+        List<HourlyForecast> points = new HourlyForecastRepository(jdbcTemplate)
+                .findByValidTimeRange("YR.NO", "Sarajevo", FROM, TO);
+
+        assertEquals(List.of(new HourlyForecast("YR.NO", "Sarajevo", Instant.parse("2025-08-01T06:00:00Z"),
+                FROM, 18.3, null, Weather.CLOUDS)), points);
+
+        // The start is included, the end is not
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), eq("YR.NO"), eq("Sarajevo"), eq(from), eq(to));
+        assertTrue(sql.getValue().contains("valid_time >= ? AND valid_time < ?"));
+    }
+}
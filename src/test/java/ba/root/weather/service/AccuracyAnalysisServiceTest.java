@@ -0,0 +1,220 @@
+package ba.root.weather.service;
+
+import ba.root.weather.config.AnalysisProperties;
+import ba.root.weather.entity.AccuracyScore;
+import ba.root.weather.entity.DailyActualWeather;
+import ba.root.weather.entity.ForecastData;
+import ba.root.weather.entity.PrecipitationScoreType;
+import ba.root.weather.entity.Weather;
+import ba.root.weather.repository.AccuracyScoreRepository;
+import ba.root.weather.repository.AccuracyScoringRepository;
+import ba.root.weather.repository.BulkInsertRepository;
+import ba.root.weather.repository.DailyActualWeatherRepository;
+import ba.root.weather.repository.ForecastCursorRepository;
+import ba.root.weather.repository.ForecastCursorRepository.ForecastRow;
+import ba.root.weather.repository.ForecastDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AccuracyAnalysisServiceTest {
+
+    private static final ZoneId SARAJEVO_ZONE = ZoneId.of("Europe/Sarajevo");
+    private static final LocalDate DATE = LocalDate.of(2025, 8, 4);
+    private static final Instant START_OF_DAY = DATE.atStartOfDay(SARAJEVO_ZONE).toInstant();
+    private static final Instant END_OF_DAY = DATE.plusDays(1).atStartOfDay(SARAJEVO_ZONE).toInstant();
+    private static final long FULL_DAY = (1L << 24) - 1;
+
+    private ForecastDataRepository forecastRepository;
+    private DailyActualWeatherRepository dailyRepository;
+    private AccuracyScoreRepository scoreRepository;
+    private BulkInsertRepository bulkInsertRepository;
+    private AccuracyScoringRepository scoringRepository;
+    private ForecastCursorRepository cursorRepository;
+    private AnalysisProperties properties;
+    private AccuracyAnalysisService service;
+
+    @BeforeEach
+    void setUp() {
+        forecastRepository = mock(ForecastDataRepository.class);
+        dailyRepository = mock(DailyActualWeatherRepository.class);
+        scoreRepository = mock(AccuracyScoreRepository.class);
+        bulkInsertRepository = mock(BulkInsertRepository.class);
+        scoringRepository = mock(AccuracyScoringRepository.class);
+        cursorRepository = mock(ForecastCursorRepository.class);
+        properties = new AnalysisProperties();
+        service = new AccuracyAnalysisService(forecastRepository, dailyRepository, scoreRepository,
+                bulkInsertRepository, scoringRepository, cursorRepository, properties);
+    }
+
+    @Test
+    void keepsTheLatestFetchOfAHorizon() {
+        // Two fetches ten minutes apart both have a 30 hour horizon
+        Instant earlier = START_OF_DAY.minus(Duration.ofMinutes(30 * 60 + 20));
+        Instant later = START_OF_DAY.minus(Duration.ofMinutes(30 * 60 + 10));
+        when(forecastRepository.findByTargetDate(DATE)).thenReturn(List.of(
+                new ForecastData("YR.NO", "Sarajevo", later, DATE, 12.0, 28.0, Weather.CLEAR),
+                new ForecastData("YR.NO", "Sarajevo", earlier, DATE, 10.0, 25.0, Weather.RAIN)));
+        when(dailyRepository.findByLocalDate(DATE)).thenReturn(List.of(daily(11.0, 27.0, FULL_DAY)));
+        List<AccuracyScore> saved = new ArrayList<>();
+        when(bulkInsertRepository.insertAccuracyScores(any())).thenAnswer(invocation -> {
+            saved.addAll(invocation.<Collection<AccuracyScore>>getArgument(0));
+            return saved.size();
+        });
+
+        assertEquals(1, service.analyzeAccuracyForDate(DATE));
+
+        AccuracyScore score = saved.getFirst();
+        assertEquals(30, score.getForecastHorizon());
+        assertEquals(1.0, score.getMinTempScore());
+        assertEquals(1.0, score.getMaxTempScore());
+        assertEquals(PrecipitationScoreType.TRUE_NEGATIVE, score.getPrecipitationScore());
+        verify(scoreRepository).deleteByTargetDate(DATE);
+    }
+
+    @Test
+    void skipsADayWithoutAnObservationInItsLastHour() {
+        Instant fetch = START_OF_DAY.minus(Duration.ofHours(24));
+        when(forecastRepository.findByTargetDate(DATE)).thenReturn(List.of(
+                new ForecastData("YR.NO", "Sarajevo", fetch, DATE, 12.0, 28.0, Weather.CLEAR)));
+        when(dailyRepository.findByLocalDate(DATE)).thenReturn(List.of(daily(11.0, 27.0, FULL_DAY >>> 1)));
+
+        assertEquals(0, service.analyzeAccuracyForDate(DATE));
+
+        verifyNoInteractions(scoreRepository, bulkInsertRepository);
+    }
+
+    @Test
+    void skipsADayWithAnOutage() {
+        Instant fetch = START_OF_DAY.minus(Duration.ofHours(24));
+        when(forecastRepository.findByTargetDate(DATE)).thenReturn(List.of(
+                new ForecastData("YR.NO", "Sarajevo", fetch, DATE, 12.0, 28.0, Weather.CLEAR)));
+        // Nothing arrived from 08:00 to 18:00
+        long outage = ((1L << 10) - 1) << 8;
+        when(dailyRepository.findByLocalDate(DATE)).thenReturn(List.of(daily(11.0, 27.0, FULL_DAY & ~outage)));
+
+        assertEquals(0, service.analyzeAccuracyForDate(DATE));
+
+        // A looser policy scores it
+        properties.getCompleteness().setMinCoverage(0.5);
+        when(bulkInsertRepository.insertAccuracyScores(any())).thenAnswer(
+                invocation -> invocation.<Collection<AccuracyScore>>getArgument(0).size());
+        assertEquals(1, service.analyzeAccuracyForDate(DATE));
+    }
+
+    @Test
+    void scopedAnalysisOnlyReplacesScoresInScope() {
+        Instant fetch = START_OF_DAY.minus(Duration.ofHours(24));
+        when(forecastRepository.findByTargetDate(DATE)).thenReturn(List.of(
+                new ForecastData("YR.NO", "Sarajevo", fetch, DATE, 12.0, 28.0, Weather.CLEAR),
+                new ForecastData("OpenWeatherMap", "Sarajevo", fetch, DATE, 10.0, 25.0, Weather.RAIN)));
+        when(dailyRepository.findByLocalDate(DATE)).thenReturn(List.of(daily(11.0, 11.0, FULL_DAY)));
+        List<AccuracyScore> saved = new ArrayList<>();
+        when(bulkInsertRepository.insertAccuracyScores(any())).thenAnswer(invocation -> {
+            saved.addAll(invocation.<Collection<AccuracyScore>>getArgument(0));
+            return saved.size();
+        });
+
+        ScoringScope scope = new ScoringScope(Set.of("YR.NO"), Set.of());
+        assertEquals(1, service.analyzeAccuracyForDate(DATE, scope));
+
+        assertEquals("YR.NO", saved.getFirst().getProviderName());
+        verify(scoringRepository).deleteScores(List.of(DATE), Set.of("YR.NO"), Set.of());
+        verify(scoreRepository, never()).deleteByTargetDate(any());
+    }
+
+    @Test
+    void streamsForecastsInASinglePass() {
+        properties.setEngine(AnalysisProperties.Engine.STREAMING);
+        properties.getStreaming().setBatchSize(2);
+        Instant day2 = START_OF_DAY.minus(Duration.ofHours(48));
+        Instant sameHorizonEarlier = START_OF_DAY.minus(Duration.ofMinutes(30 * 60 + 20));
+        Instant sameHorizonLater = START_OF_DAY.minus(Duration.ofMinutes(30 * 60 + 10));
+        List<ForecastRow> rows = List.of(
+                new ForecastRow("OpenWeatherMap", "Sarajevo", day2, 9.0, 26.0, Weather.RAIN),
+                new ForecastRow("YR.NO", "Sarajevo", day2, 10.0, 25.0, Weather.CLEAR),
+                new ForecastRow("YR.NO", "Sarajevo", sameHorizonEarlier, 10.0, 25.0, Weather.RAIN),
+                new ForecastRow("YR.NO", "Sarajevo", sameHorizonLater, 12.0, 28.0, Weather.CLEAR),
+                // Fetched two hours after the day started
+                new ForecastRow("YR.NO", "Sarajevo", START_OF_DAY.plus(Duration.ofMinutes(121)),
+                        11.0, 27.0, Weather.CLEAR));
+        when(cursorRepository.findCities(DATE, Set.of(), Set.of())).thenReturn(List.of("Sarajevo"));
+        doAnswer(invocation -> {
+            rows.forEach(invocation.<Consumer<ForecastRow>>getArgument(4));
+            return null;
+        }).when(cursorRepository).streamByTargetDate(eq(DATE), eq(Set.of()), eq(Set.of()), eq(500), any());
+        when(dailyRepository.findByLocalDate(DATE)).thenReturn(List.of(daily(11.0, 27.0, FULL_DAY)));
+        List<AccuracyScore> saved = new ArrayList<>();
+        when(bulkInsertRepository.insertAccuracyScores(any(), eq(2))).thenAnswer(invocation -> {
+            Collection<AccuracyScore> batch = invocation.getArgument(0);
+            saved.addAll(batch);
+            return batch.size();
+        });
+
+        assertEquals(3, service.analyzeAccuracyForDate(DATE));
+
+        assertEquals(List.of("OpenWeatherMap:48", "YR.NO:48", "YR.NO:30"), saved.stream()
+                .map(score -> score.getProviderName() + ":" + score.getForecastHorizon()).toList());
+        AccuracyScore latest = saved.get(2);
+        assertEquals(1.0, latest.getMinTempScore());
+        assertEquals(1.0, latest.getMaxTempScore());
+        assertEquals(PrecipitationScoreType.TRUE_NEGATIVE, latest.getPrecipitationScore());
+        assertEquals(PrecipitationScoreType.FALSE_POSITIVE, saved.getFirst().getPrecipitationScore());
+        verify(scoreRepository).deleteByTargetDate(DATE);
+        verifyNoInteractions(forecastRepository);
+    }
+
+    @Test
+    void scoresInTheDatabaseWithoutLoadingEntities() {
+        properties.setEngine(AnalysisProperties.Engine.SQL);
+        LocalDate to = DATE.plusDays(2);
+        List<LocalDate> scorable = List.of(DATE, DATE.plusDays(1));
+        when(scoringRepository.findScorableDates(DATE, to, SARAJEVO_ZONE, Set.of(), Set.of(), 0.9, true))
+                .thenReturn(scorable);
+        when(scoringRepository.scoreDates(scorable, SARAJEVO_ZONE, Set.of(), Set.of())).thenReturn(42);
+
+        assertEquals(42, service.analyzeAccuracyForDates(DATE, to));
+
+        verify(scoringRepository).scoreDates(scorable, SARAJEVO_ZONE, Set.of(), Set.of());
+        verifyNoInteractions(forecastRepository, dailyRepository, scoreRepository, bulkInsertRepository);
+    }
+
+    @Test
+    void verifiesDatabaseScoresAgainstJava() {
+        properties.setEngine(AnalysisProperties.Engine.SQL);
+        properties.setVerify(true);
+        when(scoringRepository.findScorableDates(DATE, DATE, SARAJEVO_ZONE, Set.of(), Set.of(), 0.9, true))
+                .thenReturn(List.of(DATE));
+        when(scoringRepository.scoreDates(List.of(DATE), SARAJEVO_ZONE, Set.of(), Set.of())).thenReturn(0);
+        when(forecastRepository.findByTargetDate(DATE)).thenReturn(List.of());
+
+        service.analyzeAccuracyForDate(DATE);
+
+        // The Java side only computes, it never writes
+        ArgumentCaptor<LocalDate> date = ArgumentCaptor.forClass(LocalDate.class);
+        verify(scoreRepository).findByTargetDate(date.capture());
+        assertEquals(DATE, date.getValue());
+        verify(scoreRepository, never()).deleteByTargetDate(any());
+        verifyNoInteractions(bulkInsertRepository);
+    }
+
+    private static DailyActualWeather daily(double minTemp, double maxTemp, long coverage) {
+        return new DailyActualWeather("Sarajevo", DATE, minTemp, maxTemp, false, Long.bitCount(coverage),
+                Weather.CLEAR, END_OF_DAY, coverage);
+    }
+}
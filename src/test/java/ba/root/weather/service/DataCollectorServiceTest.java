@@ -1,9 +1,22 @@
 package ba.root.weather.service;
 
+import ba.root.weather.config.CollectorConfigRegistry;
+import ba.root.weather.config.CollectorProperties;
 import ba.root.weather.entity.ActualWeatherData;
+import ba.root.weather.entity.ForecastData;
 import ba.root.weather.entity.Weather;
-import ba.root.weather.repository.ActualWeatherDataRepository;
-import ba.root.weather.repository.ForecastDataRepository;
+import ba.root.weather.repository.BulkInsertRepository;
+import ba.root.weather.service.collector.CollectionCycleReport;
+import ba.root.weather.service.collector.ForecastPipeline;
+import ba.root.weather.service.collector.ForecastRequest;
+import ba.root.weather.service.collector.ForecastResponseHandler;
+import ba.root.weather.service.collector.LocationKeyService;
+import ba.root.weather.service.archive.RawResponseArchive;
+import ba.root.weather.service.collector.ProviderGuards;
+import ba.root.weather.service.collector.QuotaPlanner;
+import ba.root.weather.service.collector.ReactiveForecastCollector;
+import ba.root.weather.service.collector.RequestCoalescer;
+import ba.root.weather.service.collector.ResponseMetadataStore;
 import ba.root.weather.service.parser.WeatherDataParserFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,14 +27,25 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -40,27 +64,53 @@ public class DataCollectorServiceTest {
     private Resource configResource;
 
     @Mock
-    private ForecastDataRepository forecastDataRepository;
+    private WeatherDataParserFactory parserFactory;
 
     @Mock
-    private WeatherDataParserFactory parserFactory;
+    private BulkInsertRepository bulkInsertRepository;
+
+    @Mock
+    private ReactiveForecastCollector reactiveForecastCollector;
+
+    @Mock
+    private LocationKeyService locationKeyService;
+
+    @Mock
+    private ResponseMetadataStore responseMetadataStore;
+
+    @Mock
+    private RawResponseArchive rawResponseArchive;
+
+    @Mock
+    private QuotaPlanner quotaPlanner;
 
     @Mock
-    private ActualWeatherDataRepository actualWeatherDataRepository;
+    private ForecastPipeline forecastPipeline;
 
     private DataCollectorService dataCollectorService;
+    private CollectorProperties properties;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeEach
     public void setup() throws IOException {
         // Setup the ObjectMapper
+        properties = new CollectorProperties();
         dataCollectorService = new DataCollectorService(
                 restTemplate,
                 objectMapper,
-                resourceLoader,
-                actualWeatherDataRepository,
-                forecastDataRepository,
-                parserFactory
+                new CollectorConfigRegistry(resourceLoader, objectMapper, properties),
+                parserFactory,
+                properties,
+                reactiveForecastCollector,
+                locationKeyService,
+                responseMetadataStore,
+                rawResponseArchive,
+                bulkInsertRepository,
+                new ProviderGuards(properties),
+                quotaPlanner,
+                forecastPipeline,
+                new RequestCoalescer(properties),
+                new ForecastResponseHandler(responseMetadataStore, rawResponseArchive, bulkInsertRepository)
         );
 
         // Mock the resource loader to return our test config
@@ -124,20 +174,13 @@ public class DataCollectorServiceTest {
         dataCollectorService.fetchActualWeather();
 
         // 4. Capture and verify the saved entity
-        ArgumentCaptor<ActualWeatherData> weatherDataCaptor = ArgumentCaptor.forClass(ActualWeatherData.class);
-        verify(actualWeatherDataRepository).save(weatherDataCaptor.capture());
-
-        ActualWeatherData capturedData = weatherDataCaptor.getValue();
+        ActualWeatherData capturedData = captureSaved().getFirst();
         assertNotNull(capturedData);
         assertEquals("Sarajevo", capturedData.getCity());
         assertEquals(24.0, capturedData.getActualTemperature());
 
-        // Calculate expected timestamp from the test data
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        LocalDateTime expectedDateTime = LocalDateTime.parse("2025-07-31 15:53:12", formatter);
-        Instant expectedTimestamp = expectedDateTime.toInstant(ZoneOffset.UTC);
-
-        assertEquals(expectedTimestamp, capturedData.getMeasurementTimestamp());
+        // Rows are keyed by the observation time, not by when the report was received
+        assertEquals(Instant.ofEpochSecond(1753952400), capturedData.getMeasurementTimestamp());
         assertEquals(Weather.PARTIAL_CLOUDS, capturedData.getWeather()); // NOSIG should map to CLEAR, however we have SCT in rawOb
         assertEquals(0.0, capturedData.getActualPrecipitation()); // No precipitation
     }
@@ -177,10 +220,7 @@ public class DataCollectorServiceTest {
         dataCollectorService.fetchActualWeather();
 
         // 4. Capture and verify the saved entity
-        ArgumentCaptor<ActualWeatherData> weatherDataCaptor = ArgumentCaptor.forClass(ActualWeatherData.class);
-        verify(actualWeatherDataRepository).save(weatherDataCaptor.capture());
-
-        ActualWeatherData capturedData = weatherDataCaptor.getValue();
+        ActualWeatherData capturedData = captureSaved().getFirst();
         assertNotNull(capturedData);
         assertEquals("Sarajevo", capturedData.getCity());
         assertEquals(18.5, capturedData.getActualTemperature());
@@ -223,10 +263,7 @@ public class DataCollectorServiceTest {
         dataCollectorService.fetchActualWeather();
 
         // 4. Capture and verify the saved entity
-        ArgumentCaptor<ActualWeatherData> weatherDataCaptor = ArgumentCaptor.forClass(ActualWeatherData.class);
-        verify(actualWeatherDataRepository).save(weatherDataCaptor.capture());
-
-        ActualWeatherData capturedData = weatherDataCaptor.getValue();
+        ActualWeatherData capturedData = captureSaved().getFirst();
         assertNotNull(capturedData);
         assertEquals("Sarajevo", capturedData.getCity());
         assertEquals(22.0, capturedData.getActualTemperature());
@@ -244,7 +281,7 @@ public class DataCollectorServiceTest {
         assertDoesNotThrow(() -> dataCollectorService.fetchActualWeather());
 
         // 3. Verify no data was saved
-        verify(actualWeatherDataRepository, never()).save(any());
+        verify(bulkInsertRepository, never()).insertActualWeather(argThat(list -> !list.isEmpty()), anyInt());
     }
 
     @Test
@@ -300,6 +337,226 @@ public class DataCollectorServiceTest {
         dataCollectorService.fetchActualWeather();
 
         // 4. Verify that two entities were saved
-        verify(actualWeatherDataRepository, times(2)).save(any(ActualWeatherData.class));
+        assertEquals(2, captureSaved().size());
+    }
+
+    @Test
+    public void testFetchActualWeather_StationServingSeveralCities() throws IOException {
+        // 1. Two cities share the LQSA station
+        when(configResource.getInputStream()).thenReturn(new java.io.ByteArrayInputStream("""
+                {
+                  "cities": [
+                    { "name": "Sarajevo", "latitude": 43.8563, "longitude": 18.4131, "icao_code": "LQSA" },
+                    { "name": "Ilidža", "latitude": 43.8297, "longitude": 18.3103, "icao_code": "LQSA" }
+                  ],
+                  "actualWeatherSource": {
+                    "name": "Aviation Weather (METAR)",
+                    "url": "https://aviationweather.gov/api/data/metar?ids={}&format=json"
+                  }
+                }""".getBytes()));
+        when(restTemplate.getForObject(
+                eq("https://aviationweather.gov/api/data/metar?ids=LQSA&format=json"),
+                eq(String.class)
+        )).thenReturn("""
+                [
+                  {
+                    "icaoId": "LQSA",
+                    "receiptTime": "2025-07-31 15:53:12",
+                    "temp": 24.0,
+                    "rawOb": "LQSA 311600Z 33005KT 9999 SCT060 24/11 Q1016 NOSIG"
+                  }
+                ]""");
+
+        // 2. Execute the method
+        dataCollectorService.fetchActualWeather();
+
+        // 3. One entry per city
+        List<ActualWeatherData> saved = captureSaved();
+        assertEquals(List.of("Sarajevo", "Ilidža"), saved.stream().map(ActualWeatherData::getCity).toList());
+    }
+
+    @Test
+    public void testPollActualWeather_SkipsReportsAlreadyStored() {
+        // 1. High-frequency mode; the second poll returns the same METAR plus a SPECI issued since
+        properties.getMetar().setHighFrequency(true);
+        // Recent reports, the index forgets the ones that have left the lookback window
+        Instant metarTime = Instant.now().truncatedTo(ChronoUnit.MINUTES).minus(20, ChronoUnit.MINUTES);
+        Instant speciTime = metarTime.plus(15, ChronoUnit.MINUTES);
+        String metar = """
+                  {
+                    "icaoId": "LQSA",
+                    "receiptTime": "2025-07-31 15:53:12",
+                    "obsTime": %d,
+                    "metarType": "METAR",
+                    "temp": 24.0,
+                    "rawOb": "LQSA 311550Z 33005KT 9999 SCT060 24/11 Q1016 NOSIG"
+                  }""".formatted(metarTime.getEpochSecond());
+        String speci = """
+                  {
+                    "icaoId": "LQSA",
+                    "receiptTime": "2025-07-31 16:08:40",
+                    "obsTime": %d,
+                    "metarType": "SPECI",
+                    "temp": 21.0,
+                    "rawOb": "SPECI LQSA 311605Z 27020G35KT 3000 TSRA BKN030CB 21/17 Q1015"
+                  }""".formatted(speciTime.getEpochSecond());
+        when(restTemplate.getForObject(
+                eq("https://aviationweather.gov/api/data/metar?ids=LQSA&format=json&hours=1"),
+                eq(String.class)
+        )).thenReturn("[" + metar + "]", "[" + speci + "," + metar + "]");
+
+        // 2. Poll twice; the hourly job stays idle in this mode
+        dataCollectorService.pollActualWeather();
+        dataCollectorService.pollActualWeather();
+        dataCollectorService.fetchActualWeather();
+
+        // 3. The METAR is only written once
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ActualWeatherData>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bulkInsertRepository, times(2)).insertActualWeather(captor.capture(), anyInt());
+        assertEquals(List.of(metarTime),
+                captor.getAllValues().get(0).stream().map(ActualWeatherData::getMeasurementTimestamp).toList());
+        List<ActualWeatherData> second = captor.getAllValues().get(1);
+        assertEquals(1, second.size());
+        assertEquals(speciTime, second.getFirst().getMeasurementTimestamp());
+        assertEquals(Weather.THUNDERSTORM, second.getFirst().getWeather());
+    }
+
+    @Test
+    public void testCollectForecasts_ConcurrentModeHonoursProviderPermits() throws IOException {
+        // 1. Six cities, at most two YR.NO requests at a time
+        useForecastConfig(6);
+        properties.setMode(CollectorProperties.Mode.CONCURRENT);
+        properties.getConcurrent().setProviderLimits(Map.of("YR.NO", 2));
+        Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> maxInFlight = new ConcurrentHashMap<>();
+        stubForecastCalls(url -> {
+            String provider = url.contains("yr.test") ? "YR.NO" : "OpenWeatherMap";
+            int now = inFlight.computeIfAbsent(provider, name -> new AtomicInteger()).incrementAndGet();
+            maxInFlight.computeIfAbsent(provider, name -> new AtomicInteger()).accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(50);
+                return 1;
+            } finally {
+                inFlight.get(provider).decrementAndGet();
+            }
+        });
+
+        // 2. Execute the method
+        CollectionCycleReport report = dataCollectorService.collectForecasts();
+
+        // 3. YR.NO never had more than its two permits in flight, OpenWeatherMap used the default of four
+        assertEquals(2, maxInFlight.get("YR.NO").get());
+        assertEquals(4, maxInFlight.get("OpenWeatherMap").get());
+        assertEquals(12, report.getSuccesses());
+    }
+
+    @Test
+    public void testCollectForecasts_ConcurrentModeTimesOutSlowProvider() throws IOException {
+        // 1. OpenWeatherMap hangs far past the cycle deadline
+        useForecastConfig(2);
+        properties.setMode(CollectorProperties.Mode.CONCURRENT);
+        properties.setCycleDeadline(Duration.ofMillis(500));
+        stubForecastCalls(url -> {
+            if (url.contains("owm.test")) {
+                Thread.sleep(30_000);
+            }
+            return 3;
+        });
+
+        // 2. Execute the method
+        long start = System.nanoTime();
+        CollectionCycleReport report = dataCollectorService.collectForecasts();
+
+        // 3. The slow requests are cancelled at the deadline, the fast ones are still reported
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(10)) < 0);
+        CollectionCycleReport.ProviderResult slow = report.getProviders().get("OpenWeatherMap");
+        assertEquals(2, slow.getTimedOut());
+        assertEquals(0, slow.getSaved());
+        assertEquals(2, report.getProviders().get("YR.NO").getSaved());
+        assertEquals(2, report.getFailures());
+    }
+
+    @Test
+    public void testCollectForecasts_ConcurrentModeReportsOutcomesPerProvider() throws IOException {
+        // 1. OpenWeatherMap rejects the first city, everything else is stored
+        useForecastConfig(2);
+        properties.setMode(CollectorProperties.Mode.CONCURRENT);
+        stubForecastCalls(url -> {
+            if (url.contains("owm.test") && url.contains("lat=40.")) {
+                throw new HttpClientErrorException(HttpStatus.UNAUTHORIZED);
+            }
+            return 5;
+        });
+
+        // 2. Execute the method
+        CollectionCycleReport report = dataCollectorService.collectForecasts();
+
+        // 3. Counts are kept per provider
+        CollectionCycleReport.ProviderResult yrNo = report.getProviders().get("YR.NO");
+        assertEquals(2, yrNo.getSaved());
+        assertEquals(0, yrNo.getFailed());
+        assertEquals(10, yrNo.getEntries());
+        CollectionCycleReport.ProviderResult openWeatherMap = report.getProviders().get("OpenWeatherMap");
+        assertEquals(1, openWeatherMap.getSaved());
+        assertEquals(1, openWeatherMap.getFailed());
+        assertEquals(5, openWeatherMap.getEntries());
+        assertEquals(3, report.getSuccesses());
+        assertEquals(1, report.getFailures());
+    }
+
+    /**
+     * A forecast call: receives the request URL and returns how many daily forecasts the response gave
+     */
+    @FunctionalInterface
+    private interface ForecastCall {
+        int answer(String url) throws Exception;
+    }
+
+    /**
+     * Replaces the test config with {@code cities} cities and two providers, and lets every provider and city
+     * through the parser lookup and quota plan
+     */
+    private void useForecastConfig(int cities) throws IOException {
+        StringBuilder cityEntries = new StringBuilder();
+        for (int i = 0; i < cities; i++) {
+            cityEntries.append(i > 0 ? "," : "").append("""
+                    { "name": "City%d", "latitude": %d.25, "longitude": 18.0 }""".formatted(i, 40 + i));
+        }
+        when(configResource.getInputStream()).thenReturn(new java.io.ByteArrayInputStream("""
+                {
+                  "cities": [%s],
+                  "providers": [
+                    { "name": "YR.NO", "enabled": true, "url": "http://yr.test/forecast?lat={latitude}&lon={longitude}" },
+                    { "name": "OpenWeatherMap", "enabled": true, "url": "http://owm.test/forecast?lat={latitude}&lon={longitude}" }
+                  ]
+                }""".formatted(cityEntries).getBytes()));
+        when(parserFactory.hasParser(anyString())).thenReturn(true);
+        when(quotaPlanner.plan(anyString(), anyList(), any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        properties.getResilience().setRatePerSecond(1000);
+        properties.getResilience().setBurst(100);
+    }
+
+    private void stubForecastCalls(ForecastCall call) {
+        when(restTemplate.<ForecastResponseHandler.ReadResponse>execute(anyString(), eq(HttpMethod.GET),
+                any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    String url = invocation.getArgument(0);
+                    List<ForecastData> forecasts = new ArrayList<>();
+                    for (int i = call.answer(url); i > 0; i--) {
+                        forecasts.add(new ForecastData("Provider", "City", Instant.now(),
+                                LocalDate.of(2025, 8, 4).plusDays(i), 15.0, 25.0, Weather.CLEAR));
+                    }
+                    ForecastRequest request = new ForecastRequest("Provider", "City", url, null, new HttpHeaders());
+                    return new ForecastResponseHandler.ReadResponse(request, new HttpHeaders(), false,
+                            forecasts, List.of(), null);
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ActualWeatherData> captureSaved() {
+        ArgumentCaptor<List<ActualWeatherData>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bulkInsertRepository).insertActualWeather(captor.capture(), anyInt());
+        return captor.getValue();
     }
 }
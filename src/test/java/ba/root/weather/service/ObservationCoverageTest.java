@@ -0,0 +1,41 @@
+package ba.root.weather.service;
+
+import ba.root.weather.config.AnalysisProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObservationCoverageTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 8, 4);
+
+    @Test
+    void daylightSavingDaysHaveFewerOrMoreHours() {
+        assertEquals(24, ObservationCoverage.slotsInDay(DATE));
+        assertEquals(23, ObservationCoverage.slotsInDay(LocalDate.of(2025, 3, 30)));
+        assertEquals(25, ObservationCoverage.slotsInDay(LocalDate.of(2025, 10, 26)));
+    }
+
+    @Test
+    void appliesTheCompletenessPolicy() {
+        AnalysisProperties.Completeness policy = new AnalysisProperties.Completeness();
+        long fullDay = (1L << 24) - 1;
+        // Two hours missing: 22 of 24 meets 90%
+        long twoMissing = fullDay & ~(1L << 3) & ~(1L << 4);
+        // Three hours missing: 21 of 24 does not
+        long threeMissing = twoMissing & ~(1L << 5);
+
+        assertTrue(ObservationCoverage.isComplete(DATE, fullDay, policy));
+        assertTrue(ObservationCoverage.isComplete(DATE, twoMissing, policy));
+        assertFalse(ObservationCoverage.isComplete(DATE, threeMissing, policy));
+        assertEquals(List.of(3, 4, 5), ObservationCoverage.missingSlots(DATE, threeMissing));
+
+        long noLastHour = fullDay & ~(1L << 23);
+        assertFalse(ObservationCoverage.isComplete(DATE, noLastHour, policy));
+        policy.setRequireLastHour(false);
+        assertTrue(ObservationCoverage.isComplete(DATE, noLastHour, policy));
+    }
+}
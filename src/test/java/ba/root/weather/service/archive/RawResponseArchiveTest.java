@@ -0,0 +1,111 @@
+package ba.root.weather.service.archive;
+
+import ba.root.weather.config.CollectorProperties;
+import ba.root.weather.entity.RawResponse;
+import ba.root.weather.repository.RawResponseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RawResponseArchiveTest {
+
+    @TempDir
+    Path tempDir;
+
+    private RawResponseRepository rawResponseRepository;
+    private RawResponseArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        rawResponseRepository = mock(RawResponseRepository.class);
+        when(rawResponseRepository.save(any(RawResponse.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CollectorProperties properties = new CollectorProperties();
+        properties.getArchive().setEnabled(true);
+        properties.getArchive().setDirectory(tempDir.toString());
+        archive = new RawResponseArchive(rawResponseRepository, properties);
+    }
+
+    @Test
+    void identicalPayloadsShareOneCompressedBlob() throws IOException {
+        String payload = Files.readString(Path.of("docs/samples/responses/yr_no_sample_response.json"));
+
+        RawResponse first = archive.archive("YR.NO", "Sarajevo", Instant.parse("2025-08-01T10:00:00Z"), payload);
+        RawResponse second = archive.archive("YR.NO", "Sarajevo", Instant.parse("2025-08-01T11:00:00Z"), payload);
+
+        assertEquals(first.getContentHash(), second.getContentHash());
+        verify(rawResponseRepository, times(2)).save(any(RawResponse.class));
+
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+        Path blob = tempDir.resolve("blobs").resolve(first.getContentHash().substring(0, 2))
+                .resolve(first.getContentHash() + ".json.gz");
+        assertTrue(Files.size(blob) * 10 < payload.getBytes(StandardCharsets.UTF_8).length);
+
+        try (InputStream in = archive.open(second)) {
+            assertEquals(payload, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void differentPayloadsGetDifferentBlobs() {
+        RawResponse first = archive.archive("YR.NO", "Sarajevo", Instant.now(), "{\"a\":1}");
+        RawResponse second = archive.archive("YR.NO", "Sarajevo", Instant.now(), "{\"a\":2}");
+
+        assertNotEquals(first.getContentHash(), second.getContentHash());
+    }
+
+    @Test
+    void archivesABodyWhileItIsRead() throws IOException {
+        String payload = Files.readString(Path.of("docs/samples/responses/yr_no_sample_response.json"));
+        Instant fetchTimestamp = Instant.parse("2025-08-01T10:00:00Z");
+        RawResponse buffered = archive.archive("YR.NO", "Sarajevo", fetchTimestamp, payload);
+
+        ArchivingInputStream body = archive.archiving("YR.NO", "Mostar", fetchTimestamp,
+                new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)));
+        // A reader that stops early and closes its input, the way a JSON parser does
+        body.readNBytes(100);
+        body.close();
+        RawResponse streamed = body.finish();
+
+        // The whole payload is archived, under the same blob as the buffered copy
+        assertEquals(buffered.getContentHash(), streamed.getContentHash());
+        assertEquals(buffered.getRawSize(), streamed.getRawSize());
+        assertEquals("Mostar", streamed.getCity());
+        // Only one blob, no temporary files left behind
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+        try (InputStream in = archive.open(streamed)) {
+            assertEquals(payload, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void discardedBodiesLeaveNothingBehind() throws IOException {
+        ArchivingInputStream body = archive.archiving("YR.NO", "Sarajevo", Instant.now(),
+                new ByteArrayInputStream("{\"a\":1}".getBytes(StandardCharsets.UTF_8)));
+        body.read();
+
+        body.discard();
+
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+        verify(rawResponseRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,147 @@
+package ba.root.weather.service.backfill;
+
+import ba.root.weather.config.AnalysisProperties;
+import ba.root.weather.dto.BackfillStatusDto;
+import ba.root.weather.entity.AccuracyBackfillDay;
+import ba.root.weather.entity.AccuracyBackfillRun;
+import ba.root.weather.repository.AccuracyBackfillDayRepository;
+import ba.root.weather.repository.AccuracyBackfillRunRepository;
+import ba.root.weather.service.AccuracyAnalysisService;
+import ba.root.weather.service.ScoringScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AccuracyBackfillServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 8, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 8, 4);
+    private static final long RUN_ID = 7L;
+
+    private AccuracyAnalysisService analysisService;
+    private AccuracyBackfillRunRepository runRepository;
+    private AccuracyBackfillDayRepository dayRepository;
+    private PlatformTransactionManager transactionManager;
+    private AccuracyBackfillService service;
+    private AccuracyBackfillRun run;
+
+    @BeforeEach
+    void setUp() {
+        analysisService = mock(AccuracyAnalysisService.class);
+        runRepository = mock(AccuracyBackfillRunRepository.class);
+        dayRepository = mock(AccuracyBackfillDayRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(runRepository.save(any())).thenAnswer(invocation -> {
+            AccuracyBackfillRun saved = invocation.getArgument(0);
+            saved.setId(RUN_ID);
+            run = saved;
+            return saved;
+        });
+        when(runRepository.findById(RUN_ID)).thenAnswer(invocation -> Optional.ofNullable(run));
+        service = new AccuracyBackfillService(analysisService, runRepository, dayRepository,
+                new AnalysisProperties(), transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void scoresEveryDayInItsOwnTransaction() {
+        ScoringScope scope = new ScoringScope(Set.of("YR.NO"), Set.of());
+        when(analysisService.analyzeAccuracyForDate(any(), eq(scope))).thenReturn(3);
+
+        BackfillStatusDto status = service.start(FROM, TO, scope);
+
+        assertEquals(4, status.getTotalDays());
+        assertEquals(List.of("YR.NO"), status.getProviders());
+        verify(dayRepository, timeout(5000).times(4)).save(any());
+        verify(transactionManager, timeout(5000).times(4)).commit(any());
+        for (LocalDate date = FROM; !date.isAfter(TO); date = date.plusDays(1)) {
+            verify(analysisService).analyzeAccuracyForDate(date, scope);
+        }
+        verify(runRepository, timeout(5000).atLeast(2)).save(any());
+        assertEquals(AccuracyBackfillRun.Status.COMPLETED, run.getStatus());
+        assertNotNull(run.getFinishedAt());
+    }
+
+    @Test
+    void resumeSkipsDaysAlreadyScored() {
+        AccuracyBackfillRun interrupted = new AccuracyBackfillRun(FROM, TO, null, "Sarajevo", 4, Instant.now());
+        interrupted.setId(RUN_ID);
+        interrupted.setStatus(AccuracyBackfillRun.Status.INTERRUPTED);
+        run = interrupted;
+        when(dayRepository.findTargetDatesByRunId(RUN_ID)).thenReturn(List.of(FROM, FROM.plusDays(1)));
+        when(analysisService.analyzeAccuracyForDate(any(), any())).thenReturn(2);
+
+        assertTrue(service.resume(RUN_ID).isPresent());
+
+        ArgumentCaptor<AccuracyBackfillDay> days = ArgumentCaptor.forClass(AccuracyBackfillDay.class);
+        verify(dayRepository, timeout(5000).times(2)).save(days.capture());
+        assertEquals(Set.of(FROM.plusDays(2), TO),
+                Set.copyOf(days.getAllValues().stream().map(AccuracyBackfillDay::getTargetDate).toList()));
+        verify(analysisService, never()).analyzeAccuracyForDate(eq(FROM), any());
+        verify(analysisService).analyzeAccuracyForDate(TO, new ScoringScope(Set.of(), Set.of("Sarajevo")));
+    }
+
+    @Test
+    void aFailedDayRollsBackAndFailsTheRun() {
+        when(analysisService.analyzeAccuracyForDate(any(), any())).thenReturn(1);
+        when(analysisService.analyzeAccuracyForDate(eq(FROM), any())).thenThrow(new IllegalStateException("boom"));
+
+        service.start(FROM, TO, ScoringScope.ALL);
+
+        verify(transactionManager, timeout(5000)).rollback(any());
+        verify(dayRepository, timeout(5000).times(3)).save(any());
+        verify(runRepository, timeout(5000).atLeast(2)).save(any());
+        assertEquals(AccuracyBackfillRun.Status.FAILED, run.getStatus());
+    }
+
+    @Test
+    void doesNotRecordDaysWithoutScores() {
+        // The last day's observations are not complete yet
+        when(analysisService.analyzeAccuracyForDate(any(), any())).thenReturn(2);
+        when(analysisService.analyzeAccuracyForDate(eq(TO), any())).thenReturn(0);
+
+        service.start(FROM, TO, ScoringScope.ALL);
+
+        verify(runRepository, timeout(5000).atLeast(2)).save(any());
+        ArgumentCaptor<AccuracyBackfillDay> days = ArgumentCaptor.forClass(AccuracyBackfillDay.class);
+        verify(dayRepository, times(3)).save(days.capture());
+        assertFalse(days.getAllValues().stream().map(AccuracyBackfillDay::getTargetDate).toList().contains(TO));
+        verify(analysisService).analyzeAccuracyForDate(TO, ScoringScope.ALL);
+        assertEquals(AccuracyBackfillRun.Status.COMPLETED, run.getStatus());
+    }
+
+    @Test
+    void rejectsAnInvertedRange() {
+        assertThrows(IllegalArgumentException.class, () -> service.start(TO, FROM, ScoringScope.ALL));
+        verifyNoInteractions(runRepository);
+    }
+
+    @Test
+    void marksRunsLeftRunningAsInterrupted() {
+        AccuracyBackfillRun stale = new AccuracyBackfillRun(FROM, TO, null, null, 4, Instant.now());
+        stale.setId(RUN_ID);
+        when(runRepository.findByStatus(AccuracyBackfillRun.Status.RUNNING)).thenReturn(List.of(stale));
+
+        service.markInterruptedRuns();
+
+        assertEquals(AccuracyBackfillRun.Status.INTERRUPTED, stale.getStatus());
+        verify(runRepository).save(stale);
+    }
+}
@@ -0,0 +1,128 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.config.CollectorProperties;
+import ba.root.weather.entity.ForecastData;
+import ba.root.weather.entity.Weather;
+import ba.root.weather.repository.BulkInsertRepository;
+import ba.root.weather.service.archive.RawResponseArchive;
+import ba.root.weather.service.parser.WeatherDataParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class ForecastPipelineTest {
+
+    private static final String PROVIDER = "YR.NO";
+
+    private MockRestServiceServer server;
+    private ResponseMetadataStore responseMetadataStore;
+    private BulkInsertRepository bulkInsertRepository;
+    private ForecastPipeline pipeline;
+
+    /**
+     * One forecast per response, none for an empty JSON array
+     */
+    private final WeatherDataParser parser = new WeatherDataParser() {
+        @Override
+        public List<ForecastData> parseForecastResponse(String cityName, String json, Instant fetchTimestamp) {
+            return json.equals("[]")
+                    ? List.of()
+                    : List.of(new ForecastData(PROVIDER, cityName, fetchTimestamp, LocalDate.of(2025, 8, 4), 15.0, 25.0, Weather.CLEAR));
+        }
+
+        @Override
+        public String getProviderName() {
+            return PROVIDER;
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        responseMetadataStore = mock(ResponseMetadataStore.class);
+        bulkInsertRepository = mock(BulkInsertRepository.class);
+
+        CollectorProperties properties = new CollectorProperties();
+        properties.getResilience().setMaxRetries(0);
+        properties.getPipeline().setParseThreads(2);
+        properties.getPipeline().setParseQueueCapacity(1);
+        properties.getPipeline().setWriteQueueCapacity(1);
+        pipeline = new ForecastPipeline(restTemplate, properties, new ProviderGuards(properties),
+                mock(QuotaPlanner.class),
+                new ForecastResponseHandler(responseMetadataStore, mock(RawResponseArchive.class), bulkInsertRepository),
+                mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void fetchesParsesAndWritesEveryResponse() throws InterruptedException {
+        List<ForecastRequest> requests = new ArrayList<>();
+        for (String city : List.of("Sarajevo", "Mostar", "Tuzla", "Bihac", "Zenica", "Doboj")) {
+            requests.add(request(city));
+        }
+        server.expect(requestTo("http://forecast.test/Sarajevo")).andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://forecast.test/Mostar")).andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://forecast.test/Tuzla")).andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://forecast.test/Bihac")).andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+        server.expect(requestTo("http://forecast.test/Zenica")).andRespond(withServerError());
+        server.expect(requestTo("http://forecast.test/Doboj")).andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+        CollectionCycleReport report = new CollectionCycleReport();
+
+        List<ForecastPipeline.StageStats> stats = pipeline.collect(requests, report);
+
+        server.verify();
+        CollectionCycleReport.ProviderResult result = report.getProviders().get(PROVIDER);
+        assertEquals(3, result.getSaved());
+        assertEquals(1, result.getNotModified());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getNoData());
+        assertEquals(3, result.getEntries());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ForecastData>> rows = ArgumentCaptor.forClass(List.class);
+        verify(bulkInsertRepository, atLeastOnce()).insertForecasts(rows.capture());
+        assertEquals(List.of("Mostar", "Sarajevo", "Tuzla"), rows.getAllValues().stream()
+                .flatMap(List::stream).map(ForecastData::getCity).sorted().toList());
+        // Stored responses and the 304 refresh their caching headers, the failed and empty ones do not
+        verify(responseMetadataStore, times(4)).update(eq(PROVIDER), anyString(), any(HttpHeaders.class));
+        verify(responseMetadataStore, never()).update(eq(PROVIDER), eq("Zenica"), any());
+        verify(responseMetadataStore, never()).update(eq(PROVIDER), eq("Doboj"), any());
+
+        assertEquals(List.of(6, 4, 4), stats.stream().map(ForecastPipeline.StageStats::getItems).toList());
+    }
+
+    @Test
+    void reportsEveryPairAsFailedWhenTheWriteFails() throws InterruptedException {
+        server.expect(requestTo("http://forecast.test/Sarajevo")).andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        when(bulkInsertRepository.insertForecasts(anyList())).thenThrow(new IllegalStateException("database down"));
+        CollectionCycleReport report = new CollectionCycleReport();
+
+        pipeline.collect(List.of(request("Sarajevo")), report);
+
+        assertEquals(1, report.getFailures());
+        verify(responseMetadataStore, never()).update(anyString(), anyString(), any());
+    }
+
+    private ForecastRequest request(String city) {
+        return new ForecastRequest(PROVIDER, city, "http://forecast.test/" + city, parser, new HttpHeaders());
+    }
+}
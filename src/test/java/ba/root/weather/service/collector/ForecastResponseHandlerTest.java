@@ -0,0 +1,105 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.entity.ForecastData;
+import ba.root.weather.entity.Weather;
+import ba.root.weather.repository.BulkInsertRepository;
+import ba.root.weather.service.archive.RawResponseArchive;
+import ba.root.weather.service.parser.WeatherDataParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ForecastResponseHandlerTest {
+
+    private static final String PROVIDER = "YR.NO";
+
+    private ResponseMetadataStore responseMetadataStore;
+    private BulkInsertRepository bulkInsertRepository;
+    private ForecastResponseHandler handler;
+
+    /**
+     * One forecast per response, none for an empty JSON array
+     */
+    private final WeatherDataParser parser = new WeatherDataParser() {
+        @Override
+        public List<ForecastData> parseForecastResponse(String cityName, String json, Instant fetchTimestamp) {
+            return json.equals("[]")
+                    ? List.of()
+                    : List.of(new ForecastData(PROVIDER, cityName, fetchTimestamp, LocalDate.of(2025, 8, 4), 15.0, 25.0, Weather.CLEAR));
+        }
+
+        @Override
+        public String getProviderName() {
+            return PROVIDER;
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        responseMetadataStore = mock(ResponseMetadataStore.class);
+        bulkInsertRepository = mock(BulkInsertRepository.class);
+        handler = new ForecastResponseHandler(responseMetadataStore, mock(RawResponseArchive.class),
+                bulkInsertRepository);
+    }
+
+    @Test
+    void storesForecastsForEveryCitySharingTheResponse() throws IOException {
+        ForecastRequest request = new ForecastRequest(PROVIDER, "Sarajevo", "http://forecast.test/Sarajevo", parser,
+                new HttpHeaders(), List.of("Ilidza"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"abc123\"");
+
+        CollectionCycleReport.Outcome outcome = handler.handle(request, HttpStatus.OK, headers, body("{}"));
+
+        assertEquals(CollectionCycleReport.Outcome.saved(2), outcome);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ForecastData>> rows = ArgumentCaptor.forClass(List.class);
+        verify(bulkInsertRepository).insertForecasts(rows.capture());
+        assertEquals(List.of("Sarajevo", "Ilidza"), rows.getValue().stream().map(ForecastData::getCity).toList());
+        verify(bulkInsertRepository).insertHourlyForecasts(anyList());
+        verify(responseMetadataStore).update(PROVIDER, "Sarajevo", headers);
+    }
+
+    @Test
+    void notModifiedOnlyRefreshesTheCachingHeaders() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+
+        CollectionCycleReport.Outcome outcome = handler.handle(request(), HttpStatus.NOT_MODIFIED, headers, null);
+
+        assertEquals(CollectionCycleReport.Outcome.notModified(), outcome);
+        verify(responseMetadataStore).update(PROVIDER, "Sarajevo", headers);
+        verifyNoInteractions(bulkInsertRepository);
+    }
+
+    @Test
+    void missingEmptyAndUnparsableBodiesGiveNoData() throws IOException {
+        for (InputStream body : new InputStream[]{null, body(""), body("[]")}) {
+            assertEquals(CollectionCycleReport.Outcome.noData(),
+                    handler.handle(request(), HttpStatus.OK, new HttpHeaders(), body));
+        }
+
+        verifyNoInteractions(bulkInsertRepository, responseMetadataStore);
+    }
+
+    private ForecastRequest request() {
+        return new ForecastRequest(PROVIDER, "Sarajevo", "http://forecast.test/Sarajevo", parser, new HttpHeaders());
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
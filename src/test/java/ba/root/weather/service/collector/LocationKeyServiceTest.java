@@ -0,0 +1,194 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.config.CityConfig;
+import ba.root.weather.config.CollectorConfigRegistry;
+import ba.root.weather.config.CollectorProperties;
+import ba.root.weather.config.ProviderConfig;
+import ba.root.weather.entity.LocationKey;
+import ba.root.weather.repository.LocationKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LocationKeyServiceTest {
+
+    private static final String PROVIDER = "AccuWeather";
+    private static final String CONFIG = """
+            {
+              "cities": [
+                { "name": "Sarajevo", "latitude": 43.8563, "longitude": 18.4131 },
+                { "name": "Mostar", "latitude": 43.3438, "longitude": 17.8078 }
+              ],
+              "providers": [
+                {
+                  "name": "AccuWeather",
+                  "enabled": true,
+                  "url": "http://accu.test/forecasts/{locationKey}",
+                  "locationUrl": "http://accu.test/locations?q={latitude},{longitude}"
+                }
+              ]
+            }""";
+
+    private RestTemplate restTemplate;
+    private LocationKeyRepository repository;
+    private QuotaPlanner quotaPlanner;
+    private CollectorProperties properties;
+    private CollectorConfigRegistry configRegistry;
+    private LocationKeyService service;
+    private CityConfig sarajevo;
+    private CityConfig mostar;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        restTemplate = mock(RestTemplate.class);
+        repository = mock(LocationKeyRepository.class);
+        when(repository.findByProviderNameAndCityAndLatitudeAndLongitude(anyString(), anyString(), anyDouble(), anyDouble()))
+                .thenReturn(Optional.empty());
+        when(repository.save(any(LocationKey.class))).thenAnswer(invocation -> {
+            LocationKey saved = invocation.getArgument(0);
+            if (saved.getId() == null) {
+                saved.setId(100L);
+            }
+            return saved;
+        });
+        quotaPlanner = mock(QuotaPlanner.class);
+        when(quotaPlanner.spareCallsToday(eq(PROVIDER), anyInt())).thenReturn(Integer.MAX_VALUE);
+
+        properties = new CollectorProperties();
+        // Fail fast instead of backing off between attempts
+        properties.getResilience().setMaxRetries(0);
+        ObjectMapper objectMapper = new ObjectMapper();
+        ResourceLoader resourceLoader = mock(ResourceLoader.class);
+        Resource resource = mock(Resource.class);
+        when(resourceLoader.getResource(properties.getConfigLocation())).thenReturn(resource);
+        when(resource.getInputStream()).thenAnswer(invocation ->
+                new ByteArrayInputStream(CONFIG.getBytes(StandardCharsets.UTF_8)));
+        configRegistry = new CollectorConfigRegistry(resourceLoader, objectMapper, properties);
+
+        service = new LocationKeyService(restTemplate, objectMapper, repository, configRegistry, properties,
+                new ProviderGuards(properties), quotaPlanner);
+        // The registry fills in the parameters the location URL needs
+        sarajevo = configRegistry.current().cities().get(0);
+        mostar = configRegistry.current().cities().get(1);
+    }
+
+    @Test
+    void warmUpLoadsStoredKeys() throws IOException {
+        when(repository.findByProviderNameAndExpiresAtAfter(eq(PROVIDER), any(Instant.class)))
+                .thenReturn(List.of(storedKey(sarajevo, "123", Duration.ofDays(10))));
+
+        service.warmUp();
+
+        assertTrue(service.hasValidKey(sarajevo));
+        assertFalse(service.hasValidKey(mostar));
+        assertEquals("123", service.getLocationKey(sarajevo, accuWeather()));
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void refreshResolvesKeysAboutToExpire() {
+        LocationKey expiring = storedKey(sarajevo, "123", Duration.ofDays(1));
+        when(repository.findByProviderNameAndExpiresAtAfter(eq(PROVIDER), any(Instant.class)))
+                .thenReturn(List.of(expiring, storedKey(mostar, "456", Duration.ofDays(20))));
+        when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn("[{\"Key\": \"789\"}]");
+        service.warmUp();
+
+        service.refreshExpiringKeys();
+
+        // Only Sarajevo is within the refresh window, its row is updated in place
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(String.class));
+        ArgumentCaptor<LocationKey> saved = ArgumentCaptor.forClass(LocationKey.class);
+        verify(repository).save(saved.capture());
+        assertEquals(1L, saved.getValue().getId());
+        assertEquals("789", saved.getValue().getLocationKey());
+        assertTrue(saved.getValue().getExpiresAt().isAfter(Instant.now().plus(Duration.ofDays(29))));
+        verify(quotaPlanner).recordCall(PROVIDER);
+    }
+
+    @Test
+    void refreshDefersLookupsTheQuotaCannotSpare() {
+        when(quotaPlanner.spareCallsToday(eq(PROVIDER), anyInt())).thenReturn(0);
+
+        service.refreshExpiringKeys();
+
+        verifyNoInteractions(restTemplate);
+        assertFalse(service.hasValidKey(sarajevo));
+    }
+
+    @Test
+    void fallsBackToAnExpiredKeyWhenTheLookupFails() throws IOException {
+        // Keys expire as soon as they are resolved
+        properties.getLocationKeys().setTtl(Duration.ZERO);
+        when(restTemplate.getForObject(anyString(), eq(String.class)))
+                .thenReturn("{\"Key\": \"123\"}")
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        assertEquals("123", service.getLocationKey(sarajevo, accuWeather()));
+        assertFalse(service.hasValidKey(sarajevo));
+        assertEquals("123", service.getLocationKey(sarajevo, accuWeather()));
+
+        verify(restTemplate, times(2)).getForObject(anyString(), eq(String.class));
+    }
+
+    @Test
+    void concurrentLookupsOfACityResolveItOnce() throws Exception {
+        when(restTemplate.getForObject(anyString(), eq(String.class))).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return "[{\"Key\": \"123\"}]";
+        });
+        ProviderConfig provider = accuWeather();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = executor.submit(() -> service.getLocationKey(sarajevo, provider));
+            Future<String> second = executor.submit(() -> service.getLocationKey(sarajevo, provider));
+            assertEquals("123", first.get());
+            assertEquals("123", second.get());
+        }
+
+        // The second caller finds the key the first one stored
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(String.class));
+        verify(repository, times(1)).save(any(LocationKey.class));
+    }
+
+    @Test
+    void returnsNullWithoutAnyKey() throws IOException {
+        when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn("[]");
+
+        assertNull(service.getLocationKey(sarajevo, accuWeather()));
+        verify(restTemplate).getForObject("http://accu.test/locations?q=43.8563,18.4131", String.class);
+        verify(repository, never()).save(any());
+    }
+
+    private ProviderConfig accuWeather() throws IOException {
+        return configRegistry.current().provider(PROVIDER);
+    }
+
+    private LocationKey storedKey(CityConfig city, String key, Duration expiresIn) {
+        LocationKey locationKey = new LocationKey(PROVIDER, city.name(), city.latitude(), city.longitude());
+        locationKey.setId(city.name().equals("Sarajevo") ? 1L : 2L);
+        locationKey.setLocationKey(key);
+        locationKey.setResolvedAt(Instant.now().minus(Duration.ofDays(29)));
+        locationKey.setExpiresAt(Instant.now().plus(expiresIn));
+        return locationKey;
+    }
+}
@@ -0,0 +1,87 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.config.CollectorProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderGuardsTest {
+
+    private ProviderGuards providerGuards;
+
+    @BeforeEach
+    void setUp() {
+        CollectorProperties properties = new CollectorProperties();
+        CollectorProperties.Resilience resilience = properties.getResilience();
+        resilience.setRatePerSecond(1000);
+        resilience.setBurst(100);
+        resilience.setFailureThreshold(3);
+        resilience.setOpenDuration(Duration.ofMinutes(1));
+        resilience.setMaxRetries(2);
+        resilience.setRetryBackoff(Duration.ofMillis(1));
+        providerGuards = new ProviderGuards(properties);
+    }
+
+    @Test
+    void retriesTransientFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = providerGuards.execute("YR.NO", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ResourceAccessException("Read timed out");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+        assertEquals("CLOSED", providerGuards.status().getFirst().getCircuitState());
+        assertEquals(2, providerGuards.status().getFirst().getRetries());
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(HttpClientErrorException.class, () -> providerGuards.execute("YR.NO", () -> {
+            attempts.incrementAndGet();
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null);
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void failsFastOnceTheCircuitIsOpen() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ResourceAccessException.class, () -> providerGuards.execute("AccuWeather", () -> {
+            attempts.incrementAndGet();
+            throw new ResourceAccessException("Connection refused");
+        }));
+        assertThrows(ProviderUnavailableException.class, () -> providerGuards.execute("AccuWeather", () -> "never called"));
+
+        // The call and its two retries opened the circuit, the next call was never made
+        assertEquals(3, attempts.get());
+        assertEquals("OPEN", providerGuards.status().getFirst().getCircuitState());
+        assertEquals(1, providerGuards.status().getFirst().getRejected());
+    }
+
+    @Test
+    void tokenBucketMakesCallersWaitOnceTheBurstIsUsed() {
+        TokenBucket bucket = new TokenBucket(10, 2);
+
+        assertEquals(0, bucket.tryReserve(0));
+        assertEquals(0, bucket.tryReserve(0));
+        assertEquals(-1, bucket.tryReserve(0));
+        long wait = bucket.tryReserve(Duration.ofSeconds(1).toNanos());
+        assertTrue(wait > 0 && wait <= Duration.ofMillis(100).toNanos());
+    }
+}
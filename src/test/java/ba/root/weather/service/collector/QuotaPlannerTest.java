@@ -0,0 +1,115 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.config.CollectorProperties;
+import ba.root.weather.entity.ProviderCallUsage;
+import ba.root.weather.repository.ForecastDataRepository;
+import ba.root.weather.repository.ProviderCallUsageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class QuotaPlannerTest {
+
+    private ProviderCallUsageRepository usageRepository;
+    private ForecastDataRepository forecastDataRepository;
+    private CollectorProperties properties;
+    private QuotaPlanner quotaPlanner;
+
+    @BeforeEach
+    void setUp() {
+        usageRepository = mock(ProviderCallUsageRepository.class);
+        when(usageRepository.findByProviderNameAndUsageDate(anyString(), any())).thenReturn(Optional.empty());
+        when(usageRepository.save(any(ProviderCallUsage.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        forecastDataRepository = mock(ForecastDataRepository.class);
+
+        properties = new CollectorProperties();
+        properties.getQuota().setDailyLimits(Map.of("AccuWeather", 5));
+        // A single cycle left today, so the whole remaining budget is available
+        properties.setForecastCron("0 0 0 1 1 *");
+        quotaPlanner = new QuotaPlanner(usageRepository, forecastDataRepository, properties);
+    }
+
+    @Test
+    void runsOldestCitiesFirstWithinTheBudget() {
+        when(forecastDataRepository.findLastFetchTimestampByCity("AccuWeather")).thenReturn(List.of(
+                new Object[]{"Sarajevo", Instant.parse("2025-08-01T12:00:00Z")},
+                new Object[]{"Mostar", Instant.parse("2025-08-01T06:00:00Z")},
+                new Object[]{"Tuzla", Instant.parse("2025-08-01T18:00:00Z")}));
+        quotaPlanner.recordCall("AccuWeather");
+
+        // 4 calls left: Zenica (never fetched, needs a location lookup), Mostar and Sarajevo fit, Tuzla is deferred
+        List<String> planned = quotaPlanner.plan("AccuWeather", List.of("Sarajevo", "Mostar", "Tuzla", "Zenica"),
+                Function.identity(), city -> city.equals("Zenica") ? 2 : 1);
+
+        assertEquals(List.of("Zenica", "Mostar", "Sarajevo"), planned);
+        assertEquals(4, quotaPlanner.remainingToday("AccuWeather"));
+    }
+
+    @Test
+    void doesNotLimitProvidersWithoutQuota() {
+        List<String> cities = List.of("Sarajevo", "Mostar");
+
+        assertSame(cities, quotaPlanner.plan("YR.NO", cities, Function.identity(), city -> 1));
+        assertNull(quotaPlanner.remainingToday("YR.NO"));
+        verifyNoInteractions(forecastDataRepository);
+    }
+
+    @Test
+    void defersEverythingOnceTheQuotaIsUsed() {
+        for (int i = 0; i < 5; i++) {
+            quotaPlanner.recordCall("AccuWeather");
+        }
+
+        assertTrue(quotaPlanner.plan("AccuWeather", List.of("Sarajevo"), Function.identity(), city -> 1).isEmpty());
+        assertEquals(0, quotaPlanner.spareCallsToday("AccuWeather", 1));
+    }
+
+    @Test
+    void storesOnlyLimitedProvidersOffTheRequestPath() {
+        quotaPlanner.recordCall("AccuWeather");
+        quotaPlanner.recordCall("AccuWeather");
+        quotaPlanner.recordCall("YR.NO");
+        verifyNoInteractions(usageRepository);
+
+        quotaPlanner.flush();
+        // Nothing changed since the last flush
+        quotaPlanner.flush();
+
+        ArgumentCaptor<ProviderCallUsage> saved = ArgumentCaptor.forClass(ProviderCallUsage.class);
+        verify(usageRepository).save(saved.capture());
+        assertEquals("AccuWeather", saved.getValue().getProviderName());
+        assertEquals(2, saved.getValue().getCalls());
+        assertEquals(1, quotaPlanner.callsToday("YR.NO"));
+    }
+
+    @Test
+    void addsCallsStoredBeforeARestartOnlyOnce() {
+        when(usageRepository.findByProviderNameAndUsageDate(eq("AccuWeather"), any()))
+                .thenAnswer(invocation -> Optional.of(new ProviderCallUsage("AccuWeather", invocation.getArgument(1), 3)));
+        when(usageRepository.save(any(ProviderCallUsage.class)))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        quotaPlanner.recordCall("AccuWeather");
+
+        quotaPlanner.flush();
+        quotaPlanner.flush();
+
+        assertEquals(4, quotaPlanner.callsToday("AccuWeather"));
+        ArgumentCaptor<ProviderCallUsage> saved = ArgumentCaptor.forClass(ProviderCallUsage.class);
+        verify(usageRepository, times(2)).save(saved.capture());
+        assertEquals(4, saved.getValue().getCalls());
+    }
+}
@@ -0,0 +1,158 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.config.CollectorProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveForecastCollectorTest {
+
+    private static final String PROVIDER = "YR.NO";
+
+    private CollectorProperties properties;
+    private QuotaPlanner quotaPlanner;
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new CollectorProperties();
+        properties.getReactive().setRetryBackoff(Duration.ofMillis(10));
+        properties.getReactive().setRetryJitter(0);
+        properties.getResilience().setRatePerSecond(1000);
+        properties.getResilience().setBurst(100);
+        quotaPlanner = mock(QuotaPlanner.class);
+    }
+
+    @Test
+    void retriesServerErrorsAndStoresTheResponse() {
+        ReactiveForecastCollector collector = collector(request -> calls(request) == 1
+                ? Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build())
+                : Mono.just(ok()));
+        CollectionCycleReport report = new CollectionCycleReport();
+
+        collector.collect(List.of(request("Sarajevo")), (request, response) -> {
+            assertEquals("{}", new String(response.getBody(), StandardCharsets.UTF_8));
+            return CollectionCycleReport.Outcome.saved(1);
+        }, report);
+
+        assertEquals(1, report.getProviders().get(PROVIDER).getSaved());
+        assertEquals(2, calls.get("/Sarajevo").get());
+        // Every attempt counts against the quota
+        verify(quotaPlanner, times(2)).recordCall(PROVIDER);
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        ReactiveForecastCollector collector = collector(request -> {
+            calls(request);
+            return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+        });
+        CollectionCycleReport report = new CollectionCycleReport();
+
+        collector.collect(List.of(request("Sarajevo")), (request, response) -> fail("No response expected"), report);
+
+        assertEquals(1, report.getProviders().get(PROVIDER).getFailed());
+        assertEquals(1, calls.get("/Sarajevo").get());
+    }
+
+    @Test
+    void boundsInFlightRequestsPerProvider() {
+        properties.getReactive().setMaxInFlightPerProvider(2);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ReactiveForecastCollector collector = collector(request -> Mono.defer(() -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return Mono.delay(Duration.ofMillis(50)).map(tick -> ok());
+                })
+                .doFinally(signal -> inFlight.decrementAndGet()));
+        List<ForecastRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(request("City" + i));
+        }
+        CollectionCycleReport report = new CollectionCycleReport();
+
+        collector.collect(requests, (request, response) -> CollectionCycleReport.Outcome.saved(1), report);
+
+        assertEquals(8, report.getProviders().get(PROVIDER).getSaved());
+        assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    void timesOutRequestsStillWaitingAtTheDeadlineButFinishesStartedHandlers() {
+        properties.setCycleDeadline(Duration.ofMillis(300));
+        ReactiveForecastCollector collector = collector(request -> request.url().getPath().equals("/Slow")
+                ? Mono.delay(Duration.ofSeconds(10)).map(tick -> ok())
+                : Mono.just(ok()));
+        CollectionCycleReport report = new CollectionCycleReport();
+
+        collector.collect(List.of(request("Slow"), request("Fast")), (request, response) -> {
+            // Still storing when the deadline passes
+            sleep(600);
+            return CollectionCycleReport.Outcome.saved(1);
+        }, report);
+
+        CollectionCycleReport.ProviderResult result = report.getProviders().get(PROVIDER);
+        assertEquals(1, result.getSaved());
+        assertEquals(1, result.getTimedOut());
+    }
+
+    @Test
+    void fetchesEveryUrlOfASource() {
+        ReactiveForecastCollector collector = collector(request -> Mono.just(
+                ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body("[\"" + request.url().getPath() + "\"]")
+                        .build()));
+
+        List<String> bodies = collector.fetchAll("METAR", List.of("http://metar.test/a", "http://metar.test/b"), 2,
+                body -> new String(body, StandardCharsets.UTF_8));
+
+        assertEquals(List.of("[\"/a\"]", "[\"/b\"]"), bodies.stream().sorted().toList());
+    }
+
+    private ReactiveForecastCollector collector(Function<ClientRequest, Mono<ClientResponse>> exchange) {
+        WebClient webClient = WebClient.builder().exchangeFunction(exchange::apply).build();
+        return new ReactiveForecastCollector(webClient, properties, new ProviderGuards(properties), quotaPlanner);
+    }
+
+    private int calls(ClientRequest request) {
+        return calls.computeIfAbsent(request.url().getPath(), path -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private static ClientResponse ok() {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body("{}")
+                .build();
+    }
+
+    private static ForecastRequest request(String city) {
+        return new ForecastRequest(PROVIDER, city, "http://forecast.test/" + city, null, new HttpHeaders());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.config.CityConfig;
+import ba.root.weather.config.CollectorProperties;
+import ba.root.weather.config.ProviderConfig;
+import ba.root.weather.config.UrlTemplate;
+import ba.root.weather.entity.ForecastData;
+import ba.root.weather.entity.Weather;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    private static final CityConfig SARAJEVO = city("Sarajevo", 43.85631, 18.41319, "518");
+    private static final CityConfig CENTAR = city("Centar", 43.85638, 18.41312, "518");
+    private static final CityConfig ILIDZA = city("Ilidža", 43.8297, 18.3103, "499");
+    private static final List<String> YR_NO_PARAMETERS = List.of("latitude", "longitude", "altitude");
+
+    private static final ProviderConfig YR_NO = provider("YR.NO",
+            "https://api.met.no/weatherapi/locationforecast/2.0/complete?lat={latitude}&lon={longitude}&altitude={altitude}");
+    private static final ProviderConfig ACCUWEATHER = provider("AccuWeather",
+            "https://dataservice.accuweather.com/forecasts/v1/daily/5day/{locationKey}?apikey={apiKey}");
+
+    private RequestCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        CollectorProperties properties = new CollectorProperties();
+        properties.getCoalesce().setCoordinateDecimals(Map.of("YR.NO", 4));
+        coalescer = new RequestCoalescer(properties);
+    }
+
+    @Test
+    void groupsCitiesInTheSameCell() {
+        List<List<CityConfig>> groups = coalescer.group(YR_NO, List.of(SARAJEVO, ILIDZA, CENTAR),
+                Function.identity());
+
+        assertEquals(List.of(List.of(SARAJEVO, CENTAR), List.of(ILIDZA)), groups);
+    }
+
+    @Test
+    void doesNotGroupProvidersWithoutSetting() {
+        List<List<CityConfig>> groups = coalescer.group(ACCUWEATHER, List.of(SARAJEVO, CENTAR),
+                Function.identity());
+
+        assertEquals(List.of(List.of(SARAJEVO), List.of(CENTAR)), groups);
+    }
+
+    @Test
+    void doesNotGroupCitiesAtDifferentAltitudes() {
+        CityConfig hill = city("Hill", 43.85634, 18.41315, "640");
+
+        List<List<CityConfig>> groups = coalescer.group(YR_NO, List.of(SARAJEVO, hill, CENTAR),
+                Function.identity());
+
+        assertEquals(List.of(List.of(SARAJEVO, CENTAR), List.of(hill)), groups);
+    }
+
+    @Test
+    void truncatesInsteadOfRounding() {
+        assertEquals("43.8563,18.4131&altitude=518", RequestCoalescer.cellKey(SARAJEVO, 4, YR_NO_PARAMETERS));
+        assertEquals("-43.8563,-18.4131", RequestCoalescer.cellKey(
+                new CityConfig("South", -43.85639, -18.41319, null, Map.of()), 4, YR_NO_PARAMETERS));
+    }
+
+    @Test
+    void fansOutForecastsToSharedCities() {
+        Instant fetchTimestamp = Instant.parse("2025-08-01T06:00:00Z");
+        ForecastData forecast = new ForecastData("YR.NO", "Sarajevo", fetchTimestamp,
+                LocalDate.parse("2025-08-02"), 14.0, 29.5, Weather.CLEAR);
+
+        List<ForecastData> forecasts = RequestCoalescer.fanOut(List.of(forecast), List.of("Centar"));
+
+        assertEquals(2, forecasts.size());
+        assertSame(forecast, forecasts.getFirst());
+        ForecastData copy = forecasts.get(1);
+        assertEquals("Centar", copy.getCity());
+        assertEquals(fetchTimestamp, copy.getFetchTimestamp());
+        assertEquals(forecast.getTargetDate(), copy.getTargetDate());
+        assertEquals(29.5, copy.getPredictedMaxTemp());
+        assertEquals(Weather.CLEAR, copy.getPredictedWeather());
+    }
+
+    private static CityConfig city(String name, double latitude, double longitude, String altitude) {
+        return new CityConfig(name, latitude, longitude, null, Map.of("altitude", altitude));
+    }
+
+    private static ProviderConfig provider(String name, String url) {
+        return new ProviderConfig(name, true, UrlTemplate.compile(url), null, Map.of());
+    }
+}
@@ -0,0 +1,164 @@
+package ba.root.weather.service.collector;
+
+import ba.root.weather.config.CollectorProperties;
+import ba.root.weather.entity.ResponseMetadata;
+import ba.root.weather.repository.ResponseMetadataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ResponseMetadataStoreTest {
+
+    private static final String PROVIDER = "YR.NO";
+    private static final String CITY = "Sarajevo";
+    private static final String LAST_MODIFIED = "Fri, 01 Aug 2025 06:00:00 GMT";
+
+    private ResponseMetadataRepository repository;
+    private CollectorProperties properties;
+    private ResponseMetadataStore store;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ResponseMetadataRepository.class);
+        when(repository.findByProviderNameAndCity(anyString(), anyString())).thenReturn(Optional.empty());
+        when(repository.save(any(ResponseMetadata.class))).thenAnswer(invocation -> {
+            ResponseMetadata saved = invocation.getArgument(0);
+            if (saved.getId() == null) {
+                saved.setId(1L);
+            }
+            return saved;
+        });
+        properties = new CollectorProperties();
+        store = new ResponseMetadataStore(repository, properties);
+    }
+
+    @Test
+    void expiresAfterMaxAge() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("public, max-age=1800");
+        headers.setExpires(Instant.now().plus(Duration.ofHours(6)).toEpochMilli());
+
+        Instant before = Instant.now();
+        store.update(PROVIDER, CITY, headers);
+
+        // max-age wins over Expires
+        Instant expiresAt = saved().getExpiresAt();
+        assertFalse(expiresAt.isBefore(before.plusSeconds(1800)));
+        assertFalse(expiresAt.isAfter(Instant.now().plusSeconds(1800)));
+        assertTrue(store.isFresh(PROVIDER, CITY));
+    }
+
+    @Test
+    void fallsBackToExpires() {
+        Instant expires = Instant.now().plus(Duration.ofHours(1)).truncatedTo(ChronoUnit.SECONDS);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setExpires(expires.toEpochMilli());
+
+        store.update(PROVIDER, CITY, headers);
+
+        assertEquals(expires, saved().getExpiresAt());
+        assertTrue(store.isFresh(PROVIDER, CITY));
+    }
+
+    @Test
+    void capsFreshnessAtTheConfiguredMaximum() {
+        properties.getConditional().setMaxFreshness(Duration.ofMinutes(30));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("max-age=86400");
+
+        store.update(PROVIDER, CITY, headers);
+
+        assertFalse(saved().getExpiresAt().isAfter(Instant.now().plus(Duration.ofMinutes(30))));
+    }
+
+    @Test
+    void ignoresResponsesWithoutCachingHeaders() {
+        store.update(PROVIDER, CITY, new HttpHeaders());
+
+        verify(repository, never()).save(any());
+        assertFalse(store.isFresh(PROVIDER, CITY));
+        assertTrue(store.conditionalHeaders(PROVIDER, CITY).isEmpty());
+    }
+
+    @Test
+    void sendsTheValidatorsOfTheLastResponse() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"abc123\"");
+        headers.set(HttpHeaders.LAST_MODIFIED, LAST_MODIFIED);
+
+        store.update(PROVIDER, CITY, headers);
+
+        HttpHeaders conditional = store.conditionalHeaders(PROVIDER, CITY);
+        assertEquals(List.of("\"abc123\""), conditional.getIfNoneMatch());
+        assertEquals(LAST_MODIFIED, conditional.getFirst(HttpHeaders.IF_MODIFIED_SINCE));
+        assertTrue(store.conditionalHeaders(PROVIDER, "Mostar").isEmpty());
+    }
+
+    @Test
+    void notModifiedKeepsTheValidatorsAndRefreshesTheExpiry() {
+        HttpHeaders ok = new HttpHeaders();
+        ok.setETag("\"abc123\"");
+        ok.set(HttpHeaders.LAST_MODIFIED, LAST_MODIFIED);
+        store.update(PROVIDER, CITY, ok);
+        assertFalse(store.isFresh(PROVIDER, CITY));
+
+        // A 304 that only carries a new max-age
+        HttpHeaders notModified = new HttpHeaders();
+        notModified.setCacheControl("max-age=600");
+        store.update(PROVIDER, CITY, notModified);
+
+        ArgumentCaptor<ResponseMetadata> saved = ArgumentCaptor.forClass(ResponseMetadata.class);
+        verify(repository, times(2)).save(saved.capture());
+        ResponseMetadata metadata = saved.getAllValues().getLast();
+        assertEquals(1L, metadata.getId());
+        assertEquals("\"abc123\"", metadata.getEtag());
+        assertEquals(LAST_MODIFIED, metadata.getLastModified());
+        assertNotNull(metadata.getExpiresAt());
+        assertTrue(store.isFresh(PROVIDER, CITY));
+        assertEquals(List.of("\"abc123\""), store.conditionalHeaders(PROVIDER, CITY).getIfNoneMatch());
+    }
+
+    @Test
+    void reusesTheRowStoredByAnotherInstance() {
+        ResponseMetadata stored = new ResponseMetadata(PROVIDER, CITY);
+        stored.setId(42L);
+        when(repository.findByProviderNameAndCity(PROVIDER, CITY)).thenReturn(Optional.of(stored));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"abc123\"");
+
+        store.update(PROVIDER, CITY, headers);
+
+        assertEquals(42L, saved().getId());
+    }
+
+    @Test
+    void disabledConditionalRequestsNeverSkipOrValidate() {
+        properties.getConditional().setEnabled(false);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"abc123\"");
+        headers.setCacheControl("max-age=600");
+
+        store.update(PROVIDER, CITY, headers);
+
+        assertFalse(store.isFresh(PROVIDER, CITY));
+        assertTrue(store.conditionalHeaders(PROVIDER, CITY).isEmpty());
+    }
+
+    private ResponseMetadata saved() {
+        ArgumentCaptor<ResponseMetadata> saved = ArgumentCaptor.forClass(ResponseMetadata.class);
+        verify(repository).save(saved.capture());
+        return saved.getValue();
+    }
+}
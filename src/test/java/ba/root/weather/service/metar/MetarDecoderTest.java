@@ -0,0 +1,90 @@
+package ba.root.weather.service.metar;
+
+import ba.root.weather.entity.Weather;
+import ba.root.weather.service.metar.MetarObservation.CloudCover;
+import ba.root.weather.service.metar.MetarObservation.CloudLayer;
+import ba.root.weather.service.metar.MetarObservation.Descriptor;
+import ba.root.weather.service.metar.MetarObservation.Intensity;
+import ba.root.weather.service.metar.MetarObservation.Phenomenon;
+import ba.root.weather.service.metar.MetarObservation.WeatherGroup;
+import ba.root.weather.service.metar.MetarObservation.Wind;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetarDecoderTest {
+
+    @Test
+    void decodesAllGroups() {
+        MetarObservation observation = MetarDecoder.decode(
+                "LQSA 041130Z 27005KT 190V320 9999 FEW020 BKN050 19/14 Q1019 NOSIG");
+
+        assertEquals("LQSA", observation.station());
+        assertEquals(new Wind(270, 5, null), observation.wind());
+        assertEquals(10000, observation.visibilityMeters());
+        assertTrue(observation.weather().isEmpty());
+        assertEquals(List.of(new CloudLayer(CloudCover.FEW, 2000, null), new CloudLayer(CloudCover.BKN, 5000, null)),
+                observation.clouds());
+        assertEquals(19.0, observation.temperature());
+        assertEquals(14.0, observation.dewpoint());
+        assertEquals(1019.0, observation.pressureHpa());
+
+        // Broken clouds at 5000 ft
+        assertEquals(Weather.CLOUDS, observation.weatherType());
+        assertEquals(0.0, observation.estimatedPrecipitation());
+    }
+
+    @Test
+    void decodesPresentWeatherWithIntensity() {
+        MetarObservation observation = MetarDecoder.decode(
+                "LYBE 041130Z 29012G25KT 6000 -TSRA FEW030CB BKN045 22/18 Q1011 BECMG NSW");
+
+        assertEquals(new Wind(290, 12, 25), observation.wind());
+        assertEquals(List.of(new WeatherGroup(Intensity.LIGHT, false, Descriptor.TS, Set.of(Phenomenon.RA))),
+                observation.weather());
+        assertEquals("CB", observation.clouds().getFirst().cloudType());
+        assertEquals(Weather.THUNDERSTORM, observation.weatherType());
+        assertEquals(5.0, observation.estimatedPrecipitation());
+    }
+
+    @Test
+    void ignoresVicinityAndTrendWeather() {
+        MetarObservation observation = MetarDecoder.decode(
+                "LDDU 041130Z 14012KT 9999 VCSH SCT040 24/18 Q1014 TEMPO -SHRA");
+
+        assertEquals(1, observation.weather().size());
+        assertTrue(observation.weather().getFirst().vicinity());
+        assertEquals(Weather.PARTIAL_CLOUDS, observation.weatherType());
+        assertEquals(0.0, observation.estimatedPrecipitation());
+    }
+
+    @Test
+    void decodesStatuteMilesAndInchesOfMercury() {
+        MetarObservation observation = MetarDecoder.decode(
+                "METAR KJFK 041151Z AUTO 18010KT 1/2SM +SN FG VV005 M02/M04 A2992 RMK AO2");
+
+        assertEquals("KJFK", observation.station());
+        assertEquals(805, observation.visibilityMeters());
+        assertEquals(2, observation.weather().size());
+        assertEquals(List.of(new CloudLayer(CloudCover.VV, 500, null)), observation.clouds());
+        assertEquals(-2.0, observation.temperature());
+        assertEquals(-4.0, observation.dewpoint());
+        assertEquals(1013.2, observation.pressureHpa());
+        assertEquals(Weather.SNOW, observation.weatherType());
+        assertEquals(2.0, observation.estimatedPrecipitation());
+    }
+
+    @Test
+    void decodeWeatherSkipsTokensThatAreNotWeather() {
+        assertTrue(MetarDecoder.decodeWeather("NOSIG").isEmpty());
+        assertTrue(MetarDecoder.decodeWeather(null).isEmpty());
+
+        List<WeatherGroup> groups = MetarDecoder.decodeWeather("-RA BR");
+        assertEquals(2, groups.size());
+        assertEquals(Intensity.LIGHT, groups.getFirst().intensity());
+        assertEquals(Set.of(Phenomenon.BR), groups.get(1).phenomena());
+    }
+}
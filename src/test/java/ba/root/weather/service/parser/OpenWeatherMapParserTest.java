@@ -0,0 +1,129 @@
+package ba.root.weather.service.parser;
+
+import ba.root.weather.entity.ForecastData;
+import ba.root.weather.entity.HourlyForecast;
+import ba.root.weather.entity.Weather;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenWeatherMapParserTest {
+
+    private OpenWeatherMapParser parser;
+    private String sampleResponse;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        parser = new OpenWeatherMapParser(new ObjectMapper());
+
+        // Read the sample response from the docs directory
+        sampleResponse = Files.readString(Paths.get("docs/samples/responses/openweathermap_sample_response.json"));
+    }
+
+    @Test
+    void parseForecastResponse() {
+        Instant fetchTimestamp = Instant.parse("2025-08-03T16:00:00Z");
+
+        List<ForecastData> forecasts = sortedByDate(parser.parseForecastResponse("Sarajevo", sampleResponse,
+                fetchTimestamp));
+
+        // 3-hour entries from the evening of August 3rd to the afternoon of August 5th, grouped by UTC day
+        assertEquals(List.of(LocalDate.parse("2025-08-03"), LocalDate.parse("2025-08-04"),
+                LocalDate.parse("2025-08-05")), forecasts.stream().map(ForecastData::getTargetDate).toList());
+        for (ForecastData forecast : forecasts) {
+            assertEquals("OpenWeatherMap", forecast.getProviderName());
+            assertEquals("Sarajevo", forecast.getCity());
+            assertEquals(fetchTimestamp, forecast.getFetchTimestamp());
+        }
+
+        // Lowest temp_min and highest temp_max of the day, most frequent weather
+        ForecastData rainyDay = forecasts.get(1);
+        assertEquals(284.23, rainyDay.getPredictedMinTemp());
+        assertEquals(293.15, rainyDay.getPredictedMaxTemp());
+        assertEquals(Weather.RAIN, rainyDay.getPredictedWeather());
+
+        ForecastData cloudyDay = forecasts.get(2);
+        assertEquals(287.14, cloudyDay.getPredictedMinTemp());
+        assertEquals(296.58, cloudyDay.getPredictedMaxTemp());
+        assertEquals(Weather.CLOUDS, cloudyDay.getPredictedWeather());
+    }
+
+    @Test
+    void parseForecastResponseCollectsThreeHourForecasts() {
+        Instant fetchTimestamp = Instant.parse("2025-08-03T16:00:00Z");
+        List<HourlyForecast> hourlyForecasts = new ArrayList<>();
+
+        List<ForecastData> forecasts = parser.parseForecastResponse("Sarajevo",
+                new ByteArrayInputStream(sampleResponse.getBytes(StandardCharsets.UTF_8)), fetchTimestamp,
+                hourlyForecasts);
+
+        // The daily rollup is the same as without collecting the points
+        assertEquals(sortedByDate(parser.parseForecastResponse("Sarajevo", sampleResponse, fetchTimestamp)).stream()
+                        .map(ForecastData::toString).toList(),
+                sortedByDate(forecasts).stream().map(ForecastData::toString).toList());
+
+        assertEquals(16, hourlyForecasts.size());
+        HourlyForecast first = hourlyForecasts.getFirst();
+        assertEquals(Instant.parse("2025-08-03T18:00:00Z"), first.validTime());
+        assertEquals(291.88, first.temperature());
+        assertEquals(2.18, first.precipitation());
+        assertEquals(Weather.RAIN, first.weather());
+
+        // Nothing falls without a rain or snow block
+        HourlyForecast last = hourlyForecasts.getLast();
+        assertEquals(Instant.parse("2025-08-05T15:00:00Z"), last.validTime());
+        assertEquals(0.0, last.precipitation());
+        assertEquals(Weather.CLOUDS, last.weather());
+    }
+
+    @Test
+    void tiedDayTakesTheFirstWeatherInEnumOrder() {
+        // Two clear and two rainy entries on the same day, clear ones first
+        String response = """
+                {
+                  "list": [
+                    { "dt": 1754265600, "main": { "temp_min": 15.0, "temp_max": 16.0 }, "weather": [{ "id": 800, "main": "Clear" }] },
+                    { "dt": 1754276400, "main": { "temp_min": 17.0, "temp_max": 18.0 }, "weather": [{ "id": 800, "main": "Clear" }] },
+                    { "dt": 1754287200, "main": { "temp_min": 19.0, "temp_max": 22.0 }, "weather": [{ "id": 500, "main": "Rain" }] },
+                    { "dt": 1754298000, "main": { "temp_min": 18.0, "temp_max": 20.0 }, "weather": [{ "id": 500, "main": "Rain" }] }
+                  ]
+                }""";
+
+        List<ForecastData> forecasts = parser.parseForecastResponse("Sarajevo", response, Instant.now());
+
+        assertEquals(1, forecasts.size());
+        ForecastData forecast = forecasts.getFirst();
+        assertEquals(LocalDate.parse("2025-08-04"), forecast.getTargetDate());
+        assertEquals(15.0, forecast.getPredictedMinTemp());
+        assertEquals(22.0, forecast.getPredictedMaxTemp());
+        // RAIN comes before CLEAR in Weather, whatever order the entries arrive in
+        assertEquals(Weather.RAIN, forecast.getPredictedWeather());
+    }
+
+    @Test
+    void responseWithoutListGivesNoForecasts() {
+        assertTrue(parser.parseForecastResponse("Sarajevo", "{\"cod\": \"401\"}", Instant.now()).isEmpty());
+    }
+
+    @Test
+    void getProviderName() {
+        assertEquals("OpenWeatherMap", parser.getProviderName());
+    }
+
+    private static List<ForecastData> sortedByDate(List<ForecastData> forecasts) {
+        return forecasts.stream().sorted(Comparator.comparing(ForecastData::getTargetDate)).toList();
+    }
+}
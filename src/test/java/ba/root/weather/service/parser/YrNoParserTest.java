@@ -1,14 +1,22 @@
 package ba.root.weather.service.parser;
 
 import ba.root.weather.entity.ForecastData;
+import ba.root.weather.entity.HourlyForecast;
+import ba.root.weather.entity.Weather;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -58,6 +66,77 @@ class YrNoParserTest {
         }
     }
 
+    @Test
+    void parseForecastResponseFromStream() {
+        Instant fetchTimestamp = Instant.now();
+
+        List<ForecastData> fromString = parser.parseForecastResponse("Oslo", sampleResponse, fetchTimestamp);
+        List<ForecastData> fromStream = parser.parseForecastResponse("Oslo",
+                new ByteArrayInputStream(sampleResponse.getBytes(StandardCharsets.UTF_8)), fetchTimestamp);
+
+        // ForecastData equality is by id, which is not set yet, so compare the field values
+        assertEquals(fromString.stream().map(ForecastData::toString).toList(),
+                fromStream.stream().map(ForecastData::toString).toList());
+    }
+
+    @Test
+    void parseForecastResponseCollectsHourlyForecasts() {
+        Instant fetchTimestamp = Instant.now();
+        List<HourlyForecast> hourlyForecasts = new ArrayList<>();
+
+        List<ForecastData> forecasts = parser.parseForecastResponse("Oslo",
+                new ByteArrayInputStream(sampleResponse.getBytes(StandardCharsets.UTF_8)), fetchTimestamp,
+                hourlyForecasts);
+
+        // The daily rollup is the same as without collecting hourly points
+        assertEquals(parser.parseForecastResponse("Oslo", sampleResponse, fetchTimestamp).stream()
+                        .map(ForecastData::toString).toList(),
+                forecasts.stream().map(ForecastData::toString).toList());
+
+        // One point per timeseries entry, in response order
+        assertEquals(87, hourlyForecasts.size());
+        HourlyForecast first = hourlyForecasts.getFirst();
+        assertEquals("YR.NO", first.providerName());
+        assertEquals("Oslo", first.city());
+        assertEquals(fetchTimestamp, first.fetchTimestamp());
+        assertEquals(Instant.parse("2025-07-31T16:00:00Z"), first.validTime());
+        assertEquals(18.3, first.temperature());
+        assertEquals(0.0, first.precipitation());
+        assertEquals(Weather.CLOUDS, first.weather());
+
+        // The last entry has no next_1_hours or next_6_hours block
+        HourlyForecast last = hourlyForecasts.getLast();
+        assertEquals(Instant.parse("2025-08-10T12:00:00Z"), last.validTime());
+        assertNotNull(last.temperature());
+        assertNull(last.precipitation());
+        assertNull(last.weather());
+    }
+
+    @Test
+    void malformedResponseFromStreamGivesNoForecasts() {
+        List<ForecastData> forecasts = parser.parseForecastResponse("Oslo",
+                new ByteArrayInputStream("{\"properties\": {\"timeseries\": [".getBytes(StandardCharsets.UTF_8)),
+                Instant.now(), new ArrayList<>());
+
+        assertTrue(forecasts.isEmpty());
+    }
+
+    @Test
+    void readErrorMidBodyIsRethrown() {
+        byte[] body = sampleResponse.getBytes(StandardCharsets.UTF_8);
+        InputStream brokenConnection = new SequenceInputStream(new ByteArrayInputStream(body, 0, body.length / 2),
+                new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("Connection reset");
+                    }
+                });
+
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () ->
+                parser.parseForecastResponse("Oslo", brokenConnection, Instant.now(), new ArrayList<>()));
+        assertEquals("Connection reset", e.getCause().getMessage());
+    }
+
     @Test
     void getProviderName() {
         assertEquals("YR.NO", parser.getProviderName());
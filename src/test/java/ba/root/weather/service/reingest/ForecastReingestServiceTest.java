@@ -0,0 +1,88 @@
+package ba.root.weather.service.reingest;
+
+import ba.root.weather.config.ReingestProperties;
+import ba.root.weather.entity.ForecastData;
+import ba.root.weather.entity.HourlyForecast;
+import ba.root.weather.repository.BulkInsertRepository;
+import ba.root.weather.service.parser.WeatherDataParserFactory;
+import ba.root.weather.service.parser.YrNoParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ForecastReingestServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<ForecastData> inserted = new ArrayList<>();
+    private final List<HourlyForecast> insertedHourly = new ArrayList<>();
+    private ForecastReingestService reingestService;
+
+    @BeforeEach
+    void setUp() {
+        BulkInsertRepository bulkInsertRepository = mock(BulkInsertRepository.class);
+        when(bulkInsertRepository.insertForecasts(anyList(), anyInt())).thenAnswer(invocation -> {
+            List<ForecastData> batch = invocation.getArgument(0);
+            inserted.addAll(batch);
+            return batch.size();
+        });
+        when(bulkInsertRepository.insertHourlyForecasts(anyList(), anyInt())).thenAnswer(invocation -> {
+            List<HourlyForecast> batch = invocation.getArgument(0);
+            insertedHourly.addAll(batch);
+            return batch.size();
+        });
+
+        ReingestProperties properties = new ReingestProperties();
+        properties.setParallelism(2);
+        properties.setBatchSize(5);
+        WeatherDataParserFactory parserFactory = new WeatherDataParserFactory(List.of(new YrNoParser(new ObjectMapper())));
+        reingestService = new ForecastReingestService(parserFactory, bulkInsertRepository, properties);
+    }
+
+    @Test
+    void reingestsPlainAndCompressedPayloads() throws IOException {
+        byte[] sample = Files.readAllBytes(Path.of("docs/samples/responses/yr_no_sample_response.json"));
+        Path day = Files.createDirectories(tempDir.resolve("2025/08/01"));
+        Files.write(day.resolve("yr_no_Sarajevo_20250801T100000Z_response.json"), sample);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(day.resolve("yr_no_Mostar_1754049600000_response.json.gz")))) {
+            out.write(sample);
+        }
+        Files.writeString(day.resolve("unknown_Sarajevo_response.json"), "{}");
+        Files.writeString(day.resolve("notes.txt"), "not a payload");
+
+        ForecastReingestService.Report report = reingestService.reingest(tempDir);
+
+        assertEquals(3, report.files());
+        assertEquals(2, report.parsed());
+        assertEquals(1, report.skipped());
+        assertEquals(0, report.failed());
+        assertEquals(inserted.size(), report.rows());
+        assertTrue(inserted.stream().anyMatch(f -> f.getCity().equals("Sarajevo")
+                && f.getFetchTimestamp().equals(Instant.parse("2025-08-01T10:00:00Z"))));
+        assertTrue(inserted.stream().anyMatch(f -> f.getCity().equals("Mostar")
+                && f.getFetchTimestamp().equals(Instant.ofEpochMilli(1754049600000L))));
+        assertTrue(inserted.stream().allMatch(f -> f.getProviderName().equals("YR.NO")));
+
+        // Every timeseries entry of both payloads is re-ingested as an hourly point too
+        assertEquals(2 * 87, insertedHourly.size());
+        assertEquals(insertedHourly.size(), report.hourlyRows());
+        assertTrue(insertedHourly.stream().anyMatch(h -> h.city().equals("Mostar")
+                && h.fetchTimestamp().equals(Instant.ofEpochMilli(1754049600000L))));
+    }
+}